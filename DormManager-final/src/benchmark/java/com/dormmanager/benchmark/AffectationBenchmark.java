@@ -0,0 +1,121 @@
+package com.dormmanager.benchmark;
+
+import com.dormmanager.dto.AffectationRequestDto;
+import com.dormmanager.entity.Affectation;
+import com.dormmanager.entity.Chambre;
+import com.dormmanager.scheduler.AffectationScheduler;
+import com.dormmanager.services.GestionnaireService;
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManagerFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Affectations : validation d'une demande par un gestionnaire, et passage du scheduler de
+ * minuit sur les affectations expirées. Les données modifiées par un appel sont remises
+ * en l'état avant l'appel suivant (hors mesure).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class AffectationBenchmark {
+
+    /**
+     * Une demande en attente et une chambre disponible par appel, remises en l'état avant
+     * d'être réutilisées. L'affectation et les notifications insérées par l'appel précédent
+     * sont supprimées : les tables gardent le volume du jeu de données tout au long de l'essai.
+     */
+    @State(Scope.Thread)
+    public static class Demandes {
+        private GestionnaireService gestionnaireService;
+        private JdbcTemplate jdbc;
+        private Cache cache;
+        private List<Long> demandes;
+        private List<Long> chambres;
+        private int suivant;
+        private AffectationRequestDto requete;
+        // Plus grands identifiants du jeu de données : au-delà, lignes insérées par les appels
+        private long derniereAffectation;
+        private long derniereNotification;
+
+        @Setup(Level.Trial)
+        public void preparer(ContexteBenchmark contexte) {
+            gestionnaireService = contexte.bean(GestionnaireService.class);
+            jdbc = contexte.jdbc();
+            cache = contexte.bean(EntityManagerFactory.class).getCache();
+            demandes = contexte.jeu().demandesEnAttente();
+            chambres = contexte.jeu().chambresDisponibles();
+            derniereAffectation = plusGrandId("affectation");
+            derniereNotification = plusGrandId("notification");
+        }
+
+        @Setup(Level.Invocation)
+        public void rearmer() {
+            Long demande = demandes.get(suivant % demandes.size());
+            Long chambre = chambres.get(suivant % chambres.size());
+            suivant++;
+            jdbc.update("DELETE FROM notification WHERE id > ?", derniereNotification);
+            jdbc.update("DELETE FROM affectation WHERE id > ?", derniereAffectation);
+            jdbc.update("UPDATE demande_hebergement SET statut = 'EN_ATTENTE' WHERE id = ?", demande);
+            jdbc.update("UPDATE chambre SET etat = 'disponible' WHERE id = ?", chambre);
+            // La chambre est dans le cache de second niveau, que la mise à jour JDBC ne touche pas
+            cache.evict(Chambre.class, chambre);
+            requete = new AffectationRequestDto();
+            requete.setDemandeId(demande);
+            requete.setChambreId(chambre);
+            requete.setDateFin(LocalDate.now().plusMonths(10));
+        }
+
+        private long plusGrandId(String table) {
+            Long max = jdbc.queryForObject("SELECT MAX(id) FROM " + table, Long.class);
+            return max != null ? max : 0;
+        }
+    }
+
+    /**
+     * Affectations tout juste expirées : notification à envoyer, chambre à libérer.
+     */
+    @State(Scope.Thread)
+    public static class Expirations {
+        private AffectationScheduler scheduler;
+        private NamedParameterJdbcTemplate jdbc;
+        private Map<String, List<Long>> ids;
+
+        @Setup(Level.Trial)
+        public void preparer(ContexteBenchmark contexte) {
+            scheduler = contexte.bean(AffectationScheduler.class);
+            jdbc = new NamedParameterJdbcTemplate(contexte.jdbc());
+            ids = Map.of("affectations", contexte.jeu().affectationsExpirees(),
+                    "chambres", contexte.jeu().chambresExpirees());
+        }
+
+        @Setup(Level.Invocation)
+        public void rearmer() {
+            jdbc.getJdbcTemplate().update("DELETE FROM tache_maintenance");
+            jdbc.update("UPDATE affectation SET notification_envoye = FALSE WHERE id IN (:affectations)", ids);
+            jdbc.update("UPDATE chambre SET etat = 'occupee' WHERE id IN (:chambres)", ids);
+        }
+    }
+
+    @Benchmark
+    public Affectation affecterEtValiderDemande(Demandes etat) {
+        return etat.gestionnaireService.affecterEtValiderDemande(etat.requete);
+    }
+
+    @Benchmark
+    public void freeExpiredAffectations(Expirations etat) {
+        etat.scheduler.freeExpiredAffectations();
+    }
+}
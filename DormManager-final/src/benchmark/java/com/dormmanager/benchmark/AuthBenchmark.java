@@ -0,0 +1,61 @@
+package com.dormmanager.benchmark;
+
+import com.dormmanager.controller.AuthController;
+import com.dormmanager.entity.Utilisateur;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Résolution du jeton de session, faite au début de presque chaque requête authentifiée.
+ * Les jetons tournent sur un millier d'étudiants connectés.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class AuthBenchmark {
+
+    private static final int SESSIONS = 1000;
+
+    private AuthController authController;
+    private String[] jetons;
+    private int suivant;
+
+    @Setup(Level.Trial)
+    public void preparer(ContexteBenchmark contexte) {
+        authController = contexte.bean(AuthController.class);
+        List<Long> etudiants = contexte.jeu().etudiants();
+        Random aleatoire = new Random(7);
+        jetons = new String[SESSIONS];
+        for (int i = 0; i < SESSIONS; i++) {
+            jetons[i] = UUID.randomUUID().toString();
+            AuthController.ouvrirSession(jetons[i], new AuthController.Session(
+                    etudiants.get(aleatoire.nextInt(etudiants.size())), Utilisateur.Role.ETUDIANT));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void nettoyer() {
+        for (String jeton : jetons) {
+            AuthController.fermerSession(jeton);
+        }
+    }
+
+    @Benchmark
+    public Utilisateur getLoggedUser() {
+        String jeton = jetons[suivant];
+        suivant = (suivant + 1) % jetons.length;
+        return authController.getLoggedUser(jeton);
+    }
+}
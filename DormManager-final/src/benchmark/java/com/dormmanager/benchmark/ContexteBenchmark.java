@@ -0,0 +1,90 @@
+package com.dormmanager.benchmark;
+
+import com.dormmanager.DormManagerApplication;
+import com.dormmanager.tools.SyntheticDataGenerator;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Application démarrée une fois par essai (profil "benchmark") sur une base H2 en mémoire
+ * en mode MySQL, propre à l'essai, peuplée par le SyntheticDataGenerator (graine fixe :
+ * deux essais de même taille travaillent sur les mêmes données).
+ *
+ * Tailles : -p etudiants=...,... -p chambres=... sur la ligne de commande JMH ; les autres
+ * volumes en sont proportionnels (SyntheticDataGenerator.Volumes.pour).
+ */
+@State(Scope.Benchmark)
+public class ContexteBenchmark {
+
+    // Affectations expirées sur des chambres encore occupées, pas encore notifiées
+    private static final String EXPIREES = "SELECT %s FROM affectation a JOIN chambre c ON c.id = a.chambre_id "
+            + "WHERE c.etat = 'occupee' AND a.date_fin < CURRENT_DATE AND a.notification_envoye = FALSE ORDER BY a.id";
+
+    @Param({"1000", "10000"})
+    public int etudiants;
+
+    @Param({"1000"})
+    public int chambres;
+
+    private ConfigurableApplicationContext contexte;
+    private JdbcTemplate jdbc;
+    private Jeu jeu;
+
+    /**
+     * Identifiants utiles aux benchmarks qui modifient les données.
+     */
+    record Jeu(List<Long> etudiants,
+               List<Long> demandesEnAttente,
+               List<Long> chambresDisponibles,
+               List<Long> affectationsExpirees,
+               List<Long> chambresExpirees) {
+    }
+
+    @Setup(Level.Trial)
+    public void demarrer() {
+        SpringApplication application = new SpringApplication(DormManagerApplication.class);
+        application.setAdditionalProfiles("benchmark");
+        contexte = application.run("--spring.datasource.url=jdbc:h2:mem:benchmark-" + System.nanoTime()
+                + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;DB_CLOSE_DELAY=-1");
+        jdbc = contexte.getBean(JdbcTemplate.class);
+        new SyntheticDataGenerator(jdbc, SyntheticDataGenerator.Volumes.pour(etudiants, chambres), 42).generer();
+        jeu = new Jeu(
+                jdbc.queryForList("SELECT id FROM utilisateur WHERE role = 'ETUDIANT' ORDER BY id", Long.class),
+                jdbc.queryForList("SELECT id FROM demande_hebergement WHERE statut = 'EN_ATTENTE' "
+                        + "ORDER BY id LIMIT 1000", Long.class),
+                jdbc.queryForList("SELECT id FROM chambre WHERE etat = 'disponible' ORDER BY id LIMIT 1000", Long.class),
+                jdbc.queryForList(EXPIREES.formatted("a.id"), Long.class),
+                jdbc.queryForList(EXPIREES.formatted("a.chambre_id"), Long.class));
+        // Les index en mémoire (recherche, répartition, santé des chambres) ont été construits
+        // au démarrage sur une base vide : on les reconstruit sur les données insérées
+        contexte.publishEvent(new ApplicationReadyEvent(application, new String[0], contexte, Duration.ZERO));
+    }
+
+    @TearDown(Level.Trial)
+    public void arreter() {
+        contexte.close();
+    }
+
+    <T> T bean(Class<T> type) {
+        return contexte.getBean(type);
+    }
+
+    JdbcTemplate jdbc() {
+        return jdbc;
+    }
+
+    Jeu jeu() {
+        return jeu;
+    }
+}
@@ -0,0 +1,35 @@
+package com.dormmanager.benchmark;
+
+import com.dormmanager.dto.DashboardStatsDto;
+import com.dormmanager.services.AdminService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tableau de bord de l'administrateur (une dizaine de comptages).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class DashboardBenchmark {
+
+    private AdminService adminService;
+
+    @Setup(Level.Trial)
+    public void preparer(ContexteBenchmark contexte) {
+        adminService = contexte.bean(AdminService.class);
+    }
+
+    @Benchmark
+    public DashboardStatsDto getDashboardStats() {
+        return adminService.getDashboardStats();
+    }
+}
@@ -0,0 +1,45 @@
+package com.dormmanager.benchmark;
+
+import com.dormmanager.services.NotificationService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Diffusion d'une notification à tous les gestionnaires (une par gestionnaire, appelée à
+ * chaque nouvelle demande). Les notifications créées sont supprimées entre deux itérations
+ * pour que la table garde sa taille.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class NotificationBenchmark {
+
+    private NotificationService notificationService;
+    private JdbcTemplate jdbc;
+
+    @Setup(Level.Trial)
+    public void preparer(ContexteBenchmark contexte) {
+        notificationService = contexte.bean(NotificationService.class);
+        jdbc = contexte.jdbc();
+    }
+
+    @Setup(Level.Iteration)
+    public void viderNotificationsGestionnaires() {
+        jdbc.update("DELETE FROM notification WHERE destinataire_id IN "
+                + "(SELECT id FROM utilisateur WHERE role = 'GESTIONNAIRE')");
+    }
+
+    @Benchmark
+    public void notifyAllGestionnaires() {
+        notificationService.notifyAllGestionnaires("info", "Nouvelle demande", "Une nouvelle demande est arrivée");
+    }
+}
@@ -0,0 +1,67 @@
+package com.dormmanager.benchmark;
+
+import com.dormmanager.dto.EtudiantSuggestionDto;
+import com.dormmanager.search.EtudiantSearchIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Typeahead des gestionnaires. Seuil : moins de 5 ms (5000 us/op) par requête à 100 000
+ * étudiants (-p etudiants=100000), pour chacun des deux benchmarks ; EtudiantSearchIndexTest
+ * vérifie la médiane sur un index de même taille. Les saisies sont tirées des étudiants
+ * générés : un début de nom, et des matricules ou emails avec une faute de frappe, qui
+ * passent par la recherche des mots proches.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class RechercheEtudiantBenchmark {
+
+    private static final int SAISIES = 1000;
+    private static final int LIMITE = 10;
+
+    private EtudiantSearchIndex index;
+    private String[] prefixes;
+    private String[] fautes;
+    private int suivant;
+
+    @Setup(Level.Trial)
+    public void preparer(ContexteBenchmark contexte) {
+        index = contexte.bean(EtudiantSearchIndex.class);
+        List<Long> etudiants = contexte.jeu().etudiants();
+        List<String> noms = contexte.jdbc().queryForList(
+                "SELECT nom FROM utilisateur WHERE role = 'ETUDIANT' ORDER BY id", String.class);
+        Random aleatoire = new Random(7);
+        prefixes = new String[SAISIES];
+        fautes = new String[SAISIES];
+        for (int i = 0; i < SAISIES; i++) {
+            String nom = noms.get(aleatoire.nextInt(noms.size()));
+            prefixes[i] = nom.substring(0, Math.min(4, nom.length()));
+            long id = etudiants.get(aleatoire.nextInt(etudiants.size()));
+            // "SYN123" saisi "sin123", "etudiant123" saisi "etudaint123"
+            fautes[i] = i % 2 == 0 ? "sin" + id : "etudaint" + id;
+        }
+    }
+
+    @Benchmark
+    public List<EtudiantSuggestionDto> rechercherPrefixe() {
+        suivant = (suivant + 1) % SAISIES;
+        return index.rechercher(prefixes[suivant], LIMITE);
+    }
+
+    @Benchmark
+    public List<EtudiantSuggestionDto> rechercherAvecFaute() {
+        suivant = (suivant + 1) % SAISIES;
+        return index.rechercher(fautes[suivant], LIMITE);
+    }
+}
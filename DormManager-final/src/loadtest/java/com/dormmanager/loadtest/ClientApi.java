@@ -0,0 +1,111 @@
+package com.dormmanager.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Function;
+
+/**
+ * Client HTTP asynchrone : chaque appel est chronométré et classé (succès, refus métier,
+ * erreur) dans les mesures de son endpoint. Les appels ne bloquent pas le planificateur
+ * d'arrivées, si bien qu'une application lente ne ralentit pas le débit injecté.
+ */
+final class ClientApi {
+
+    private static final Duration DELAI = Duration.ofSeconds(30);
+    private static final ObjectMapper JSON = new ObjectMapper().findAndRegisterModules();
+
+    /**
+     * Réponse HTTP dont le corps JSON est lu à la demande (null si vide ou illisible).
+     */
+    record Reponse(int statut, String corps) {
+        boolean succes() {
+            return statut >= 200 && statut < 300;
+        }
+
+        JsonNode json() {
+            try {
+                return corps == null || corps.isBlank() ? null : JSON.readTree(corps);
+            } catch (Exception e) {
+                return null;
+            }
+        }
+    }
+
+    private final URI base;
+    private final HttpClient http;
+    private final Mesures mesures;
+
+    ClientApi(URI base, ExecutorService executor, Mesures mesures) {
+        this.base = base;
+        this.mesures = mesures;
+        this.http = HttpClient.newBuilder()
+                .executor(executor)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+    }
+
+    CompletableFuture<Reponse> get(String endpoint, String chemin, String token) {
+        return envoyer(endpoint, requete(chemin, token).GET().build(), ClientApi::issueParDefaut);
+    }
+
+    CompletableFuture<Reponse> post(String endpoint, String chemin, String token, Object corps) {
+        return post(endpoint, chemin, token, corps, ClientApi::issueParDefaut);
+    }
+
+    /**
+     * POST dont les refus métier sont reconnus par le classement donné (par défaut, tout
+     * statut hors 2xx est une erreur).
+     */
+    CompletableFuture<Reponse> post(String endpoint, String chemin, String token, Object corps,
+                                    Function<Reponse, Mesures.Issue> classement) {
+        HttpRequest requete = requete(chemin, token)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(ecrire(corps)))
+                .build();
+        return envoyer(endpoint, requete, classement);
+    }
+
+    private HttpRequest.Builder requete(String chemin, String token) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(base.resolve(chemin)).timeout(DELAI);
+        if (token != null) {
+            builder.header("Authorization", "Bearer " + token);
+        }
+        return builder;
+    }
+
+    private CompletableFuture<Reponse> envoyer(String endpoint, HttpRequest requete,
+                                               Function<Reponse, Mesures.Issue> classement) {
+        long debut = System.nanoTime();
+        return http.sendAsync(requete, HttpResponse.BodyHandlers.ofString())
+                .handle((reponse, erreur) -> {
+                    long duree = System.nanoTime() - debut;
+                    if (erreur != null) {
+                        mesures.enregistrer(endpoint, duree, Mesures.Issue.ERREUR);
+                        return new Reponse(-1, null);
+                    }
+                    Reponse r = new Reponse(reponse.statusCode(), reponse.body());
+                    mesures.enregistrer(endpoint, duree, classement.apply(r));
+                    return r;
+                });
+    }
+
+    private static Mesures.Issue issueParDefaut(Reponse reponse) {
+        return reponse.succes() ? Mesures.Issue.SUCCES : Mesures.Issue.ERREUR;
+    }
+
+    private static String ecrire(Object corps) {
+        try {
+            return JSON.writeValueAsString(corps);
+        } catch (Exception e) {
+            throw new IllegalArgumentException("Corps de requête non sérialisable", e);
+        }
+    }
+}
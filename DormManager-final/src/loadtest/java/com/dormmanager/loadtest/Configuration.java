@@ -0,0 +1,83 @@
+package com.dormmanager.loadtest;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Paramètres du test de charge, passés sous la forme --cle=valeur :
+ *
+ *  --url=http://localhost:8080   application à tester (déjà démarrée)
+ *  --duree=60                    durée mesurée, en secondes
+ *  --echauffement=10             durée non mesurée avant la mesure, en secondes
+ *  --debit=20                    parcours lancés par seconde, tous scénarios confondus
+ *  --part.&lt;scenario&gt;=0.25         part d'un scénario dans le débit (voir Scenario)
+ *  --rafale=5                    affectations par rafale du gestionnaire
+ *  --comptes=jmeter/login-data.csv  comptes (email,mot de passe) ; le rôle vient du login
+ *  --sortie=target/loadtest      histogrammes HdrHistogram (.hgrm) par endpoint
+ *  --p99=500                     seuil p99 par défaut, en millisecondes
+ *  --p99.GET_admin_stats=800     seuil p99 d'un endpoint (nom du fichier .hgrm)
+ *  --erreurs-max=0.01            taux d'erreurs maximal par endpoint
+ */
+final class Configuration {
+
+    final URI url;
+    final Duration duree;
+    final Duration echauffement;
+    final double debit;
+    final Map<Scenario, Double> parts = new LinkedHashMap<>();
+    final int rafale;
+    final Path comptes;
+    final Path sortie;
+    final long p99DefautMs;
+    final Map<String, Long> p99Ms = new HashMap<>();
+    final double erreursMax;
+
+    private Configuration(Map<String, String> valeurs) {
+        url = URI.create(valeurs.getOrDefault("url", "http://localhost:8080"));
+        duree = Duration.ofSeconds(Long.parseLong(valeurs.getOrDefault("duree", "60")));
+        echauffement = Duration.ofSeconds(Long.parseLong(valeurs.getOrDefault("echauffement", "10")));
+        debit = Double.parseDouble(valeurs.getOrDefault("debit", "20"));
+        for (Scenario scenario : Scenario.values()) {
+            String part = valeurs.get("part." + scenario.cle);
+            parts.put(scenario, part != null ? Double.parseDouble(part) : scenario.partParDefaut);
+        }
+        rafale = Integer.parseInt(valeurs.getOrDefault("rafale", "5"));
+        comptes = Path.of(valeurs.getOrDefault("comptes", "jmeter/login-data.csv"));
+        sortie = Path.of(valeurs.getOrDefault("sortie", "target/loadtest"));
+        p99DefautMs = Long.parseLong(valeurs.getOrDefault("p99", "500"));
+        erreursMax = Double.parseDouble(valeurs.getOrDefault("erreurs-max", "0.01"));
+        valeurs.forEach((cle, valeur) -> {
+            if (cle.startsWith("p99.")) {
+                p99Ms.put(cle.substring(4), Long.parseLong(valeur));
+            }
+        });
+    }
+
+    static Configuration lire(String[] args) {
+        Map<String, String> valeurs = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Argument attendu sous la forme --cle=valeur : " + arg);
+            }
+            int egal = arg.indexOf('=');
+            valeurs.put(arg.substring(2, egal), arg.substring(egal + 1));
+        }
+        return new Configuration(valeurs);
+    }
+
+    /**
+     * Débit d'arrivée d'un scénario (parcours par seconde), parts normalisées.
+     */
+    double debit(Scenario scenario) {
+        double total = parts.values().stream().mapToDouble(Double::doubleValue).sum();
+        return total > 0 ? debit * parts.get(scenario) / total : 0;
+    }
+
+    long p99Ms(String endpoint) {
+        return p99Ms.getOrDefault(endpoint, p99DefautMs);
+    }
+}
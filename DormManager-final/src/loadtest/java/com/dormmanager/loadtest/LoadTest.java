@@ -0,0 +1,142 @@
+package com.dormmanager.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Test de charge en modèle ouvert contre une application déjà démarrée.
+ *
+ * Chaque scénario reçoit des parcours selon un processus de Poisson (intervalles
+ * exponentiels) à son débit, que l'application suive ou non : un ralentissement se voit
+ * dans les latences au lieu de réduire la charge, comme avec de vrais utilisateurs.
+ * À la fin, le rapport par endpoint est affiché, les histogrammes sont écrits et le
+ * processus sort en erreur si un p99 ou un taux d'erreurs dépasse son seuil.
+ *
+ *   mvn -Ploadtest verify -Dloadtest.args="--url=http://localhost:8080 --debit=50 --p99=300"
+ */
+public final class LoadTest {
+
+    public static void main(String[] args) throws Exception {
+        Configuration configuration = Configuration.lire(args);
+        Mesures mesures = new Mesures();
+        ExecutorService executor = Executors.newCachedThreadPool(r -> {
+            Thread t = new Thread(r, "loadtest-http");
+            t.setDaemon(true);
+            return t;
+        });
+        ScheduledExecutorService arrivees = Executors.newSingleThreadScheduledExecutor();
+        ClientApi client = new ClientApi(configuration.url, executor, mesures);
+
+        List<Session> sessions = connecter(client, configuration);
+        Parcours parcours = new Parcours(client, sessions, configuration.rafale);
+        System.out.printf("%d comptes connectés sur %s%n", sessions.size(), configuration.url);
+
+        long debut = System.nanoTime();
+        long debutMesure = debut + configuration.echauffement.toNanos();
+        long fin = debutMesure + configuration.duree.toNanos();
+        Map<CompletableFuture<?>, Boolean> enCours = new ConcurrentHashMap<>();
+        for (Scenario scenario : Scenario.values()) {
+            double debit = configuration.debit(scenario);
+            if (debit <= 0) {
+                continue;
+            }
+            if (!parcours.jouable(scenario)) {
+                System.out.printf("Scénario %s écarté : aucun compte du rôle attendu%n", scenario.cle);
+                continue;
+            }
+            planifier(arrivees, scenario, debit, fin, parcours, enCours);
+        }
+        arrivees.schedule(mesures::activer, debutMesure - debut, TimeUnit.NANOSECONDS);
+
+        TimeUnit.NANOSECONDS.sleep(fin - debut);
+        arrivees.shutdownNow();
+        attendre(enCours);
+
+        System.out.println();
+        mesures.rapport(System.out, configuration.duree.toMillis() / 1000.0);
+        mesures.ecrireHistogrammes(configuration.sortie);
+        System.out.printf("%nHistogrammes écrits dans %s%n", configuration.sortie.toAbsolutePath());
+
+        List<String> echecs = mesures.verifier(configuration);
+        if (!echecs.isEmpty()) {
+            System.out.println("\nÉCHEC :");
+            echecs.forEach(e -> System.out.println("  " + e));
+            System.exit(1);
+        }
+        System.out.println("\nSUCCÈS : tous les seuils sont respectés");
+        System.exit(0);
+    }
+
+    /**
+     * Prochaine arrivée du scénario après un intervalle exponentiel de moyenne 1/débit.
+     */
+    private static void planifier(ScheduledExecutorService arrivees, Scenario scenario, double debit, long fin,
+                                  Parcours parcours, Map<CompletableFuture<?>, Boolean> enCours) {
+        double intervalle = -Math.log(1 - ThreadLocalRandom.current().nextDouble()) / debit;
+        long delai = (long) (intervalle * TimeUnit.SECONDS.toNanos(1));
+        if (System.nanoTime() + delai >= fin || arrivees.isShutdown()) {
+            return;
+        }
+        arrivees.schedule(() -> {
+            planifier(arrivees, scenario, debit, fin, parcours, enCours);
+            CompletableFuture<?> parcoursLance = parcours.lancer(scenario);
+            enCours.put(parcoursLance, Boolean.TRUE);
+            parcoursLance.whenComplete((r, e) -> enCours.remove(parcoursLance));
+        }, delai, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Connexion de tous les comptes du fichier (colonnes email,password, en-tête facultatif).
+     * Les comptes refusés sont ignorés ; il en faut au moins un.
+     */
+    private static List<Session> connecter(ClientApi client, Configuration configuration) throws IOException {
+        List<CompletableFuture<ClientApi.Reponse>> connexions = new ArrayList<>();
+        for (String ligne : Files.readAllLines(configuration.comptes)) {
+            String[] colonnes = ligne.split(",", -1);
+            if (colonnes.length < 2 || ligne.isBlank() || colonnes[0].trim().equalsIgnoreCase("email")) {
+                continue;
+            }
+            connexions.add(client.post("POST auth/login", "/api/auth/login", null,
+                    Map.of("email", colonnes[0].trim(), "motDePasse", colonnes[1].trim())));
+        }
+        List<Session> sessions = new ArrayList<>();
+        for (CompletableFuture<ClientApi.Reponse> connexion : connexions) {
+            ClientApi.Reponse reponse = connexion.join();
+            JsonNode json = reponse.succes() ? reponse.json() : null;
+            if (json != null && json.hasNonNull("token")) {
+                sessions.add(new Session(json.path("id").asLong(), json.path("token").asText(), json.path("role").asText()));
+            }
+        }
+        if (sessions.isEmpty()) {
+            throw new IllegalStateException("Aucun compte n'a pu se connecter à " + configuration.url
+                    + " (comptes lus dans " + configuration.comptes + ")");
+        }
+        return sessions;
+    }
+
+    private static void attendre(Map<CompletableFuture<?>, Boolean> enCours) {
+        try {
+            CompletableFuture.allOf(enCours.keySet().toArray(CompletableFuture[]::new)).get(30, TimeUnit.SECONDS);
+        } catch (TimeoutException e) {
+            System.out.printf("%d parcours encore en cours après 30 s, ignorés%n", enCours.size());
+        } catch (Exception e) {
+            // un parcours en échec est déjà compté dans les erreurs de ses endpoints
+        }
+    }
+
+    private LoadTest() {
+    }
+}
@@ -0,0 +1,127 @@
+package com.dormmanager.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.HistogramLogWriter;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latences par endpoint (HdrHistogram, en microsecondes) et décompte des réponses.
+ *
+ * Une réponse est soit un succès, soit un refus métier (la règle de gestion a dit non,
+ * par exemple une demande alors que l'étudiant est déjà logé), soit une erreur (5xx
+ * technique, délai dépassé, connexion refusée). Seules les erreurs comptent dans le taux
+ * d'erreurs ; toutes les réponses comptent dans les latences. Rien n'est enregistré
+ * pendant l'échauffement.
+ */
+final class Mesures {
+
+    enum Issue { SUCCES, REFUS, ERREUR }
+
+    private static final long LATENCE_MAX_US = TimeUnit.MINUTES.toMicros(5);
+
+    private final Map<String, Endpoint> endpoints = new ConcurrentHashMap<>();
+    private volatile boolean actives;
+
+    void activer() {
+        actives = true;
+    }
+
+    void enregistrer(String endpoint, long dureeNanos, Issue issue) {
+        if (!actives) {
+            return;
+        }
+        Endpoint e = endpoints.computeIfAbsent(endpoint, k -> new Endpoint());
+        e.latences.recordValue(Math.min(LATENCE_MAX_US, Math.max(1, dureeNanos / 1000)));
+        switch (issue) {
+            case SUCCES -> e.succes.increment();
+            case REFUS -> e.refus.increment();
+            case ERREUR -> e.erreurs.increment();
+        }
+    }
+
+    void rapport(PrintStream sortie, double dureeSecondes) {
+        sortie.printf("%-40s %8s %8s %8s %8s %9s %9s %9s %9s %9s%n",
+                "endpoint", "requêtes", "req/s", "refus", "erreurs", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        new TreeMap<>(endpoints).forEach((nom, e) -> {
+            Histogram h = e.latences;
+            sortie.printf("%-40s %8d %8.1f %8d %8d %9.1f %9.1f %9.1f %9.1f %9.1f%n",
+                    nom, h.getTotalCount(), h.getTotalCount() / dureeSecondes, e.refus.sum(), e.erreurs.sum(),
+                    ms(h.getValueAtPercentile(50)), ms(h.getValueAtPercentile(90)),
+                    ms(h.getValueAtPercentile(99)), ms(h.getValueAtPercentile(99.9)), ms(h.getMaxValue()));
+        });
+    }
+
+    /**
+     * Écrit un fichier .hgrm (distribution en percentiles, en ms) et un journal .hlog
+     * (histogramme brut, rechargeable par les outils HdrHistogram) par endpoint.
+     */
+    void ecrireHistogrammes(Path repertoire) throws IOException {
+        Files.createDirectories(repertoire);
+        for (Map.Entry<String, Endpoint> entree : endpoints.entrySet()) {
+            String fichier = cle(entree.getKey());
+            Histogram h = entree.getValue().latences.copy();
+            try (PrintStream hgrm = new PrintStream(Files.newOutputStream(repertoire.resolve(fichier + ".hgrm")))) {
+                h.outputPercentileDistribution(hgrm, 5, 1000.0);
+            }
+            try (PrintStream hlog = new PrintStream(Files.newOutputStream(repertoire.resolve(fichier + ".hlog")))) {
+                HistogramLogWriter writer = new HistogramLogWriter(hlog);
+                writer.outputLogFormatVersion();
+                writer.outputLegend();
+                writer.outputIntervalHistogram(h);
+            }
+        }
+    }
+
+    /**
+     * Seuils non respectés (p99 au-dessus du seuil, taux d'erreurs trop élevé) ; vide si tout passe.
+     */
+    List<String> verifier(Configuration configuration) {
+        List<String> echecs = new ArrayList<>();
+        if (endpoints.isEmpty()) {
+            echecs.add("aucune requête mesurée");
+        }
+        new TreeMap<>(endpoints).forEach((nom, e) -> {
+            long total = e.latences.getTotalCount();
+            double p99 = ms(e.latences.getValueAtPercentile(99));
+            long seuil = configuration.p99Ms(cle(nom));
+            if (p99 > seuil) {
+                echecs.add(String.format("%s : p99 %.1f ms > %d ms", nom, p99, seuil));
+            }
+            double taux = total == 0 ? 0 : (double) e.erreurs.sum() / total;
+            if (taux > configuration.erreursMax) {
+                echecs.add(String.format("%s : %.2f %% d'erreurs > %.2f %%", nom, taux * 100, configuration.erreursMax * 100));
+            }
+        });
+        return echecs;
+    }
+
+    /**
+     * Nom d'endpoint utilisable en fichier et en option : "GET admin/stats" donne "GET_admin_stats".
+     */
+    static String cle(String endpoint) {
+        return endpoint.replaceAll("[^A-Za-z0-9-]+", "_");
+    }
+
+    private static double ms(long microsecondes) {
+        return microsecondes / 1000.0;
+    }
+
+    private static final class Endpoint {
+        final ConcurrentHistogram latences = new ConcurrentHistogram(LATENCE_MAX_US, 3);
+        final LongAdder succes = new LongAdder();
+        final LongAdder refus = new LongAdder();
+        final LongAdder erreurs = new LongAdder();
+    }
+}
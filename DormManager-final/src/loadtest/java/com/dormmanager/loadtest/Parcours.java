@@ -0,0 +1,185 @@
+package com.dormmanager.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Parcours utilisateur rejoués par le test de charge, enchaînés comme le fait le front :
+ * les appels indépendants d'un même écran partent ensemble, les suivants attendent la
+ * réponse dont ils dépendent.
+ */
+final class Parcours {
+
+    private static final String MOTIF = "Demande de logement (test de charge)";
+
+    private final ClientApi client;
+    private final List<Session> etudiants;
+    private final List<Session> gestionnaires;
+    private final List<Session> admins;
+    private final int rafale;
+
+    // Demandes et chambres engagées dans une rafale en cours : deux rafales simultanées
+    // ne se disputent pas la même demande ni la même chambre
+    private final Set<Long> demandesReservees = ConcurrentHashMap.newKeySet();
+    private final Set<Long> chambresReservees = ConcurrentHashMap.newKeySet();
+
+    Parcours(ClientApi client, List<Session> sessions, int rafale) {
+        this.client = client;
+        this.etudiants = parRole(sessions, "ETUDIANT");
+        this.gestionnaires = parRole(sessions, "GESTIONNAIRE");
+        this.admins = parRole(sessions, "ADMIN");
+        this.rafale = rafale;
+    }
+
+    /**
+     * Scénarios jouables avec les comptes disponibles (un scénario sans compte du bon rôle est écarté).
+     */
+    boolean jouable(Scenario scenario) {
+        return switch (scenario) {
+            case TABLEAU_DE_BORD, DEMANDE -> !etudiants.isEmpty();
+            case NOTIFICATIONS -> !etudiants.isEmpty() || !gestionnaires.isEmpty();
+            case AFFECTATIONS -> !gestionnaires.isEmpty();
+            case STATISTIQUES -> !admins.isEmpty();
+        };
+    }
+
+    CompletableFuture<?> lancer(Scenario scenario) {
+        return switch (scenario) {
+            case TABLEAU_DE_BORD -> tableauDeBord(auHasard(etudiants));
+            case NOTIFICATIONS -> notifications(lecteurNotifications());
+            case DEMANDE -> demande(auHasard(etudiants));
+            case AFFECTATIONS -> rafaleAffectations();
+            case STATISTIQUES -> statistiques(auHasard(admins));
+        };
+    }
+
+    /**
+     * Rafraîchissement du tableau de bord étudiant : affectation, demandes en cours, compteur de notifications.
+     */
+    private CompletableFuture<?> tableauDeBord(Session etudiant) {
+        return CompletableFuture.allOf(
+                client.get("GET etudiants/me/affectation", "/api/etudiants/me/affectation", etudiant.token()),
+                client.get("GET etudiants/me/demandes/count", "/api/etudiants/me/demandes/count-en-cours", etudiant.token()),
+                client.get("GET notifications/me/stats", "/api/notifications/me/stats", etudiant.token()));
+    }
+
+    /**
+     * Ouverture de la liste des notifications, puis mise à jour du compteur.
+     */
+    private CompletableFuture<?> notifications(Session session) {
+        return client.get("GET notifications/me", "/api/notifications/me", session.token())
+                .thenCompose(r -> client.get("GET notifications/me/stats", "/api/notifications/me/stats", session.token()));
+    }
+
+    /**
+     * Dépôt d'une demande de logement. Un étudiant déjà logé (400) ou ayant déjà une
+     * demande en cours (500 avec message métier, voir DemandeController) est un refus, pas une erreur.
+     */
+    private CompletableFuture<?> demande(Session etudiant) {
+        return client.post("POST demandes", "/api/demandes", etudiant.token(),
+                        Map.of("etudiantId", etudiant.id(), "motif", MOTIF), Parcours::issueDemande)
+                .thenCompose(r -> client.get("GET etudiants/me/demandes/count",
+                        "/api/etudiants/me/demandes/count-en-cours", etudiant.token()));
+    }
+
+    /**
+     * Rafale d'un gestionnaire : il ouvre les demandes en attente et les chambres
+     * disponibles, puis affecte plusieurs demandes d'affilée.
+     */
+    private CompletableFuture<?> rafaleAffectations() {
+        Session gestionnaire = auHasard(gestionnaires);
+        CompletableFuture<ClientApi.Reponse> demandes = client.get("GET gestionnaire/demandes/en-attente",
+                "/api/gestionnaire/demandes/en-attente", gestionnaire.token());
+        CompletableFuture<ClientApi.Reponse> chambres = client.get("GET gestionnaire/chambres/disponibles",
+                "/api/gestionnaire/chambres/disponibles", gestionnaire.token());
+        return demandes.thenCombine(chambres, (d, c) -> reserver(ids(d.json()), ids(c.json())))
+                .thenCompose(paires -> CompletableFuture.allOf(paires.stream()
+                        .map(paire -> affecter(gestionnaire, paire[0], paire[1]))
+                        .toArray(CompletableFuture[]::new)));
+    }
+
+    private CompletableFuture<?> affecter(Session gestionnaire, long demandeId, long chambreId) {
+        Map<String, Object> corps = Map.of(
+                "demandeId", demandeId,
+                "chambreId", chambreId,
+                "dateFin", LocalDate.now().plusMonths(10).toString());
+        return client.post("POST gestionnaire/demandes/affecter", "/api/gestionnaire/demandes/affecter",
+                        gestionnaire.token(), corps)
+                .whenComplete((r, e) -> {
+                    // Une demande affectée quitte la liste d'attente ; en cas d'échec elle redevient disponible
+                    if (r == null || !r.succes()) {
+                        demandesReservees.remove(demandeId);
+                    }
+                    chambresReservees.remove(chambreId);
+                });
+    }
+
+    private CompletableFuture<?> statistiques(Session admin) {
+        return client.get("GET admin/stats", "/api/admin/stats", admin.token());
+    }
+
+    private List<long[]> reserver(List<Long> demandes, List<Long> chambres) {
+        List<long[]> paires = new ArrayList<>();
+        int c = 0;
+        for (Long demandeId : demandes) {
+            if (paires.size() == rafale) {
+                break;
+            }
+            if (!demandesReservees.add(demandeId)) {
+                continue;
+            }
+            while (c < chambres.size() && !chambresReservees.add(chambres.get(c))) {
+                c++;
+            }
+            if (c == chambres.size()) {
+                demandesReservees.remove(demandeId);
+                break;
+            }
+            paires.add(new long[] {demandeId, chambres.get(c++)});
+        }
+        return paires;
+    }
+
+    private static Mesures.Issue issueDemande(ClientApi.Reponse reponse) {
+        if (reponse.succes()) {
+            return Mesures.Issue.SUCCES;
+        }
+        JsonNode json = reponse.json();
+        boolean messageMetier = json != null && json.has("error") && !json.has("status");
+        return (reponse.statut() == 400 || reponse.statut() == 500) && messageMetier
+                ? Mesures.Issue.REFUS : Mesures.Issue.ERREUR;
+    }
+
+    private static List<Long> ids(JsonNode liste) {
+        List<Long> ids = new ArrayList<>();
+        if (liste != null && liste.isArray()) {
+            liste.forEach(element -> ids.add(element.path("id").asLong()));
+        }
+        return ids;
+    }
+
+    private static List<Session> parRole(List<Session> sessions, String role) {
+        return sessions.stream().filter(s -> role.equals(s.role())).toList();
+    }
+
+    private static Session auHasard(List<Session> sessions) {
+        return sessions.get(ThreadLocalRandom.current().nextInt(sessions.size()));
+    }
+
+    /**
+     * Les notifications sont lues surtout par les étudiants, un lecteur sur cinq est un gestionnaire.
+     */
+    private Session lecteurNotifications() {
+        boolean gestionnaire = !gestionnaires.isEmpty()
+                && (etudiants.isEmpty() || ThreadLocalRandom.current().nextInt(5) == 0);
+        return auHasard(gestionnaire ? gestionnaires : etudiants);
+    }
+}
@@ -0,0 +1,22 @@
+package com.dormmanager.loadtest;
+
+/**
+ * Parcours simulés et leur part par défaut dans le débit d'arrivée, d'après l'usage réel :
+ * les étudiants consultent surtout leur tableau de bord et leurs notifications, les
+ * gestionnaires affectent par rafales (une rafale compte pour un parcours).
+ */
+enum Scenario {
+    TABLEAU_DE_BORD("tableau-de-bord", 0.55),
+    NOTIFICATIONS("notifications", 0.25),
+    DEMANDE("demande", 0.10),
+    AFFECTATIONS("affectations", 0.05),
+    STATISTIQUES("statistiques", 0.05);
+
+    final String cle;
+    final double partParDefaut;
+
+    Scenario(String cle, double partParDefaut) {
+        this.cle = cle;
+        this.partParDefaut = partParDefaut;
+    }
+}
@@ -0,0 +1,7 @@
+package com.dormmanager.loadtest;
+
+/**
+ * Utilisateur connecté : identifiant, jeton de session et rôle renvoyés par /api/auth/login.
+ */
+record Session(long id, String token, String role) {
+}
@@ -1,13 +1,25 @@
 package com.dormmanager.controller;
 
+import com.dormmanager.datasource.SurveillanceReplique;
 import com.dormmanager.dto.DashboardStatsDto;
+import com.dormmanager.dto.EtatRepliqueDto;
+import com.dormmanager.dto.RequeteLenteDto;
+import com.dormmanager.dto.StatistiquesSqlDto;
 import com.dormmanager.entity.Chambre;
 import com.dormmanager.entity.Utilisateur;
+import com.dormmanager.metrics.RequetesLentes;
 import com.dormmanager.services.AdminService;
+import com.dormmanager.services.GestionnaireService;
+import com.dormmanager.services.StatistiquesSqlService;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * AdminController - Endpoints for admin panel statistics and management
@@ -18,9 +30,19 @@ import java.util.List;
 public class AdminController {
 
     private final AdminService adminService;
+    private final GestionnaireService gestionnaireService;
+    private final StatistiquesSqlService statistiquesSqlService;
+    private final RequetesLentes requetesLentes;
+    private final ObjectProvider<SurveillanceReplique> surveillanceReplique;
 
-    public AdminController(AdminService adminService) {
+    public AdminController(AdminService adminService, GestionnaireService gestionnaireService,
+                           StatistiquesSqlService statistiquesSqlService, RequetesLentes requetesLentes,
+                           ObjectProvider<SurveillanceReplique> surveillanceReplique) {
         this.adminService = adminService;
+        this.gestionnaireService = gestionnaireService;
+        this.statistiquesSqlService = statistiquesSqlService;
+        this.requetesLentes = requetesLentes;
+        this.surveillanceReplique = surveillanceReplique;
     }
 
     /**
@@ -39,6 +61,76 @@ public class AdminController {
         return adminService.toutesLesChambres();
     }
 
+    /**
+     * Get chambres page by page (cursor based), with optional type/etat/capacite
+     * filters and sparse field selection (e.g. champs=id,numero,etat)
+     */
+    @GetMapping("/chambres/page")
+    public ResponseEntity<?> chambresPaginees(@RequestParam(required = false) String type,
+                                              @RequestParam(required = false) String etat,
+                                              @RequestParam(required = false) Integer capacite,
+                                              @RequestParam(required = false) String curseur,
+                                              @RequestParam(required = false) Integer taille,
+                                              @RequestParam(required = false) Set<String> champs) {
+        try {
+            return ResponseEntity.ok(gestionnaireService.rechercherChambres(type, etat, capacite,
+                    curseur, taille, champs));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Hibernate statistics: statements, entity loads and fetches, cache hits,
+     * slowest queries (limite = number of queries and entities listed)
+     */
+    @GetMapping("/statistiques/sql")
+    public StatistiquesSqlDto statistiquesSql(@RequestParam(defaultValue = "10") int limite) {
+        return statistiquesSqlService.getStatistiques(limite);
+    }
+
+    /**
+     * Reset Hibernate statistics (before a targeted measurement)
+     */
+    @DeleteMapping("/statistiques/sql")
+    public ResponseEntity<Void> reinitialiserStatistiquesSql() {
+        statistiquesSqlService.reinitialiser();
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * Slowest SQL statements of the last window, measured at the JDBC level:
+     * bound parameters and calling method of the slowest execution (admins only)
+     */
+    @GetMapping("/statistiques/sql/lentes")
+    public ResponseEntity<List<RequeteLenteDto>> requetesLentes(HttpServletRequest request) {
+        if (!estAdmin(request)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        return ResponseEntity.ok(requetesLentes.getRequetesLentes());
+    }
+
+    /**
+     * Forget captured slow statements (admins only)
+     */
+    @DeleteMapping("/statistiques/sql/lentes")
+    public ResponseEntity<Void> reinitialiserRequetesLentes(HttpServletRequest request) {
+        if (!estAdmin(request)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        requetesLentes.reinitialiser();
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * Read replica lag and how read-only transactions were routed; 404 when no replica is configured
+     */
+    @GetMapping("/statistiques/replique")
+    public ResponseEntity<EtatRepliqueDto> etatReplique() {
+        SurveillanceReplique surveillance = surveillanceReplique.getIfAvailable();
+        return surveillance == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(surveillance.getEtat());
+    }
+
     /**
      * Create a new user (Gestionnaire, Agent Technique, or Admin)
      */
@@ -58,6 +150,11 @@ public class AdminController {
         }
     }
 
+    // Bound parameters can identify students: only an admin session may read or reset them
+    private static boolean estAdmin(HttpServletRequest request) {
+        return AuthController.roleEntete(request.getHeader("Authorization")) == Utilisateur.Role.ADMIN;
+    }
+
     /**
      * DTO for creating a new user
      */
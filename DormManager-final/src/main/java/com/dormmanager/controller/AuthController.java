@@ -18,10 +18,22 @@ import java.util.HashMap;
 @CrossOrigin(origins = "http://localhost:3000")
 public class AuthController {
 
+    private static final String BEARER = "Bearer ";
+
     private final UtilisateurRepository utilisateurRepository;
 
-    // Stores token → userId
-    public static final Map<String, Long> sessions = new ConcurrentHashMap<>();
+    // Stores token → session (userId et rôle, connu dès la connexion)
+    private static final Map<String, Session> sessions = new ConcurrentHashMap<>();
+    // Mêmes sessions, par valeur complète de l'en-tête "Authorization: Bearer <jeton>" : les
+    // traitements transverses retrouvent le rôle sans découper l'en-tête à chaque requête
+    private static final Map<String, Session> sessionsParEntete = new ConcurrentHashMap<>();
+
+    /**
+     * Session ouverte par un jeton. Le rôle y est conservé pour les traitements transverses
+     * (métriques par rôle) qui n'ont pas à relire l'utilisateur en base.
+     */
+    public record Session(Long utilisateurId, Utilisateur.Role role) {
+    }
 
     public AuthController(UtilisateurRepository utilisateurRepository) {
         this.utilisateurRepository = utilisateurRepository;
@@ -44,7 +56,7 @@ public class AuthController {
         }
 
         String token = UUID.randomUUID().toString();
-        sessions.put(token, u.getId());
+        ouvrirSession(token, new Session(u.getId(), u.getRole()));
 
         Map<String, Object> res = new HashMap<>();
         res.put("token", token);
@@ -86,6 +98,7 @@ public class AuthController {
     // 🔹 Optional logout endpoint (if needed later)
     @PostMapping("/logout")
     public ResponseEntity<?> logout(@RequestParam String token) {
+        fermerSession(token);
         activeTokens.remove(token);
         return ResponseEntity.ok("Déconnecté avec succès");
     }
@@ -95,9 +108,9 @@ public class AuthController {
         if (token == null) throw new RuntimeException("Token manquant");
 
         // First try numeric-id sessions (used by login)
-        Long userId = sessions.get(token);
-        if (userId != null) {
-            return utilisateurRepository.findById(userId)
+        Session session = sessions.get(token);
+        if (session != null) {
+            return utilisateurRepository.findById(session.utilisateurId())
                     .orElseThrow(() -> new RuntimeException("Utilisateur introuvable pour ce token"));
         }
 
@@ -105,12 +118,34 @@ public class AuthController {
         String email = activeTokens.get(token);
         if (email != null) {
             Utilisateur u = utilisateurRepository.findByEmail(email);
-            if (u != null) return u;
+            if (u != null) {
+                return u;
+            }
             throw new RuntimeException("Utilisateur introuvable pour ce token (email)");
         }
 
         throw new RuntimeException("Token invalide ou expiré");
     }
 
+    public static void ouvrirSession(String token, Session session) {
+        sessions.put(token, session);
+        sessionsParEntete.put(BEARER + token, session);
+    }
+
+    public static void fermerSession(String token) {
+        if (token != null && sessions.remove(token) != null) {
+            sessionsParEntete.remove(BEARER + token);
+        }
+    }
+
+    /**
+     * Rôle de la session désignée par la valeur de l'en-tête Authorization ("Bearer <jeton>"),
+     * sans lecture en base ni allocation (null si inconnu).
+     */
+    public static Utilisateur.Role roleEntete(String authorization) {
+        Session session = authorization != null ? sessionsParEntete.get(authorization) : null;
+        return session != null ? session.role() : null;
+    }
+
 }
 
@@ -1,14 +1,25 @@
 package com.dormmanager.controller;
 
 import com.dormmanager.dto.ChambreRequestDto;
+import com.dormmanager.dto.ChambreSanteDto;
+import com.dormmanager.dto.EtatDesLieuxDto;
+import com.dormmanager.dto.ImportResultDto;
 import com.dormmanager.entity.Chambre;
 import com.dormmanager.repository.ChambreRepository;
 import com.dormmanager.services.AdminService;
+import com.dormmanager.services.ChambreHealthIndex;
+import com.dormmanager.services.ChambreImportService;
 import com.dormmanager.services.GestionnaireService;
+import com.dormmanager.services.ImportRowReader;
+import com.dormmanager.services.TechniqueService;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * Contrôleur REST pour les opérations liées aux chambres.
@@ -22,13 +33,22 @@ public class ChambreController {
     private final GestionnaireService gestionnaireService;
     private final AdminService adminService;
     private final ChambreRepository chambreRepository;
+    private final ChambreImportService chambreImportService;
+    private final TechniqueService techniqueService;
+    private final ChambreHealthIndex chambreHealthIndex;
 
     public ChambreController(GestionnaireService gestionnaireService, 
                             AdminService adminService,
-                            ChambreRepository chambreRepository) {
+                            ChambreRepository chambreRepository,
+                            ChambreImportService chambreImportService,
+                            TechniqueService techniqueService,
+                            ChambreHealthIndex chambreHealthIndex) {
         this.gestionnaireService = gestionnaireService;
         this.adminService = adminService;
         this.chambreRepository = chambreRepository;
+        this.chambreImportService = chambreImportService;
+        this.techniqueService = techniqueService;
+        this.chambreHealthIndex = chambreHealthIndex;
     }
 
     /**
@@ -39,6 +59,25 @@ public class ChambreController {
         return chambreRepository.findAll();
     }
 
+    /**
+     * Liste paginée des chambres (curseur), filtrable par type, etat et capacité.
+     * Le paramètre "champs" (ex: champs=id,numero,etat) limite les champs renvoyés.
+     */
+    @GetMapping("/page")
+    public ResponseEntity<?> chambresPaginees(@RequestParam(required = false) String type,
+                                              @RequestParam(required = false) String etat,
+                                              @RequestParam(required = false) Integer capacite,
+                                              @RequestParam(required = false) String curseur,
+                                              @RequestParam(required = false) Integer taille,
+                                              @RequestParam(required = false) Set<String> champs) {
+        try {
+            return ResponseEntity.ok(gestionnaireService.rechercherChambres(type, etat, capacite,
+                    curseur, taille, champs));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
     /**
      * Récupère uniquement les chambres disponibles.
      */
@@ -47,6 +86,34 @@ public class ChambreController {
         return gestionnaireService.getChambresDisponibles();
     }
 
+    /**
+     * Chambres les plus fragiles (score de santé le plus bas d'abord), pour planifier la maintenance.
+     */
+    @GetMapping("/sante")
+    public List<ChambreSanteDto> chambresFragiles(@RequestParam(defaultValue = "20") int limite) {
+        return chambreHealthIndex.plusFragiles(Math.max(1, Math.min(limite, 500)));
+    }
+
+    /**
+     * Santé d'une chambre : score, incidents ouverts et récents, dernier état des lieux.
+     */
+    @GetMapping("/{id}/sante")
+    public ChambreSanteDto santeChambre(@PathVariable Long id) {
+        return chambreHealthIndex.sante(id);
+    }
+
+    /**
+     * Enregistre un état des lieux (etat, remarques) sur la dernière affectation de la chambre.
+     */
+    @PostMapping("/{id}/etat-des-lieux")
+    public ResponseEntity<?> faireEtatDesLieux(@PathVariable Long id, @RequestBody EtatDesLieuxDto dto) {
+        try {
+            return ResponseEntity.ok(techniqueService.faireEtatDesLieux(id, dto.getEtat(), dto.getRemarques()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
     /**
      * Ajoute une nouvelle chambre.
      * Accepts userId in the request body to determine if admin or gestionnaire is adding the chambre.
@@ -69,6 +136,20 @@ public class ChambreController {
         return ResponseEntity.ok(chambre);
     }
 
+    /**
+     * Import en masse de chambres (CSV avec en-tête ou JSON lines).
+     * Le corps de la requête est lu en flux, sans être chargé entièrement en mémoire.
+     * Le format est déduit du Content-Type (text/csv, application/x-ndjson) ou du paramètre "format".
+     */
+    @PostMapping("/import")
+    public ResponseEntity<ImportResultDto> importerChambres(HttpServletRequest request,
+                                                            @RequestParam(required = false) Long userId,
+                                                            @RequestParam(required = false) String format)
+            throws IOException {
+        ImportRowReader.Format f = ImportRowReader.Format.resolve(format, request.getContentType());
+        return ResponseEntity.ok(chambreImportService.importer(request.getInputStream(), f, userId));
+    }
+
     /**
      * Met à jour une chambre existante.
      */
@@ -98,6 +179,7 @@ public class ChambreController {
         String chambreNumero = chambre.getNumero();
         
         chambreRepository.deleteById(id);
+        chambreHealthIndex.retirerChambre(id);
         // Notify gestionnaires when admin deletes a chambre
         adminService.notifyGestionnairesOnChambreDelete(chambreNumero);
         return ResponseEntity.noContent().build();
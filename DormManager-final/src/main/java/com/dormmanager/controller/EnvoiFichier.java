@@ -0,0 +1,81 @@
+package com.dormmanager.controller;
+
+import com.dormmanager.storage.BlobStore;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Envoi d'un fichier du disque, entier ou par plage (en-tête Range, une seule plage).
+ *
+ * Sous Tomcat, la copie est confiée au connecteur (sendfile : le noyau copie du fichier
+ * vers la socket sans passer par le tas) ; sinon BlobStore.transferer (FileChannel.transferTo). Un fichier nommé
+ * par empreinte de contenu ne change jamais : il peut être mis en cache sans limite.
+ */
+final class EnvoiFichier {
+
+    private static final Pattern PLAGE = Pattern.compile("bytes=(\\d*)-(\\d*)");
+    private static final String SENDFILE = "org.apache.tomcat.sendfile.";
+
+    private EnvoiFichier() {
+    }
+
+    static void envoyer(Path fichier, String typeMime, String etag, boolean immuable,
+                        HttpServletRequest req, HttpServletResponse resp) throws IOException {
+        String tag = "\"" + etag + "\"";
+        resp.setHeader("ETag", tag);
+        resp.setHeader("Cache-Control", immuable ? "public, max-age=31536000, immutable" : "no-cache");
+        resp.setHeader("Accept-Ranges", "bytes");
+        if (tag.equals(req.getHeader("If-None-Match"))) {
+            resp.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        long taille = Files.size(fichier);
+        long debut = 0;
+        long fin = taille - 1;
+        String range = req.getHeader("Range");
+        if (range != null && (req.getHeader("If-Range") == null || tag.equals(req.getHeader("If-Range")))) {
+            Matcher m = PLAGE.matcher(range.trim());
+            // Plusieurs plages ("bytes=0-1,5-6") : le fichier entier est renvoyé, ce que permet la RFC 9110
+            if (m.matches()) {
+                if (m.group(1).isEmpty()) {
+                    long suffixe = m.group(2).isEmpty() ? 0 : Long.parseLong(m.group(2));
+                    debut = Math.max(0, taille - suffixe);
+                } else {
+                    debut = Long.parseLong(m.group(1));
+                    if (!m.group(2).isEmpty()) {
+                        fin = Math.min(fin, Long.parseLong(m.group(2)));
+                    }
+                }
+                if (debut > fin || debut >= taille) {
+                    resp.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                    resp.setHeader("Content-Range", "bytes */" + taille);
+                    return;
+                }
+                resp.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                resp.setHeader("Content-Range", "bytes " + debut + "-" + fin + "/" + taille);
+            }
+        }
+        long longueur = fin - debut + 1;
+        resp.setContentType(typeMime);
+        resp.setContentLengthLong(longueur);
+        if ("HEAD".equals(req.getMethod())) {
+            return;
+        }
+
+        if (Boolean.TRUE.equals(req.getAttribute(SENDFILE + "support"))) {
+            req.setAttribute(SENDFILE + "filename", fichier.toAbsolutePath().toString());
+            req.setAttribute(SENDFILE + "start", debut);
+            req.setAttribute(SENDFILE + "end", fin + 1);
+            return;
+        }
+        BlobStore.transferer(fichier, debut, longueur, Channels.newChannel(resp.getOutputStream()));
+    }
+}
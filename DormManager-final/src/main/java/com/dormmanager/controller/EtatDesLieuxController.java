@@ -0,0 +1,92 @@
+package com.dormmanager.controller;
+
+import com.dormmanager.entity.PieceJointe;
+import com.dormmanager.services.PieceJointeService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Map;
+
+/**
+ * Contrôleur REST des états des lieux (entrée / sortie d'une chambre) :
+ *  - consultation d'un état des lieux ou de l'historique d'une chambre
+ *  - ajout de photos, envoyées en flux dans le corps de la requête
+ *  - téléchargement des photos et de leurs miniatures (requêtes Range acceptées)
+ * L'état des lieux lui-même est créé par POST /api/chambres/{id}/etat-des-lieux.
+ */
+@RestController
+@RequestMapping("/api/etats-des-lieux")
+@CrossOrigin(origins = "http://localhost:3000")
+public class EtatDesLieuxController {
+
+    private final PieceJointeService pieceJointeService;
+
+    public EtatDesLieuxController(PieceJointeService pieceJointeService) {
+        this.pieceJointeService = pieceJointeService;
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<?> getEtatDesLieux(@PathVariable Long id) {
+        return ResponseEntity.ok(pieceJointeService.getEtatDesLieux(id));
+    }
+
+    @GetMapping("/chambre/{chambreId}")
+    public ResponseEntity<?> getEtatsDesLieuxChambre(@PathVariable Long chambreId) {
+        return ResponseEntity.ok(pieceJointeService.getEtatsDesLieuxChambre(chambreId));
+    }
+
+    // The photo is the raw request body (Content-Type image/jpeg, image/png...), streamed to disk
+    @PostMapping("/{id}/photos")
+    public ResponseEntity<?> ajouterPhoto(@PathVariable Long id, HttpServletRequest request) throws IOException {
+        try {
+            return ResponseEntity.ok(pieceJointeService.ajouterPhoto(id, request.getInputStream(),
+                    request.getContentType()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @DeleteMapping("/{id}/photos/{hash}")
+    public ResponseEntity<?> retirerPhoto(@PathVariable Long id, @PathVariable String hash) {
+        return ResponseEntity.ok(pieceJointeService.retirerPhoto(id, hash));
+    }
+
+    @GetMapping("/photos/{hash}")
+    public void telechargerPhoto(@PathVariable String hash, HttpServletRequest req, HttpServletResponse resp)
+            throws IOException {
+        PieceJointe photo = pieceJointe(hash, resp);
+        if (photo != null) {
+            EnvoiFichier.envoyer(pieceJointeService.fichier(photo), photo.getTypeMime(), photo.getHash(), true, req, resp);
+        }
+    }
+
+    // Falls back to the original photo while the thumbnail is being generated
+    @GetMapping("/photos/{hash}/miniature")
+    public void telechargerMiniature(@PathVariable String hash, HttpServletRequest req, HttpServletResponse resp)
+            throws IOException {
+        PieceJointe photo = pieceJointe(hash, resp);
+        if (photo == null) {
+            return;
+        }
+        Path miniature = pieceJointeService.miniature(photo);
+        if (miniature != null) {
+            EnvoiFichier.envoyer(miniature, "image/jpeg", photo.getHash() + "-miniature", true, req, resp);
+        } else {
+            EnvoiFichier.envoyer(pieceJointeService.fichier(photo), photo.getTypeMime(), photo.getHash(), false,
+                    req, resp);
+        }
+    }
+
+    private PieceJointe pieceJointe(String hash, HttpServletResponse resp) throws IOException {
+        try {
+            return pieceJointeService.getPieceJointe(hash);
+        } catch (RuntimeException e) {
+            resp.sendError(HttpServletResponse.SC_NOT_FOUND, e.getMessage());
+            return null;
+        }
+    }
+}
@@ -1,15 +1,23 @@
 package com.dormmanager.controller;
 
+import com.dormmanager.dto.EtudiantSuggestionDto;
+import com.dormmanager.dto.ImportResultDto;
 import com.dormmanager.entity.Affectation;
 import com.dormmanager.entity.Etudiant;
 import com.dormmanager.entity.Utilisateur;
+import com.dormmanager.services.EtudiantImportService;
 import com.dormmanager.services.EtudiantService;
+import com.dormmanager.services.ImportRowReader;
 import com.dormmanager.repository.EtudiantRepository;
+import com.dormmanager.search.EtudiantSearchIndex;
 import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import com.dormmanager.controller.AuthController;
+import java.io.IOException;
 import java.util.HashMap;
+import java.util.List;
 import java.util.UUID;
 
 
@@ -29,13 +37,19 @@ public class EtudiantController {
     private final EtudiantRepository etudiantRepository;
     private final EtudiantService etudiantService;
     private final AuthController authController;
+    private final EtudiantImportService etudiantImportService;
+    private final EtudiantSearchIndex etudiantSearchIndex;
 
     public EtudiantController(EtudiantRepository etudiantRepository,
                               EtudiantService etudiantService,
-                              AuthController authController) {
+                              AuthController authController,
+                              EtudiantImportService etudiantImportService,
+                              EtudiantSearchIndex etudiantSearchIndex) {
         this.etudiantRepository = etudiantRepository;
         this.etudiantService = etudiantService;
         this.authController = authController;
+        this.etudiantImportService = etudiantImportService;
+        this.etudiantSearchIndex = etudiantSearchIndex;
     }
 
     private String extractToken(HttpServletRequest req) {
@@ -50,12 +64,13 @@ public class EtudiantController {
 
     etudiant.setRole(Utilisateur.Role.ETUDIANT);
     Etudiant saved = etudiantRepository.save(etudiant);
+    etudiantSearchIndex.indexer(saved);
 
     // Generate a session token
     String token = UUID.randomUUID().toString();
 
-    // IMPORTANT: Add the token to the same active token map used in AuthController
-    AuthController.activeTokens.put(token, saved.getEmail());
+    // IMPORTANT: Add the token to the same session map used by AuthController.login
+    AuthController.ouvrirSession(token, new AuthController.Session(saved.getId(), saved.getRole()));
 
     Map<String, Object> response = new HashMap<>();
     response.put("user", saved);
@@ -64,6 +79,53 @@ public class EtudiantController {
     return response;
 }
 
+    // =========================
+    // 🔹 Import en masse (export de la scolarité)
+    // =========================
+
+    /**
+     * Import en masse des étudiants (CSV avec en-tête ou JSON lines), upsert par matricule.
+     * Le corps de la requête est lu en flux ; le bilan indique le débit et les lignes rejetées.
+     * Un importId choisi par le client permet de suivre la progression pendant l'import
+     * (409 si un import de même identifiant est déjà en cours).
+     */
+    @PostMapping("/import")
+    public ResponseEntity<?> importerEtudiants(HttpServletRequest request,
+                                               @RequestParam(required = false) String format,
+                                               @RequestParam(required = false) String importId)
+            throws IOException {
+        ImportRowReader.Format f = ImportRowReader.Format.resolve(format, request.getContentType());
+        try {
+            return ResponseEntity.ok(etudiantImportService.importer(request.getInputStream(), f,
+                    importId != null && !importId.isBlank() ? importId : UUID.randomUUID().toString()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Progression de l'import lancé avec ce importId (404 s'il n'est pas en cours).
+     */
+    @GetMapping("/import/progression/{importId}")
+    public ResponseEntity<ImportResultDto> progressionImport(@PathVariable String importId) {
+        ImportResultDto progression = etudiantImportService.getProgression(importId);
+        return progression == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(progression);
+    }
+
+    // =========================
+    // 🔹 Recherche (typeahead gestionnaire)
+    // =========================
+
+    /**
+     * Recherche d'étudiants par nom, prénom, matricule, email ou filière.
+     * Préfixes et fautes de frappe légères sont acceptés ("alau" trouve "Alaoui").
+     */
+    @GetMapping("/recherche")
+    public List<EtudiantSuggestionDto> rechercherEtudiants(@RequestParam("q") String q,
+                                                           @RequestParam(defaultValue = "10") int limite) {
+        return etudiantSearchIndex.rechercher(q, limite);
+    }
+
     // =========================
     // 🔹 CRUD de base (admin futur)
     // =========================
@@ -75,7 +137,9 @@ public class EtudiantController {
 
     @PostMapping
     public Etudiant createEtudiant(@RequestBody Etudiant etudiant) {
-        return etudiantRepository.save(etudiant);
+        Etudiant saved = etudiantRepository.save(etudiant);
+        etudiantSearchIndex.indexer(saved);
+        return saved;
     }
 
     @PutMapping("/{id}")
@@ -85,12 +149,15 @@ public class EtudiantController {
         existing.setMatricule(etudiant.getMatricule());
         existing.setNom(etudiant.getNom());
         existing.setPrenom(etudiant.getPrenom());
-        return etudiantRepository.save(existing);
+        Etudiant saved = etudiantRepository.save(existing);
+        etudiantSearchIndex.indexer(saved);
+        return saved;
     }
 
     @DeleteMapping("/{id}")
     public void deleteEtudiant(@PathVariable Long id) {
         etudiantRepository.deleteById(id);
+        etudiantSearchIndex.retirer(id);
     }
 
     // =========================
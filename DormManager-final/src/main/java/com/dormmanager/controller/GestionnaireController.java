@@ -9,13 +9,15 @@ import com.dormmanager.dto.ReclamationDto;
 import com.dormmanager.entity.Affectation;
 import com.dormmanager.entity.Chambre;
 import com.dormmanager.entity.DemandeHebergement;
-import com.dormmanager.entity.Reclamation;
-import com.dormmanager.repository.ReclamationRepository;
+import com.dormmanager.search.ReclamationTriageQueue;
 import com.dormmanager.services.GestionnaireService;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/gestionnaire")
@@ -23,15 +25,9 @@ import java.util.List;
 public class GestionnaireController {
 
     private final GestionnaireService gestionnaireService;
-    private final ReclamationRepository reclamationRepository;
-    private final com.dormmanager.services.NotificationService notificationService;
 
-    public GestionnaireController(GestionnaireService gestionnaireService,
-                                  ReclamationRepository reclamationRepository,
-                                  com.dormmanager.services.NotificationService notificationService) {
+    public GestionnaireController(GestionnaireService gestionnaireService) {
         this.gestionnaireService = gestionnaireService;
-        this.reclamationRepository = reclamationRepository;
-        this.notificationService = notificationService;
     }
 
     @GetMapping("/demandes/en-attente")
@@ -61,6 +57,55 @@ public class GestionnaireController {
         return gestionnaireService.getDernieresReclamations();
     }
 
+    // Reclamation queue, page by page (cursor based), with optional statut and
+    // dateEnvoi filters; ordre=anciennes processes it in arrival order
+    @GetMapping("/reclamations/file")
+    public ResponseEntity<?> fileReclamations(@RequestParam(required = false) String statut,
+                                              @RequestParam(required = false)
+                                              @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate depuis,
+                                              @RequestParam(required = false)
+                                              @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate jusqua,
+                                              @RequestParam(required = false) String ordre,
+                                              @RequestParam(required = false) String curseur,
+                                              @RequestParam(required = false) Integer taille) {
+        try {
+            return ResponseEntity.ok(gestionnaireService.fileReclamations(statut, depuis, jusqua, ordre,
+                    curseur, taille));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    // Full-text search in reclamation messages, ranked by relevance,
+    // with optional statut and date (dateEnvoi) filters
+    @GetMapping("/reclamations/recherche")
+    public ResponseEntity<?> rechercherReclamations(@RequestParam("q") String q,
+                                                    @RequestParam(required = false) String statut,
+                                                    @RequestParam(required = false)
+                                                    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate depuis,
+                                                    @RequestParam(required = false)
+                                                    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate jusqua,
+                                                    @RequestParam(required = false) Integer limite) {
+        try {
+            return ResponseEntity.ok(gestionnaireService.rechercherReclamations(q, statut, depuis, jusqua, limite));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    // Open reclamations in triage order (SLA deadline, severity, age)
+    @GetMapping("/reclamations/triage")
+    public List<ReclamationTriageQueue.Entree> apercuTriage(@RequestParam(required = false) Integer limite) {
+        return gestionnaireService.apercuTriage(limite);
+    }
+
+    // Take the most urgent open reclamation (status EN_COURS); 204 when none is left
+    @PostMapping("/reclamations/suivante")
+    public ResponseEntity<ReclamationDto> prendreReclamationSuivante() {
+        ReclamationDto suivante = gestionnaireService.prendreReclamationSuivante();
+        return suivante == null ? ResponseEntity.noContent().build() : ResponseEntity.ok(suivante);
+    }
+
     @PostMapping("/demandes/affecter")
     public ResponseEntity<Affectation> affecterEtValider(@RequestBody AffectationRequestDto dto) {
         Affectation affectation = gestionnaireService.affecterEtValiderDemande(dto);
@@ -77,39 +122,13 @@ public class GestionnaireController {
     // Update reclamation status to EN_COURS
     @PutMapping("/reclamations/{id}/prendre-en-charge")
     public ResponseEntity<ReclamationDto> prendreEnChargeReclamation(@PathVariable Long id) {
-        Reclamation rec = reclamationRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Réclamation non trouvée"));
-        rec.setStatus(Reclamation.StatutReclamation.EN_COURS);
-        Reclamation updated = reclamationRepository.save(rec);
-        // Notify the author of the reclamation
-        if (updated.getUtilisateur() != null) {
-            notificationService.sendNotification(
-                    updated.getUtilisateur(),
-                    "info",
-                    "Réclamation en cours",
-                    "Votre réclamation est en cours de traitement"
-            );
-        }
-        return ResponseEntity.ok(new ReclamationDto(updated));
+        return ResponseEntity.ok(gestionnaireService.prendreEnChargeReclamation(id));
     }
 
     // Update reclamation status to RESOLUE
     @PutMapping("/reclamations/{id}/resoudre")
     public ResponseEntity<ReclamationDto> resoudreReclamation(@PathVariable Long id) {
-        Reclamation rec = reclamationRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Réclamation non trouvée"));
-        rec.setStatus(Reclamation.StatutReclamation.RESOLUE);
-        Reclamation updated = reclamationRepository.save(rec);
-        // Notify the author of the reclamation
-        if (updated.getUtilisateur() != null) {
-            notificationService.sendNotification(
-                    updated.getUtilisateur(),
-                    "info",
-                    "Réclamation résolue",
-                    "Votre réclamation a été résolue"
-            );
-        }
-        return ResponseEntity.ok(new ReclamationDto(updated));
+        return ResponseEntity.ok(gestionnaireService.resoudreReclamation(id));
     }
 
 }
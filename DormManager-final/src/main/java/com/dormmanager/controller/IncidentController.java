@@ -0,0 +1,149 @@
+package com.dormmanager.controller;
+
+import com.dormmanager.dto.IncidentRequestDto;
+import com.dormmanager.dto.TransitionIncidentsDto;
+import com.dormmanager.entity.AgentTechnique;
+import com.dormmanager.entity.Utilisateur;
+import com.dormmanager.services.TechniqueService;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+/**
+ * Contrôleur REST des incidents techniques :
+ *  - signalement d'un incident sur une chambre
+ *  - assignation à un agent, prise en charge, résolution
+ *  - listes de travail (agent connecté, incidents non assignés, historique d'une chambre)
+ *  - transition de statut groupée
+ *  - début / fin de service des agents (répartition automatique des incidents)
+ */
+@RestController
+@RequestMapping("/api/incidents")
+@CrossOrigin(origins = "*")
+public class IncidentController {
+
+    private final TechniqueService techniqueService;
+    private final AuthController authController;
+
+    public IncidentController(TechniqueService techniqueService,
+                              AuthController authController) {
+        this.techniqueService = techniqueService;
+        this.authController = authController;
+    }
+
+    private String extractToken(HttpServletRequest req) {
+        String h = req.getHeader("Authorization");
+        if (h != null && h.startsWith("Bearer ")) return h.substring(7);
+        return null;
+    }
+
+    @PostMapping
+    public ResponseEntity<?> signalerIncident(@RequestBody IncidentRequestDto dto) {
+        try {
+            return ResponseEntity.ok(techniqueService.signalerIncident(dto.getChambreId(), dto.getDescription(),
+                    dto.getSpecialite()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @PutMapping("/{id}/assigner")
+    public ResponseEntity<?> assignerIncident(@PathVariable Long id, @RequestParam Long agentId) {
+        try {
+            return ResponseEntity.ok(techniqueService.assignerIncident(id, agentId));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @PutMapping("/{id}/demarrer")
+    public ResponseEntity<?> demarrerIncident(@PathVariable Long id) {
+        try {
+            return ResponseEntity.ok(techniqueService.demarrerIncident(id));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @PutMapping("/{id}/resoudre")
+    public ResponseEntity<?> resoudreIncident(@PathVariable Long id) {
+        try {
+            return ResponseEntity.ok(techniqueService.resoudreIncident(id));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    // Bulk transition to EN_COURS or RESOLU; incidents whose status does not allow it are skipped
+    @PostMapping("/statut")
+    public ResponseEntity<?> changerStatutIncidents(@RequestBody TransitionIncidentsDto dto) {
+        try {
+            int modifies = techniqueService.changerStatutIncidents(dto.getIds(), dto.getStatut());
+            int demandes = dto.getIds() != null ? dto.getIds().size() : 0;
+            return ResponseEntity.ok(Map.of("demandes", demandes, "modifies", modifies));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    // Agent going off shift: unstarted incidents are redistributed to agents on shift
+    @PutMapping("/agents/{agentId}/hors-service")
+    public ResponseEntity<?> mettreHorsService(@PathVariable Long agentId) {
+        return ResponseEntity.ok(Map.of("reassignes", techniqueService.mettreHorsService(agentId)));
+    }
+
+    @PutMapping("/agents/{agentId}/en-service")
+    public ResponseEntity<?> remettreEnService(@PathVariable Long agentId) {
+        techniqueService.remettreEnService(agentId);
+        return ResponseEntity.ok(Map.of("message", "Agent de nouveau en service"));
+    }
+
+    // Work list of the logged-in technical agent (ASSIGNE and EN_COURS unless statut is given)
+    @GetMapping("/me")
+    public ResponseEntity<?> getMesIncidents(HttpServletRequest req,
+                                             @RequestParam(required = false) String statut,
+                                             @RequestParam(required = false) String curseur,
+                                             @RequestParam(required = false) Integer taille) {
+        Utilisateur u = authController.getLoggedUser(extractToken(req));
+        if (!(u instanceof AgentTechnique)) {
+            throw new RuntimeException("Utilisateur non agent technique");
+        }
+        return getIncidentsAgent(u.getId(), statut, curseur, taille);
+    }
+
+    @GetMapping("/agent/{agentId}")
+    public ResponseEntity<?> getIncidentsAgent(@PathVariable Long agentId,
+                                               @RequestParam(required = false) String statut,
+                                               @RequestParam(required = false) String curseur,
+                                               @RequestParam(required = false) Integer taille) {
+        try {
+            return ResponseEntity.ok(techniqueService.getIncidentsAgent(agentId, statut, curseur, taille));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    // Incidents waiting for an agent, oldest first
+    @GetMapping("/ouverts")
+    public ResponseEntity<?> getIncidentsOuverts(@RequestParam(required = false) String curseur,
+                                                 @RequestParam(required = false) Integer taille) {
+        try {
+            return ResponseEntity.ok(techniqueService.getIncidentsOuverts(curseur, taille));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/chambre/{chambreId}")
+    public ResponseEntity<?> getIncidentsChambre(@PathVariable Long chambreId,
+                                                 @RequestParam(required = false) String curseur,
+                                                 @RequestParam(required = false) Integer taille) {
+        try {
+            return ResponseEntity.ok(techniqueService.getIncidentsChambre(chambreId, curseur, taille));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.dormmanager.controller;
+
+import com.dormmanager.entity.AgentTechnique;
+import com.dormmanager.entity.Utilisateur;
+import com.dormmanager.services.MaintenanceService;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+/**
+ * Contrôleur REST de la maintenance préventive (rotation des chambres) :
+ *  - tâches en attente de planification
+ *  - tournées d'une journée, tournées de l'agent connecté
+ *  - clôture d'une tâche (la chambre redevient disponible après sa dernière tâche)
+ *  - planification manuelle des tournées d'une journée
+ */
+@RestController
+@RequestMapping("/api/maintenance")
+@CrossOrigin(origins = "*")
+public class MaintenanceController {
+
+    private final MaintenanceService maintenanceService;
+    private final AuthController authController;
+
+    public MaintenanceController(MaintenanceService maintenanceService,
+                                 AuthController authController) {
+        this.maintenanceService = maintenanceService;
+        this.authController = authController;
+    }
+
+    private String extractToken(HttpServletRequest req) {
+        String h = req.getHeader("Authorization");
+        if (h != null && h.startsWith("Bearer ")) return h.substring(7);
+        return null;
+    }
+
+    @GetMapping("/taches/a-planifier")
+    public ResponseEntity<?> getTachesAPlanifier() {
+        return ResponseEntity.ok(maintenanceService.getTachesAPlanifier());
+    }
+
+    // Routes of a day (today when no date is given)
+    @GetMapping("/tournees")
+    public ResponseEntity<?> getTournees(@RequestParam(required = false)
+                                         @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        return ResponseEntity.ok(maintenanceService.getTournees(date != null ? date : LocalDate.now()));
+    }
+
+    // Pending routes of the logged-in technical agent
+    @GetMapping("/tournees/me")
+    public ResponseEntity<?> getMesTournees(HttpServletRequest req) {
+        Utilisateur u = authController.getLoggedUser(extractToken(req));
+        if (!(u instanceof AgentTechnique)) {
+            throw new RuntimeException("Utilisateur non agent technique");
+        }
+        return ResponseEntity.ok(maintenanceService.getTourneesAgent(u.getId()));
+    }
+
+    @PutMapping("/taches/{id}/terminer")
+    public ResponseEntity<?> terminerTache(@PathVariable Long id,
+                                           @RequestBody(required = false) Map<String, String> body) {
+        try {
+            String remarques = body != null ? body.get("remarques") : null;
+            return ResponseEntity.ok(maintenanceService.terminerTache(id, remarques));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    // Plans the pending tasks into routes now (normally done by the nightly scheduler)
+    @PostMapping("/planifier")
+    public ResponseEntity<?> planifier(@RequestParam(required = false)
+                                       @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        return ResponseEntity.ok(Map.of("planifiees",
+                maintenanceService.planifierTournees(date != null ? date : LocalDate.now())));
+    }
+}
@@ -0,0 +1,27 @@
+package com.dormmanager.controller;
+
+import com.dormmanager.metrics.EndpointMetrics;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * Contrôleur des métriques : latences, débit et erreurs par endpoint et par rôle, au
+ * format texte Prometheus (à déclarer comme cible de scrape).
+ */
+@RestController
+@RequestMapping("/api/metrics")
+public class MetricsController {
+
+    private static final String PROMETHEUS = "text/plain; version=0.0.4; charset=utf-8";
+
+    private final EndpointMetrics endpointMetrics;
+
+    public MetricsController(EndpointMetrics endpointMetrics) {
+        this.endpointMetrics = endpointMetrics;
+    }
+
+    // Prometheus text exposition format
+    @GetMapping(produces = PROMETHEUS)
+    public String prometheus() {
+        return endpointMetrics.prometheus();
+    }
+}
@@ -5,6 +5,7 @@ import com.dormmanager.entity.Notification;
 import com.dormmanager.entity.Utilisateur;
 import com.dormmanager.repository.NotificationRepository;
 import com.dormmanager.repository.UtilisateurRepository;
+import com.dormmanager.services.NotificationService;
 import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.web.bind.annotation.*;
 import com.dormmanager.controller.AuthController;
@@ -17,13 +18,16 @@ import java.util.List;
 public class NotificationController {
 
     private final NotificationRepository notificationRepository;
+    private final NotificationService notificationService;
     private final UtilisateurRepository utilisateurRepository;
     private final AuthController authController;
 
     public NotificationController(NotificationRepository notificationRepository,
+                                  NotificationService notificationService,
                                   UtilisateurRepository utilisateurRepository,
                                   AuthController authController) {
         this.notificationRepository = notificationRepository;
+        this.notificationService = notificationService;
         this.utilisateurRepository = utilisateurRepository;
         this.authController = authController;
     }
@@ -42,7 +46,7 @@ public class NotificationController {
         String token = extractToken(request);
         Utilisateur user = authController.getLoggedUser(token);
 
-        return notificationRepository.findByDestinataireOrderByDateDesc(user)
+        return notificationService.getNotifications(user)
                 .stream()
                 .map(n -> new NotificationDTO(
                         n.getId(),
@@ -61,8 +65,8 @@ public class NotificationController {
         String token = extractToken(request);
         Utilisateur user = authController.getLoggedUser(token);
 
-        long unread = notificationRepository.countByDestinataireAndLuFalse(user);
-        long total = notificationRepository.countByDestinataire(user);
+        long unread = notificationService.countNonLues(user);
+        long total = notificationService.countNotifications(user);
 
         class Stats {
             public long unread;
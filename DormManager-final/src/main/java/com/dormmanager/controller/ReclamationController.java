@@ -5,6 +5,7 @@ import com.dormmanager.entity.Utilisateur;
 import com.dormmanager.services.EtudiantService;
 import com.dormmanager.controller.AuthController;
 import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -46,6 +47,22 @@ public class ReclamationController {
         return etudiantService.getReclamations(u);
     }
 
+    // =========================
+    //  Même liste, page par page (curseur)
+    // =========================
+    @GetMapping("/me/page")
+    public ResponseEntity<?> getMyReclamationsPage(HttpServletRequest req,
+                                                   @RequestParam(required = false) String curseur,
+                                                   @RequestParam(required = false) Integer taille) {
+        String token = extractToken(req);
+        Utilisateur u = authController.getLoggedUser(token);
+        try {
+            return ResponseEntity.ok(etudiantService.getReclamationsPaginees(u, curseur, taille));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
     // =========================
     //  Création d'une nouvelle réclamation
     // =========================
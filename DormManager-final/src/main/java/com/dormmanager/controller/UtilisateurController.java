@@ -3,9 +3,13 @@ package com.dormmanager.controller;
 import com.dormmanager.dto.UpdateUtilisateurDto;
 import com.dormmanager.entity.Utilisateur;
 import com.dormmanager.services.AdminService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/utilisateurs")
@@ -24,6 +28,24 @@ public class UtilisateurController {
         return adminService.getAllUtilisateurs();
     }
 
+    // Paginated user directory (flat projection, no password), sorted by nom.
+    // details=true adds the role specific fields (matricule, specialite, ...)
+    @GetMapping("/annuaire")
+    public ResponseEntity<?> annuaire(@RequestParam(required = false) String role,
+                                      @RequestParam(required = false)
+                                      @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate depuis,
+                                      @RequestParam(required = false)
+                                      @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate jusqua,
+                                      @RequestParam(required = false) String curseur,
+                                      @RequestParam(required = false) Integer taille,
+                                      @RequestParam(defaultValue = "false") boolean details) {
+        try {
+            return ResponseEntity.ok(adminService.annuaire(role, depuis, jusqua, curseur, taille, details));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
     // Get a single user by ID
     @GetMapping("/{id}")
     public Utilisateur getUtilisateurById(@PathVariable Long id) {
@@ -36,6 +58,17 @@ public class UtilisateurController {
         adminService.deleteUtilisateur(id);
     }
 
+    // Bulk delete (e.g. graduated students): body is the list of user ids
+    @DeleteMapping("/bulk")
+    public ResponseEntity<?> deleteUtilisateurs(@RequestBody List<Long> ids) {
+        try {
+            int supprimes = adminService.supprimerUtilisateurs(ids);
+            return ResponseEntity.ok(Map.of("demandes", ids.size(), "supprimes", supprimes));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
     // Update user by ID
     @PutMapping("/{id}")
     public Utilisateur updateUtilisateur(@PathVariable Long id, @RequestBody UpdateUtilisateurDto dto) {
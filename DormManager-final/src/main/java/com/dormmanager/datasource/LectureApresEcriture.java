@@ -0,0 +1,71 @@
+package com.dormmanager.datasource;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.time.Clock;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Instant de la dernière écriture validée, par client HTTP et par thread, pour que les
+ * lectures qui la suivent (la liste des demandes juste après affecterEtValiderDemande)
+ * ne partent pas sur une réplique qui ne l'a pas encore reçue.
+ *
+ * Le client est identifié par son en-tête Authorization, à défaut par son adresse : derrière
+ * un proxy, tous les clients se confondent et lisent plus souvent sur la base principale,
+ * ce qui reste correct. Hors requête HTTP (tâches planifiées), seul le thread compte.
+ */
+public class LectureApresEcriture {
+
+    private final Clock horloge;
+    private final ThreadLocal<Long> ecritureThread = new ThreadLocal<>();
+    private final Map<String, Long> ecrituresParClient = new ConcurrentHashMap<>();
+
+    public LectureApresEcriture(Clock horloge) {
+        this.horloge = horloge;
+    }
+
+    /**
+     * Appelé après le commit d'une transaction qui a écrit sur la base principale.
+     */
+    void ecritureValidee() {
+        long maintenant = horloge.millis();
+        ecritureThread.set(maintenant);
+        String client = clientCourant();
+        if (client != null) {
+            ecrituresParClient.merge(client, maintenant, Math::max);
+        }
+    }
+
+    /**
+     * Instant de la dernière écriture du client et du thread courants (Long.MIN_VALUE si aucune).
+     */
+    long derniereEcriture() {
+        Long parThread = ecritureThread.get();
+        String client = clientCourant();
+        Long parClient = client != null ? ecrituresParClient.get(client) : null;
+        return Math.max(parThread != null ? parThread : Long.MIN_VALUE, parClient != null ? parClient : Long.MIN_VALUE);
+    }
+
+    /**
+     * Oublie les écritures déjà visibles sur la réplique (antérieures à sa position).
+     */
+    void oublierAvant(long position) {
+        ecrituresParClient.values().removeIf(instant -> instant < position);
+    }
+
+    int clientsSuivis() {
+        return ecrituresParClient.size();
+    }
+
+    private static String clientCourant() {
+        if (RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributs) {
+            HttpServletRequest requete = attributs.getRequest();
+            String autorisation = requete.getHeader("Authorization");
+            return autorisation != null ? autorisation : requete.getRemoteAddr();
+        }
+        return null;
+    }
+}
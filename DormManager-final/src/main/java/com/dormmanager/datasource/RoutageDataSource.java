@@ -0,0 +1,181 @@
+package com.dormmanager.datasource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+
+/**
+ * Choisit la base d'une connexion au moment où elle sert pour la première fois :
+ *  - transaction @Transactional(readOnly = true) : la réplique, sauf si elle est en retard
+ *    ou si le client vient d'écrire une donnée qu'elle n'a pas encore (SurveillanceReplique) ;
+ *  - toute autre transaction, et tout accès hors transaction : la base principale.
+ *
+ * Les connexions de la base principale hors readOnly sont des proxys dynamiques JDK qui
+ * repèrent les écritures (executeUpdate, executeBatch, execute sans résultat) : seul le
+ * commit d'une transaction qui a écrit est retenu par LectureApresEcriture. Une transaction
+ * qui n'a fait que lire ne renvoie pas son client sur la base principale.
+ *
+ * Posé derrière un LazyConnectionDataSourceProxy : la connexion physique n'est demandée
+ * qu'à la première instruction, une fois le caractère readOnly de la transaction connu.
+ */
+public class RoutageDataSource extends AbstractRoutingDataSource {
+
+    enum Source { PRINCIPALE, REPLIQUE }
+
+    private final SurveillanceReplique surveillance;
+    private final LectureApresEcriture lectureApresEcriture;
+    // Ressource liée à la transaction dès sa première écriture : une seule synchronisation par transaction
+    private final Object ecritureEnCours = new Object();
+
+    public RoutageDataSource(DataSource principale, DataSource replique,
+                             SurveillanceReplique surveillance, LectureApresEcriture lectureApresEcriture) {
+        this.surveillance = surveillance;
+        this.lectureApresEcriture = lectureApresEcriture;
+        setTargetDataSources(Map.of(Source.PRINCIPALE, principale, Source.REPLIQUE, replique));
+        setDefaultTargetDataSource(principale);
+        setLenientFallback(false);
+        initialize();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return Source.PRINCIPALE;
+        }
+        return surveillance.lireSurReplique(lectureApresEcriture.derniereEcriture())
+                ? Source.REPLIQUE
+                : Source.PRINCIPALE;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return suivre(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return suivre(super.getConnection(username, password));
+    }
+
+    private Connection suivre(Connection connexion) {
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return connexion;
+        }
+        return (Connection) Proxy.newProxyInstance(RoutageDataSource.class.getClassLoader(),
+                new Class<?>[] {Connection.class}, new Connexion(connexion));
+    }
+
+    /**
+     * Hors transaction (auto-commit), l'écriture est déjà validée ; sinon elle le sera au
+     * commit, qui peut encore l'annuler.
+     */
+    private void ecritureEffectuee() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            lectureApresEcriture.ecritureValidee();
+            return;
+        }
+        if (TransactionSynchronizationManager.hasResource(ecritureEnCours)) {
+            return;
+        }
+        TransactionSynchronizationManager.bindResource(ecritureEnCours, Boolean.TRUE);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                lectureApresEcriture.ecritureValidee();
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(ecritureEnCours);
+            }
+        });
+    }
+
+    private static Object appeler(Object cible, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(cible, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private final class Connexion implements InvocationHandler {
+        private final Connection cible;
+
+        private Connexion(Connection cible) {
+            this.cible = cible;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "createStatement":
+                    return instruction(Statement.class, appeler(cible, method, args), proxy);
+                case "prepareStatement":
+                    return instruction(PreparedStatement.class, appeler(cible, method, args), proxy);
+                case "prepareCall":
+                    return instruction(CallableStatement.class, appeler(cible, method, args), proxy);
+                default:
+                    return appeler(cible, method, args);
+            }
+        }
+
+        private Object instruction(Class<? extends Statement> type, Object statement, Object connexion) {
+            return Proxy.newProxyInstance(RoutageDataSource.class.getClassLoader(),
+                    new Class<?>[] {type}, new Instruction((Statement) statement, (Connection) connexion));
+        }
+    }
+
+    private final class Instruction implements InvocationHandler {
+        private final Statement cible;
+        private final Connection connexion;
+
+        private Instruction(Statement cible, Connection connexion) {
+            this.cible = cible;
+            this.connexion = connexion;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "getConnection":
+                    return connexion;
+                case "executeUpdate", "executeLargeUpdate", "executeBatch", "executeLargeBatch": {
+                    Object resultat = appeler(cible, method, args);
+                    ecritureEffectuee();
+                    return resultat;
+                }
+                case "execute": {
+                    // false : l'instruction a produit un nombre de lignes modifiées, pas un ResultSet
+                    Object resultat = appeler(cible, method, args);
+                    if (Boolean.FALSE.equals(resultat)) {
+                        ecritureEffectuee();
+                    }
+                    return resultat;
+                }
+                default:
+                    return appeler(cible, method, args);
+            }
+        }
+    }
+}
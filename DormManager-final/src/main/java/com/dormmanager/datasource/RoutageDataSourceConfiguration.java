@@ -0,0 +1,74 @@
+package com.dormmanager.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Clock;
+
+/**
+ * Réplique en lecture, active dès que dormmanager.datasource.replique.url est renseignée :
+ * le DataSource de l'application devient un routage entre la base principale
+ * (spring.datasource.*) et la réplique. Sans cette propriété, Spring Boot crée son pool
+ * unique habituel.
+ *
+ * Flyway et la validation du schéma passent hors transaction, donc par la base principale.
+ */
+@Configuration
+@ConditionalOnProperty("dormmanager.datasource.replique.url")
+public class RoutageDataSourceConfiguration {
+
+    private static final String HIKARI = "spring.datasource.hikari";
+
+    @Bean
+    public SourcesReplication sourcesReplication(DataSourceProperties proprietes, Environment environment,
+            @Value("${dormmanager.datasource.replique.url}") String url,
+            @Value("${dormmanager.datasource.replique.username:${spring.datasource.username:}}") String utilisateur,
+            @Value("${dormmanager.datasource.replique.password:${spring.datasource.password:}}") String motDePasse) {
+        HikariDataSource principale = proprietes.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        HikariDataSource replique = DataSourceBuilder.create().type(HikariDataSource.class)
+                .driverClassName(proprietes.determineDriverClassName())
+                .url(url)
+                .username(utilisateur)
+                .password(motDePasse)
+                .build();
+        // Même réglage de pool que sans réplique (spring.datasource.hikari.*)
+        Binder binder = Binder.get(environment);
+        binder.bind(HIKARI, Bindable.ofInstance(principale));
+        binder.bind(HIKARI, Bindable.ofInstance(replique));
+        principale.setPoolName("principale");
+        replique.setPoolName("replique");
+        replique.setReadOnly(true);
+        return new SourcesReplication(principale, replique);
+    }
+
+    @Bean
+    public LectureApresEcriture lectureApresEcriture() {
+        return new LectureApresEcriture(Clock.systemUTC());
+    }
+
+    @Bean
+    public SurveillanceReplique surveillanceReplique(SourcesReplication sources,
+            LectureApresEcriture lectureApresEcriture,
+            @Value("${dormmanager.datasource.replique.retard-max-ms:5000}") long retardMaxMs) {
+        return new SurveillanceReplique(new JdbcTemplate(sources.getPrincipale()),
+                new JdbcTemplate(sources.getReplique()), lectureApresEcriture, retardMaxMs, Clock.systemUTC());
+    }
+
+    @Bean
+    public DataSource dataSource(SourcesReplication sources, SurveillanceReplique surveillanceReplique,
+                                 LectureApresEcriture lectureApresEcriture) {
+        return new LazyConnectionDataSourceProxy(new RoutageDataSource(sources.getPrincipale(),
+                sources.getReplique(), surveillanceReplique, lectureApresEcriture));
+    }
+}
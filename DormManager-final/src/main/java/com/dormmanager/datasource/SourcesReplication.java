@@ -0,0 +1,33 @@
+package com.dormmanager.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * Pools de connexions de la base principale et de la réplique, fermés avec le contexte.
+ * Ce ne sont pas des beans DataSource : seul le DataSource de routage est exposé à
+ * l'application (et chronométré par RequetesLentesPostProcessor).
+ */
+public class SourcesReplication implements AutoCloseable {
+
+    private final HikariDataSource principale;
+    private final HikariDataSource replique;
+
+    public SourcesReplication(HikariDataSource principale, HikariDataSource replique) {
+        this.principale = principale;
+        this.replique = replique;
+    }
+
+    public HikariDataSource getPrincipale() {
+        return principale;
+    }
+
+    public HikariDataSource getReplique() {
+        return replique;
+    }
+
+    @Override
+    public void close() {
+        replique.close();
+        principale.close();
+    }
+}
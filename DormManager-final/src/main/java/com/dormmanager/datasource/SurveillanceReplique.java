@@ -0,0 +1,124 @@
+package com.dormmanager.datasource;
+
+import com.dormmanager.dto.EtatRepliqueDto;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Retard de la réplique, mesuré par un battement : à chaque vérification, l'instant courant
+ * est écrit sur la base principale (table battement_replique) puis relu sur la réplique.
+ * L'instant relu est la position de la réplique : une écriture validée avant elle y est
+ * visible. Au-delà du retard maximal, ou si la réplique ne répond pas, toutes les lectures
+ * vont sur la base principale.
+ */
+public class SurveillanceReplique {
+
+    private static final Logger log = LoggerFactory.getLogger(SurveillanceReplique.class);
+
+    static final String ECRIRE_BATTEMENT = "UPDATE battement_replique SET instant = ? WHERE id = 1";
+    static final String LIRE_BATTEMENT = "SELECT instant FROM battement_replique WHERE id = 1";
+
+    private final JdbcTemplate principale;
+    private final JdbcTemplate replique;
+    private final LectureApresEcriture lectureApresEcriture;
+    private final long retardMaxMs;
+    private final Clock horloge;
+
+    // Instant du dernier battement lu sur la réplique (-1 : pas encore mesuré ou réplique injoignable)
+    private volatile long position = -1;
+    private volatile long derniereVerification = -1;
+    // Etat à la vérification précédente (null avant la première), pour ne journaliser que les changements
+    private Boolean disponible;
+
+    private final LongAdder lecturesReplique = new LongAdder();
+    private final LongAdder lecturesPrincipaleRetard = new LongAdder();
+    private final LongAdder lecturesPrincipaleApresEcriture = new LongAdder();
+
+    public SurveillanceReplique(JdbcTemplate principale, JdbcTemplate replique,
+                                LectureApresEcriture lectureApresEcriture, long retardMaxMs, Clock horloge) {
+        this.principale = principale;
+        this.replique = replique;
+        this.lectureApresEcriture = lectureApresEcriture;
+        this.retardMaxMs = retardMaxMs;
+        this.horloge = horloge;
+    }
+
+    @Scheduled(fixedDelayString = "${dormmanager.datasource.replique.battement-ms:1000}")
+    public void verifier() {
+        try {
+            principale.update(ECRIRE_BATTEMENT, horloge.millis());
+        } catch (DataAccessException e) {
+            log.warn("Battement de réplication non écrit sur la base principale", e);
+        }
+        long mesure;
+        try {
+            Long instant = replique.queryForObject(LIRE_BATTEMENT, Long.class);
+            // 0 : valeur initiale de la migration, aucun battement encore répliqué
+            mesure = instant != null && instant > 0 ? instant : -1;
+        } catch (DataAccessException e) {
+            log.warn("Battement de réplication illisible sur la réplique: {}", e.getMostSpecificCause().getMessage());
+            mesure = -1;
+        }
+        long maintenant = horloge.millis();
+        position = mesure;
+        derniereVerification = maintenant;
+        if (mesure >= 0) {
+            lectureApresEcriture.oublierAvant(mesure);
+        }
+
+        boolean aJour = aJour(mesure, maintenant);
+        if (!Boolean.valueOf(aJour).equals(disponible)) {
+            disponible = aJour;
+            if (aJour) {
+                log.info("Réplique à jour (retard {} ms) : lectures seules sur la réplique", maintenant - mesure);
+            } else {
+                log.warn("Réplique en retard ou injoignable (retard max {} ms) : lectures sur la base principale",
+                        retardMaxMs);
+            }
+        }
+    }
+
+    /**
+     * Décision de routage d'une transaction en lecture seule dont le client a écrit pour la
+     * dernière fois à l'instant donné. Le retard est évalué à l'instant de la décision : une
+     * surveillance qui ne tourne plus rend la réplique indisponible.
+     */
+    boolean lireSurReplique(long derniereEcriture) {
+        long p = position;
+        if (!aJour(p, horloge.millis())) {
+            lecturesPrincipaleRetard.increment();
+            return false;
+        }
+        if (derniereEcriture >= p) {
+            lecturesPrincipaleApresEcriture.increment();
+            return false;
+        }
+        lecturesReplique.increment();
+        return true;
+    }
+
+    private boolean aJour(long position, long maintenant) {
+        return position >= 0 && maintenant - position <= retardMaxMs;
+    }
+
+    public EtatRepliqueDto getEtat() {
+        long p = position;
+        long maintenant = horloge.millis();
+        EtatRepliqueDto etat = new EtatRepliqueDto();
+        etat.setDisponible(aJour(p, maintenant));
+        etat.setRetardMs(p >= 0 ? maintenant - p : null);
+        etat.setDerniereVerification(derniereVerification >= 0 ? Instant.ofEpochMilli(derniereVerification) : null);
+        etat.setLecturesReplique(lecturesReplique.sum());
+        etat.setLecturesPrincipaleRetard(lecturesPrincipaleRetard.sum());
+        etat.setLecturesPrincipaleApresEcriture(lecturesPrincipaleApresEcriture.sum());
+        etat.setClientsSuivis(lectureApresEcriture.clientsSuivis());
+        return etat;
+    }
+}
@@ -0,0 +1,78 @@
+package com.dormmanager.dto;
+
+import java.time.LocalDate;
+
+/**
+ * Santé d'une chambre : score de 0 (à reprendre) à 100 (sans incident, bon état)
+ * et les éléments qui le composent.
+ */
+public class ChambreSanteDto {
+
+    private Long chambreId;
+    private int score;
+    private int incidentsOuverts;
+    private int incidentsRecents;
+    private String dernierEtat;
+    private LocalDate dateDernierEtat;
+
+    public ChambreSanteDto() {
+    }
+
+    public ChambreSanteDto(Long chambreId, int score, int incidentsOuverts, int incidentsRecents,
+                           String dernierEtat, LocalDate dateDernierEtat) {
+        this.chambreId = chambreId;
+        this.score = score;
+        this.incidentsOuverts = incidentsOuverts;
+        this.incidentsRecents = incidentsRecents;
+        this.dernierEtat = dernierEtat;
+        this.dateDernierEtat = dateDernierEtat;
+    }
+
+    public Long getChambreId() {
+        return chambreId;
+    }
+
+    public void setChambreId(Long chambreId) {
+        this.chambreId = chambreId;
+    }
+
+    public int getScore() {
+        return score;
+    }
+
+    public void setScore(int score) {
+        this.score = score;
+    }
+
+    public int getIncidentsOuverts() {
+        return incidentsOuverts;
+    }
+
+    public void setIncidentsOuverts(int incidentsOuverts) {
+        this.incidentsOuverts = incidentsOuverts;
+    }
+
+    public int getIncidentsRecents() {
+        return incidentsRecents;
+    }
+
+    public void setIncidentsRecents(int incidentsRecents) {
+        this.incidentsRecents = incidentsRecents;
+    }
+
+    public String getDernierEtat() {
+        return dernierEtat;
+    }
+
+    public void setDernierEtat(String dernierEtat) {
+        this.dernierEtat = dernierEtat;
+    }
+
+    public LocalDate getDateDernierEtat() {
+        return dateDernierEtat;
+    }
+
+    public void setDateDernierEtat(LocalDate dateDernierEtat) {
+        this.dateDernierEtat = dateDernierEtat;
+    }
+}
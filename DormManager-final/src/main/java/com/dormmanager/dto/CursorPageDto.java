@@ -0,0 +1,100 @@
+package com.dormmanager.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Page de résultats paginée par curseur (keyset pagination).
+ *
+ * Le curseur est opaque pour le client : il encode les valeurs de tri de la
+ * dernière ligne renvoyée, ce qui permet de reprendre la lecture avec un
+ * simple "WHERE (cle) > (derniere cle)" au lieu d'un OFFSET coûteux.
+ */
+public class CursorPageDto<T> {
+
+    private static final String SEPARATOR = "\u001F";
+
+    private List<T> content;
+    private String nextCursor;
+    private boolean hasNext;
+    private int size;
+
+    public CursorPageDto() {
+    }
+
+    public CursorPageDto(List<T> content, String nextCursor) {
+        this.content = content;
+        this.nextCursor = nextCursor;
+        this.hasNext = nextCursor != null;
+        this.size = content.size();
+    }
+
+    /**
+     * Encode les valeurs de tri de la dernière ligne en un curseur opaque.
+     */
+    public static String encodeCursor(Object... parts) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < parts.length; i++) {
+            if (i > 0) {
+                sb.append(SEPARATOR);
+            }
+            sb.append(parts[i]);
+        }
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(sb.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Décode un curseur produit par {@link #encodeCursor(Object...)}.
+     * Retourne null si le curseur est absent (première page).
+     */
+    public static String[] decodeCursor(String cursor, int expectedParts) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        String[] parts;
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            parts = raw.split(SEPARATOR, -1);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Curseur invalide");
+        }
+        if (parts.length != expectedParts) {
+            throw new IllegalArgumentException("Curseur invalide");
+        }
+        return parts;
+    }
+
+    public List<T> getContent() {
+        return content;
+    }
+
+    public void setContent(List<T> content) {
+        this.content = content;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
+    public boolean isHasNext() {
+        return hasNext;
+    }
+
+    public void setHasNext(boolean hasNext) {
+        this.hasNext = hasNext;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public void setSize(int size) {
+        this.size = size;
+    }
+}
@@ -0,0 +1,92 @@
+package com.dormmanager.dto;
+
+import com.dormmanager.entity.EtatDesLieux;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+public class EtatDesLieuxDto {
+
+    private Long id;
+    private Long chambreId;
+    private Long affectationId;
+    private LocalDate dateEtat;
+    private String etat;
+    private String remarques;
+    // Empreintes des photos, à télécharger via /api/etats-des-lieux/photos/{hash}
+    private List<String> photos = new ArrayList<>();
+
+    public EtatDesLieuxDto() {
+    }
+
+    public EtatDesLieuxDto(EtatDesLieux e) {
+        this.id = e.getId();
+        this.dateEtat = e.getDateEtat();
+        this.etat = e.getEtat();
+        this.remarques = e.getRemarques();
+        e.getPhotos().forEach(p -> this.photos.add(p.getHash()));
+        if (e.getAffectation() != null) {
+            this.affectationId = e.getAffectation().getId();
+            if (e.getAffectation().getChambre() != null) {
+                this.chambreId = e.getAffectation().getChambre().getId();
+            }
+        }
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getChambreId() {
+        return chambreId;
+    }
+
+    public void setChambreId(Long chambreId) {
+        this.chambreId = chambreId;
+    }
+
+    public Long getAffectationId() {
+        return affectationId;
+    }
+
+    public void setAffectationId(Long affectationId) {
+        this.affectationId = affectationId;
+    }
+
+    public LocalDate getDateEtat() {
+        return dateEtat;
+    }
+
+    public void setDateEtat(LocalDate dateEtat) {
+        this.dateEtat = dateEtat;
+    }
+
+    public String getEtat() {
+        return etat;
+    }
+
+    public void setEtat(String etat) {
+        this.etat = etat;
+    }
+
+    public String getRemarques() {
+        return remarques;
+    }
+
+    public void setRemarques(String remarques) {
+        this.remarques = remarques;
+    }
+
+    public List<String> getPhotos() {
+        return photos;
+    }
+
+    public void setPhotos(List<String> photos) {
+        this.photos = photos;
+    }
+}
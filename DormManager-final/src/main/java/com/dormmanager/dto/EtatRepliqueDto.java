@@ -0,0 +1,74 @@
+package com.dormmanager.dto;
+
+import java.time.Instant;
+
+/**
+ * Etat de la réplique en lecture : retard mesuré par le battement de réplication et
+ * répartition des transactions en lecture seule depuis le démarrage.
+ */
+public class EtatRepliqueDto {
+
+    private boolean disponible;
+    private Long retardMs;
+    private Instant derniereVerification;
+    private long lecturesReplique;
+    private long lecturesPrincipaleRetard;
+    private long lecturesPrincipaleApresEcriture;
+    private int clientsSuivis;
+
+    public boolean isDisponible() {
+        return disponible;
+    }
+
+    public void setDisponible(boolean disponible) {
+        this.disponible = disponible;
+    }
+
+    public Long getRetardMs() {
+        return retardMs;
+    }
+
+    public void setRetardMs(Long retardMs) {
+        this.retardMs = retardMs;
+    }
+
+    public Instant getDerniereVerification() {
+        return derniereVerification;
+    }
+
+    public void setDerniereVerification(Instant derniereVerification) {
+        this.derniereVerification = derniereVerification;
+    }
+
+    public long getLecturesReplique() {
+        return lecturesReplique;
+    }
+
+    public void setLecturesReplique(long lecturesReplique) {
+        this.lecturesReplique = lecturesReplique;
+    }
+
+    public long getLecturesPrincipaleRetard() {
+        return lecturesPrincipaleRetard;
+    }
+
+    public void setLecturesPrincipaleRetard(long lecturesPrincipaleRetard) {
+        this.lecturesPrincipaleRetard = lecturesPrincipaleRetard;
+    }
+
+    public long getLecturesPrincipaleApresEcriture() {
+        return lecturesPrincipaleApresEcriture;
+    }
+
+    public void setLecturesPrincipaleApresEcriture(long lecturesPrincipaleApresEcriture) {
+        this.lecturesPrincipaleApresEcriture = lecturesPrincipaleApresEcriture;
+    }
+
+    public int getClientsSuivis() {
+        return clientsSuivis;
+    }
+
+    public void setClientsSuivis(int clientsSuivis) {
+        this.clientsSuivis = clientsSuivis;
+    }
+}
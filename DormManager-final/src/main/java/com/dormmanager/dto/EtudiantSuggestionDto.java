@@ -0,0 +1,85 @@
+package com.dormmanager.dto;
+
+/**
+ * Suggestion renvoyée par la recherche d'étudiants (typeahead).
+ */
+public class EtudiantSuggestionDto {
+
+    private Long id;
+    private String nom;
+    private String prenom;
+    private String matricule;
+    private String email;
+    private String filiere;
+    private int score;
+
+    public EtudiantSuggestionDto() {
+    }
+
+    public EtudiantSuggestionDto(Long id, String nom, String prenom, String matricule,
+                                 String email, String filiere, int score) {
+        this.id = id;
+        this.nom = nom;
+        this.prenom = prenom;
+        this.matricule = matricule;
+        this.email = email;
+        this.filiere = filiere;
+        this.score = score;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getNom() {
+        return nom;
+    }
+
+    public void setNom(String nom) {
+        this.nom = nom;
+    }
+
+    public String getPrenom() {
+        return prenom;
+    }
+
+    public void setPrenom(String prenom) {
+        this.prenom = prenom;
+    }
+
+    public String getMatricule() {
+        return matricule;
+    }
+
+    public void setMatricule(String matricule) {
+        this.matricule = matricule;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public void setEmail(String email) {
+        this.email = email;
+    }
+
+    public String getFiliere() {
+        return filiere;
+    }
+
+    public void setFiliere(String filiere) {
+        this.filiere = filiere;
+    }
+
+    public int getScore() {
+        return score;
+    }
+
+    public void setScore(int score) {
+        this.score = score;
+    }
+}
@@ -0,0 +1,157 @@
+package com.dormmanager.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Bilan d'un import en masse (chambres, étudiants...).
+ *
+ * Les erreurs sont reportées ligne par ligne, dans la limite de
+ * {@link #MAX_ERREURS} pour qu'un fichier entièrement invalide ne produise
+ * pas une réponse aussi volumineuse que l'import lui-même.
+ */
+public class ImportResultDto {
+
+    public static final int MAX_ERREURS = 1000;
+
+    private long lignesLues;
+    private long inserees;
+    private long misesAJour;
+    private long rejetees;
+    private long dureeMs;
+    private double lignesParSeconde;
+    private boolean erreursTronquees;
+    private List<Erreur> erreurs = new ArrayList<>();
+
+    public ImportResultDto() {
+    }
+
+    /**
+     * Enregistre une ligne rejetée.
+     */
+    public void rejeter(long ligne, String message) {
+        rejetees++;
+        if (erreurs.size() < MAX_ERREURS) {
+            erreurs.add(new Erreur(ligne, message));
+        } else {
+            erreursTronquees = true;
+        }
+    }
+
+    /**
+     * Fige la durée et le débit de l'import.
+     */
+    public void terminer(long debutNanos) {
+        long dureeNanos = System.nanoTime() - debutNanos;
+        this.dureeMs = dureeNanos / 1_000_000;
+        this.lignesParSeconde = dureeNanos > 0 ? lignesLues * 1_000_000_000.0 / dureeNanos : 0.0;
+    }
+
+    public void incrementerLignesLues() {
+        lignesLues++;
+    }
+
+    public void ajouterInserees(long n) {
+        inserees += n;
+    }
+
+    public void ajouterMisesAJour(long n) {
+        misesAJour += n;
+    }
+
+    public long getLignesLues() {
+        return lignesLues;
+    }
+
+    public void setLignesLues(long lignesLues) {
+        this.lignesLues = lignesLues;
+    }
+
+    public long getInserees() {
+        return inserees;
+    }
+
+    public void setInserees(long inserees) {
+        this.inserees = inserees;
+    }
+
+    public long getMisesAJour() {
+        return misesAJour;
+    }
+
+    public void setMisesAJour(long misesAJour) {
+        this.misesAJour = misesAJour;
+    }
+
+    public long getRejetees() {
+        return rejetees;
+    }
+
+    public void setRejetees(long rejetees) {
+        this.rejetees = rejetees;
+    }
+
+    public long getDureeMs() {
+        return dureeMs;
+    }
+
+    public void setDureeMs(long dureeMs) {
+        this.dureeMs = dureeMs;
+    }
+
+    public double getLignesParSeconde() {
+        return lignesParSeconde;
+    }
+
+    public void setLignesParSeconde(double lignesParSeconde) {
+        this.lignesParSeconde = lignesParSeconde;
+    }
+
+    public boolean isErreursTronquees() {
+        return erreursTronquees;
+    }
+
+    public void setErreursTronquees(boolean erreursTronquees) {
+        this.erreursTronquees = erreursTronquees;
+    }
+
+    public List<Erreur> getErreurs() {
+        return erreurs;
+    }
+
+    public void setErreurs(List<Erreur> erreurs) {
+        this.erreurs = erreurs;
+    }
+
+    /**
+     * Erreur de validation ou d'insertion d'une ligne du fichier importé.
+     */
+    public static class Erreur {
+        private long ligne;
+        private String message;
+
+        public Erreur() {
+        }
+
+        public Erreur(long ligne, String message) {
+            this.ligne = ligne;
+            this.message = message;
+        }
+
+        public long getLigne() {
+            return ligne;
+        }
+
+        public void setLigne(long ligne) {
+            this.ligne = ligne;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+
+        public void setMessage(String message) {
+            this.message = message;
+        }
+    }
+}
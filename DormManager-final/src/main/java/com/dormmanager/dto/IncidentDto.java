@@ -0,0 +1,126 @@
+package com.dormmanager.dto;
+
+import com.dormmanager.entity.AgentTechnique;
+import com.dormmanager.entity.Chambre;
+import com.dormmanager.entity.Incident;
+
+import java.time.LocalDate;
+
+public class IncidentDto {
+
+    private Long id;
+    private String description;
+    private String specialite;
+    private String statut;
+    private LocalDate dateSignalement;
+    private LocalDate dateResolution;
+
+    private Long chambreId;
+    private String chambreNumero;
+
+    private Long agentId;
+    private String agentNomComplet;
+
+    public IncidentDto() {
+    }
+
+    public IncidentDto(Incident incident) {
+        this.id = incident.getId();
+        this.description = incident.getDescription();
+        this.specialite = incident.getSpecialite();
+        this.statut = incident.getStatut() != null ? incident.getStatut().toString() : null;
+        this.dateSignalement = incident.getDateSignalement();
+        this.dateResolution = incident.getDateResolution();
+
+        Chambre c = incident.getChambre();
+        if (c != null) {
+            this.chambreId = c.getId();
+            this.chambreNumero = c.getNumero();
+        }
+        AgentTechnique a = incident.getAgentAssigne();
+        if (a != null) {
+            this.agentId = a.getId();
+            this.agentNomComplet = a.getPrenom() + " " + a.getNom();
+        }
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public void setDescription(String description) {
+        this.description = description;
+    }
+
+    public String getSpecialite() {
+        return specialite;
+    }
+
+    public void setSpecialite(String specialite) {
+        this.specialite = specialite;
+    }
+
+    public String getStatut() {
+        return statut;
+    }
+
+    public void setStatut(String statut) {
+        this.statut = statut;
+    }
+
+    public LocalDate getDateSignalement() {
+        return dateSignalement;
+    }
+
+    public void setDateSignalement(LocalDate dateSignalement) {
+        this.dateSignalement = dateSignalement;
+    }
+
+    public LocalDate getDateResolution() {
+        return dateResolution;
+    }
+
+    public void setDateResolution(LocalDate dateResolution) {
+        this.dateResolution = dateResolution;
+    }
+
+    public Long getChambreId() {
+        return chambreId;
+    }
+
+    public void setChambreId(Long chambreId) {
+        this.chambreId = chambreId;
+    }
+
+    public String getChambreNumero() {
+        return chambreNumero;
+    }
+
+    public void setChambreNumero(String chambreNumero) {
+        this.chambreNumero = chambreNumero;
+    }
+
+    public Long getAgentId() {
+        return agentId;
+    }
+
+    public void setAgentId(Long agentId) {
+        this.agentId = agentId;
+    }
+
+    public String getAgentNomComplet() {
+        return agentNomComplet;
+    }
+
+    public void setAgentNomComplet(String agentNomComplet) {
+        this.agentNomComplet = agentNomComplet;
+    }
+}
@@ -0,0 +1,35 @@
+package com.dormmanager.dto;
+
+public class IncidentRequestDto {
+
+    private Long chambreId;
+    private String description;
+    private String specialite;
+
+    public IncidentRequestDto() {
+    }
+
+    public Long getChambreId() {
+        return chambreId;
+    }
+
+    public void setChambreId(Long chambreId) {
+        this.chambreId = chambreId;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public void setDescription(String description) {
+        this.description = description;
+    }
+
+    public String getSpecialite() {
+        return specialite;
+    }
+
+    public void setSpecialite(String specialite) {
+        this.specialite = specialite;
+    }
+}
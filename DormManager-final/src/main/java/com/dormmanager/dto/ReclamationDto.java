@@ -3,6 +3,7 @@ package com.dormmanager.dto;
 
 import com.dormmanager.entity.Reclamation;
 import com.dormmanager.entity.Utilisateur;
+import com.fasterxml.jackson.annotation.JsonInclude;
 
 import java.time.LocalDate;
 
@@ -18,6 +19,10 @@ public class ReclamationDto {
     private String prenom;
     private String email;
 
+    // Pertinence, renseignée uniquement pour les résultats de recherche plein texte
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Double score;
+
     public ReclamationDto() {
     }
 
@@ -100,6 +105,14 @@ public class ReclamationDto {
         this.status = status;
     }
 
+    public Double getScore() {
+        return score;
+    }
+
+    public void setScore(Double score) {
+        this.score = score;
+    }
+
     // Convenience for frontend: full name of the user who submitted the reclamation
     public String getEtudiantNomComplet() {
         if (prenom == null && nom == null) return null;
@@ -0,0 +1,89 @@
+package com.dormmanager.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Instruction SQL lente vue par le DataSource : l'exécution la plus lente (paramètres liés
+ * et méthode appelante compris) et le nombre d'exécutions au-dessus du seuil.
+ */
+public class RequeteLenteDto {
+
+    private String sql;
+    private long dureeMs;
+    private List<String> parametres;
+    private String origine;
+    private String thread;
+    private LocalDateTime date;
+    private long executionsLentes;
+
+    public RequeteLenteDto() {
+    }
+
+    public RequeteLenteDto(String sql, long dureeMs, List<String> parametres, String origine,
+                           String thread, LocalDateTime date, long executionsLentes) {
+        this.sql = sql;
+        this.dureeMs = dureeMs;
+        this.parametres = parametres;
+        this.origine = origine;
+        this.thread = thread;
+        this.date = date;
+        this.executionsLentes = executionsLentes;
+    }
+
+    public String getSql() {
+        return sql;
+    }
+
+    public void setSql(String sql) {
+        this.sql = sql;
+    }
+
+    public long getDureeMs() {
+        return dureeMs;
+    }
+
+    public void setDureeMs(long dureeMs) {
+        this.dureeMs = dureeMs;
+    }
+
+    public List<String> getParametres() {
+        return parametres;
+    }
+
+    public void setParametres(List<String> parametres) {
+        this.parametres = parametres;
+    }
+
+    public String getOrigine() {
+        return origine;
+    }
+
+    public void setOrigine(String origine) {
+        this.origine = origine;
+    }
+
+    public String getThread() {
+        return thread;
+    }
+
+    public void setThread(String thread) {
+        this.thread = thread;
+    }
+
+    public LocalDateTime getDate() {
+        return date;
+    }
+
+    public void setDate(LocalDateTime date) {
+        this.date = date;
+    }
+
+    public long getExecutionsLentes() {
+        return executionsLentes;
+    }
+
+    public void setExecutionsLentes(long executionsLentes) {
+        this.executionsLentes = executionsLentes;
+    }
+}
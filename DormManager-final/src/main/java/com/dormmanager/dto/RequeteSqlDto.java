@@ -0,0 +1,75 @@
+package com.dormmanager.dto;
+
+/**
+ * Statistiques Hibernate d'une requête (HQL ou native) depuis le démarrage ou la remise à zéro.
+ */
+public class RequeteSqlDto {
+
+    private String requete;
+    private long executions;
+    private long lignes;
+    private long tempsMoyenMs;
+    private long tempsMaxMs;
+    private long tempsTotalMs;
+
+    public RequeteSqlDto() {
+    }
+
+    public RequeteSqlDto(String requete, long executions, long lignes,
+                         long tempsMoyenMs, long tempsMaxMs, long tempsTotalMs) {
+        this.requete = requete;
+        this.executions = executions;
+        this.lignes = lignes;
+        this.tempsMoyenMs = tempsMoyenMs;
+        this.tempsMaxMs = tempsMaxMs;
+        this.tempsTotalMs = tempsTotalMs;
+    }
+
+    public String getRequete() {
+        return requete;
+    }
+
+    public void setRequete(String requete) {
+        this.requete = requete;
+    }
+
+    public long getExecutions() {
+        return executions;
+    }
+
+    public void setExecutions(long executions) {
+        this.executions = executions;
+    }
+
+    public long getLignes() {
+        return lignes;
+    }
+
+    public void setLignes(long lignes) {
+        this.lignes = lignes;
+    }
+
+    public long getTempsMoyenMs() {
+        return tempsMoyenMs;
+    }
+
+    public void setTempsMoyenMs(long tempsMoyenMs) {
+        this.tempsMoyenMs = tempsMoyenMs;
+    }
+
+    public long getTempsMaxMs() {
+        return tempsMaxMs;
+    }
+
+    public void setTempsMaxMs(long tempsMaxMs) {
+        this.tempsMaxMs = tempsMaxMs;
+    }
+
+    public long getTempsTotalMs() {
+        return tempsTotalMs;
+    }
+
+    public void setTempsTotalMs(long tempsTotalMs) {
+        this.tempsTotalMs = tempsTotalMs;
+    }
+}
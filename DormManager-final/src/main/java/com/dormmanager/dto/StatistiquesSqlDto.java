@@ -0,0 +1,146 @@
+package com.dormmanager.dto;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Statistiques Hibernate agrégées : instructions, chargements d'entités et de collections,
+ * caches, et les requêtes les plus lentes. Les "récupérations" sont les chargements
+ * déclenchés à la navigation (association non jointe) : un nombre qui suit le volume des
+ * données plutôt que le nombre de requêtes trahit un N+1.
+ */
+public class StatistiquesSqlDto {
+
+    private Instant depuis;
+    private long instructionsPreparees;
+    private long requetesExecutees;
+    private long entitesChargees;
+    private long entitesRecuperees;
+    private long collectionsChargees;
+    private long collectionsRecuperees;
+    private long cacheSecondNiveauHits;
+    private long cacheSecondNiveauMisses;
+    private long cacheSecondNiveauPuts;
+    private long cacheRequetesHits;
+    private long cacheRequetesMisses;
+    private Map<String, Long> recuperationsParEntite = new LinkedHashMap<>();
+    private List<RequeteSqlDto> requetesLentes = new ArrayList<>();
+
+    public StatistiquesSqlDto() {
+    }
+
+    public Instant getDepuis() {
+        return depuis;
+    }
+
+    public void setDepuis(Instant depuis) {
+        this.depuis = depuis;
+    }
+
+    public long getInstructionsPreparees() {
+        return instructionsPreparees;
+    }
+
+    public void setInstructionsPreparees(long instructionsPreparees) {
+        this.instructionsPreparees = instructionsPreparees;
+    }
+
+    public long getRequetesExecutees() {
+        return requetesExecutees;
+    }
+
+    public void setRequetesExecutees(long requetesExecutees) {
+        this.requetesExecutees = requetesExecutees;
+    }
+
+    public long getEntitesChargees() {
+        return entitesChargees;
+    }
+
+    public void setEntitesChargees(long entitesChargees) {
+        this.entitesChargees = entitesChargees;
+    }
+
+    public long getEntitesRecuperees() {
+        return entitesRecuperees;
+    }
+
+    public void setEntitesRecuperees(long entitesRecuperees) {
+        this.entitesRecuperees = entitesRecuperees;
+    }
+
+    public long getCollectionsChargees() {
+        return collectionsChargees;
+    }
+
+    public void setCollectionsChargees(long collectionsChargees) {
+        this.collectionsChargees = collectionsChargees;
+    }
+
+    public long getCollectionsRecuperees() {
+        return collectionsRecuperees;
+    }
+
+    public void setCollectionsRecuperees(long collectionsRecuperees) {
+        this.collectionsRecuperees = collectionsRecuperees;
+    }
+
+    public long getCacheSecondNiveauHits() {
+        return cacheSecondNiveauHits;
+    }
+
+    public void setCacheSecondNiveauHits(long cacheSecondNiveauHits) {
+        this.cacheSecondNiveauHits = cacheSecondNiveauHits;
+    }
+
+    public long getCacheSecondNiveauMisses() {
+        return cacheSecondNiveauMisses;
+    }
+
+    public void setCacheSecondNiveauMisses(long cacheSecondNiveauMisses) {
+        this.cacheSecondNiveauMisses = cacheSecondNiveauMisses;
+    }
+
+    public long getCacheSecondNiveauPuts() {
+        return cacheSecondNiveauPuts;
+    }
+
+    public void setCacheSecondNiveauPuts(long cacheSecondNiveauPuts) {
+        this.cacheSecondNiveauPuts = cacheSecondNiveauPuts;
+    }
+
+    public long getCacheRequetesHits() {
+        return cacheRequetesHits;
+    }
+
+    public void setCacheRequetesHits(long cacheRequetesHits) {
+        this.cacheRequetesHits = cacheRequetesHits;
+    }
+
+    public long getCacheRequetesMisses() {
+        return cacheRequetesMisses;
+    }
+
+    public void setCacheRequetesMisses(long cacheRequetesMisses) {
+        this.cacheRequetesMisses = cacheRequetesMisses;
+    }
+
+    public Map<String, Long> getRecuperationsParEntite() {
+        return recuperationsParEntite;
+    }
+
+    public void setRecuperationsParEntite(Map<String, Long> recuperationsParEntite) {
+        this.recuperationsParEntite = recuperationsParEntite;
+    }
+
+    public List<RequeteSqlDto> getRequetesLentes() {
+        return requetesLentes;
+    }
+
+    public void setRequetesLentes(List<RequeteSqlDto> requetesLentes) {
+        this.requetesLentes = requetesLentes;
+    }
+}
@@ -0,0 +1,154 @@
+package com.dormmanager.dto;
+
+import com.dormmanager.entity.AgentTechnique;
+import com.dormmanager.entity.Chambre;
+import com.dormmanager.entity.TacheMaintenance;
+
+import java.time.LocalDate;
+
+public class TacheMaintenanceDto {
+
+    private Long id;
+    private String type;
+    private String statut;
+    private Long chambreId;
+    private String chambreNumero;
+    private Long affectationId;
+    private Long agentId;
+    private String agentNomComplet;
+    private String tournee;
+    private LocalDate dateCreation;
+    private LocalDate datePrevue;
+    private LocalDate dateCloture;
+    private String remarques;
+
+    public TacheMaintenanceDto() {
+    }
+
+    public TacheMaintenanceDto(TacheMaintenance tache) {
+        this.id = tache.getId();
+        this.type = tache.getType() != null ? tache.getType().toString() : null;
+        this.statut = tache.getStatut() != null ? tache.getStatut().toString() : null;
+        this.affectationId = tache.getAffectation() != null ? tache.getAffectation().getId() : null;
+        this.tournee = tache.getTournee();
+        this.dateCreation = tache.getDateCreation();
+        this.datePrevue = tache.getDatePrevue();
+        this.dateCloture = tache.getDateCloture();
+        this.remarques = tache.getRemarques();
+
+        Chambre c = tache.getChambre();
+        if (c != null) {
+            this.chambreId = c.getId();
+            this.chambreNumero = c.getNumero();
+        }
+        AgentTechnique a = tache.getAgentAssigne();
+        if (a != null) {
+            this.agentId = a.getId();
+            this.agentNomComplet = a.getPrenom() + " " + a.getNom();
+        }
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public String getStatut() {
+        return statut;
+    }
+
+    public void setStatut(String statut) {
+        this.statut = statut;
+    }
+
+    public Long getChambreId() {
+        return chambreId;
+    }
+
+    public void setChambreId(Long chambreId) {
+        this.chambreId = chambreId;
+    }
+
+    public String getChambreNumero() {
+        return chambreNumero;
+    }
+
+    public void setChambreNumero(String chambreNumero) {
+        this.chambreNumero = chambreNumero;
+    }
+
+    public Long getAffectationId() {
+        return affectationId;
+    }
+
+    public void setAffectationId(Long affectationId) {
+        this.affectationId = affectationId;
+    }
+
+    public Long getAgentId() {
+        return agentId;
+    }
+
+    public void setAgentId(Long agentId) {
+        this.agentId = agentId;
+    }
+
+    public String getAgentNomComplet() {
+        return agentNomComplet;
+    }
+
+    public void setAgentNomComplet(String agentNomComplet) {
+        this.agentNomComplet = agentNomComplet;
+    }
+
+    public String getTournee() {
+        return tournee;
+    }
+
+    public void setTournee(String tournee) {
+        this.tournee = tournee;
+    }
+
+    public LocalDate getDateCreation() {
+        return dateCreation;
+    }
+
+    public void setDateCreation(LocalDate dateCreation) {
+        this.dateCreation = dateCreation;
+    }
+
+    public LocalDate getDatePrevue() {
+        return datePrevue;
+    }
+
+    public void setDatePrevue(LocalDate datePrevue) {
+        this.datePrevue = datePrevue;
+    }
+
+    public LocalDate getDateCloture() {
+        return dateCloture;
+    }
+
+    public void setDateCloture(LocalDate dateCloture) {
+        this.dateCloture = dateCloture;
+    }
+
+    public String getRemarques() {
+        return remarques;
+    }
+
+    public void setRemarques(String remarques) {
+        this.remarques = remarques;
+    }
+}
@@ -0,0 +1,57 @@
+package com.dormmanager.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tournée de maintenance d'un agent : les tâches d'un secteur (bâtiment / étage) pour une
+ * journée, dans l'ordre de passage.
+ */
+public class TourneeDto {
+
+    private String code;
+    private Long agentId;
+    private String agentNomComplet;
+    private List<TacheMaintenanceDto> taches = new ArrayList<>();
+
+    public TourneeDto() {
+    }
+
+    public TourneeDto(String code, Long agentId, String agentNomComplet) {
+        this.code = code;
+        this.agentId = agentId;
+        this.agentNomComplet = agentNomComplet;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    public void setCode(String code) {
+        this.code = code;
+    }
+
+    public Long getAgentId() {
+        return agentId;
+    }
+
+    public void setAgentId(Long agentId) {
+        this.agentId = agentId;
+    }
+
+    public String getAgentNomComplet() {
+        return agentNomComplet;
+    }
+
+    public void setAgentNomComplet(String agentNomComplet) {
+        this.agentNomComplet = agentNomComplet;
+    }
+
+    public List<TacheMaintenanceDto> getTaches() {
+        return taches;
+    }
+
+    public void setTaches(List<TacheMaintenanceDto> taches) {
+        this.taches = taches;
+    }
+}
@@ -0,0 +1,28 @@
+package com.dormmanager.dto;
+
+import java.util.List;
+
+public class TransitionIncidentsDto {
+
+    private List<Long> ids;
+    private String statut;
+
+    public TransitionIncidentsDto() {
+    }
+
+    public List<Long> getIds() {
+        return ids;
+    }
+
+    public void setIds(List<Long> ids) {
+        this.ids = ids;
+    }
+
+    public String getStatut() {
+        return statut;
+    }
+
+    public void setStatut(String statut) {
+        this.statut = statut;
+    }
+}
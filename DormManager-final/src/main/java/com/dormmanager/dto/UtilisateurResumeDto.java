@@ -0,0 +1,94 @@
+package com.dormmanager.dto;
+
+import com.dormmanager.entity.Utilisateur;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * Ligne de l'annuaire des utilisateurs : uniquement les colonnes de la table
+ * utilisateur (jamais le mot de passe). Les champs propres au rôle (matricule,
+ * spécialité, bureau...) ne sont renseignés dans details que sur demande.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class UtilisateurResumeDto {
+
+    private Long id;
+    private String nom;
+    private String prenom;
+    private String email;
+    private Utilisateur.Role role;
+    private LocalDateTime dateCreation;
+    private Map<String, Object> details;
+
+    public UtilisateurResumeDto() {
+    }
+
+    // Utilisé par la projection JPQL "SELECT new ..."
+    public UtilisateurResumeDto(Long id, String nom, String prenom, String email,
+                                Utilisateur.Role role, LocalDateTime dateCreation) {
+        this.id = id;
+        this.nom = nom;
+        this.prenom = prenom;
+        this.email = email;
+        this.role = role;
+        this.dateCreation = dateCreation;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getNom() {
+        return nom;
+    }
+
+    public void setNom(String nom) {
+        this.nom = nom;
+    }
+
+    public String getPrenom() {
+        return prenom;
+    }
+
+    public void setPrenom(String prenom) {
+        this.prenom = prenom;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public void setEmail(String email) {
+        this.email = email;
+    }
+
+    public Utilisateur.Role getRole() {
+        return role;
+    }
+
+    public void setRole(Utilisateur.Role role) {
+        this.role = role;
+    }
+
+    public LocalDateTime getDateCreation() {
+        return dateCreation;
+    }
+
+    public void setDateCreation(LocalDateTime dateCreation) {
+        this.dateCreation = dateCreation;
+    }
+
+    public Map<String, Object> getDetails() {
+        return details;
+    }
+
+    public void setDetails(Map<String, Object> details) {
+        this.details = details;
+    }
+}
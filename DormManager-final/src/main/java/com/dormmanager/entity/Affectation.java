@@ -4,6 +4,12 @@ import jakarta.persistence.*;
 import java.time.LocalDate;
 
 @Entity
+@Table(indexes = {
+        // Dernière affectation d'un étudiant
+        @Index(name = "idx_affectation_etudiant_debut", columnList = "etudiant_id, date_debut"),
+        // Affectations actives ou plus récentes d'une chambre (sous-requêtes NOT EXISTS)
+        @Index(name = "idx_affectation_chambre_fin", columnList = "chambre_id, date_fin")
+})
 public class Affectation {
     @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -2,9 +2,20 @@ package com.dormmanager.entity;
 
 import jakarta.persistence.*;
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.util.*;
 
 @Entity
+@Table(indexes = {
+        // Keyset pagination de la liste des chambres (ORDER BY numero, id)
+        @Index(name = "idx_chambre_numero_id", columnList = "numero, id"),
+        // Filtres de la liste paginée
+        @Index(name = "idx_chambre_etat_type_capacite", columnList = "etat, type, capacite")
+})
+// Cache de second niveau (région et durée de vie dans ehcache.xml)
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class Chambre {
     @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -6,6 +6,10 @@ import jakarta.persistence.*;
 import java.util.Date;
 
 @Entity
+@Table(indexes = {
+        // File des demandes par statut, les plus récentes d'abord
+        @Index(name = "idx_demande_statut_date", columnList = "statut, date_soumission")
+})
 public class DemandeHebergement {
 
     @Id
@@ -2,6 +2,8 @@ package com.dormmanager.entity;
 
 import jakarta.persistence.*;
 import java.time.LocalDate;
+import java.util.LinkedHashSet;
+import java.util.Set;
 
 @Entity
 public class EtatDesLieux {
@@ -15,6 +17,13 @@ public class EtatDesLieux {
     @ManyToOne(optional = false)
     private Affectation affectation;
 
+    // Photos de l'inspection, référencées par empreinte de contenu
+    @ManyToMany
+    @JoinTable(name = "etat_des_lieux_photo",
+            joinColumns = @JoinColumn(name = "etat_des_lieux_id"),
+            inverseJoinColumns = @JoinColumn(name = "photo_hash"))
+    private Set<PieceJointe> photos = new LinkedHashSet<>();
+
     // Getters/setters
     public Long getId() { return id; }
     public void setId(Long id) { this.id = id; }
@@ -26,4 +35,6 @@ public class EtatDesLieux {
     public void setRemarques(String remarques) { this.remarques = remarques; }
     public Affectation getAffectation() { return affectation; }
     public void setAffectation(Affectation affectation) { this.affectation = affectation; }
+    public Set<PieceJointe> getPhotos() { return photos; }
+    public void setPhotos(Set<PieceJointe> photos) { this.photos = photos; }
 }
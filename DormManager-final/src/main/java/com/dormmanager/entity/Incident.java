@@ -4,13 +4,28 @@ import jakarta.persistence.*;
 import java.time.LocalDate;
 
 @Entity
+@Table(indexes = {
+        // Listes de travail des agents : statut + agent, puis keyset sur (date_signalement, id)
+        @Index(name = "idx_incident_statut_agent_date_id",
+                columnList = "statut, agent_assigne_id, date_signalement, id"),
+        // Historique des incidents d'une chambre
+        @Index(name = "idx_incident_chambre_date_id", columnList = "chambre_id, date_signalement, id")
+})
 public class Incident {
     @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
     private String description;
-    private String statut = "OUVERT";
+
+    // Spécialité attendue de l'agent (plomberie, électricité...), facultative
+    private String specialite;
+
+    // Stocké en texte : les lignes existantes ("OUVERT") restent lisibles
+    @Enumerated(EnumType.STRING)
+    private StatutIncident statut = StatutIncident.OUVERT;
+
     private LocalDate dateSignalement = LocalDate.now();
+    private LocalDate dateResolution;
 
     @ManyToOne(optional = false)
     private Chambre chambre;
@@ -23,10 +38,14 @@ public class Incident {
     public void setId(Long id) { this.id = id; }
     public String getDescription() { return description; }
     public void setDescription(String description) { this.description = description; }
-    public String getStatut() { return statut; }
-    public void setStatut(String statut) { this.statut = statut; }
+    public String getSpecialite() { return specialite; }
+    public void setSpecialite(String specialite) { this.specialite = specialite; }
+    public StatutIncident getStatut() { return statut; }
+    public void setStatut(StatutIncident statut) { this.statut = statut; }
     public LocalDate getDateSignalement() { return dateSignalement; }
     public void setDateSignalement(LocalDate dateSignalement) { this.dateSignalement = dateSignalement; }
+    public LocalDate getDateResolution() { return dateResolution; }
+    public void setDateResolution(LocalDate dateResolution) { this.dateResolution = dateResolution; }
     public Chambre getChambre() { return chambre; }
     public void setChambre(Chambre chambre) { this.chambre = chambre; }
     public AgentTechnique getAgentAssigne() { return agentAssigne; }
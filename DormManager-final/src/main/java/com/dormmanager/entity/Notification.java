@@ -4,6 +4,10 @@ import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
+@Table(indexes = {
+        // Notifications non lues et liste d'un utilisateur
+        @Index(name = "idx_notification_destinataire_lu_date", columnList = "destinataire_id, lu, date")
+})
 public class Notification {
 
     @Id
@@ -0,0 +1,66 @@
+package com.dormmanager.entity;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+import org.springframework.data.domain.Persistable;
+
+import java.time.LocalDateTime;
+
+/**
+ * Fichier joint (photo d'état des lieux...), identifié par l'empreinte SHA-256 de son
+ * contenu : un même fichier envoyé deux fois n'est stocké qu'une fois.
+ * Le contenu est sur disque (BlobStore), la table n'en garde que la description et le
+ * nombre de références : à zéro, le PieceJointeCollector supprime la ligne et le blob.
+ *
+ * L'empreinte est fixée par l'application : save() insère une pièce jointe créée par new
+ * (persist) au lieu de la fusionner. Une ligne créée entre-temps par un envoi simultané
+ * fait échouer l'insertion au lieu d'être écrasée avec une seule référence.
+ */
+@Entity
+@Table(indexes = {
+        // Recherche des pièces jointes orphelines par le ramasse-miettes
+        @Index(name = "idx_piece_jointe_references_date", columnList = "nombre_references, date_creation")
+})
+public class PieceJointe implements Persistable<String> {
+    // Empreinte SHA-256 en hexadécimal
+    @Id
+    @Column(length = 64)
+    private String hash;
+
+    private String typeMime;
+    private long taille;
+    private LocalDateTime dateCreation = LocalDateTime.now();
+
+    // Nombre d'états des lieux qui référencent ce fichier
+    private int nombreReferences;
+
+    // Vrai jusqu'à l'insertion ou au chargement de la ligne
+    @Transient
+    private boolean nouvelle = true;
+
+    @PostPersist
+    @PostLoad
+    void enregistree() {
+        nouvelle = false;
+    }
+
+    @Override
+    @JsonIgnore
+    public String getId() { return hash; }
+
+    @Override
+    @JsonIgnore
+    public boolean isNew() { return nouvelle; }
+
+    // Getters/setters
+    public String getHash() { return hash; }
+    public void setHash(String hash) { this.hash = hash; }
+    public String getTypeMime() { return typeMime; }
+    public void setTypeMime(String typeMime) { this.typeMime = typeMime; }
+    public long getTaille() { return taille; }
+    public void setTaille(long taille) { this.taille = taille; }
+    public LocalDateTime getDateCreation() { return dateCreation; }
+    public void setDateCreation(LocalDateTime dateCreation) { this.dateCreation = dateCreation; }
+    public int getNombreReferences() { return nombreReferences; }
+    public void setNombreReferences(int nombreReferences) { this.nombreReferences = nombreReferences; }
+}
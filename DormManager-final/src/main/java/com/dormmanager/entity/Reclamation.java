@@ -12,6 +12,12 @@ import jakarta.persistence.*;
 import java.time.LocalDate;
 
 @Entity
+@Table(indexes = {
+        // File des gestionnaires : filtre de statut puis keyset sur (date_envoi, id)
+        @Index(name = "idx_reclamation_status_date_id", columnList = "status, date_envoi, id"),
+        // Historique paginé d'un étudiant
+        @Index(name = "idx_reclamation_utilisateur_date_id", columnList = "utilisateur_id, date_envoi, id")
+})
 public class Reclamation {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
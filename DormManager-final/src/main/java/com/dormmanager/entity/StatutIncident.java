@@ -0,0 +1,32 @@
+package com.dormmanager.entity;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Cycle de vie d'un incident : OUVERT -> ASSIGNE -> EN_COURS -> RESOLU.
+ * Un incident peut être réassigné tant qu'il n'est pas commencé, et clos
+ * directement (doublon, problème déjà réglé) depuis tout statut non résolu.
+ */
+public enum StatutIncident {
+    OUVERT,
+    ASSIGNE,
+    EN_COURS,
+    RESOLU;
+
+    /**
+     * Statuts depuis lesquels on peut passer à celui-ci.
+     */
+    public Set<StatutIncident> precedents() {
+        switch (this) {
+            case ASSIGNE:
+                return EnumSet.of(OUVERT, ASSIGNE);
+            case EN_COURS:
+                return EnumSet.of(ASSIGNE);
+            case RESOLU:
+                return EnumSet.of(OUVERT, ASSIGNE, EN_COURS);
+            default:
+                return EnumSet.noneOf(StatutIncident.class);
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.dormmanager.entity;
+
+/**
+ * A_FAIRE : créée au départ de l'occupant ; PLANIFIEE : placée dans la tournée d'un agent ;
+ * TERMINEE : close. La chambre reste en maintenance tant qu'une tâche n'est pas TERMINEE.
+ */
+public enum StatutTache {
+    A_FAIRE,
+    PLANIFIEE,
+    TERMINEE
+}
@@ -0,0 +1,67 @@
+package com.dormmanager.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDate;
+
+@Entity
+@Table(indexes = {
+        // Tâches à planifier et tournées des agents
+        @Index(name = "idx_tache_statut_agent_tournee", columnList = "statut, agent_assigne_id, tournee"),
+        // Tâches ouvertes d'une chambre (remise en location)
+        @Index(name = "idx_tache_chambre_statut", columnList = "chambre_id, statut")
+}, uniqueConstraints = {
+        // Un départ n'ouvre qu'une tâche de chaque type, même si la génération est relancée
+        @UniqueConstraint(name = "uk_tache_affectation_type", columnNames = {"affectation_id", "type"})
+})
+public class TacheMaintenance {
+    @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    private TypeTacheMaintenance type;
+
+    @Enumerated(EnumType.STRING)
+    private StatutTache statut = StatutTache.A_FAIRE;
+
+    @ManyToOne(optional = false)
+    private Chambre chambre;
+
+    // Affectation dont la fin a ouvert la tâche
+    @ManyToOne
+    private Affectation affectation;
+
+    @ManyToOne
+    private AgentTechnique agentAssigne;
+
+    // Tournée du jour : "date/secteur" (ex: 2024-06-01/A-E2)
+    private String tournee;
+
+    private LocalDate dateCreation = LocalDate.now();
+    private LocalDate datePrevue;
+    private LocalDate dateCloture;
+    private String remarques;
+
+    // Getters/setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    public TypeTacheMaintenance getType() { return type; }
+    public void setType(TypeTacheMaintenance type) { this.type = type; }
+    public StatutTache getStatut() { return statut; }
+    public void setStatut(StatutTache statut) { this.statut = statut; }
+    public Chambre getChambre() { return chambre; }
+    public void setChambre(Chambre chambre) { this.chambre = chambre; }
+    public Affectation getAffectation() { return affectation; }
+    public void setAffectation(Affectation affectation) { this.affectation = affectation; }
+    public AgentTechnique getAgentAssigne() { return agentAssigne; }
+    public void setAgentAssigne(AgentTechnique agentAssigne) { this.agentAssigne = agentAssigne; }
+    public String getTournee() { return tournee; }
+    public void setTournee(String tournee) { this.tournee = tournee; }
+    public LocalDate getDateCreation() { return dateCreation; }
+    public void setDateCreation(LocalDate dateCreation) { this.dateCreation = dateCreation; }
+    public LocalDate getDatePrevue() { return datePrevue; }
+    public void setDatePrevue(LocalDate datePrevue) { this.datePrevue = datePrevue; }
+    public LocalDate getDateCloture() { return dateCloture; }
+    public void setDateCloture(LocalDate dateCloture) { this.dateCloture = dateCloture; }
+    public String getRemarques() { return remarques; }
+    public void setRemarques(String remarques) { this.remarques = remarques; }
+}
@@ -0,0 +1,9 @@
+package com.dormmanager.entity;
+
+/**
+ * Tâches ouvertes à chaque départ d'un occupant, avant de remettre la chambre en location.
+ */
+public enum TypeTacheMaintenance {
+    INSPECTION,
+    NETTOYAGE
+}
@@ -3,10 +3,26 @@ package com.dormmanager.entity;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.CacheLayout;
+import org.hibernate.annotations.QueryCacheLayout;
 import java.time.LocalDateTime;
 
 @Entity
 @Inheritance(strategy = InheritanceType.JOINED)
+@Table(indexes = {
+        // Keyset pagination de l'annuaire (ORDER BY nom, id), avec ou sans filtre de rôle
+        @Index(name = "idx_utilisateur_nom_id", columnList = "nom, id"),
+        @Index(name = "idx_utilisateur_role_nom_id", columnList = "role, nom, id"),
+        // Inscriptions par période (croissance du tableau de bord), rôle inclus pour les comptages par rôle
+        @Index(name = "idx_utilisateur_date_creation_role", columnList = "date_creation, role")
+})
+// Cache de second niveau partagé par les sous-classes (région et durée de vie dans ehcache.xml)
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+// Cache de requêtes : identifiant et sous-classe, la classe racine étant abstraite
+@QueryCacheLayout(layout = CacheLayout.SHALLOW_WITH_DISCRIMINATOR)
 public abstract class Utilisateur {
 
     @Id
@@ -0,0 +1,41 @@
+package com.dormmanager.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.Marker;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Filtre Logback qui ne laisse passer qu'un événement sur N d'une catégorie de loggers
+ * (préfixe de nom), par exemple org.hibernate.SQL : le SQL reste observable en production
+ * sans écrire chaque instruction. Les autres catégories ne sont pas concernées, et le niveau
+ * configuré de la catégorie s'applique toujours.
+ *
+ * Déclaré dans logback-spring.xml (categorie, taux).
+ */
+public class EchantillonnageFilter extends TurboFilter {
+
+    private String categorie;
+    private int taux = 100;
+    private final AtomicLong evenements = new AtomicLong();
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        // format est null pour les tests de niveau (isDebugEnabled...) : seuls les vrais événements comptent
+        if (format == null || categorie == null || !logger.getName().startsWith(categorie)) {
+            return FilterReply.NEUTRAL;
+        }
+        return evenements.getAndIncrement() % taux == 0 ? FilterReply.NEUTRAL : FilterReply.DENY;
+    }
+
+    public void setCategorie(String categorie) {
+        this.categorie = categorie;
+    }
+
+    public void setTaux(int taux) {
+        this.taux = Math.max(1, taux);
+    }
+}
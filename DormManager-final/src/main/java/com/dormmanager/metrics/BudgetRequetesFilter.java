@@ -0,0 +1,51 @@
+package com.dormmanager.metrics;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Journalise les requêtes HTTP qui exécutent plus d'instructions SQL que le budget,
+ * avec l'instruction la plus répétée (le plus souvent un N+1 à corriger par un fetch join
+ * ou un graphe d'entités).
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+public class BudgetRequetesFilter extends OncePerRequestFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(BudgetRequetesFilter.class);
+
+    private final int budget;
+
+    public BudgetRequetesFilter(@Value("${dormmanager.sql.budget-par-requete:20}") int budget) {
+        this.budget = budget;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        CompteurRequetes.demarrer();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            CompteurRequetes.Bilan bilan = CompteurRequetes.arreter();
+            if (bilan.instructions() > budget) {
+                Object route = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+                log.warn("{} {} : {} instructions SQL (budget {}), la plus répétée {} fois : {}",
+                        request.getMethod(), route != null ? route : request.getRequestURI(),
+                        bilan.instructions(), budget, bilan.repetitions(), bilan.plusRepetee());
+            }
+        }
+    }
+}
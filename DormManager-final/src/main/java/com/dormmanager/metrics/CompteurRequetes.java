@@ -0,0 +1,63 @@
+package com.dormmanager.metrics;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Compte les instructions SQL préparées par Hibernate sur le thread courant, entre
+ * demarrer() et arreter() : une requête HTTP (BudgetRequetesFilter) ou un appel de
+ * service dans un test. La même instruction répétée avec des paramètres différents
+ * signale un N+1 ; le bilan donne la plus répétée.
+ *
+ * Déclaré à Hibernate par la propriété hibernate.session_factory.statement_inspector.
+ */
+public class CompteurRequetes implements StatementInspector {
+
+    private static final ThreadLocal<Compteur> COURANT = ThreadLocal.withInitial(Compteur::new);
+
+    /**
+     * Instructions comptées, et l'instruction la plus répétée (null si aucune).
+     */
+    public record Bilan(int instructions, String plusRepetee, int repetitions) {
+    }
+
+    @Override
+    public String inspect(String sql) {
+        Compteur compteur = COURANT.get();
+        if (compteur.actif) {
+            compteur.instructions++;
+            compteur.parInstruction.merge(sql, 1, Integer::sum);
+        }
+        return sql;
+    }
+
+    public static void demarrer() {
+        Compteur compteur = COURANT.get();
+        compteur.actif = true;
+        compteur.instructions = 0;
+        compteur.parInstruction.clear();
+    }
+
+    public static Bilan arreter() {
+        Compteur compteur = COURANT.get();
+        compteur.actif = false;
+        String plusRepetee = null;
+        int repetitions = 0;
+        for (Map.Entry<String, Integer> e : compteur.parInstruction.entrySet()) {
+            if (e.getValue() > repetitions) {
+                plusRepetee = e.getKey();
+                repetitions = e.getValue();
+            }
+        }
+        compteur.parInstruction.clear();
+        return new Bilan(compteur.instructions, plusRepetee, repetitions);
+    }
+
+    private static final class Compteur {
+        boolean actif;
+        int instructions;
+        final Map<String, Integer> parInstruction = new HashMap<>();
+    }
+}
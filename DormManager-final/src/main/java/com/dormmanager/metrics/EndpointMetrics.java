@@ -0,0 +1,177 @@
+package com.dormmanager.metrics;
+
+import com.dormmanager.entity.Utilisateur;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latences, débit et erreurs par endpoint (route du contrôleur, pas l'URL brute), méthode
+ * HTTP et rôle de l'utilisateur, exposés au format texte Prometheus.
+ *
+ * L'enregistrement ne fait aucune allocation une fois la série créée : la série est
+ * retrouvée par la route (chaîne déjà calculée par Spring) puis par indices de méthode
+ * et de rôle, et la latence part dans un Recorder HdrHistogram (sans verrou ni
+ * allocation). Les histogrammes d'intervalle sont cumulés à la lecture seulement.
+ */
+@Component
+public class EndpointMetrics {
+
+    static final long LATENCE_MAX_US = TimeUnit.MINUTES.toMicros(1);
+    static final String AUTRE = "AUTRE";
+    static final String ANONYME = "ANONYME";
+
+    // Bornes des buckets Prometheus, en secondes
+    static final double[] BUCKETS = {0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10};
+    static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+
+    private static final String[] METHODES = {"GET", "POST", "PUT", "DELETE", "PATCH", AUTRE};
+    private static final Utilisateur.Role[] ROLES = Utilisateur.Role.values();
+
+    private final Map<String, Endpoint> endpoints = new ConcurrentHashMap<>();
+
+    /**
+     * Enregistre une requête terminée. role vaut null pour une requête non authentifiée.
+     */
+    public void enregistrer(String methode, String route, Utilisateur.Role role, int statut, long dureeNanos) {
+        Endpoint endpoint = endpoints.get(route);
+        if (endpoint == null) {
+            endpoint = endpoints.computeIfAbsent(route, r -> new Endpoint());
+        }
+        int indexRole = role != null ? role.ordinal() : ROLES.length;
+        endpoint.serie(indexMethode(methode) * (ROLES.length + 1) + indexRole)
+                .enregistrer(Math.max(0, dureeNanos / 1000), statut);
+    }
+
+    /**
+     * Toutes les séries au format texte Prometheus (version 0.0.4) : un histogramme et un
+     * résumé (quantiles exacts à 1 % près) des latences, et les erreurs 4xx/5xx. Le débit
+     * se déduit du compteur _count (rate()).
+     */
+    public String prometheus() {
+        List<Instantane> instantanes = new ArrayList<>();
+        new TreeMap<>(endpoints).forEach((route, endpoint) -> {
+            for (int i = 0; i < endpoint.series.length(); i++) {
+                Serie serie = endpoint.series.get(i);
+                if (serie != null) {
+                    int indexRole = i % (ROLES.length + 1);
+                    instantanes.add(serie.instantane(METHODES[i / (ROLES.length + 1)], route,
+                            indexRole < ROLES.length ? ROLES[indexRole].name() : ANONYME));
+                }
+            }
+        });
+
+        StringBuilder sortie = new StringBuilder();
+        sortie.append("# HELP dormmanager_http_requests_seconds Latence des requêtes HTTP par endpoint et rôle\n");
+        sortie.append("# TYPE dormmanager_http_requests_seconds histogram\n");
+        for (Instantane i : instantanes) {
+            for (double borne : BUCKETS) {
+                long cumul = i.latences.getCountBetweenValues(0, (long) (borne * 1_000_000));
+                ligne(sortie, "dormmanager_http_requests_seconds_bucket", i, "le", nombre(borne), cumul);
+            }
+            ligne(sortie, "dormmanager_http_requests_seconds_bucket", i, "le", "+Inf", i.total);
+            ligne(sortie, "dormmanager_http_requests_seconds_sum", i, null, null, i.sommeMicros / 1_000_000.0);
+            ligne(sortie, "dormmanager_http_requests_seconds_count", i, null, null, i.total);
+        }
+        sortie.append("# HELP dormmanager_http_requests_latency_seconds Quantiles de latence HdrHistogram depuis le démarrage\n");
+        sortie.append("# TYPE dormmanager_http_requests_latency_seconds summary\n");
+        for (Instantane i : instantanes) {
+            for (double quantile : QUANTILES) {
+                ligne(sortie, "dormmanager_http_requests_latency_seconds", i, "quantile", nombre(quantile),
+                        i.latences.getValueAtPercentile(quantile * 100) / 1_000_000.0);
+            }
+            ligne(sortie, "dormmanager_http_requests_latency_seconds_sum", i, null, null, i.sommeMicros / 1_000_000.0);
+            ligne(sortie, "dormmanager_http_requests_latency_seconds_count", i, null, null, i.total);
+        }
+        sortie.append("# HELP dormmanager_http_errors_total Réponses en erreur par classe de statut\n");
+        sortie.append("# TYPE dormmanager_http_errors_total counter\n");
+        for (Instantane i : instantanes) {
+            ligne(sortie, "dormmanager_http_errors_total", i, "status", "4xx", i.erreursClient);
+            ligne(sortie, "dormmanager_http_errors_total", i, "status", "5xx", i.erreursServeur);
+        }
+        return sortie.toString();
+    }
+
+    private static int indexMethode(String methode) {
+        return switch (methode != null ? methode : "") {
+            case "GET" -> 0;
+            case "POST" -> 1;
+            case "PUT" -> 2;
+            case "DELETE" -> 3;
+            case "PATCH" -> 4;
+            default -> 5;
+        };
+    }
+
+    private static void ligne(StringBuilder sortie, String nom, Instantane i, String label, String valeurLabel, double valeur) {
+        sortie.append(nom).append("{method=\"").append(i.methode)
+                .append("\",uri=\"").append(echapper(i.route))
+                .append("\",role=\"").append(i.role).append('"');
+        if (label != null) {
+            sortie.append(',').append(label).append("=\"").append(valeurLabel).append('"');
+        }
+        sortie.append("} ").append(nombre(valeur)).append('\n');
+    }
+
+    private static String nombre(double valeur) {
+        return valeur == Math.rint(valeur) && Math.abs(valeur) < 1e15
+                ? Long.toString((long) valeur) : Double.toString(valeur);
+    }
+
+    private static String echapper(String valeur) {
+        return valeur.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    private static final class Endpoint {
+        final AtomicReferenceArray<Serie> series = new AtomicReferenceArray<>(METHODES.length * (ROLES.length + 1));
+
+        Serie serie(int index) {
+            Serie serie = series.get(index);
+            if (serie == null) {
+                series.compareAndSet(index, null, new Serie());
+                serie = series.get(index);
+            }
+            return serie;
+        }
+    }
+
+    private static final class Serie {
+        final Recorder recorder = new Recorder(LATENCE_MAX_US, 2);
+        final LongAdder sommeMicros = new LongAdder();
+        final LongAdder erreursClient = new LongAdder();
+        final LongAdder erreursServeur = new LongAdder();
+        // Cumul depuis le démarrage, alimenté par les histogrammes d'intervalle à chaque lecture
+        final Histogram cumul = new Histogram(LATENCE_MAX_US, 2);
+        Histogram intervalle;
+
+        void enregistrer(long micros, int statut) {
+            recorder.recordValue(Math.min(micros, LATENCE_MAX_US));
+            sommeMicros.add(micros);
+            if (statut >= 500) {
+                erreursServeur.increment();
+            } else if (statut >= 400) {
+                erreursClient.increment();
+            }
+        }
+
+        synchronized Instantane instantane(String methode, String route, String role) {
+            intervalle = recorder.getIntervalHistogram(intervalle);
+            cumul.add(intervalle);
+            return new Instantane(methode, route, role, cumul.copy(), cumul.getTotalCount(),
+                    sommeMicros.sum(), erreursClient.sum(), erreursServeur.sum());
+        }
+    }
+
+    private record Instantane(String methode, String route, String role, Histogram latences, long total,
+                              long sommeMicros, long erreursClient, long erreursServeur) {
+    }
+}
@@ -0,0 +1,51 @@
+package com.dormmanager.metrics;
+
+import com.dormmanager.controller.AuthController;
+import com.dormmanager.entity.Utilisateur;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Chronomètre chaque requête et l'enregistre dans EndpointMetrics sous la route du
+ * contrôleur qui l'a traitée. Le rôle est celui de la session ouverte par le jeton
+ * "Authorization: Bearer" de la requête, conservé à la connexion : aucune lecture en base
+ * ni allocation (la session est retrouvée par la valeur entière de l'en-tête), et tous les
+ * contrôleurs authentifiés sont couverts.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class EndpointMetricsFilter extends OncePerRequestFilter {
+
+    private final EndpointMetrics metrics;
+
+    public EndpointMetricsFilter(EndpointMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        // Lu avant le traitement : une déconnexion pendant la requête retire la session
+        Utilisateur.Role role = AuthController.roleEntete(request.getHeader("Authorization"));
+        long debut = System.nanoTime();
+        boolean echec = true;
+        try {
+            chain.doFilter(request, response);
+            echec = false;
+        } finally {
+            // Une exception non gérée remonte avant que le statut ne soit écrit : c'est une 500
+            Object route = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            metrics.enregistrer(request.getMethod(), route instanceof String r ? r : EndpointMetrics.AUTRE,
+                    role, echec ? 500 : response.getStatus(), System.nanoTime() - debut);
+        }
+    }
+}
@@ -0,0 +1,291 @@
+package com.dormmanager.metrics;
+
+import com.dormmanager.dto.RequeteLenteDto;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.InputStream;
+import java.io.Reader;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Instructions SQL les plus lentes de la dernière fenêtre (une heure par défaut), mesurées
+ * par RequetesLentesDataSource : pour chaque instruction au-dessus du seuil, l'exécution la
+ * plus lente avec ses paramètres liés et la méthode de l'application qui l'a lancée.
+ *
+ * Seules les exécutions au-dessus du seuil passent ici (le verrou et la remontée de la pile
+ * ne coûtent rien aux autres). Au plus max instructions sont gardées : une nouvelle
+ * instruction lente remplace la moins lente si elle l'est davantage.
+ *
+ * Les paramètres liés aux colonnes sensibles (mot de passe, email) sont masqués avant
+ * d'être gardés ou journalisés : la colonne d'un paramètre est celle de la liste d'un
+ * INSERT, ou celle qui le précède dans une affectation ou une comparaison (SET email = ?,
+ * WHERE u1_0.email IN (?, ?)).
+ */
+@Component
+public class RequetesLentes {
+
+    private static final Logger log = LoggerFactory.getLogger(RequetesLentes.class);
+
+    static final int LONGUEUR_MAX_PARAMETRE = 100;
+    static final String MASQUE = "<masqué>";
+
+    private static final Set<String> COLONNES_SENSIBLES = Set.of("mot_de_passe", "email");
+    // Littéral, identifiant (éventuellement qualifié ou entre guillemets), paramètre, ou tout autre caractère
+    private static final Pattern JETON = Pattern.compile(
+            "'(?:[^']|'')*'|\"[^\"]*\"|`[^`]*`|[A-Za-z_][A-Za-z0-9_$.]*|\\?|\\S");
+    // Ce qui peut séparer un paramètre de sa colonne : =, IN (?, ?), LIKE, BETWEEN ? AND ?, LOWER(col) = ?
+    private static final Set<String> ENTRE_COLONNE_ET_PARAMETRE = Set.of(
+            "?", ",", "(", ")", "=", "<", ">", "!", "in", "not", "like", "ilike", "is", "between", "and");
+
+    private static final StackWalker PILE = StackWalker.getInstance();
+    private static final String APPLICATION = "com.dormmanager.";
+
+    private final long seuilNanos;
+    private final int max;
+    private final Duration fenetre;
+    private final Clock horloge;
+    private final Map<String, Capture> captures = new HashMap<>();
+
+    @Autowired
+    public RequetesLentes(@Value("${dormmanager.sql.requetes-lentes.seuil-ms:200}") long seuilMs,
+                          @Value("${dormmanager.sql.requetes-lentes.max:20}") int max,
+                          @Value("${dormmanager.sql.requetes-lentes.fenetre-minutes:60}") long fenetreMinutes) {
+        this(seuilMs, max, Duration.ofMinutes(fenetreMinutes), Clock.systemDefaultZone());
+    }
+
+    RequetesLentes(long seuilMs, int max, Duration fenetre, Clock horloge) {
+        this.seuilNanos = TimeUnit.MILLISECONDS.toNanos(seuilMs);
+        this.max = Math.max(1, max);
+        this.fenetre = fenetre;
+        this.horloge = horloge;
+    }
+
+    public boolean estLente(long dureeNanos) {
+        return dureeNanos >= seuilNanos;
+    }
+
+    /**
+     * Enregistre une exécution lente. parametres contient les valeurs liées (index JDBC - 1),
+     * null si l'instruction n'en a pas.
+     */
+    public void enregistrer(String sql, Object[] parametres, int nombreParametres, long dureeNanos) {
+        if (sql == null || !estLente(dureeNanos)) {
+            return;
+        }
+        String origine = origine();
+        List<String> valeurs = formater(sql, parametres, nombreParametres);
+        Instant maintenant = horloge.instant();
+        synchronized (this) {
+            purger(maintenant);
+            Capture capture = captures.get(sql);
+            if (capture == null) {
+                if (captures.size() >= max) {
+                    Capture moinsLente = captures.values().stream()
+                            .min(Comparator.comparingLong(c -> c.dureeNanos))
+                            .orElseThrow();
+                    if (moinsLente.dureeNanos >= dureeNanos) {
+                        return;
+                    }
+                    captures.remove(moinsLente.sql);
+                }
+                capture = new Capture(sql);
+                captures.put(sql, capture);
+            }
+            capture.executions++;
+            if (dureeNanos > capture.dureeNanos) {
+                capture.dureeNanos = dureeNanos;
+                capture.parametres = valeurs;
+                capture.origine = origine;
+                capture.thread = Thread.currentThread().getName();
+                capture.instant = maintenant;
+            }
+        }
+        log.warn("Instruction SQL lente ({} ms) depuis {} : {} {}",
+                TimeUnit.NANOSECONDS.toMillis(dureeNanos), origine, sql, valeurs);
+    }
+
+    /**
+     * Instructions lentes de la fenêtre, de la plus lente à la moins lente.
+     */
+    public synchronized List<RequeteLenteDto> getRequetesLentes() {
+        purger(horloge.instant());
+        return captures.values().stream()
+                .sorted(Comparator.comparingLong((Capture c) -> c.dureeNanos).reversed())
+                .map(c -> new RequeteLenteDto(c.sql, TimeUnit.NANOSECONDS.toMillis(c.dureeNanos), c.parametres,
+                        c.origine, c.thread, LocalDateTime.ofInstant(c.instant, horloge.getZone()), c.executions))
+                .collect(Collectors.toList());
+    }
+
+    public synchronized void reinitialiser() {
+        captures.clear();
+    }
+
+    private void purger(Instant maintenant) {
+        Instant limite = maintenant.minus(fenetre);
+        captures.values().removeIf(c -> c.instant.isBefore(limite));
+    }
+
+    /**
+     * Première méthode de l'application dans la pile (le service le plus souvent), hors
+     * mesure elle-même et proxys générés.
+     */
+    private static String origine() {
+        return PILE.walk(frames -> frames
+                .filter(f -> f.getClassName().startsWith(APPLICATION)
+                        && !f.getClassName().equals(RequetesLentes.class.getName())
+                        && !f.getClassName().startsWith(RequetesLentesDataSource.class.getName())
+                        && !f.getClassName().contains("$$"))
+                .findFirst()
+                .map(f -> f.getClassName().substring(f.getClassName().lastIndexOf('.') + 1)
+                        + "." + f.getMethodName() + ":" + f.getLineNumber())
+                .orElse("inconnue"));
+    }
+
+    static List<String> formater(String sql, Object[] parametres, int nombre) {
+        if (parametres == null || nombre == 0) {
+            return List.of();
+        }
+        BitSet sensibles = parametresSensibles(sql);
+        List<String> valeurs = new ArrayList<>(nombre);
+        for (int i = 0; i < nombre; i++) {
+            valeurs.add(sensibles.get(i) ? MASQUE : formater(parametres[i]));
+        }
+        return valeurs;
+    }
+
+    /**
+     * Index (à partir de 0) des paramètres de l'instruction liés à une colonne sensible.
+     */
+    static BitSet parametresSensibles(String sql) {
+        List<String> jetons = new ArrayList<>();
+        Matcher m = JETON.matcher(sql);
+        while (m.find()) {
+            jetons.add(m.group());
+        }
+        List<String> colonnesInsert = colonnesInsert(jetons);
+        int valeurs = colonnesInsert != null ? indexDe(jetons, "values") : -1;
+        BitSet sensibles = new BitSet();
+        int parametre = 0;
+        int profondeur = 0;
+        int element = 0;
+        for (int i = 0; i < jetons.size(); i++) {
+            String jeton = jetons.get(i);
+            boolean dansValeurs = valeurs >= 0 && i > valeurs;
+            if (dansValeurs) {
+                // VALUES (a, b), (c, d) : position dans la ligne, au premier niveau de parenthèses
+                if (jeton.equals("(") && ++profondeur == 1) {
+                    element = 0;
+                } else if (jeton.equals(")")) {
+                    profondeur--;
+                } else if (jeton.equals(",") && profondeur == 1) {
+                    element++;
+                }
+            }
+            if (!jeton.equals("?")) {
+                continue;
+            }
+            String colonne = dansValeurs && profondeur >= 1 && !colonnesInsert.isEmpty()
+                    ? colonnesInsert.get(element % colonnesInsert.size())
+                    : colonnePrecedente(jetons, i);
+            if (COLONNES_SENSIBLES.contains(colonne)) {
+                sensibles.set(parametre);
+            }
+            parametre++;
+        }
+        return sensibles;
+    }
+
+    // Colonnes de INSERT INTO t (c1, c2) VALUES ..., null pour une autre instruction ou sans liste de colonnes
+    private static List<String> colonnesInsert(List<String> jetons) {
+        int valeurs = indexDe(jetons, "values");
+        if (jetons.isEmpty() || !jetons.get(0).equalsIgnoreCase("insert") || valeurs < 0) {
+            return null;
+        }
+        int ouverture = jetons.indexOf("(");
+        if (ouverture < 0 || ouverture > valeurs) {
+            return null;
+        }
+        List<String> colonnes = new ArrayList<>();
+        for (int i = ouverture + 1; i < valeurs && !jetons.get(i).equals(")"); i++) {
+            if (!jetons.get(i).equals(",")) {
+                colonnes.add(colonne(jetons.get(i)));
+            }
+        }
+        return colonnes;
+    }
+
+    private static String colonnePrecedente(List<String> jetons, int parametre) {
+        for (int i = parametre - 1; i >= 0; i--) {
+            String jeton = colonne(jetons.get(i));
+            if (!ENTRE_COLONNE_ET_PARAMETRE.contains(jeton)) {
+                return jeton;
+            }
+        }
+        return null;
+    }
+
+    // u1_0.email, "EMAIL", `email` -> email
+    private static String colonne(String jeton) {
+        String nom = jeton.toLowerCase(Locale.ROOT);
+        if (nom.length() > 1 && (nom.charAt(0) == '"' || nom.charAt(0) == '`')) {
+            nom = nom.substring(1, nom.length() - 1);
+        }
+        return nom.substring(nom.lastIndexOf('.') + 1);
+    }
+
+    private static int indexDe(List<String> jetons, String motCle) {
+        for (int i = 0; i < jetons.size(); i++) {
+            if (jetons.get(i).equalsIgnoreCase(motCle)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static String formater(Object valeur) {
+        if (valeur == null) {
+            return "NULL";
+        }
+        if (valeur instanceof byte[] octets) {
+            return "<" + octets.length + " octets>";
+        }
+        if (valeur instanceof InputStream || valeur instanceof Reader) {
+            return "<flux>";
+        }
+        String texte = String.valueOf(valeur);
+        return texte.length() > LONGUEUR_MAX_PARAMETRE ? texte.substring(0, LONGUEUR_MAX_PARAMETRE) + "…" : texte;
+    }
+
+    private static final class Capture {
+        final String sql;
+        long dureeNanos;
+        List<String> parametres;
+        String origine;
+        String thread;
+        Instant instant;
+        long executions;
+
+        Capture(String sql) {
+            this.sql = sql;
+        }
+    }
+}
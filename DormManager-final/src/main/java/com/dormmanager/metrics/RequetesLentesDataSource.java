@@ -0,0 +1,148 @@
+package com.dormmanager.metrics;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+
+/**
+ * DataSource qui chronomètre chaque exécution d'instruction SQL et transmet les lentes à
+ * RequetesLentes. Connexions et instructions sont des proxys dynamiques JDK : les valeurs
+ * liées (setXxx(index, valeur)) sont retenues par référence dans un tableau, et ne sont
+ * mises en forme que si l'exécution dépasse le seuil.
+ *
+ * Posé autour du DataSource de l'application par RequetesLentesPostProcessor.
+ */
+public class RequetesLentesDataSource extends DelegatingDataSource {
+
+    private final RequetesLentes requetesLentes;
+
+    public RequetesLentesDataSource(DataSource cible, RequetesLentes requetesLentes) {
+        super(cible);
+        this.requetesLentes = requetesLentes;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return envelopper(obtainTargetDataSource().getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return envelopper(obtainTargetDataSource().getConnection(username, password));
+    }
+
+    private Connection envelopper(Connection connexion) {
+        return (Connection) Proxy.newProxyInstance(RequetesLentesDataSource.class.getClassLoader(),
+                new Class<?>[] {Connection.class}, new Connexion(connexion));
+    }
+
+    private static Object appeler(Object cible, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(cible, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private final class Connexion implements InvocationHandler {
+        private final Connection cible;
+
+        private Connexion(Connection cible) {
+            this.cible = cible;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "createStatement":
+                    return instruction(Statement.class, appeler(cible, method, args), proxy, null);
+                case "prepareStatement":
+                    return instruction(PreparedStatement.class, appeler(cible, method, args), proxy, (String) args[0]);
+                case "prepareCall":
+                    return instruction(CallableStatement.class, appeler(cible, method, args), proxy, (String) args[0]);
+                default:
+                    return appeler(cible, method, args);
+            }
+        }
+
+        private Object instruction(Class<? extends Statement> type, Object statement, Object connexion, String sql) {
+            return Proxy.newProxyInstance(RequetesLentesDataSource.class.getClassLoader(),
+                    new Class<?>[] {type}, new Instruction((Statement) statement, (Connection) connexion, sql));
+        }
+    }
+
+    private final class Instruction implements InvocationHandler {
+        private final Statement cible;
+        private final Connection connexion;
+        private final String sql;
+        private Object[] parametres;
+        private int nombreParametres;
+
+        private Instruction(Statement cible, Connection connexion, String sql) {
+            this.cible = cible;
+            this.connexion = connexion;
+            this.sql = sql;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String nom = method.getName();
+            if (nom.startsWith("execute")) {
+                // Statement.execute(sql...) porte son SQL ; une instruction préparée a ses paramètres
+                boolean prepare = args == null || !(args[0] instanceof String);
+                long debut = System.nanoTime();
+                try {
+                    return appeler(cible, method, args);
+                } finally {
+                    long duree = System.nanoTime() - debut;
+                    if (requetesLentes.estLente(duree)) {
+                        requetesLentes.enregistrer(prepare ? sql : (String) args[0],
+                                prepare ? parametres : null, prepare ? nombreParametres : 0, duree);
+                    }
+                }
+            }
+            if (nom.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index) {
+                lier(index, "setNull".equals(nom) ? null : args[1]);
+            } else if ("clearParameters".equals(nom)) {
+                if (parametres != null) {
+                    Arrays.fill(parametres, null);
+                }
+                nombreParametres = 0;
+            } else if ("getConnection".equals(nom)) {
+                return connexion;
+            } else if ("equals".equals(nom)) {
+                return proxy == args[0];
+            } else if ("hashCode".equals(nom)) {
+                return System.identityHashCode(proxy);
+            }
+            return appeler(cible, method, args);
+        }
+
+        private void lier(int index, Object valeur) {
+            if (index < 1) {
+                return; // le pilote rejettera l'appel
+            }
+            if (parametres == null) {
+                parametres = new Object[Math.max(8, index)];
+            } else if (index > parametres.length) {
+                parametres = Arrays.copyOf(parametres, Math.max(index, parametres.length * 2));
+            }
+            parametres[index - 1] = valeur;
+            nombreParametres = Math.max(nombreParametres, index);
+        }
+    }
+}
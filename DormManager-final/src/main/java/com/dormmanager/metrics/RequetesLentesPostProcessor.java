@@ -0,0 +1,31 @@
+package com.dormmanager.metrics;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+
+/**
+ * Enveloppe le DataSource de l'application (le pool Hikari de Spring Boot) dans un
+ * RequetesLentesDataSource : toutes les instructions, Hibernate comme JDBC direct
+ * (imports), sont chronométrées.
+ */
+@Component
+public class RequetesLentesPostProcessor implements BeanPostProcessor {
+
+    // Résolu à la création du DataSource seulement : un BeanPostProcessor est instancié avant les autres beans
+    private final ObjectProvider<RequetesLentes> requetesLentes;
+
+    public RequetesLentesPostProcessor(ObjectProvider<RequetesLentes> requetesLentes) {
+        this.requetesLentes = requetesLentes;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource dataSource && !(bean instanceof RequetesLentesDataSource)) {
+            return new RequetesLentesDataSource(dataSource, requetesLentes.getObject());
+        }
+        return bean;
+    }
+}
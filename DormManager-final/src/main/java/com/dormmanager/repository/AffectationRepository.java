@@ -3,9 +3,12 @@ package com.dormmanager.repository;
 import com.dormmanager.entity.Affectation;
 import com.dormmanager.entity.Etudiant;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 
 
@@ -48,6 +51,11 @@ public interface AffectationRepository extends JpaRepository<Affectation, Long>
      */
     Affectation findTopByEtudiantIdOrderByDateDebutDesc(Long etudiantId);
 
+    /**
+     * Dernière affectation d'une chambre (support des états des lieux).
+     */
+    Affectation findTopByChambreIdOrderByDateDebutDescIdDesc(Long chambreId);
+
     /**
      * Vérifie si un étudiant a une affectation active.
      * 
@@ -77,10 +85,9 @@ public interface AffectationRepository extends JpaRepository<Affectation, Long>
      * - If today is 12/05 and dateFin is 12/05, the student can still use the room today
      * - Only free the room when dateFin is strictly BEFORE today (12/04 or earlier)
      */
-    @Query("SELECT a FROM Affectation a " +
+    @Query("SELECT a FROM Affectation a JOIN FETCH a.chambre LEFT JOIN FETCH a.etudiant " +
            "WHERE a.dateFin IS NOT NULL " +
            "AND a.dateFin < :currentDate " +
-           "AND a.chambre IS NOT NULL " +
            "AND a.chambre.etat = 'occupee'")
     List<Affectation> findExpiredOccupiedAffectations(LocalDate currentDate);
 
@@ -107,6 +114,32 @@ public interface AffectationRepository extends JpaRepository<Affectation, Long>
            ")")
     List<Affectation> findExpiredAffectationsWithoutNewerOnes(LocalDate currentDate);
 
+    /**
+     * Ids of the expired affectations on occupied rooms that are the last one of their room
+     * (no active or more recent affectation): rooms really left empty, one id per room,
+     * that need turnover maintenance.
+     */
+    @Query("SELECT a.id FROM Affectation a " +
+           "WHERE a.dateFin IS NOT NULL " +
+           "AND a.dateFin < :currentDate " +
+           "AND a.chambre IS NOT NULL " +
+           "AND a.chambre.etat = 'occupee' " +
+           "AND NOT EXISTS (" +
+           "  SELECT 1 FROM Affectation a2 " +
+           "  WHERE a2.chambre.id = a.chambre.id " +
+           "  AND a2.id != a.id " +
+           "  AND (a2.dateFin IS NULL OR a2.dateFin >= :currentDate " +
+           "       OR a2.dateDebut > a.dateDebut OR (a2.dateDebut = a.dateDebut AND a2.id > a.id))" +
+           ")")
+    List<Long> findExpiredIdsWithoutNewerOnes(@Param("currentDate") LocalDate currentDate);
+
+    /**
+     * Mark the end-of-stay notification as sent for a batch of affectations.
+     */
+    @Modifying
+    @Query("UPDATE Affectation a SET a.notificationEnvoye = true WHERE a.id IN :ids")
+    int marquerNotificationEnvoyee(@Param("ids") Collection<Long> ids);
+
     /**
      * Check if there is ANY active affectation for a given chambre
      * (i.e., an affectation that hasn't expired yet)
@@ -117,8 +150,15 @@ public interface AffectationRepository extends JpaRepository<Affectation, Long>
     boolean existsActiveAffectationForChambre(Long chambreId, LocalDate currentDate);
 
     /**
-     * Delete all affectations for a given student (used when deleting a student account)
+     * Delete all affectations for a given student (used when deleting a student account).
+     * The états des lieux referencing them must be deleted first.
      */
-    void deleteByEtudiantId(Long etudiantId);
+    @Modifying
+    @Query("DELETE FROM Affectation a WHERE a.etudiant.id = :etudiantId")
+    int deleteByEtudiantId(@Param("etudiantId") Long etudiantId);
+
+    @Modifying
+    @Query("DELETE FROM Affectation a WHERE a.etudiant.id IN :etudiantIds")
+    int deleteByEtudiantIdIn(@Param("etudiantIds") Collection<Long> etudiantIds);
 
 }
\ No newline at end of file
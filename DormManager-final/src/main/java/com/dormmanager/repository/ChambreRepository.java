@@ -2,10 +2,17 @@
 package com.dormmanager.repository;
 
 import com.dormmanager.entity.Chambre;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 
 public interface ChambreRepository extends JpaRepository<Chambre, Long> {
@@ -21,4 +28,45 @@ public interface ChambreRepository extends JpaRepository<Chambre, Long> {
     @Query("SELECT c FROM Chambre c WHERE LOWER(c.etat) = 'disponible'")
     List<Chambre> findAllDisponibles();
 
+    /**
+     * Page de chambres triées par (numero, id), à partir de la dernière chambre
+     * de la page précédente (keyset pagination). Chaque filtre est optionnel :
+     * un paramètre null désactive le critère correspondant.
+     *
+     * La comparaison sur etat est une égalité simple (pas de LOWER) pour rester
+     * indexable ; la collation MySQL par défaut est déjà insensible à la casse.
+     * La taille de page est portée par le Pageable (aucune requête COUNT).
+     */
+    @Query("SELECT c FROM Chambre c " +
+           "WHERE (:type IS NULL OR c.type = :type) " +
+           "AND (:etat IS NULL OR c.etat = :etat) " +
+           "AND (:capacite IS NULL OR c.capacite = :capacite) " +
+           "AND (:apresNumero IS NULL OR c.numero > :apresNumero " +
+           "     OR (c.numero = :apresNumero AND c.id > :apresId)) " +
+           "ORDER BY c.numero, c.id")
+    List<Chambre> findPage(String type, String etat, Integer capacite,
+                           String apresNumero, Long apresId, Pageable pageable);
+
+    /**
+     * Parmi les numéros donnés, retourne ceux qui existent déjà (utilisé par l'import en masse
+     * pour vérifier un lot entier en une seule requête).
+     */
+    @Query("SELECT c.numero FROM Chambre c WHERE c.numero IN :numeros")
+    List<String> findNumerosExistants(Collection<String> numeros);
+
+    /**
+     * Passe en maintenance les chambres des affectations données (départ de l'occupant).
+     */
+    @Modifying
+    @Query("UPDATE Chambre c SET c.etat = 'maintenance' WHERE c.id IN " +
+           "(SELECT a.chambre.id FROM Affectation a WHERE a.id IN :affectationIds)")
+    int mettreEnMaintenance(@Param("affectationIds") Collection<Long> affectationIds);
+
+    /**
+     * Chambre lue en base et verrouillée jusqu'à la fin de la transaction (SELECT ... FOR UPDATE).
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM Chambre c WHERE c.id = :id")
+    Optional<Chambre> findByIdPourMiseAJour(@Param("id") Long id);
+
 }
@@ -3,16 +3,30 @@ package com.dormmanager.repository;
 import com.dormmanager.entity.DemandeHebergement;
 import com.dormmanager.entity.Etudiant;
 import com.dormmanager.entity.StatutDemande;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
 import java.util.List;
 
 public interface DemandeHebergementRepository extends JpaRepository<DemandeHebergement, Long> {
+
+    // Les demandes sont toujours affichées avec leur étudiant : chargé dans la même requête
+    @Override
+    @EntityGraph(attributePaths = "etudiant")
+    List<DemandeHebergement> findAll();
+
+    @EntityGraph(attributePaths = "etudiant")
     List<DemandeHebergement> findByEtudiantId(Long etudiantId);
 
     long countByEtudiantAndStatut(Etudiant etudiant, StatutDemande statut);
 
     long countByStatut(StatutDemande statut);
 
+    @EntityGraph(attributePaths = "etudiant")
     List<DemandeHebergement> findByStatutOrderByDateSoumissionDesc(StatutDemande statut);
 
     boolean existsByEtudiantIdAndStatut(Long etudiantId, StatutDemande statut);
@@ -20,6 +34,12 @@ public interface DemandeHebergementRepository extends JpaRepository<DemandeHeber
     /**
      * Delete all housing requests for a given student (used when deleting a student account)
      */
-    void deleteByEtudiantId(Long etudiantId);
+    @Modifying
+    @Query("DELETE FROM DemandeHebergement d WHERE d.etudiant.id = :etudiantId")
+    int deleteByEtudiantId(@Param("etudiantId") Long etudiantId);
+
+    @Modifying
+    @Query("DELETE FROM DemandeHebergement d WHERE d.etudiant.id IN :etudiantIds")
+    int deleteByEtudiantIdIn(@Param("etudiantIds") Collection<Long> etudiantIds);
 
 }
@@ -2,6 +2,64 @@ package com.dormmanager.repository;
 
 import com.dormmanager.entity.EtatDesLieux;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 
 public interface EtatDesLieuxRepository extends JpaRepository<EtatDesLieux, Long> {
+
+    /**
+     * Retire aux pièces jointes les références des états des lieux des étudiants donnés
+     * (à appeler avant deletePhotosByEtudiantIdIn).
+     */
+    @Modifying
+    @Query(value = "UPDATE piece_jointe pj JOIN (" +
+                   "  SELECT p.photo_hash AS hash, COUNT(*) AS n FROM etat_des_lieux_photo p " +
+                   "  JOIN etat_des_lieux e ON e.id = p.etat_des_lieux_id " +
+                   "  JOIN affectation a ON a.id = e.affectation_id " +
+                   "  WHERE a.etudiant_id IN :etudiantIds GROUP BY p.photo_hash) d ON d.hash = pj.hash " +
+                   "SET pj.nombre_references = pj.nombre_references - d.n", nativeQuery = true)
+    int dereferencerPhotosByEtudiantIdIn(@Param("etudiantIds") Collection<Long> etudiantIds);
+
+    /**
+     * Détache les photos des états des lieux des étudiants donnés (préalable à
+     * deleteByEtudiantIdIn, la table de jointure n'étant pas vidée par un DELETE JPQL).
+     */
+    @Modifying
+    @Query(value = "DELETE p FROM etat_des_lieux_photo p " +
+                   "JOIN etat_des_lieux e ON e.id = p.etat_des_lieux_id " +
+                   "JOIN affectation a ON a.id = e.affectation_id " +
+                   "WHERE a.etudiant_id IN :etudiantIds", nativeQuery = true)
+    int deletePhotosByEtudiantIdIn(@Param("etudiantIds") Collection<Long> etudiantIds);
+
+    /**
+     * Supprime les états des lieux des affectations des étudiants donnés
+     * (préalable à la suppression de leurs affectations).
+     */
+    @Modifying
+    @Query("DELETE FROM EtatDesLieux e WHERE e.affectation.id IN "
+            + "(SELECT a.id FROM Affectation a WHERE a.etudiant.id IN :etudiantIds)")
+    int deleteByEtudiantIdIn(@Param("etudiantIds") Collection<Long> etudiantIds);
+
+    /**
+     * [chambreId, etat, dateEtat] du dernier état des lieux de chaque chambre
+     * (le plus grand id, les états des lieux étant enregistrés au fil de l'eau).
+     */
+    @Query("SELECT a.chambre.id, e.etat, e.dateEtat FROM EtatDesLieux e JOIN e.affectation a " +
+           "WHERE e.id = (SELECT MAX(e2.id) FROM EtatDesLieux e2 WHERE e2.affectation.chambre.id = a.chambre.id)")
+    List<Object[]> findDerniersEtatsParChambre();
+
+    /**
+     * États des lieux d'une chambre, les plus récents d'abord, avec leurs photos.
+     */
+    @Query("SELECT DISTINCT e FROM EtatDesLieux e LEFT JOIN FETCH e.photos " +
+           "WHERE e.affectation.chambre.id = :chambreId ORDER BY e.dateEtat DESC, e.id DESC")
+    List<EtatDesLieux> findByChambreIdAvecPhotos(@Param("chambreId") Long chambreId);
+
+    @Query("SELECT e FROM EtatDesLieux e LEFT JOIN FETCH e.photos WHERE e.id = :id")
+    Optional<EtatDesLieux> findByIdAvecPhotos(@Param("id") Long id);
 }
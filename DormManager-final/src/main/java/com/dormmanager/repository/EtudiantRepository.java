@@ -2,6 +2,24 @@ package com.dormmanager.repository;
 
 import com.dormmanager.entity.Etudiant;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.Collection;
+import java.util.List;
 
 public interface EtudiantRepository extends JpaRepository<Etudiant, Long> {
+
+    /**
+     * Pour un lot de matricules, retourne [id, matricule, email] des étudiants déjà inscrits
+     * (une seule requête par lot lors de l'import en masse).
+     */
+    @Query("SELECT e.id, e.matricule, e.email FROM Etudiant e WHERE e.matricule IN :matricules")
+    List<Object[]> findIdentitesByMatricules(Collection<String> matricules);
+
+    /**
+     * [id, nom, prenom, matricule, email, filiere] de tous les étudiants,
+     * pour construire l'index de recherche sans charger les entités.
+     */
+    @Query("SELECT e.id, e.nom, e.prenom, e.matricule, e.email, e.filiere FROM Etudiant e")
+    List<Object[]> findFichesRecherche();
 }
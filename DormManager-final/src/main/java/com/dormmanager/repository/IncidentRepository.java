@@ -1,7 +1,131 @@
 package com.dormmanager.repository;
 
 import com.dormmanager.entity.Incident;
+import com.dormmanager.entity.StatutIncident;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 
 public interface IncidentRepository extends JpaRepository<Incident, Long> {
+
+    /**
+     * Liste de travail d'un agent, des plus anciens aux plus récents, paginée par curseur
+     * (dateSignalement, id). Sans filtre, les incidents résolus sont exclus.
+     */
+    @Query("SELECT i FROM Incident i JOIN FETCH i.chambre " +
+           "WHERE i.agentAssigne.id = :agentId " +
+           "AND i.statut IN :statuts " +
+           "AND (:apresDate IS NULL OR i.dateSignalement > :apresDate " +
+           "     OR (i.dateSignalement = :apresDate AND i.id > :apresId)) " +
+           "ORDER BY i.dateSignalement ASC, i.id ASC")
+    List<Incident> findPageAgent(@Param("agentId") Long agentId,
+                                 @Param("statuts") Collection<StatutIncident> statuts,
+                                 @Param("apresDate") LocalDate apresDate,
+                                 @Param("apresId") Long apresId,
+                                 Pageable pageable);
+
+    /**
+     * Incidents non assignés (OUVERT), des plus anciens aux plus récents.
+     */
+    @Query("SELECT i FROM Incident i JOIN FETCH i.chambre " +
+           "WHERE i.statut = com.dormmanager.entity.StatutIncident.OUVERT " +
+           "AND (:apresDate IS NULL OR i.dateSignalement > :apresDate " +
+           "     OR (i.dateSignalement = :apresDate AND i.id > :apresId)) " +
+           "ORDER BY i.dateSignalement ASC, i.id ASC")
+    List<Incident> findPageOuverts(@Param("apresDate") LocalDate apresDate,
+                                   @Param("apresId") Long apresId,
+                                   Pageable pageable);
+
+    /**
+     * Historique des incidents d'une chambre, les plus récents d'abord.
+     */
+    @Query("SELECT i FROM Incident i JOIN FETCH i.chambre LEFT JOIN FETCH i.agentAssigne " +
+           "WHERE i.chambre.id = :chambreId " +
+           "AND (:apresDate IS NULL OR i.dateSignalement < :apresDate " +
+           "     OR (i.dateSignalement = :apresDate AND i.id < :apresId)) " +
+           "ORDER BY i.dateSignalement DESC, i.id DESC")
+    List<Incident> findPageChambre(@Param("chambreId") Long chambreId,
+                                   @Param("apresDate") LocalDate apresDate,
+                                   @Param("apresId") Long apresId,
+                                   Pageable pageable);
+
+    /**
+     * Incidents d'un agent dans un statut donné (réassignation quand l'agent quitte son service).
+     */
+    @EntityGraph(attributePaths = "chambre")
+    List<Incident> findByAgentAssigneIdAndStatut(Long agentId, StatutIncident statut);
+
+    /**
+     * [agentId, nombre] des incidents assignés dans ces statuts, par agent.
+     */
+    @Query("SELECT i.agentAssigne.id, COUNT(i) FROM Incident i " +
+           "WHERE i.statut IN :statuts AND i.agentAssigne IS NOT NULL GROUP BY i.agentAssigne.id")
+    List<Object[]> compterParAgent(@Param("statuts") Collection<StatutIncident> statuts);
+
+    /**
+     * [chambreId, nombre] des incidents dans ces statuts, par chambre (santé des chambres).
+     */
+    @Query("SELECT i.chambre.id, COUNT(i) FROM Incident i WHERE i.statut IN :statuts GROUP BY i.chambre.id")
+    List<Object[]> compterParChambre(@Param("statuts") Collection<StatutIncident> statuts);
+
+    /**
+     * [chambreId, dateSignalement] des incidents signalés depuis la date donnée,
+     * par date croissante.
+     */
+    @Query("SELECT i.chambre.id, i.dateSignalement FROM Incident i " +
+           "WHERE i.dateSignalement >= :depuis ORDER BY i.dateSignalement ASC")
+    List<Object[]> findSignalementsDepuis(@Param("depuis") LocalDate depuis);
+
+    /**
+     * [id, agentId, chambreId, statut] des incidents de la liste dans ces statuts, verrouillés
+     * jusqu'à la fin de la transaction (SELECT ... FOR UPDATE) : une transition groupée lit
+     * ainsi exactement les incidents qu'elle va modifier.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT i.id, i.agentAssigne.id, i.chambre.id, i.statut FROM Incident i " +
+           "WHERE i.id IN :ids AND i.statut IN :statuts")
+    List<Object[]> findPourTransition(@Param("ids") Collection<Long> ids,
+                                      @Param("statuts") Collection<StatutIncident> statuts);
+
+    /**
+     * Incident verrouillé jusqu'à la fin de la transaction (SELECT ... FOR UPDATE), pour une
+     * transition unitaire : une transition concurrente du même incident attend celle-ci,
+     * puis lit son nouveau statut.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT i FROM Incident i WHERE i.id = :id")
+    Optional<Incident> findByIdPourMiseAJour(@Param("id") Long id);
+
+    /**
+     * Transition groupée : seuls les incidents dont le statut actuel autorise la transition
+     * sont modifiés, en une seule requête. Renvoie le nombre d'incidents modifiés.
+     */
+    @Modifying
+    @Query("UPDATE Incident i SET i.statut = :statut, i.dateResolution = :dateResolution " +
+           "WHERE i.id IN :ids AND i.statut IN :depuis")
+    int changerStatut(@Param("ids") Collection<Long> ids,
+                      @Param("depuis") Collection<StatutIncident> depuis,
+                      @Param("statut") StatutIncident statut,
+                      @Param("dateResolution") LocalDate dateResolution);
+
+    /**
+     * Désassigne les incidents des agents supprimés (l'incident reste attaché à sa chambre) ;
+     * ceux qui ne sont pas résolus repassent OUVERT pour être réassignés.
+     */
+    @Modifying
+    @Query("UPDATE Incident i SET i.agentAssigne = NULL, " +
+           "i.statut = CASE WHEN i.statut = com.dormmanager.entity.StatutIncident.RESOLU THEN i.statut " +
+           "ELSE com.dormmanager.entity.StatutIncident.OUVERT END " +
+           "WHERE i.agentAssigne.id IN :agentIds")
+    int desassignerAgents(@Param("agentIds") Collection<Long> agentIds);
 }
@@ -3,7 +3,11 @@ package com.dormmanager.repository;
 import com.dormmanager.entity.Notification;
 import com.dormmanager.entity.Utilisateur;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface NotificationRepository extends JpaRepository<Notification, Long> {
@@ -15,7 +19,14 @@ public interface NotificationRepository extends JpaRepository<Notification, Long
     long countByDestinataire(Utilisateur user);
 
     /**
-     * Delete all notifications for a given user (used when deleting a user account)
+     * Delete all notifications for a given user (used when deleting a user account).
+     * Single DELETE statement: the notifications are not loaded into the persistence context.
      */
-    void deleteByDestinataireId(Long utilisateurId);
+    @Modifying
+    @Query("DELETE FROM Notification n WHERE n.destinataire.id = :utilisateurId")
+    int deleteByDestinataireId(@Param("utilisateurId") Long utilisateurId);
+
+    @Modifying
+    @Query("DELETE FROM Notification n WHERE n.destinataire.id IN :utilisateurIds")
+    int deleteByDestinataireIdIn(@Param("utilisateurIds") Collection<Long> utilisateurIds);
 }
@@ -0,0 +1,42 @@
+package com.dormmanager.repository;
+
+import com.dormmanager.entity.PieceJointe;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface PieceJointeRepository extends JpaRepository<PieceJointe, String> {
+
+    /**
+     * Ajoute delta au nombre de références, en base (pas de mise à jour perdue entre
+     * deux envois simultanés du même fichier).
+     */
+    @Modifying
+    @Query("UPDATE PieceJointe p SET p.nombreReferences = p.nombreReferences + :delta WHERE p.hash = :hash")
+    int ajusterReferences(@Param("hash") String hash, @Param("delta") int delta);
+
+    /**
+     * Empreintes des pièces jointes sans référence créées avant la date donnée.
+     */
+    @Query("SELECT p.hash FROM PieceJointe p WHERE p.nombreReferences <= 0 AND p.dateCreation < :avant")
+    List<String> findOrphelines(@Param("avant") LocalDateTime avant, Pageable pageable);
+
+    /**
+     * Supprime les pièces jointes données si elles sont toujours sans référence.
+     */
+    @Modifying
+    @Query("DELETE FROM PieceJointe p WHERE p.hash IN :hashes AND p.nombreReferences <= 0")
+    int deleteOrphelines(@Param("hashes") Collection<String> hashes);
+
+    /**
+     * Parmi ces empreintes, celles qui ont une ligne (les autres blobs sont orphelins).
+     */
+    @Query("SELECT p.hash FROM PieceJointe p WHERE p.hash IN :hashes")
+    List<String> findHashesExistants(@Param("hashes") Collection<String> hashes);
+}
@@ -2,14 +2,21 @@ package com.dormmanager.repository;
 
 import com.dormmanager.entity.Reclamation;
 import com.dormmanager.entity.Utilisateur;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 
 public interface ReclamationRepository extends JpaRepository<Reclamation, Long> {
 
-    // 10 dernières réclamations (les plus récentes)
+    // 10 dernières réclamations (les plus récentes), avec leur auteur
+    @EntityGraph(attributePaths = "utilisateur")
     List<Reclamation> findTop10ByOrderByDateEnvoiDesc();
 
     // Réclamations d'un utilisateur, triées par date d'envoi décroissante
@@ -23,8 +30,97 @@ public interface ReclamationRepository extends JpaRepository<Reclamation, Long>
     long countByEnAttenteOrNull();
 
     /**
-     * Delete all complaints for a given user (used when deleting a student account)
+     * File des réclamations, de la plus récente à la plus ancienne, paginée par curseur
+     * (dateEnvoi, id). Sert l'index (status, date_envoi, id) ; avec sansStatut, les
+     * anciennes lignes sans statut sont comptées comme EN_ATTENTE.
      */
-    void deleteByUtilisateurId(Long utilisateurId);
+    @Query("SELECT r FROM Reclamation r JOIN FETCH r.utilisateur " +
+           "WHERE (:statut IS NULL OR r.status = :statut OR (:sansStatut = true AND r.status IS NULL)) " +
+           "AND (:depuis IS NULL OR r.dateEnvoi >= :depuis) " +
+           "AND (:jusqua IS NULL OR r.dateEnvoi <= :jusqua) " +
+           "AND (:apresDate IS NULL OR r.dateEnvoi < :apresDate " +
+           "     OR (r.dateEnvoi = :apresDate AND r.id < :apresId)) " +
+           "ORDER BY r.dateEnvoi DESC, r.id DESC")
+    List<Reclamation> findFileRecentes(@Param("statut") Reclamation.StatutReclamation statut,
+                                       @Param("sansStatut") boolean sansStatut,
+                                       @Param("depuis") LocalDate depuis,
+                                       @Param("jusqua") LocalDate jusqua,
+                                       @Param("apresDate") LocalDate apresDate,
+                                       @Param("apresId") Long apresId,
+                                       Pageable pageable);
+
+    /**
+     * Même file, de la plus ancienne à la plus récente (traitement dans l'ordre d'arrivée).
+     */
+    @Query("SELECT r FROM Reclamation r JOIN FETCH r.utilisateur " +
+           "WHERE (:statut IS NULL OR r.status = :statut OR (:sansStatut = true AND r.status IS NULL)) " +
+           "AND (:depuis IS NULL OR r.dateEnvoi >= :depuis) " +
+           "AND (:jusqua IS NULL OR r.dateEnvoi <= :jusqua) " +
+           "AND (:apresDate IS NULL OR r.dateEnvoi > :apresDate " +
+           "     OR (r.dateEnvoi = :apresDate AND r.id > :apresId)) " +
+           "ORDER BY r.dateEnvoi ASC, r.id ASC")
+    List<Reclamation> findFileAnciennes(@Param("statut") Reclamation.StatutReclamation statut,
+                                        @Param("sansStatut") boolean sansStatut,
+                                        @Param("depuis") LocalDate depuis,
+                                        @Param("jusqua") LocalDate jusqua,
+                                        @Param("apresDate") LocalDate apresDate,
+                                        @Param("apresId") Long apresId,
+                                        Pageable pageable);
+
+    /**
+     * Réclamations d'un utilisateur, les plus récentes d'abord, paginées par curseur
+     * (index (utilisateur_id, date_envoi, id)).
+     */
+    @Query("SELECT r FROM Reclamation r JOIN FETCH r.utilisateur " +
+           "WHERE r.utilisateur.id = :utilisateurId " +
+           "AND (:apresDate IS NULL OR r.dateEnvoi < :apresDate " +
+           "     OR (r.dateEnvoi = :apresDate AND r.id < :apresId)) " +
+           "ORDER BY r.dateEnvoi DESC, r.id DESC")
+    List<Reclamation> findPageUtilisateur(@Param("utilisateurId") Long utilisateurId,
+                                          @Param("apresDate") LocalDate apresDate,
+                                          @Param("apresId") Long apresId,
+                                          Pageable pageable);
+
+    /**
+     * [id, message, status, dateEnvoi, utilisateurId] de toutes les réclamations,
+     * pour construire l'index plein texte sans charger les entités.
+     */
+    @Query("SELECT r.id, r.message, r.status, r.dateEnvoi, r.utilisateur.id FROM Reclamation r")
+    List<Object[]> findDocumentsRecherche();
+
+    /**
+     * [id, message, dateEnvoi, utilisateurId] des réclamations ouvertes (EN_ATTENTE ou sans
+     * statut), pour construire la file de tri.
+     */
+    @Query("SELECT r.id, r.message, r.dateEnvoi, r.utilisateur.id FROM Reclamation r " +
+           "WHERE r.status = 'EN_ATTENTE' OR r.status IS NULL")
+    List<Object[]> findOuvertesTriage();
+
+    /**
+     * Passe la réclamation à EN_COURS seulement si elle est encore ouverte.
+     * Renvoie 0 si elle a déjà été prise (ou supprimée) : la prise en charge est atomique.
+     */
+    @Modifying
+    @Query("UPDATE Reclamation r SET r.status = 'EN_COURS' " +
+           "WHERE r.id = :id AND (r.status = 'EN_ATTENTE' OR r.status IS NULL)")
+    int prendreEnChargeSiEnAttente(@Param("id") Long id);
+
+    /**
+     * Delete all complaints for a given user (used when deleting a student account).
+     * Single DELETE statement: the complaints are not loaded into the persistence context.
+     */
+    @Modifying
+    @Query("DELETE FROM Reclamation r WHERE r.utilisateur.id = :utilisateurId")
+    int deleteByUtilisateurId(@Param("utilisateurId") Long utilisateurId);
+
+    @Modifying
+    @Query("DELETE FROM Reclamation r WHERE r.utilisateur.id IN :utilisateurIds")
+    int deleteByUtilisateurIdIn(@Param("utilisateurIds") Collection<Long> utilisateurIds);
+
+    /**
+     * Réclamations d'une page de résultats, avec leur auteur (une seule requête).
+     */
+    @Query("SELECT r FROM Reclamation r JOIN FETCH r.utilisateur WHERE r.id IN :ids")
+    List<Reclamation> findAvecUtilisateurByIdIn(@Param("ids") Collection<Long> ids);
 
 }
@@ -0,0 +1,96 @@
+package com.dormmanager.repository;
+
+import com.dormmanager.entity.StatutTache;
+import com.dormmanager.entity.TacheMaintenance;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface TacheMaintenanceRepository extends JpaRepository<TacheMaintenance, Long> {
+
+    /**
+     * Ouvre en une requête une tâche du type donné pour chacune des affectations terminées
+     * (hors celles qui en ont déjà une : la génération peut être relancée sans doublon).
+     */
+    @Modifying
+    @Query(value = "INSERT INTO tache_maintenance (chambre_id, affectation_id, type, statut, date_creation) " +
+                   "SELECT a.chambre_id, a.id, :type, 'A_FAIRE', :jour FROM affectation a " +
+                   "WHERE a.id IN :affectationIds AND a.chambre_id IS NOT NULL " +
+                   "AND NOT EXISTS (SELECT 1 FROM tache_maintenance t " +
+                   "                WHERE t.affectation_id = a.id AND t.type = :type)", nativeQuery = true)
+    int creerTaches(@Param("affectationIds") Collection<Long> affectationIds,
+                    @Param("type") String type,
+                    @Param("jour") LocalDate jour);
+
+    /**
+     * Tâches d'un statut, avec leur chambre, par numéro de chambre (ordre de passage).
+     */
+    @Query("SELECT t FROM TacheMaintenance t JOIN FETCH t.chambre c " +
+           "WHERE t.statut = :statut ORDER BY c.numero ASC, t.id ASC")
+    List<TacheMaintenance> findByStatutAvecChambre(@Param("statut") StatutTache statut);
+
+    /**
+     * Place un groupe de tâches dans la tournée d'un agent, en une requête par tournée.
+     */
+    @Modifying
+    @Query("UPDATE TacheMaintenance t SET t.statut = com.dormmanager.entity.StatutTache.PLANIFIEE, " +
+           "t.agentAssigne.id = :agentId, t.datePrevue = :jour, t.tournee = :tournee " +
+           "WHERE t.id IN :ids AND t.statut = com.dormmanager.entity.StatutTache.A_FAIRE")
+    int planifier(@Param("ids") Collection<Long> ids,
+                  @Param("agentId") Long agentId,
+                  @Param("jour") LocalDate jour,
+                  @Param("tournee") String tournee);
+
+    /**
+     * Tâches planifiées d'un agent, tournée par tournée, dans l'ordre de passage.
+     */
+    @Query("SELECT t FROM TacheMaintenance t JOIN FETCH t.chambre c " +
+           "WHERE t.agentAssigne.id = :agentId AND t.statut = com.dormmanager.entity.StatutTache.PLANIFIEE " +
+           "ORDER BY t.tournee ASC, c.numero ASC, t.id ASC")
+    List<TacheMaintenance> findPlanifieesAgent(@Param("agentId") Long agentId);
+
+    /**
+     * Tournées d'une journée (tâches planifiées ce jour-là, closes ou non).
+     */
+    @Query("SELECT t FROM TacheMaintenance t JOIN FETCH t.chambre c LEFT JOIN FETCH t.agentAssigne " +
+           "WHERE t.datePrevue = :jour ORDER BY t.tournee ASC, c.numero ASC, t.id ASC")
+    List<TacheMaintenance> findByDatePrevue(@Param("jour") LocalDate jour);
+
+    @Query("SELECT t.chambre.id FROM TacheMaintenance t WHERE t.id = :id")
+    Optional<Long> findChambreId(@Param("id") Long id);
+
+    /**
+     * Tâches non terminées d'une chambre, en lecture verrouillante (SELECT ... FOR UPDATE) :
+     * elle voit les clôtures déjà validées par d'autres transactions, pas un instantané.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT t FROM TacheMaintenance t WHERE t.chambre.id = :chambreId " +
+           "AND t.statut <> com.dormmanager.entity.StatutTache.TERMINEE")
+    List<TacheMaintenance> findOuvertesPourMiseAJour(@Param("chambreId") Long chambreId);
+
+    /**
+     * Détache les tâches des affectations des étudiants supprimés (la tâche reste sur la chambre).
+     */
+    @Modifying
+    @Query("UPDATE TacheMaintenance t SET t.affectation = NULL WHERE t.affectation.id IN " +
+           "(SELECT a.id FROM Affectation a WHERE a.etudiant.id IN :etudiantIds)")
+    int detacherAffectations(@Param("etudiantIds") Collection<Long> etudiantIds);
+
+    /**
+     * Retire les agents supprimés de leurs tâches ; celles qui ne sont pas closes repassent A_FAIRE.
+     */
+    @Modifying
+    @Query("UPDATE TacheMaintenance t SET t.agentAssigne = NULL, t.tournee = NULL, " +
+           "t.statut = CASE WHEN t.statut = com.dormmanager.entity.StatutTache.TERMINEE THEN t.statut " +
+           "ELSE com.dormmanager.entity.StatutTache.A_FAIRE END " +
+           "WHERE t.agentAssigne.id IN :agentIds")
+    int desassignerAgents(@Param("agentIds") Collection<Long> agentIds);
+}
@@ -8,16 +8,36 @@ package com.dormmanager.repository;
  *
  * @author User
  */
+import com.dormmanager.dto.UtilisateurResumeDto;
 import com.dormmanager.entity.Utilisateur;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import java.time.LocalDateTime;
+import java.util.Collection;
 
 @Repository
 public interface UtilisateurRepository extends JpaRepository<Utilisateur, Long> {
     Utilisateur findByEmail(String email);
+
+    // Région du cache de requêtes de findByRole (ehcache.xml)
+    String REGION_PAR_ROLE = "utilisateurs-par-role";
+
+    /**
+     * Utilisateurs d'un rôle (destinataires des notifications groupées).
+     * Résultat mis en cache : seuls les identifiants sont gardés, les entités viennent
+     * ensuite du cache de second niveau. Hibernate l'invalide à toute écriture JPA sur utilisateur.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = REGION_PAR_ROLE)
+    })
     java.util.List<Utilisateur> findByRole(Utilisateur.Role role);
     
     @Query("SELECT COUNT(u) FROM Utilisateur u WHERE u.dateCreation >= :startDate AND u.dateCreation < :endDate")
@@ -25,4 +45,54 @@ public interface UtilisateurRepository extends JpaRepository<Utilisateur, Long>
     
     @Query("SELECT COUNT(u) FROM Utilisateur u WHERE u.role = :role")
     long countByRole(@Param("role") Utilisateur.Role role);
+
+    /**
+     * Retourne [id, email] des utilisateurs dont l'email figure dans la liste
+     * (contrôle des doublons d'email par lot lors des imports).
+     */
+    @Query("SELECT u.id, u.email FROM Utilisateur u WHERE u.email IN :emails")
+    java.util.List<Object[]> findIdsByEmails(@Param("emails") Collection<String> emails);
+
+    /**
+     * Page de l'annuaire, triée par (nom, id) et paginée par curseur.
+     *
+     * La projection ne lit que des colonnes de la table utilisateur : Hibernate n'ajoute
+     * alors aucune jointure vers les tables filles de l'héritage JOINED.
+     * Couverte par l'index (role, nom, id) ou (nom, id) selon le filtre.
+     */
+    @Query("SELECT new com.dormmanager.dto.UtilisateurResumeDto(u.id, u.nom, u.prenom, u.email, u.role, u.dateCreation) "
+           + "FROM Utilisateur u "
+           + "WHERE (:role IS NULL OR u.role = :role) "
+           + "AND (:depuis IS NULL OR u.dateCreation >= :depuis) "
+           + "AND (:avant IS NULL OR u.dateCreation < :avant) "
+           + "AND (:apresNom IS NULL OR u.nom > :apresNom OR (u.nom = :apresNom AND u.id > :apresId)) "
+           + "ORDER BY u.nom, u.id")
+    java.util.List<UtilisateurResumeDto> findAnnuaire(@Param("role") Utilisateur.Role role,
+                                                      @Param("depuis") LocalDateTime depuis,
+                                                      @Param("avant") LocalDateTime avant,
+                                                      @Param("apresNom") String apresNom,
+                                                      @Param("apresId") Long apresId,
+                                                      Pageable pageable);
+
+    // Champs propres à chaque rôle, chargés pour une page de l'annuaire seulement : [id, champs...]
+    @Query("SELECT e.id, e.matricule, e.filiere FROM Etudiant e WHERE e.id IN :ids")
+    java.util.List<Object[]> findDetailsEtudiants(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT a.id, a.specialite FROM AgentTechnique a WHERE a.id IN :ids")
+    java.util.List<Object[]> findDetailsAgents(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT g.id, g.service, g.bureau FROM GestionnaireFoyer g WHERE g.id IN :ids")
+    java.util.List<Object[]> findDetailsGestionnaires(@Param("ids") Collection<Long> ids);
+
+    // [id, specialite] de tous les agents techniques (initialisation du répartiteur d'incidents)
+    @Query("SELECT a.id, a.specialite FROM AgentTechnique a")
+    java.util.List<Object[]> findSpecialitesAgents();
+
+    /**
+     * Suppression en masse (héritage JOINED : Hibernate supprime aussi les lignes des tables filles).
+     * Les données liées doivent avoir été supprimées auparavant.
+     */
+    @Modifying
+    @Query("DELETE FROM Utilisateur u WHERE u.id IN :ids")
+    int deleteByIdIn(@Param("ids") Collection<Long> ids);
 }
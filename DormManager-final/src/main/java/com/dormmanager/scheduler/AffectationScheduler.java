@@ -2,46 +2,51 @@ package com.dormmanager.scheduler;
 
 import com.dormmanager.entity.Affectation;
 import com.dormmanager.repository.AffectationRepository;
-import com.dormmanager.repository.ChambreRepository;
+import com.dormmanager.services.MaintenanceService;
 import com.dormmanager.services.NotificationService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
  * Scheduler pour gérer les affectations expirées.
- * Libère automatiquement les chambres quand la date de fin est atteinte.
+ * Quand la date de fin est atteinte, la chambre passe en maintenance (inspection et
+ * nettoyage) avant d'être de nouveau disponible.
  */
 @Component
 public class AffectationScheduler {
 
+    private static final Logger log = LoggerFactory.getLogger(AffectationScheduler.class);
+
     private final AffectationRepository affectationRepo;
-    private final ChambreRepository chambreRepo;
     private final NotificationService notificationService;
+    private final MaintenanceService maintenanceService;
 
-    public AffectationScheduler(AffectationRepository affectationRepo, ChambreRepository chambreRepo,
-                                 NotificationService notificationService) {
+    public AffectationScheduler(AffectationRepository affectationRepo, NotificationService notificationService,
+                                 MaintenanceService maintenanceService) {
         this.affectationRepo = affectationRepo;
-        this.chambreRepo = chambreRepo;
         this.notificationService = notificationService;
+        this.maintenanceService = maintenanceService;
     }
 
     /**
      * Runs daily at midnight to handle expired affectations.
      * 
      * LOGIC:
-     * 1. Find ALL expired affectations (dateFin < today)
-     * 2. For each expired affectation:
-     *    a) If notification NOT YET SENT: Send notification to student that their affectation ended
-     *    b) Mark notification as sent
-     *    c) Check if there's a NEWER active affectation for the same room
-     *       - If YES: Another student is now occupying this room → DON'T free it
-     *       - If NO: Room is now empty → FREE it (set to disponible)
-     * 
-     * This ensures notifications are sent ONLY ONCE when the affectation expires,
-     * not every time the scheduler runs.
+     * 1. Find ALL expired affectations (dateFin < today) on occupied rooms, with their room
+     *    and student in the same query
+     * 2. Send the end-of-stay notification to the students not yet notified, then mark
+     *    them all as notified with a single UPDATE (notifications are sent ONLY ONCE)
+     * 3. Rooms with no NEWER active affectation are now empty: they go to "maintenance"
+     *    and get their inspection and cleaning tasks (MaintenanceService), in bulk.
+     *    They become "disponible" again once the tasks are done.
+     *    Rooms with a newer active affectation stay occupied.
      * 
      * Example:
      * - Student A: Chambre 5, 12/04-12/05 (EXPIRED on 12/06)
@@ -53,27 +58,20 @@ public class AffectationScheduler {
      */
     //@Scheduled(fixedDelay = 300000) // For testing: runs every 5 minutes
     @Scheduled(cron = "0 0 0 * * *") // Daily at midnight
+    @Transactional
     public void freeExpiredAffectations() {
         LocalDate today = LocalDate.now();
-        System.out.println("🔵 [SCHEDULER] Checking for expired affectations (today: " + today + ")");
-        
+
         // Find ALL expired affectations
-        java.util.List<Affectation> allExpiredAffectations = affectationRepo.findExpiredOccupiedAffectations(today);
-        System.out.println("🔵 [SCHEDULER] Found " + allExpiredAffectations.size() + " expired affectations");
+        List<Affectation> allExpiredAffectations = affectationRepo.findExpiredOccupiedAffectations(today);
+        if (allExpiredAffectations.isEmpty()) {
+            log.info("Affectations expirées au {} : aucune", today);
+            return;
+        }
 
-        // Process each expired affectation
+        // STEP 1: Only send notification if NOT already sent
+        List<Long> notified = new ArrayList<>();
         for (Affectation expiredAff : allExpiredAffectations) {
-            if (expiredAff.getChambre() == null) {
-                System.out.println("⚠️  [SCHEDULER] Affectation " + expiredAff.getId() + " has no chambre, skipping");
-                continue;
-            }
-            
-            String chambreNumero = expiredAff.getChambre().getNumero();
-            String studentEmail = expiredAff.getEtudiant() != null ? expiredAff.getEtudiant().getEmail() : "Unknown";
-            
-            System.out.println("🔵 [SCHEDULER] Processing expired affectation for " + studentEmail + " in Chambre " + chambreNumero + " (ended: " + expiredAff.getDateFin() + ")");
-            
-            // STEP 1: Only send notification if NOT already sent
             if (!expiredAff.isNotificationEnvoye() && expiredAff.getEtudiant() != null) {
                 notificationService.sendNotification(
                     expiredAff.getEtudiant(),
@@ -81,32 +79,19 @@ public class AffectationScheduler {
                     "Affectation expirée",
                     "Votre période d'hébergement est arrivée à son terme."
                 );
-                // Mark notification as sent
-                expiredAff.setNotificationEnvoye(true);
-                affectationRepo.save(expiredAff);
-                System.out.println("📧 [SCHEDULER] Notification sent to " + studentEmail);
-            } else if (expiredAff.isNotificationEnvoye()) {
-                System.out.println("✓ [SCHEDULER] Notification already sent to " + studentEmail + " (skipping duplicate)");
-            }
-            
-            // STEP 2: Check if there's a NEWER active affectation for this room
-            boolean hasNewerAffectation = affectationRepo.existsActiveAffectationForChambre(expiredAff.getChambre().getId(), today);
-            
-            if (!hasNewerAffectation) {
-                // CASE 1: No newer affectation → Room is NOW EMPTY → FREE IT
-                expiredAff.getChambre().setEtat("disponible");
-                chambreRepo.save(expiredAff.getChambre());
-                System.out.println("✅ [SCHEDULER] Chambre " + chambreNumero + " FREED and marked disponible (no newer affectation)");
-            } else {
-                // CASE 2: Newer affectation exists → Room is NOW OCCUPIED by another student → KEEP IT OCCUPIED
-                System.out.println("⏭️  [SCHEDULER] Chambre " + chambreNumero + " KEPT occupied (newer active affectation exists - room re-assigned to another student)");
+                notified.add(expiredAff.getId());
             }
         }
-
-        if (!allExpiredAffectations.isEmpty()) {
-            System.out.println("✅ [SCHEDULER] Finished processing " + allExpiredAffectations.size() + " expired affectation(s)");
-        } else {
-            System.out.println("✅ [SCHEDULER] No expired affectations to process");
+        if (!notified.isEmpty()) {
+            affectationRepo.marquerNotificationEnvoyee(notified);
         }
+
+        // STEP 2: Rooms without a NEWER active affectation are empty → maintenance before re-assignment
+        List<Long> freed = affectationRepo.findExpiredIdsWithoutNewerOnes(today);
+        int tasks = maintenanceService.ouvrirTaches(freed);
+        log.info("Affectations expirées au {} : {}, {} étudiant(s) notifié(s), {} chambre(s) en maintenance ({} tâche(s)), "
+                        + "{} restée(s) occupée(s) (affectation plus récente)",
+                today, allExpiredAffectations.size(), notified.size(), freed.size(), tasks,
+                allExpiredAffectations.size() - freed.size());
     }
 }
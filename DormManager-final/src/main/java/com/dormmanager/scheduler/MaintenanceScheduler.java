@@ -0,0 +1,26 @@
+package com.dormmanager.scheduler;
+
+import com.dormmanager.services.MaintenanceService;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+
+/**
+ * Planifie chaque nuit les tournées de maintenance du jour, après la libération des
+ * chambres des affectations expirées (AffectationScheduler, à minuit).
+ */
+@Component
+public class MaintenanceScheduler {
+
+    private final MaintenanceService maintenanceService;
+
+    public MaintenanceScheduler(MaintenanceService maintenanceService) {
+        this.maintenanceService = maintenanceService;
+    }
+
+    @Scheduled(cron = "0 15 0 * * *") // Daily at 00:15
+    public void planifierTournees() {
+        maintenanceService.planifierTournees(LocalDate.now());
+    }
+}
@@ -0,0 +1,389 @@
+package com.dormmanager.search;
+
+import com.dormmanager.dto.EtudiantSuggestionDto;
+import com.dormmanager.entity.Etudiant;
+import com.dormmanager.repository.EtudiantRepository;
+import com.dormmanager.support.ApresTransaction;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Index de recherche des étudiants en mémoire (typeahead des gestionnaires).
+ *
+ * Chaque étudiant est découpé en mots (nom, prénom, matricule, partie locale de
+ * l'email, filière) et rangé dans un dictionnaire trié mot -> étudiants. La recherche
+ * par préfixe en lit une tranche ; les mots proches d'une saisie avec faute de frappe
+ * (distance d'édition bornée) s'obtiennent en parcourant le dictionnaire comme un arbre
+ * de préfixes, sans descendre dans les branches déjà trop éloignées de la saisie.
+ *
+ * Une requête à plusieurs mots ne garde que les étudiants correspondant à tous
+ * les mots. L'index est reconstruit au démarrage puis tenu à jour par les
+ * services ; les mises à jour faites dans une transaction ne sont appliquées
+ * qu'après son commit.
+ */
+@Component
+public class EtudiantSearchIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(EtudiantSearchIndex.class);
+
+    static final int LIMITE_MAX = 50;
+
+    // Scores par mot de la requête : mot identique > préfixe > mot proche
+    private static final int SCORE_EXACT = 3;
+    private static final int SCORE_PREFIXE = 2;
+    private static final int SCORE_APPROCHE = 1;
+
+    private final EtudiantRepository etudiantRepository;
+    private final ReentrantReadWriteLock verrou = new ReentrantReadWriteLock();
+
+    private final Map<Long, Fiche> fiches = new HashMap<>();
+    private final TreeMap<String, Set<Long>> mots = new TreeMap<>();
+
+    public EtudiantSearchIndex(EtudiantRepository etudiantRepository) {
+        this.etudiantRepository = etudiantRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconstruire() {
+        long debut = System.nanoTime();
+        List<Object[]> lignes = etudiantRepository.findFichesRecherche();
+        verrou.writeLock().lock();
+        try {
+            fiches.clear();
+            mots.clear();
+            for (Object[] l : lignes) {
+                ajouter(new Fiche((Long) l[0], (String) l[1], (String) l[2], (String) l[3],
+                        (String) l[4], (String) l[5]));
+            }
+        } finally {
+            verrou.writeLock().unlock();
+        }
+        log.info("Index de recherche des étudiants construit: {} étudiants, {} mots en {} ms",
+                lignes.size(), mots.size(), (System.nanoTime() - debut) / 1_000_000);
+    }
+
+    public void indexer(Etudiant etudiant) {
+        indexer(etudiant.getId(), etudiant.getNom(), etudiant.getPrenom(), etudiant.getMatricule(),
+                etudiant.getEmail(), etudiant.getFiliere());
+    }
+
+    public void indexer(Long id, String nom, String prenom, String matricule, String email, String filiere) {
+        if (id == null) {
+            return;
+        }
+        Fiche fiche = new Fiche(id, nom, prenom, matricule, email, filiere);
+        ApresTransaction.apresCommit(() -> {
+            verrou.writeLock().lock();
+            try {
+                enlever(id);
+                ajouter(fiche);
+            } finally {
+                verrou.writeLock().unlock();
+            }
+        });
+    }
+
+    public void retirer(Long id) {
+        retirer(List.of(id));
+    }
+
+    public void retirer(Collection<Long> ids) {
+        List<Long> copie = new ArrayList<>(ids);
+        ApresTransaction.apresCommit(() -> {
+            verrou.writeLock().lock();
+            try {
+                for (Long id : copie) {
+                    enlever(id);
+                }
+            } finally {
+                verrou.writeLock().unlock();
+            }
+        });
+    }
+
+    public int taille() {
+        verrou.readLock().lock();
+        try {
+            return fiches.size();
+        } finally {
+            verrou.readLock().unlock();
+        }
+    }
+
+    /**
+     * Recherche les étudiants correspondant à la saisie, du plus pertinent au moins pertinent
+     * (à score égal : par nom, prénom).
+     */
+    public List<EtudiantSuggestionDto> rechercher(String saisie, int limite) {
+        List<String> requete = new ArrayList<>(new LinkedHashSet<>(Texte.mots(saisie)));
+        if (requete.isEmpty() || limite <= 0) {
+            return List.of();
+        }
+        limite = Math.min(limite, LIMITE_MAX);
+
+        verrou.readLock().lock();
+        try {
+            // On commence par le mot le plus long : c'est en général le plus sélectif
+            requete.sort(Comparator.comparingInt(String::length).reversed());
+            Map<Long, Integer> scores = null;
+            for (String mot : requete) {
+                Map<Long, Integer> correspondances = correspondances(mot, scores == null ? null : scores.keySet(),
+                        limite);
+                if (scores == null) {
+                    scores = correspondances;
+                } else {
+                    Map<Long, Integer> intersection = new HashMap<>();
+                    for (Map.Entry<Long, Integer> e : correspondances.entrySet()) {
+                        Integer precedent = scores.get(e.getKey());
+                        if (precedent != null) {
+                            intersection.put(e.getKey(), precedent + e.getValue());
+                        }
+                    }
+                    scores = intersection;
+                }
+                if (scores.isEmpty()) {
+                    return List.of();
+                }
+            }
+
+            Comparator<Map.Entry<Long, Integer>> ordre = Comparator.<Map.Entry<Long, Integer>>comparingInt(
+                    Map.Entry::getValue).reversed()
+                    .thenComparing(e -> fiches.get(e.getKey()).triNom)
+                    .thenComparing(Map.Entry::getKey);
+            // Tas borné : le moins pertinent des retenus est en tête et sort en premier
+            PriorityQueue<Map.Entry<Long, Integer>> meilleurs = new PriorityQueue<>(limite + 1, ordre.reversed());
+            for (Map.Entry<Long, Integer> e : scores.entrySet()) {
+                if (meilleurs.size() < limite) {
+                    meilleurs.add(e);
+                } else if (ordre.compare(e, meilleurs.peek()) < 0) {
+                    meilleurs.poll();
+                    meilleurs.add(e);
+                }
+            }
+            List<Map.Entry<Long, Integer>> tries = new ArrayList<>(meilleurs);
+            tries.sort(ordre);
+            List<EtudiantSuggestionDto> resultats = new ArrayList<>(tries.size());
+            for (Map.Entry<Long, Integer> e : tries) {
+                Fiche f = fiches.get(e.getKey());
+                resultats.add(new EtudiantSuggestionDto(f.id, f.nom, f.prenom, f.matricule, f.email,
+                        f.filiere, e.getValue()));
+            }
+            return resultats;
+        } finally {
+            verrou.readLock().unlock();
+        }
+    }
+
+    /**
+     * Étudiants correspondant à un mot de la requête, avec le meilleur score obtenu.
+     * Si candidats est fourni (mots précédents de la requête), seuls ceux-là sont retenus.
+     * Les mots proches ne sont cherchés que si les préfixes ne suffisent pas à remplir la page.
+     */
+    private Map<Long, Integer> correspondances(String mot, Set<Long> candidats, int limite) {
+        Map<Long, Integer> scores = new HashMap<>();
+        NavigableMap<String, Set<Long>> prefixes = mots.subMap(mot, true, mot + Character.MAX_VALUE, false);
+        for (Map.Entry<String, Set<Long>> e : prefixes.entrySet()) {
+            int score = e.getKey().length() == mot.length() ? SCORE_EXACT : SCORE_PREFIXE;
+            noter(scores, e.getValue(), score, candidats);
+        }
+
+        // Fautes de frappe : seulement pour des saisies d'au moins 3 lettres. Une faute d'abord,
+        // deux ensuite si la page n'est toujours pas remplie : le voisinage à une faute est
+        // bien plus petit, et ses mots sont les plus proches de la saisie
+        int toleranceMax = mot.length() <= 5 ? 1 : 2;
+        for (int tolerance = 1; mot.length() >= 3 && tolerance <= toleranceMax && scores.size() < limite;
+             tolerance++) {
+            for (String proche : motsProches(mot, tolerance)) {
+                noter(scores, mots.get(proche), SCORE_APPROCHE, candidats);
+            }
+        }
+        return scores;
+    }
+
+    private static void noter(Map<Long, Integer> scores, Set<Long> ids, int score, Set<Long> candidats) {
+        for (Long id : ids) {
+            if (candidats == null || candidats.contains(id)) {
+                scores.merge(id, score, Math::max);
+            }
+        }
+    }
+
+    /**
+     * Mots du dictionnaire à distance d'édition <= tolerance de la saisie, ou dont le début
+     * l'est (la saisie d'un typeahead est souvent un préfixe incomplet). Les mots qui
+     * commencent par la saisie elle-même sont déjà trouvés par préfixe et ne sont pas repris.
+     */
+    private List<String> motsProches(String mot, int tolerance) {
+        // Une ligne de la matrice de Levenshtein par caractère du préfixe parcouru
+        int[][] lignes = new int[mot.length() + tolerance + 1][mot.length() + 1];
+        for (int j = 0; j <= mot.length(); j++) {
+            lignes[0][j] = j;
+        }
+        List<String> proches = new ArrayList<>();
+        explorer("", lignes, 0, mot, tolerance, proches);
+        return proches;
+    }
+
+    /**
+     * Parcours en profondeur des mots commençant par prefixe, dont la ligne de distance
+     * est lignes[prefixe.length()] et son minimum. Une branche est abandonnée dès que toute
+     * sa ligne dépasse la tolérance : aucun mot qui la prolonge ne peut plus convenir.
+     */
+    private void explorer(String prefixe, int[][] lignes, int minimum, String mot, int tolerance,
+                          List<String> proches) {
+        int d = prefixe.length();
+        int m = mot.length();
+        int[] ligne = lignes[d];
+        if (d == m && ligne[m] <= tolerance) {
+            // Début proche de la saisie : tous les mots qui le prolongent conviennent
+            if (ligne[m] > 0) {
+                proches.addAll(mots.subMap(prefixe, true, prefixe + Character.MAX_VALUE, false).keySet());
+            }
+            return;
+        }
+        if (ligne[m] <= tolerance && mots.containsKey(prefixe)) {
+            proches.add(prefixe);
+        }
+        if (d == m + tolerance) {
+            return;
+        }
+        if (minimum < tolerance || d < tolerance) {
+            String cle = mots.higherKey(prefixe);
+            while (cle != null && cle.startsWith(prefixe)) {
+                char c = cle.charAt(d);
+                descendre(prefixe, c, lignes, mot, tolerance, proches);
+                // Branche suivante : premier mot après tous ceux qui commencent par prefixe + c
+                cle = mots.ceilingKey(prefixe + (char) (c + 1));
+            }
+        } else {
+            // Ligne à la limite : seule une lettre de la saisie, prise en diagonale d'une case
+            // déjà à la tolérance, garde la branche ouverte. On ne cherche que ces branches-là
+            // (c'est le cas de la plupart des nœuds visités, sur les matricules notamment).
+            for (int j = 1; j <= m; j++) {
+                if (ligne[j - 1] == tolerance && !dejaEssayee(mot, ligne, tolerance, j)) {
+                    String branche = prefixe + mot.charAt(j - 1);
+                    String cle = mots.ceilingKey(branche);
+                    if (cle != null && cle.startsWith(branche)) {
+                        descendre(prefixe, mot.charAt(j - 1), lignes, mot, tolerance, proches);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Vrai si la lettre mot[j - 1] a déjà été essayée pour une case précédente à la tolérance.
+     */
+    private static boolean dejaEssayee(String mot, int[] ligne, int tolerance, int j) {
+        for (int k = 1; k < j; k++) {
+            if (ligne[k - 1] == tolerance && mot.charAt(k - 1) == mot.charAt(j - 1)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Calcule la ligne de distance de prefixe + c et poursuit le parcours si elle reste
+     * dans la tolérance.
+     */
+    private void descendre(String prefixe, char c, int[][] lignes, String mot, int tolerance,
+                           List<String> proches) {
+        int d = prefixe.length();
+        int[] ligne = lignes[d];
+        int[] suivante = lignes[d + 1];
+        suivante[0] = d + 1;
+        int minimum = suivante[0];
+        for (int j = 1; j <= mot.length(); j++) {
+            int cout = mot.charAt(j - 1) == c ? 0 : 1;
+            suivante[j] = Math.min(Math.min(ligne[j] + 1, suivante[j - 1] + 1), ligne[j - 1] + cout);
+            minimum = Math.min(minimum, suivante[j]);
+        }
+        if (minimum <= tolerance) {
+            explorer(prefixe + c, lignes, minimum, mot, tolerance, proches);
+        }
+    }
+
+    // --- Mises à jour (sous verrou d'écriture) ---
+
+    private void ajouter(Fiche fiche) {
+        fiches.put(fiche.id, fiche);
+        for (String mot : fiche.mots) {
+            Set<Long> ids = mots.get(mot);
+            if (ids == null) {
+                ids = new HashSet<>(2);
+                mots.put(mot, ids);
+            }
+            ids.add(fiche.id);
+        }
+    }
+
+    private void enlever(Long id) {
+        Fiche fiche = fiches.remove(id);
+        if (fiche == null) {
+            return;
+        }
+        for (String mot : fiche.mots) {
+            Set<Long> ids = mots.get(mot);
+            if (ids == null) {
+                continue;
+            }
+            ids.remove(id);
+            if (ids.isEmpty()) {
+                mots.remove(mot);
+            }
+        }
+    }
+
+    private static final class Fiche {
+        private final Long id;
+        private final String nom;
+        private final String prenom;
+        private final String matricule;
+        private final String email;
+        private final String filiere;
+        private final String triNom;
+        private final Set<String> mots = new HashSet<>();
+
+        private Fiche(Long id, String nom, String prenom, String matricule, String email, String filiere) {
+            this.id = id;
+            this.nom = nom;
+            this.prenom = prenom;
+            this.matricule = matricule;
+            this.email = email;
+            this.filiere = filiere;
+            this.triNom = Texte.normaliser(nom) + " " + Texte.normaliser(prenom);
+
+            mots.addAll(Texte.mots(nom));
+            mots.addAll(Texte.mots(prenom));
+            mots.addAll(Texte.mots(filiere));
+            List<String> morceauxMatricule = Texte.mots(matricule);
+            mots.addAll(morceauxMatricule);
+            if (morceauxMatricule.size() > 1) {
+                // "2023-INF-001" se recherche aussi en "2023inf001"
+                mots.add(String.join("", morceauxMatricule));
+            }
+            if (email != null) {
+                int arobase = email.indexOf('@');
+                mots.addAll(Texte.mots(arobase > 0 ? email.substring(0, arobase) : email));
+            }
+        }
+    }
+}
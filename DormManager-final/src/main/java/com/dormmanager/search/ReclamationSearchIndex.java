@@ -0,0 +1,308 @@
+package com.dormmanager.search;
+
+import com.dormmanager.entity.Reclamation;
+import com.dormmanager.repository.ReclamationRepository;
+import com.dormmanager.support.ApresTransaction;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Index plein texte des messages de réclamation, en mémoire.
+ *
+ * Index inversé mot -> (réclamation, fréquence du mot), classement BM25.
+ * Les filtres (statut, période d'envoi) sont appliqués pendant le parcours
+ * des listes de réclamations, et seules les meilleures sont gardées (tas borné).
+ *
+ * Les mots vides du français sont ignorés et le pluriel simple est ramené au
+ * singulier ("fuites" et "fuite" donnent le même mot). L'index est reconstruit
+ * au démarrage puis tenu à jour à la création, au changement de statut et à la
+ * suppression des réclamations ; dans une transaction, après son commit.
+ */
+@Component
+public class ReclamationSearchIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(ReclamationSearchIndex.class);
+
+    static final int LIMITE_MAX = 100;
+
+    // Paramètres BM25 usuels
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    private static final Set<String> MOTS_VIDES = Set.of(
+            "a", "au", "aux", "avec", "ce", "ces", "cette", "d", "dans", "de", "des", "du", "elle", "en",
+            "est", "et", "il", "j", "je", "l", "la", "le", "les", "leur", "m", "ma", "mais", "me", "mes",
+            "mon", "n", "ne", "nous", "on", "ou", "par", "pas", "pour", "qu", "que", "qui", "s", "sa",
+            "se", "ses", "son", "sur", "t", "ta", "te", "tes", "ton", "tu", "un", "une", "vous", "y");
+
+    /**
+     * Réclamation trouvée et son score de pertinence.
+     */
+    public static final class Resultat {
+        private final Long id;
+        private final double score;
+
+        public Resultat(Long id, double score) {
+            this.id = id;
+            this.score = score;
+        }
+
+        public Long getId() { return id; }
+        public double getScore() { return score; }
+    }
+
+    private final ReclamationRepository reclamationRepository;
+    private final ReentrantReadWriteLock verrou = new ReentrantReadWriteLock();
+
+    private final Map<Long, Document> documents = new HashMap<>();
+    private final Map<String, Map<Long, Integer>> postings = new HashMap<>();
+    private long longueurTotale;
+
+    public ReclamationSearchIndex(ReclamationRepository reclamationRepository) {
+        this.reclamationRepository = reclamationRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconstruire() {
+        long debut = System.nanoTime();
+        List<Object[]> lignes = reclamationRepository.findDocumentsRecherche();
+        verrou.writeLock().lock();
+        try {
+            documents.clear();
+            postings.clear();
+            longueurTotale = 0;
+            for (Object[] l : lignes) {
+                ajouter(new Document((Long) l[0], (Long) l[4], (Reclamation.StatutReclamation) l[2],
+                        (LocalDate) l[3], (String) l[1]));
+            }
+        } finally {
+            verrou.writeLock().unlock();
+        }
+        log.info("Index plein texte des réclamations construit: {} réclamations, {} mots en {} ms",
+                lignes.size(), postings.size(), (System.nanoTime() - debut) / 1_000_000);
+    }
+
+    public void indexer(Reclamation reclamation) {
+        if (reclamation.getId() == null) {
+            return;
+        }
+        Long utilisateurId = reclamation.getUtilisateur() != null ? reclamation.getUtilisateur().getId() : null;
+        Document document = new Document(reclamation.getId(), utilisateurId, reclamation.getStatus(),
+                reclamation.getDateEnvoi(), reclamation.getMessage());
+        ApresTransaction.apresCommit(() -> {
+            verrou.writeLock().lock();
+            try {
+                enlever(document.id);
+                ajouter(document);
+            } finally {
+                verrou.writeLock().unlock();
+            }
+        });
+    }
+
+    /**
+     * Changement de statut : seul le filtre change, le message n'est pas réindexé.
+     */
+    public void changerStatut(Long id, Reclamation.StatutReclamation statut) {
+        ApresTransaction.apresCommit(() -> {
+            verrou.writeLock().lock();
+            try {
+                Document document = documents.get(id);
+                if (document != null) {
+                    document.statut = statut;
+                }
+            } finally {
+                verrou.writeLock().unlock();
+            }
+        });
+    }
+
+    /**
+     * Retire les réclamations des utilisateurs supprimés.
+     */
+    public void retirerUtilisateurs(Collection<Long> utilisateurIds) {
+        Set<Long> auteurs = new HashSet<>(utilisateurIds);
+        ApresTransaction.apresCommit(() -> {
+            verrou.writeLock().lock();
+            try {
+                List<Long> aRetirer = new ArrayList<>();
+                for (Document d : documents.values()) {
+                    if (auteurs.contains(d.utilisateurId)) {
+                        aRetirer.add(d.id);
+                    }
+                }
+                for (Long id : aRetirer) {
+                    enlever(id);
+                }
+            } finally {
+                verrou.writeLock().unlock();
+            }
+        });
+    }
+
+    public int taille() {
+        verrou.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            verrou.readLock().unlock();
+        }
+    }
+
+    /**
+     * Réclamations les plus pertinentes pour la requête, filtrées par statut et période
+     * d'envoi (bornes incluses, chacune optionnelle). À score égal, les plus récentes d'abord.
+     */
+    public List<Resultat> rechercher(String requete, Reclamation.StatutReclamation statut,
+                                     LocalDate depuis, LocalDate jusqua, int limite) {
+        Set<String> mots = new LinkedHashSet<>(analyser(requete));
+        if (mots.isEmpty() || limite <= 0) {
+            return List.of();
+        }
+        limite = Math.min(limite, LIMITE_MAX);
+
+        verrou.readLock().lock();
+        try {
+            int n = documents.size();
+            if (n == 0) {
+                return List.of();
+            }
+            double longueurMoyenne = (double) longueurTotale / n;
+            Map<Long, Double> scores = new HashMap<>();
+            for (String mot : mots) {
+                Map<Long, Integer> liste = postings.get(mot);
+                if (liste == null) {
+                    continue;
+                }
+                double idf = Math.log(1 + (n - liste.size() + 0.5) / (liste.size() + 0.5));
+                for (Map.Entry<Long, Integer> e : liste.entrySet()) {
+                    Document d = documents.get(e.getKey());
+                    if (!d.correspond(statut, depuis, jusqua)) {
+                        continue;
+                    }
+                    int tf = e.getValue();
+                    double poids = idf * tf * (K1 + 1)
+                            / (tf + K1 * (1 - B + B * d.longueur / longueurMoyenne));
+                    scores.merge(d.id, poids, Double::sum);
+                }
+            }
+
+            Comparator<Map.Entry<Long, Double>> ordre = Comparator.<Map.Entry<Long, Double>>comparingDouble(
+                    Map.Entry::getValue)
+                    .thenComparing(e -> documents.get(e.getKey()).dateEnvoi,
+                            Comparator.nullsFirst(Comparator.naturalOrder()))
+                    .thenComparing(Map.Entry::getKey);
+            // Tas borné : le moins pertinent des retenus est en tête et sort en premier
+            PriorityQueue<Map.Entry<Long, Double>> meilleurs = new PriorityQueue<>(limite + 1, ordre);
+            for (Map.Entry<Long, Double> e : scores.entrySet()) {
+                meilleurs.add(e);
+                if (meilleurs.size() > limite) {
+                    meilleurs.poll();
+                }
+            }
+            List<Map.Entry<Long, Double>> tries = new ArrayList<>(meilleurs);
+            tries.sort(ordre.reversed());
+            List<Resultat> resultats = new ArrayList<>(tries.size());
+            for (Map.Entry<Long, Double> e : tries) {
+                resultats.add(new Resultat(e.getKey(), e.getValue()));
+            }
+            return resultats;
+        } finally {
+            verrou.readLock().unlock();
+        }
+    }
+
+    /**
+     * Découpe un texte en mots indexables : normalisé, sans mots vides, pluriel simple retiré.
+     */
+    static List<String> analyser(String texte) {
+        List<String> mots = new ArrayList<>();
+        for (String mot : Texte.mots(texte)) {
+            if (MOTS_VIDES.contains(mot)) {
+                continue;
+            }
+            if (mot.length() > 3 && (mot.endsWith("s") || mot.endsWith("x"))) {
+                mot = mot.substring(0, mot.length() - 1);
+            }
+            mots.add(mot);
+        }
+        return mots;
+    }
+
+    // --- Mises à jour (sous verrou d'écriture) ---
+
+    private void ajouter(Document document) {
+        documents.put(document.id, document);
+        longueurTotale += document.longueur;
+        for (Map.Entry<String, Integer> e : document.frequences.entrySet()) {
+            postings.computeIfAbsent(e.getKey(), k -> new HashMap<>()).put(document.id, e.getValue());
+        }
+    }
+
+    private void enlever(Long id) {
+        Document document = documents.remove(id);
+        if (document == null) {
+            return;
+        }
+        longueurTotale -= document.longueur;
+        for (String mot : document.frequences.keySet()) {
+            Map<Long, Integer> liste = postings.get(mot);
+            if (liste != null) {
+                liste.remove(id);
+                if (liste.isEmpty()) {
+                    postings.remove(mot);
+                }
+            }
+        }
+    }
+
+    private static final class Document {
+        private final Long id;
+        private final Long utilisateurId;
+        private final LocalDate dateEnvoi;
+        private final int longueur;
+        private final Map<String, Integer> frequences = new HashMap<>();
+        // Seul champ modifiable : écrit sous verrou d'écriture
+        private Reclamation.StatutReclamation statut;
+
+        private Document(Long id, Long utilisateurId, Reclamation.StatutReclamation statut,
+                         LocalDate dateEnvoi, String message) {
+            this.id = id;
+            this.utilisateurId = utilisateurId;
+            // Un statut absent est traité comme EN_ATTENTE, comme dans ReclamationDto
+            this.statut = statut != null ? statut : Reclamation.StatutReclamation.EN_ATTENTE;
+            this.dateEnvoi = dateEnvoi;
+            List<String> mots = analyser(message);
+            this.longueur = mots.size();
+            for (String mot : mots) {
+                frequences.merge(mot, 1, Integer::sum);
+            }
+        }
+
+        private boolean correspond(Reclamation.StatutReclamation filtre, LocalDate depuis, LocalDate jusqua) {
+            if (filtre != null && statut != filtre) {
+                return false;
+            }
+            if (depuis != null && (dateEnvoi == null || dateEnvoi.isBefore(depuis))) {
+                return false;
+            }
+            return jusqua == null || (dateEnvoi != null && !dateEnvoi.isAfter(jusqua));
+        }
+    }
+}
@@ -0,0 +1,276 @@
+package com.dormmanager.search;
+
+import com.dormmanager.entity.Reclamation;
+import com.dormmanager.repository.ReclamationRepository;
+import com.dormmanager.support.ApresTransaction;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * File de tri des réclamations ouvertes (EN_ATTENTE), en mémoire.
+ *
+ * Chaque réclamation reçoit une gravité déduite de mots-clés de son message, et
+ * une échéance : date d'envoi + délai de traitement (SLA) de sa gravité. La file
+ * est triée par échéance, puis gravité, puis ancienneté : une réclamation banale
+ * restée trop longtemps finit par passer devant une urgence toute récente.
+ *
+ * Les gestionnaires "prennent la suivante" : l'extraction se fait sous verrou, deux
+ * appels simultanés ne reçoivent donc jamais la même réclamation. La base reste
+ * l'arbitre final (voir ReclamationRepository.prendreEnChargeSiEnAttente) ; une
+ * extraction annulée par un rollback remet la réclamation dans la file.
+ * La file est reconstruite au démarrage puis tenue à jour après commit.
+ */
+@Component
+public class ReclamationTriageQueue {
+
+    private static final Logger log = LoggerFactory.getLogger(ReclamationTriageQueue.class);
+
+    static final int LIMITE_MAX = 100;
+
+    public enum Gravite {
+        CRITIQUE, HAUTE, NORMALE
+    }
+
+    // Mots analysés comme dans l'index plein texte (sans accents, au singulier)
+    private static final Set<String> MOTS_CRITIQUES = Set.of(
+            "incendie", "feu", "fumee", "gaz", "inondation", "inonde", "electrocution", "etincelle",
+            "agression", "intrusion", "vol", "effondrement", "danger", "dangereux", "urgent", "urgence");
+    private static final Set<String> MOTS_HAUTS = Set.of(
+            "fuite", "eau", "electricite", "electrique", "courant", "panne", "chauffage", "serrure",
+            "porte", "fenetre", "vitre", "cle", "bloque", "moisissure", "cafard", "punaise", "rat", "toilette");
+
+    /**
+     * Réclamation en file, telle que la voient les gestionnaires.
+     */
+    public static final class Entree {
+        private final Long id;
+        private final Long utilisateurId;
+        private final LocalDate dateEnvoi;
+        private final Gravite gravite;
+        private final LocalDateTime echeance;
+
+        public Entree(Long id, Long utilisateurId, LocalDate dateEnvoi, Gravite gravite, LocalDateTime echeance) {
+            this.id = id;
+            this.utilisateurId = utilisateurId;
+            this.dateEnvoi = dateEnvoi;
+            this.gravite = gravite;
+            this.echeance = echeance;
+        }
+
+        public Long getId() { return id; }
+        public Long getUtilisateurId() { return utilisateurId; }
+        public LocalDate getDateEnvoi() { return dateEnvoi; }
+        public Gravite getGravite() { return gravite; }
+        public LocalDateTime getEcheance() { return echeance; }
+    }
+
+    private static final Comparator<Entree> PRIORITE = Comparator
+            .comparing(Entree::getEcheance)
+            .thenComparing(Entree::getGravite)
+            .thenComparing(Entree::getDateEnvoi)
+            .thenComparing(Entree::getId);
+
+    private final ReclamationRepository reclamationRepository;
+    private final Map<Gravite, Integer> delaisHeures;
+    private final ReentrantLock verrou = new ReentrantLock();
+
+    private final TreeSet<Entree> file = new TreeSet<>(PRIORITE);
+    private final Map<Long, Entree> parId = new HashMap<>();
+
+    public ReclamationTriageQueue(ReclamationRepository reclamationRepository,
+                                  @Value("${dormmanager.triage.sla-heures.critique:4}") int slaCritique,
+                                  @Value("${dormmanager.triage.sla-heures.haute:24}") int slaHaute,
+                                  @Value("${dormmanager.triage.sla-heures.normale:72}") int slaNormale) {
+        this.reclamationRepository = reclamationRepository;
+        this.delaisHeures = Map.of(Gravite.CRITIQUE, slaCritique, Gravite.HAUTE, slaHaute,
+                Gravite.NORMALE, slaNormale);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconstruire() {
+        long debut = System.nanoTime();
+        List<Object[]> lignes = reclamationRepository.findOuvertesTriage();
+        verrou.lock();
+        try {
+            file.clear();
+            parId.clear();
+            for (Object[] l : lignes) {
+                placer(entree((Long) l[0], (Long) l[3], (LocalDate) l[2], (String) l[1]));
+            }
+        } finally {
+            verrou.unlock();
+        }
+        log.info("File de tri des réclamations construite: {} réclamations ouvertes en {} ms",
+                lignes.size(), (System.nanoTime() - debut) / 1_000_000);
+    }
+
+    /**
+     * Ajoute une réclamation ouverte (EN_ATTENTE ou sans statut) ; les autres sont ignorées.
+     */
+    public void ajouter(Reclamation reclamation) {
+        Reclamation.StatutReclamation statut = reclamation.getStatus();
+        if (reclamation.getId() == null || (statut != null && statut != Reclamation.StatutReclamation.EN_ATTENTE)) {
+            return;
+        }
+        Long utilisateurId = reclamation.getUtilisateur() != null ? reclamation.getUtilisateur().getId() : null;
+        Entree entree = entree(reclamation.getId(), utilisateurId, reclamation.getDateEnvoi(),
+                reclamation.getMessage());
+        ApresTransaction.apresCommit(() -> {
+            verrou.lock();
+            try {
+                placer(entree);
+            } finally {
+                verrou.unlock();
+            }
+        });
+    }
+
+    /**
+     * Retire une réclamation qui n'est plus ouverte (prise en charge ou résolue).
+     */
+    public void retirer(Long id) {
+        ApresTransaction.apresCommit(() -> {
+            verrou.lock();
+            try {
+                enlever(id);
+            } finally {
+                verrou.unlock();
+            }
+        });
+    }
+
+    /**
+     * Retire les réclamations des utilisateurs supprimés.
+     */
+    public void retirerUtilisateurs(Collection<Long> utilisateurIds) {
+        Set<Long> auteurs = new HashSet<>(utilisateurIds);
+        ApresTransaction.apresCommit(() -> {
+            verrou.lock();
+            try {
+                Iterator<Entree> it = file.iterator();
+                while (it.hasNext()) {
+                    Entree e = it.next();
+                    if (auteurs.contains(e.utilisateurId)) {
+                        it.remove();
+                        parId.remove(e.id);
+                    }
+                }
+            } finally {
+                verrou.unlock();
+            }
+        });
+    }
+
+    /**
+     * Sort de la file la réclamation la plus prioritaire (null si la file est vide).
+     * Si la transaction en cours est annulée, la réclamation est remise en file.
+     */
+    public Entree extraire() {
+        Entree entree;
+        verrou.lock();
+        try {
+            entree = file.pollFirst();
+            if (entree == null) {
+                return null;
+            }
+            parId.remove(entree.id);
+        } finally {
+            verrou.unlock();
+        }
+        ApresTransaction.siAnnulation(() -> {
+            verrou.lock();
+            try {
+                placer(entree);
+            } finally {
+                verrou.unlock();
+            }
+        });
+        return entree;
+    }
+
+    /**
+     * Les réclamations les plus prioritaires, sans les sortir de la file.
+     */
+    public List<Entree> apercu(int limite) {
+        limite = Math.min(Math.max(limite, 0), LIMITE_MAX);
+        verrou.lock();
+        try {
+            List<Entree> entrees = new ArrayList<>(Math.min(limite, file.size()));
+            for (Entree e : file) {
+                if (entrees.size() == limite) {
+                    break;
+                }
+                entrees.add(e);
+            }
+            return entrees;
+        } finally {
+            verrou.unlock();
+        }
+    }
+
+    public int taille() {
+        verrou.lock();
+        try {
+            return file.size();
+        } finally {
+            verrou.unlock();
+        }
+    }
+
+    /**
+     * Gravité d'un message : le mot-clé le plus grave qu'il contient l'emporte.
+     */
+    static Gravite gravite(String message) {
+        Gravite gravite = Gravite.NORMALE;
+        for (String mot : ReclamationSearchIndex.analyser(message)) {
+            if (MOTS_CRITIQUES.contains(mot)) {
+                return Gravite.CRITIQUE;
+            }
+            if (MOTS_HAUTS.contains(mot)) {
+                gravite = Gravite.HAUTE;
+            }
+        }
+        return gravite;
+    }
+
+    private Entree entree(Long id, Long utilisateurId, LocalDate dateEnvoi, String message) {
+        Gravite gravite = gravite(message);
+        // Sans date d'envoi, la réclamation est considérée comme la plus ancienne possible
+        LocalDate envoi = dateEnvoi != null ? dateEnvoi : LocalDate.MIN;
+        LocalDateTime echeance = envoi.atStartOfDay().plusHours(delaisHeures.get(gravite));
+        return new Entree(id, utilisateurId, envoi, gravite, echeance);
+    }
+
+    // --- Mises à jour (sous verrou) ---
+
+    private void placer(Entree entree) {
+        enlever(entree.id);
+        file.add(entree);
+        parId.put(entree.id, entree);
+    }
+
+    private void enlever(Long id) {
+        Entree precedente = parId.remove(id);
+        if (precedente != null) {
+            file.remove(precedente);
+        }
+    }
+}
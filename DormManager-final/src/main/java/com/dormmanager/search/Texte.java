@@ -0,0 +1,40 @@
+package com.dormmanager.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Normalisation du texte pour les index de recherche : minuscules, sans accents,
+ * découpé sur tout ce qui n'est ni lettre ni chiffre ("Né-Ouahbi" donne "ne", "ouahbi").
+ */
+final class Texte {
+
+    private static final Pattern DIACRITIQUES = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATEURS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private Texte() {
+    }
+
+    static String normaliser(String texte) {
+        if (texte == null) {
+            return "";
+        }
+        String sansAccents = DIACRITIQUES.matcher(Normalizer.normalize(texte, Normalizer.Form.NFD)).replaceAll("");
+        return sansAccents.toLowerCase();
+    }
+
+    /**
+     * Mots normalisés du texte, dans l'ordre, avec les doublons.
+     */
+    static List<String> mots(String texte) {
+        List<String> mots = new ArrayList<>();
+        for (String mot : SEPARATEURS.split(normaliser(texte))) {
+            if (!mot.isEmpty()) {
+                mots.add(mot);
+            }
+        }
+        return mots;
+    }
+}
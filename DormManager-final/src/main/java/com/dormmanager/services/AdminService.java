@@ -1,38 +1,74 @@
 package com.dormmanager.services;
 
+import com.dormmanager.dto.CursorPageDto;
 import com.dormmanager.dto.DashboardStatsDto;
 import com.dormmanager.dto.UpdateUtilisateurDto;
+import com.dormmanager.dto.UtilisateurResumeDto;
 import com.dormmanager.entity.Administrateur;
 import com.dormmanager.entity.AgentTechnique;
 import com.dormmanager.entity.Chambre;
+import com.dormmanager.entity.Etudiant;
 import com.dormmanager.entity.GestionnaireFoyer;
 import com.dormmanager.entity.Utilisateur;
 import com.dormmanager.repository.AffectationRepository;
 import com.dormmanager.repository.ChambreRepository;
 import com.dormmanager.repository.DemandeHebergementRepository;
+import com.dormmanager.repository.EtatDesLieuxRepository;
+import com.dormmanager.repository.IncidentRepository;
 import com.dormmanager.repository.NotificationRepository;
 import com.dormmanager.repository.ReclamationRepository;
+import com.dormmanager.repository.TacheMaintenanceRepository;
 import com.dormmanager.repository.UtilisateurRepository;
+import com.dormmanager.search.EtudiantSearchIndex;
+import com.dormmanager.search.ReclamationSearchIndex;
+import com.dormmanager.search.ReclamationTriageQueue;
 import com.dormmanager.services.NotificationService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 
 @Service
 @Transactional
 public class AdminService {
 
+    private static final Logger log = LoggerFactory.getLogger(AdminService.class);
+
+    // Taille des paquets de la suppression en masse (une transaction par paquet)
+    static final int TAILLE_PAQUET_SUPPRESSION = 500;
+
+    private static final int TAILLE_PAGE_DEFAUT = 50;
+    private static final int TAILLE_PAGE_MAX = 500;
+
     private final UtilisateurRepository utilisateurRepository;
     private final ChambreRepository chambreRepository;
     private final AffectationRepository affectationRepository;
     private final DemandeHebergementRepository demandeHebergementRepository;
     private final ReclamationRepository reclamationRepository;
     private final NotificationRepository notificationRepository;
+    private final EtatDesLieuxRepository etatDesLieuxRepository;
+    private final IncidentRepository incidentRepository;
     private final NotificationService notificationService;
+    private final TransactionTemplate transactionTemplate;
+    private final EtudiantSearchIndex etudiantSearchIndex;
+    private final ReclamationSearchIndex reclamationSearchIndex;
+    private final ReclamationTriageQueue reclamationTriageQueue;
+    private final IncidentDispatcher incidentDispatcher;
+    private final TacheMaintenanceRepository tacheMaintenanceRepository;
 
     public AdminService(UtilisateurRepository utilisateurRepository,
                         ChambreRepository chambreRepository,
@@ -40,20 +76,133 @@ public class AdminService {
                         DemandeHebergementRepository demandeHebergementRepository,
                         ReclamationRepository reclamationRepository,
                         NotificationRepository notificationRepository,
-                        NotificationService notificationService) {
+                        EtatDesLieuxRepository etatDesLieuxRepository,
+                        IncidentRepository incidentRepository,
+                        NotificationService notificationService,
+                        TransactionTemplate transactionTemplate,
+                        EtudiantSearchIndex etudiantSearchIndex,
+                        ReclamationSearchIndex reclamationSearchIndex,
+                        ReclamationTriageQueue reclamationTriageQueue,
+                        IncidentDispatcher incidentDispatcher,
+                        TacheMaintenanceRepository tacheMaintenanceRepository) {
         this.utilisateurRepository = utilisateurRepository;
         this.chambreRepository = chambreRepository;
         this.affectationRepository = affectationRepository;
         this.demandeHebergementRepository = demandeHebergementRepository;
         this.reclamationRepository = reclamationRepository;
         this.notificationRepository = notificationRepository;
+        this.etatDesLieuxRepository = etatDesLieuxRepository;
+        this.incidentRepository = incidentRepository;
         this.notificationService = notificationService;
+        this.transactionTemplate = transactionTemplate;
+        this.etudiantSearchIndex = etudiantSearchIndex;
+        this.reclamationSearchIndex = reclamationSearchIndex;
+        this.reclamationTriageQueue = reclamationTriageQueue;
+        this.incidentDispatcher = incidentDispatcher;
+        this.tacheMaintenanceRepository = tacheMaintenanceRepository;
     }
 
     public List<Utilisateur> getAllUtilisateurs() {
         return utilisateurRepository.findAll();
     }
 
+    /**
+     * Annuaire des utilisateurs, trié par nom et paginé par curseur.
+     *
+     * Seule la table utilisateur est lue ; avec details=true, les champs propres
+     * au rôle sont chargés pour la page courante (au plus une requête par rôle présent).
+     *
+     * @param role   filtre optionnel (ETUDIANT, GESTIONNAIRE, AGENT_TECHNIQUE, ADMIN)
+     * @param depuis date de création minimale incluse (optionnelle)
+     * @param jusqua date de création maximale incluse (optionnelle)
+     * @param taille nombre d'utilisateurs par page (borné à {@value #TAILLE_PAGE_MAX})
+     */
+    @Transactional(readOnly = true)
+    public CursorPageDto<UtilisateurResumeDto> annuaire(String role, LocalDate depuis, LocalDate jusqua,
+                                                        String curseur, Integer taille, boolean details) {
+        Utilisateur.Role roleFiltre = null;
+        if (role != null && !role.isBlank()) {
+            try {
+                roleFiltre = Utilisateur.Role.valueOf(role.toUpperCase());
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Rôle invalide: " + role);
+            }
+        }
+        if (depuis != null && jusqua != null && jusqua.isBefore(depuis)) {
+            throw new IllegalArgumentException("Période de création invalide");
+        }
+        int limite = taille == null || taille <= 0 ? TAILLE_PAGE_DEFAUT : Math.min(taille, TAILLE_PAGE_MAX);
+
+        String apresNom = null;
+        Long apresId = null;
+        String[] position = CursorPageDto.decodeCursor(curseur, 2);
+        if (position != null) {
+            apresNom = position[0];
+            try {
+                apresId = Long.valueOf(position[1]);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Curseur invalide");
+            }
+        }
+
+        // On lit une ligne de plus que demandé pour savoir s'il existe une page suivante
+        List<UtilisateurResumeDto> lignes = utilisateurRepository.findAnnuaire(roleFiltre,
+                depuis != null ? depuis.atStartOfDay() : null,
+                jusqua != null ? jusqua.plusDays(1).atStartOfDay() : null,
+                apresNom, apresId, PageRequest.of(0, limite + 1));
+
+        boolean suivante = lignes.size() > limite;
+        List<UtilisateurResumeDto> page = suivante ? lignes.subList(0, limite) : lignes;
+        if (details && !page.isEmpty()) {
+            completerDetails(page);
+        }
+
+        String prochainCurseur = null;
+        if (suivante) {
+            UtilisateurResumeDto dernier = page.get(page.size() - 1);
+            prochainCurseur = CursorPageDto.encodeCursor(dernier.getNom(), dernier.getId());
+        }
+        return new CursorPageDto<>(page, prochainCurseur);
+    }
+
+    private void completerDetails(List<UtilisateurResumeDto> page) {
+        Map<Utilisateur.Role, List<Long>> idsParRole = new HashMap<>();
+        for (UtilisateurResumeDto u : page) {
+            idsParRole.computeIfAbsent(u.getRole(), r -> new ArrayList<>()).add(u.getId());
+        }
+
+        Map<Long, Map<String, Object>> details = new HashMap<>();
+        List<Long> etudiants = idsParRole.get(Utilisateur.Role.ETUDIANT);
+        if (etudiants != null) {
+            for (Object[] l : utilisateurRepository.findDetailsEtudiants(etudiants)) {
+                details.put((Long) l[0], detail("matricule", l[1], "filiere", l[2]));
+            }
+        }
+        List<Long> agents = idsParRole.get(Utilisateur.Role.AGENT_TECHNIQUE);
+        if (agents != null) {
+            for (Object[] l : utilisateurRepository.findDetailsAgents(agents)) {
+                details.put((Long) l[0], detail("specialite", l[1]));
+            }
+        }
+        List<Long> gestionnaires = idsParRole.get(Utilisateur.Role.GESTIONNAIRE);
+        if (gestionnaires != null) {
+            for (Object[] l : utilisateurRepository.findDetailsGestionnaires(gestionnaires)) {
+                details.put((Long) l[0], detail("service", l[1], "bureau", l[2]));
+            }
+        }
+        for (UtilisateurResumeDto u : page) {
+            u.setDetails(details.get(u.getId()));
+        }
+    }
+
+    private static Map<String, Object> detail(Object... clesValeurs) {
+        Map<String, Object> detail = new LinkedHashMap<>();
+        for (int i = 0; i < clesValeurs.length; i += 2) {
+            detail.put((String) clesValeurs[i], clesValeurs[i + 1]);
+        }
+        return detail;
+    }
+
     public Utilisateur getUtilisateurById(Long id) {
         return utilisateurRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Utilisateur non trouvé"));
@@ -68,19 +217,80 @@ public class AdminService {
         
         // Delete reclamations associated with this user (applies to all user types)
         reclamationRepository.deleteByUtilisateurId(id);
+        reclamationSearchIndex.retirerUtilisateurs(List.of(id));
+        reclamationTriageQueue.retirerUtilisateurs(List.of(id));
         
         // If the user is an etudiant, delete student-specific related records
         if (utilisateur.getRole() == Utilisateur.Role.ETUDIANT) {
-            // Delete affectations associated with this student
+            // Delete the états des lieux, then the affectations associated with this student
+            etatDesLieuxRepository.dereferencerPhotosByEtudiantIdIn(List.of(id));
+            etatDesLieuxRepository.deletePhotosByEtudiantIdIn(List.of(id));
+            etatDesLieuxRepository.deleteByEtudiantIdIn(List.of(id));
+            tacheMaintenanceRepository.detacherAffectations(List.of(id));
             affectationRepository.deleteByEtudiantId(id);
             
             // Delete demandes associated with this student
             demandeHebergementRepository.deleteByEtudiantId(id);
+            etudiantSearchIndex.retirer(id);
+        } else if (utilisateur.getRole() == Utilisateur.Role.AGENT_TECHNIQUE) {
+            // Incidents assigned to this agent go back to the unassigned pool
+            incidentRepository.desassignerAgents(List.of(id));
+            incidentDispatcher.retirerAgents(List.of(id));
+            // Maintenance tasks not yet done go back to planning
+            tacheMaintenanceRepository.desassignerAgents(List.of(id));
         }
         
         utilisateurRepository.deleteById(id);
     }
 
+    /**
+     * Suppression en masse d'utilisateurs (par exemple les étudiants diplômés).
+     *
+     * Les identifiants sont traités par paquets de {@value #TAILLE_PAQUET_SUPPRESSION},
+     * chaque paquet dans sa propre transaction : une requête DELETE par table liée,
+     * sans charger les entités. Les identifiants inconnus sont ignorés.
+     *
+     * @return le nombre d'utilisateurs effectivement supprimés
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public int supprimerUtilisateurs(List<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            throw new IllegalArgumentException("Aucun utilisateur à supprimer");
+        }
+        List<Long> distincts = new ArrayList<>(new LinkedHashSet<>(ids));
+        distincts.removeIf(Objects::isNull);
+
+        int supprimes = 0;
+        for (int debut = 0; debut < distincts.size(); debut += TAILLE_PAQUET_SUPPRESSION) {
+            List<Long> paquet = distincts.subList(debut,
+                    Math.min(debut + TAILLE_PAQUET_SUPPRESSION, distincts.size()));
+            Integer n = transactionTemplate.execute(status -> supprimerPaquet(paquet));
+            supprimes += n != null ? n : 0;
+        }
+        log.info("Suppression en masse: {} utilisateur(s) supprimé(s) sur {} demandé(s)", supprimes, distincts.size());
+        return supprimes;
+    }
+
+    private int supprimerPaquet(List<Long> ids) {
+        // Ordre imposé par les clés étrangères : enfants d'abord, utilisateurs en dernier.
+        // Les requêtes sur les tables étudiant sont sans effet pour les autres rôles.
+        etatDesLieuxRepository.dereferencerPhotosByEtudiantIdIn(ids);
+        etatDesLieuxRepository.deletePhotosByEtudiantIdIn(ids);
+        etatDesLieuxRepository.deleteByEtudiantIdIn(ids);
+        tacheMaintenanceRepository.detacherAffectations(ids);
+        affectationRepository.deleteByEtudiantIdIn(ids);
+        demandeHebergementRepository.deleteByEtudiantIdIn(ids);
+        notificationRepository.deleteByDestinataireIdIn(ids);
+        reclamationRepository.deleteByUtilisateurIdIn(ids);
+        reclamationSearchIndex.retirerUtilisateurs(ids);
+        reclamationTriageQueue.retirerUtilisateurs(ids);
+        incidentRepository.desassignerAgents(ids);
+        incidentDispatcher.retirerAgents(ids);
+        tacheMaintenanceRepository.desassignerAgents(ids);
+        etudiantSearchIndex.retirer(ids);
+        return utilisateurRepository.deleteByIdIn(ids);
+    }
+
     public Utilisateur updateUtilisateur(Long id, UpdateUtilisateurDto dto) {
         Utilisateur existing = utilisateurRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Utilisateur non trouvé"));
@@ -99,6 +309,9 @@ public class AdminService {
         }
         
         Utilisateur saved = utilisateurRepository.save(existing);
+        if (saved instanceof Etudiant etudiant) {
+            etudiantSearchIndex.indexer(etudiant);
+        }
         
         // Notify the user that admin has modified their information
         String message = String.format("Votre profil a été modifié par l'administrateur. " +
@@ -145,7 +358,11 @@ public class AdminService {
         user.setRole(Utilisateur.Role.valueOf(role));
         user.setDateCreation(LocalDateTime.now());
 
-        return utilisateurRepository.save(user);
+        Utilisateur saved = utilisateurRepository.save(user);
+        if (saved instanceof AgentTechnique agent) {
+            incidentDispatcher.ajouterAgent(agent.getId(), agent.getSpecialite());
+        }
+        return saved;
     }
 
     /**
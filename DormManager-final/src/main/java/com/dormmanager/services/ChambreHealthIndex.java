@@ -0,0 +1,292 @@
+package com.dormmanager.services;
+
+import com.dormmanager.dto.ChambreSanteDto;
+import com.dormmanager.entity.StatutIncident;
+import com.dormmanager.repository.EtatDesLieuxRepository;
+import com.dormmanager.repository.IncidentRepository;
+import com.dormmanager.support.ApresTransaction;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+/**
+ * Santé des chambres, tenue en mémoire.
+ *
+ * Le score (0 à 100) retire au maximum 15 points par incident non résolu, 5 par incident
+ * signalé sur les 90 derniers jours et une pénalité selon le dernier état des lieux
+ * (mauvais / dégradé : 30, moyen / passable : 10). Une chambre sans historique vaut 100.
+ *
+ * Les compteurs sont chargés au démarrage (trois requêtes groupées) puis mis à jour
+ * après commit à chaque signalement, résolution et état des lieux ; la fenêtre glissante
+ * des incidents récents est recalculée chaque nuit. Les chambres sont aussi rangées par
+ * score, pour lister les plus fragiles sans parcourir toutes les chambres.
+ */
+@Component
+public class ChambreHealthIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(ChambreHealthIndex.class);
+
+    static final int SCORE_MAX = 100;
+    static final int FENETRE_JOURS = 90;
+    private static final int PENALITE_INCIDENT_OUVERT = 15;
+    private static final int PENALITE_INCIDENT_RECENT = 5;
+    private static final int PENALITE_ETAT_MAUVAIS = 30;
+    private static final int PENALITE_ETAT_MOYEN = 10;
+
+    private static final Set<String> ETATS_MAUVAIS = Set.of("mauvais", "degrade", "endommage", "insalubre");
+    private static final Set<String> ETATS_MOYENS = Set.of("moyen", "passable", "use", "usage");
+    private static final Pattern DIACRITIQUES = Pattern.compile("\\p{M}+");
+
+    static final Set<StatutIncident> STATUTS_NON_RESOLUS = StatutIncident.RESOLU.precedents();
+
+    private final IncidentRepository incidentRepository;
+    private final EtatDesLieuxRepository etatDesLieuxRepository;
+    private final ReentrantReadWriteLock verrou = new ReentrantReadWriteLock();
+
+    private final Map<Long, Sante> parChambre = new HashMap<>();
+    private final TreeSet<Sante> parScore = new TreeSet<>(
+            Comparator.comparingInt((Sante s) -> s.score).thenComparing(s -> s.chambreId));
+
+    public ChambreHealthIndex(IncidentRepository incidentRepository,
+                              EtatDesLieuxRepository etatDesLieuxRepository) {
+        this.incidentRepository = incidentRepository;
+        this.etatDesLieuxRepository = etatDesLieuxRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconstruire() {
+        LocalDate aujourdhui = LocalDate.now();
+        List<Object[]> ouverts = incidentRepository.compterParChambre(STATUTS_NON_RESOLUS);
+        List<Object[]> recents = incidentRepository.findSignalementsDepuis(debutFenetre(aujourdhui));
+        List<Object[]> etats = etatDesLieuxRepository.findDerniersEtatsParChambre();
+        verrou.writeLock().lock();
+        try {
+            parChambre.clear();
+            parScore.clear();
+            for (Object[] l : ouverts) {
+                suivre((Long) l[0]).ouverts = ((Number) l[1]).intValue();
+            }
+            for (Object[] l : recents) {
+                suivre((Long) l[0]).recents.addLast((LocalDate) l[1]);
+            }
+            for (Object[] l : etats) {
+                Sante s = suivre((Long) l[0]);
+                s.etat = (String) l[1];
+                s.dateEtat = (LocalDate) l[2];
+            }
+            for (Sante s : parChambre.values()) {
+                s.score = calculer(s);
+                parScore.add(s);
+            }
+        } finally {
+            verrou.writeLock().unlock();
+        }
+        log.info("Santé des chambres initialisée: {} chambres suivies", parChambre.size());
+    }
+
+    /**
+     * Fait glisser la fenêtre des incidents récents (chaque nuit).
+     */
+    @Scheduled(cron = "0 5 0 * * *")
+    public void rafraichir() {
+        rafraichir(LocalDate.now());
+    }
+
+    void rafraichir(LocalDate aujourdhui) {
+        LocalDate debut = debutFenetre(aujourdhui);
+        verrou.writeLock().lock();
+        try {
+            for (Sante s : new ArrayList<>(parScore)) {
+                if (!s.recents.isEmpty() && s.recents.peekFirst().isBefore(debut)) {
+                    modifier(s, () -> purger(s, debut));
+                }
+            }
+        } finally {
+            verrou.writeLock().unlock();
+        }
+    }
+
+    public void incidentSignale(Long chambreId, LocalDate date) {
+        ApresTransaction.apresCommit(() -> mettreAJour(chambreId, s -> {
+            s.ouverts++;
+            s.recents.addLast(date);
+        }));
+    }
+
+    public void incidentsResolus(Long chambreId, int nombre) {
+        if (nombre <= 0) {
+            return;
+        }
+        ApresTransaction.apresCommit(() -> mettreAJour(chambreId, s -> s.ouverts = Math.max(0, s.ouverts - nombre)));
+    }
+
+    public void etatDesLieux(Long chambreId, String etat, LocalDate date) {
+        ApresTransaction.apresCommit(() -> mettreAJour(chambreId, s -> {
+            s.etat = etat;
+            s.dateEtat = date;
+        }));
+    }
+
+    public void retirerChambre(Long chambreId) {
+        ApresTransaction.apresCommit(() -> {
+            verrou.writeLock().lock();
+            try {
+                Sante s = parChambre.remove(chambreId);
+                if (s != null) {
+                    parScore.remove(s);
+                }
+            } finally {
+                verrou.writeLock().unlock();
+            }
+        });
+    }
+
+    public ChambreSanteDto sante(Long chambreId) {
+        verrou.readLock().lock();
+        try {
+            Sante s = parChambre.get(chambreId);
+            return s != null ? s.dto() : new ChambreSanteDto(chambreId, SCORE_MAX, 0, 0, null, null);
+        } finally {
+            verrou.readLock().unlock();
+        }
+    }
+
+    public int score(Long chambreId) {
+        verrou.readLock().lock();
+        try {
+            Sante s = parChambre.get(chambreId);
+            return s != null ? s.score : SCORE_MAX;
+        } finally {
+            verrou.readLock().unlock();
+        }
+    }
+
+    public boolean aIncidentsOuverts(Long chambreId) {
+        verrou.readLock().lock();
+        try {
+            Sante s = parChambre.get(chambreId);
+            return s != null && s.ouverts > 0;
+        } finally {
+            verrou.readLock().unlock();
+        }
+    }
+
+    /**
+     * Les chambres au score le plus bas (planification de la maintenance) ; les chambres
+     * sans historique, à 100, n'y figurent pas.
+     */
+    public List<ChambreSanteDto> plusFragiles(int limite) {
+        List<ChambreSanteDto> resultat = new ArrayList<>();
+        verrou.readLock().lock();
+        try {
+            for (Sante s : parScore) {
+                if (resultat.size() >= limite || s.score >= SCORE_MAX) {
+                    break;
+                }
+                resultat.add(s.dto());
+            }
+        } finally {
+            verrou.readLock().unlock();
+        }
+        return resultat;
+    }
+
+    static int penaliteEtat(String etat) {
+        if (etat == null || etat.isBlank()) {
+            return 0;
+        }
+        String cle = DIACRITIQUES.matcher(Normalizer.normalize(etat.trim(), Normalizer.Form.NFD))
+                .replaceAll("").toLowerCase();
+        for (String mot : cle.split("[^a-z]+")) {
+            if (ETATS_MAUVAIS.contains(mot)) {
+                return PENALITE_ETAT_MAUVAIS;
+            }
+        }
+        for (String mot : cle.split("[^a-z]+")) {
+            if (ETATS_MOYENS.contains(mot)) {
+                return PENALITE_ETAT_MOYEN;
+            }
+        }
+        return 0;
+    }
+
+    // --- Mises à jour (sous verrou d'écriture) ---
+
+    private void mettreAJour(Long chambreId, Consumer<Sante> modification) {
+        verrou.writeLock().lock();
+        try {
+            Sante s = suivre(chambreId);
+            modifier(s, () -> {
+                modification.accept(s);
+                purger(s, debutFenetre(LocalDate.now()));
+            });
+        } finally {
+            verrou.writeLock().unlock();
+        }
+    }
+
+    // Le score fait partie de la clé de tri : la chambre est retirée puis replacée
+    private void modifier(Sante s, Runnable modification) {
+        parScore.remove(s);
+        modification.run();
+        s.score = calculer(s);
+        parScore.add(s);
+    }
+
+    private Sante suivre(Long chambreId) {
+        return parChambre.computeIfAbsent(chambreId, Sante::new);
+    }
+
+    private static void purger(Sante s, LocalDate debut) {
+        while (!s.recents.isEmpty() && s.recents.peekFirst().isBefore(debut)) {
+            s.recents.pollFirst();
+        }
+    }
+
+    private static LocalDate debutFenetre(LocalDate aujourdhui) {
+        return aujourdhui.minusDays(FENETRE_JOURS);
+    }
+
+    private static int calculer(Sante s) {
+        int score = SCORE_MAX
+                - PENALITE_INCIDENT_OUVERT * s.ouverts
+                - PENALITE_INCIDENT_RECENT * s.recents.size()
+                - penaliteEtat(s.etat);
+        return Math.max(0, score);
+    }
+
+    private static final class Sante {
+        private final Long chambreId;
+        private int ouverts;
+        // Dates de signalement dans la fenêtre, par ordre croissant
+        private final ArrayDeque<LocalDate> recents = new ArrayDeque<>();
+        private String etat;
+        private LocalDate dateEtat;
+        private int score = SCORE_MAX;
+
+        private Sante(Long chambreId) {
+            this.chambreId = chambreId;
+        }
+
+        private ChambreSanteDto dto() {
+            return new ChambreSanteDto(chambreId, score, ouverts, recents.size(), etat, dateEtat);
+        }
+    }
+}
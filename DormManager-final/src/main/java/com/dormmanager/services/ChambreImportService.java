@@ -0,0 +1,217 @@
+package com.dormmanager.services;
+
+import com.dormmanager.dto.ImportResultDto;
+import com.dormmanager.entity.Utilisateur;
+import com.dormmanager.repository.ChambreRepository;
+import com.dormmanager.repository.UtilisateurRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Import en masse de chambres (ouverture d'un nouveau bâtiment).
+ *
+ * Le fichier est lu en flux, validé ligne par ligne puis inséré par lots JDBC
+ * de {@value #TAILLE_LOT} lignes. Une seule notification récapitulative est
+ * envoyée à la fin, au lieu d'une notification par chambre.
+ *
+ * Colonnes attendues : numero (obligatoire), type, capacite (1 par défaut),
+ * etat ("disponible" par défaut).
+ */
+@Service
+public class ChambreImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(ChambreImportService.class);
+
+    static final int TAILLE_LOT = 500;
+    private static final int CAPACITE_MAX = 20;
+    private static final Set<String> ETATS = Set.of("disponible", "occupee", "maintenance");
+    private static final String INSERT_CHAMBRE =
+            "INSERT INTO chambre (numero, type, capacite, etat) VALUES (?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ChambreRepository chambreRepository;
+    private final UtilisateurRepository utilisateurRepository;
+    private final NotificationService notificationService;
+
+    public ChambreImportService(JdbcTemplate jdbcTemplate,
+                                TransactionTemplate transactionTemplate,
+                                ChambreRepository chambreRepository,
+                                UtilisateurRepository utilisateurRepository,
+                                NotificationService notificationService) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.chambreRepository = chambreRepository;
+        this.utilisateurRepository = utilisateurRepository;
+        this.notificationService = notificationService;
+    }
+
+    /**
+     * Importe les chambres lues dans le flux.
+     *
+     * @param userId auteur de l'import (détermine qui est notifié, comme pour l'ajout unitaire)
+     */
+    public ImportResultDto importer(InputStream in, ImportRowReader.Format format, Long userId) throws IOException {
+        long debut = System.nanoTime();
+        ImportResultDto resultat = new ImportResultDto();
+        // Numéros déjà vus dans ce fichier, pour rejeter les doublons internes à l'import
+        Set<String> numerosVus = new HashSet<>();
+        List<LigneChambre> lot = new ArrayList<>(TAILLE_LOT);
+
+        try (ImportRowReader reader = new ImportRowReader(in, format)) {
+            ImportRowReader.Row row;
+            while ((row = reader.next()) != null) {
+                resultat.incrementerLignesLues();
+                LigneChambre ligne = valider(row, resultat);
+                if (ligne == null) {
+                    continue;
+                }
+                if (!numerosVus.add(ligne.numero)) {
+                    resultat.rejeter(row.getNumero(), "Numéro en double dans le fichier: " + ligne.numero);
+                    continue;
+                }
+                lot.add(ligne);
+                if (lot.size() == TAILLE_LOT) {
+                    insererLot(lot, resultat);
+                    lot.clear();
+                }
+            }
+        }
+        if (!lot.isEmpty()) {
+            insererLot(lot, resultat);
+        }
+        resultat.terminer(debut);
+
+        log.info("Import de chambres terminé: {} lignes lues, {} insérées, {} rejetées en {} ms",
+                resultat.getLignesLues(), resultat.getInserees(), resultat.getRejetees(), resultat.getDureeMs());
+
+        if (resultat.getInserees() > 0) {
+            notifierImport(resultat, userId);
+        }
+        return resultat;
+    }
+
+    private LigneChambre valider(ImportRowReader.Row row, ImportResultDto resultat) {
+        if (row.getErreur() != null) {
+            resultat.rejeter(row.getNumero(), row.getErreur());
+            return null;
+        }
+        String numero = row.get("numero");
+        if (numero == null) {
+            resultat.rejeter(row.getNumero(), "Numéro de chambre manquant");
+            return null;
+        }
+        if (numero.length() > 255) {
+            resultat.rejeter(row.getNumero(), "Numéro de chambre trop long");
+            return null;
+        }
+
+        int capacite = 1;
+        String capaciteBrute = row.get("capacite");
+        if (capaciteBrute != null) {
+            try {
+                capacite = Integer.parseInt(capaciteBrute);
+            } catch (NumberFormatException e) {
+                resultat.rejeter(row.getNumero(), "Capacité invalide: " + capaciteBrute);
+                return null;
+            }
+            if (capacite < 1 || capacite > CAPACITE_MAX) {
+                resultat.rejeter(row.getNumero(), "Capacité hors limites (1-" + CAPACITE_MAX + "): " + capacite);
+                return null;
+            }
+        }
+
+        String etat = row.get("etat");
+        etat = etat == null ? "disponible" : etat.toLowerCase();
+        if (!ETATS.contains(etat)) {
+            resultat.rejeter(row.getNumero(), "Etat invalide: " + etat);
+            return null;
+        }
+
+        return new LigneChambre(row.getNumero(), numero, row.get("type"), capacite, etat);
+    }
+
+    /**
+     * Insère un lot dans sa propre transaction : les chambres déjà présentes en base
+     * sont rejetées en une seule requête, puis le reste est envoyé en batch JDBC.
+     */
+    private void insererLot(List<LigneChambre> lot, ImportResultDto resultat) {
+        List<String> numeros = new ArrayList<>(lot.size());
+        for (LigneChambre l : lot) {
+            numeros.add(l.numero);
+        }
+
+        // Rejets et compteurs ne sont reportés qu'une fois le lot validé (commit)
+        List<LigneChambre> dejaPresentes = new ArrayList<>();
+        int[] inserees = new int[1];
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                Set<String> existants = new HashSet<>(chambreRepository.findNumerosExistants(numeros));
+                List<Object[]> valeurs = new ArrayList<>(lot.size());
+                for (LigneChambre l : lot) {
+                    if (existants.contains(l.numero)) {
+                        dejaPresentes.add(l);
+                    } else {
+                        valeurs.add(new Object[] {l.numero, l.type, l.capacite, l.etat});
+                    }
+                }
+                if (!valeurs.isEmpty()) {
+                    jdbcTemplate.batchUpdate(INSERT_CHAMBRE, valeurs);
+                }
+                inserees[0] = valeurs.size();
+            });
+        } catch (DataAccessException e) {
+            log.warn("Echec de l'insertion d'un lot de {} chambres", lot.size(), e);
+            for (LigneChambre l : lot) {
+                resultat.rejeter(l.ligne, "Erreur d'insertion du lot: " + e.getMostSpecificCause().getMessage());
+            }
+            return;
+        }
+        for (LigneChambre l : dejaPresentes) {
+            resultat.rejeter(l.ligne, "La chambre " + l.numero + " existe déjà");
+        }
+        resultat.ajouterInserees(inserees[0]);
+    }
+
+    /**
+     * Même règle que pour l'ajout unitaire : un import par l'administrateur est notifié
+     * aux gestionnaires, un import par un gestionnaire est notifié aux administrateurs.
+     */
+    private void notifierImport(ImportResultDto resultat, Long userId) {
+        String message = String.format("%d chambre(s) importée(s), %d ligne(s) rejetée(s).",
+                resultat.getInserees(), resultat.getRejetees());
+        Utilisateur auteur = userId != null ? utilisateurRepository.findById(userId).orElse(null) : null;
+        if (auteur != null && auteur.getRole() == Utilisateur.Role.ADMIN) {
+            notificationService.notifyAllGestionnaires("info", "Import de chambres", message);
+        } else {
+            notificationService.notifyAllAdmins("info", "Import de chambres", message);
+        }
+    }
+
+    private static final class LigneChambre {
+        private final long ligne;
+        private final String numero;
+        private final String type;
+        private final int capacite;
+        private final String etat;
+
+        private LigneChambre(long ligne, String numero, String type, int capacite, String etat) {
+            this.ligne = ligne;
+            this.numero = numero;
+            this.type = type;
+            this.capacite = capacite;
+            this.etat = etat;
+        }
+    }
+}
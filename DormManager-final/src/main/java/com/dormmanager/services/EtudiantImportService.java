@@ -0,0 +1,324 @@
+package com.dormmanager.services;
+
+import com.dormmanager.dto.ImportResultDto;
+import com.dormmanager.entity.Utilisateur;
+import com.dormmanager.repository.EtudiantRepository;
+import com.dormmanager.repository.UtilisateurRepository;
+import com.dormmanager.search.EtudiantSearchIndex;
+import com.dormmanager.support.ApresTransaction;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Import en masse des étudiants à partir de l'export de la scolarité (rentrée universitaire).
+ *
+ * Les lignes sont lues en flux et traitées par lots de {@value #TAILLE_LOT} :
+ *  - un étudiant dont le matricule existe déjà est mis à jour (upsert par matricule) ;
+ *  - un nouvel étudiant est inséré dans utilisateur puis dans etudiant (héritage JOINED),
+ *    chaque table recevant un seul batch JDBC par lot ;
+ *  - les doublons d'email sont détectés avec une seule requête par lot ;
+ *  - les écritures JDBC échappant à Hibernate, les utilisateurs modifiés et les résultats
+ *    de findByRole sont retirés du cache de second niveau au commit du lot.
+ *
+ * Colonnes attendues : matricule, nom, prenom, email (obligatoires), filiere, motDePasse.
+ * Sans motDePasse, un mot de passe provisoire aléatoire est attribué.
+ */
+@Service
+public class EtudiantImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(EtudiantImportService.class);
+
+    static final int TAILLE_LOT = 500;
+    private static final Pattern EMAIL = Pattern.compile("^[^@\\s]+@[^@\\s]+\\.[^@\\s]+$");
+
+    private static final String INSERT_UTILISATEUR =
+            "INSERT INTO utilisateur (nom, prenom, email, mot_de_passe, role, date_creation) "
+            + "VALUES (?, ?, ?, ?, 'ETUDIANT', ?)";
+    private static final String INSERT_ETUDIANT =
+            "INSERT INTO etudiant (id, matricule, filiere) VALUES (?, ?, ?)";
+    private static final String UPDATE_UTILISATEUR =
+            "UPDATE utilisateur SET nom = ?, prenom = ?, email = ? WHERE id = ?";
+    private static final String UPDATE_ETUDIANT =
+            "UPDATE etudiant SET filiere = ? WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final EtudiantRepository etudiantRepository;
+    private final UtilisateurRepository utilisateurRepository;
+    private final EtudiantSearchIndex etudiantSearchIndex;
+    private final Cache cache;
+
+    // Imports en cours par identifiant, consultables pendant qu'ils s'exécutent
+    private final Map<String, ImportEnCours> importsEnCours = new ConcurrentHashMap<>();
+
+    public EtudiantImportService(JdbcTemplate jdbcTemplate,
+                                 TransactionTemplate transactionTemplate,
+                                 EtudiantRepository etudiantRepository,
+                                 UtilisateurRepository utilisateurRepository,
+                                 EtudiantSearchIndex etudiantSearchIndex,
+                                 EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.etudiantRepository = etudiantRepository;
+        this.utilisateurRepository = utilisateurRepository;
+        this.etudiantSearchIndex = etudiantSearchIndex;
+        this.cache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+    }
+
+    /**
+     * Progression de l'import importId (null s'il n'est pas en cours).
+     */
+    public ImportResultDto getProgression(String importId) {
+        ImportEnCours enCours = importsEnCours.get(importId);
+        return enCours == null ? null : enCours.instantane();
+    }
+
+    public ImportResultDto importer(InputStream in, ImportRowReader.Format format) throws IOException {
+        return importer(in, format, UUID.randomUUID().toString());
+    }
+
+    /**
+     * Importe le flux sous l'identifiant donné par le client, qui peut suivre la progression
+     * pendant l'import. IllegalStateException si un import de même identifiant est en cours.
+     */
+    public ImportResultDto importer(InputStream in, ImportRowReader.Format format, String importId)
+            throws IOException {
+        long debut = System.nanoTime();
+        ImportEnCours resultat = new ImportEnCours(debut);
+        if (importsEnCours.putIfAbsent(importId, resultat) != null) {
+            throw new IllegalStateException("Un import est déjà en cours sous l'identifiant " + importId);
+        }
+        Set<String> matriculesVus = new HashSet<>();
+        Set<String> emailsVus = new HashSet<>();
+        List<LigneEtudiant> lot = new ArrayList<>(TAILLE_LOT);
+
+        try (ImportRowReader reader = new ImportRowReader(in, format)) {
+            ImportRowReader.Row row;
+            while ((row = reader.next()) != null) {
+                resultat.incrementerLignesLues();
+                LigneEtudiant ligne = valider(row, resultat);
+                if (ligne == null) {
+                    continue;
+                }
+                if (!matriculesVus.add(ligne.matricule)) {
+                    resultat.rejeter(ligne.ligne, "Matricule en double dans le fichier: " + ligne.matricule);
+                    continue;
+                }
+                if (!emailsVus.add(ligne.email)) {
+                    resultat.rejeter(ligne.ligne, "Email en double dans le fichier: " + ligne.email);
+                    continue;
+                }
+                lot.add(ligne);
+                if (lot.size() == TAILLE_LOT) {
+                    traiterLot(lot, resultat);
+                    lot.clear();
+                    journaliserProgression(resultat);
+                }
+            }
+            if (!lot.isEmpty()) {
+                traiterLot(lot, resultat);
+            }
+        } finally {
+            importsEnCours.remove(importId);
+        }
+
+        ImportResultDto bilan = resultat.instantane();
+        log.info("Import d'étudiants terminé: {} lignes lues, {} créés, {} mis à jour, {} rejetés "
+                + "en {} ms ({} lignes/s)",
+                bilan.getLignesLues(), bilan.getInserees(), bilan.getMisesAJour(),
+                bilan.getRejetees(), bilan.getDureeMs(), Math.round(bilan.getLignesParSeconde()));
+        return bilan;
+    }
+
+    private void journaliserProgression(ImportEnCours resultat) {
+        ImportResultDto progression = resultat.instantane();
+        log.info("Import d'étudiants: {} lignes traitées ({} lignes/s)",
+                progression.getLignesLues(), Math.round(progression.getLignesParSeconde()));
+    }
+
+    private LigneEtudiant valider(ImportRowReader.Row row, ImportEnCours resultat) {
+        if (row.getErreur() != null) {
+            resultat.rejeter(row.getNumero(), row.getErreur());
+            return null;
+        }
+        String matricule = row.get("matricule");
+        String nom = row.get("nom");
+        String prenom = row.get("prenom");
+        String email = row.get("email");
+        if (matricule == null || nom == null || prenom == null || email == null) {
+            resultat.rejeter(row.getNumero(), "Colonnes obligatoires manquantes (matricule, nom, prenom, email)");
+            return null;
+        }
+        email = email.toLowerCase();
+        if (!EMAIL.matcher(email).matches()) {
+            resultat.rejeter(row.getNumero(), "Email invalide: " + email);
+            return null;
+        }
+        String motDePasse = row.get("motDePasse");
+        if (motDePasse == null) {
+            motDePasse = UUID.randomUUID().toString().substring(0, 12);
+        }
+        return new LigneEtudiant(row.getNumero(), matricule, nom, prenom, email, row.get("filiere"), motDePasse);
+    }
+
+    /**
+     * Traite un lot dans sa propre transaction : deux requêtes de pré-chargement
+     * (matricules et emails existants), puis des batchs JDBC d'insertion et de mise à jour.
+     */
+    private void traiterLot(List<LigneEtudiant> lot, ImportEnCours resultat) {
+        List<String> matricules = new ArrayList<>(lot.size());
+        List<String> emails = new ArrayList<>(lot.size());
+        for (LigneEtudiant l : lot) {
+            matricules.add(l.matricule);
+            emails.add(l.email);
+        }
+
+        // Rejets et compteurs ne sont reportés qu'une fois le lot validé (commit)
+        List<LigneEtudiant> emailsPris = new ArrayList<>();
+        int[] comptes = new int[2];
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                Map<String, Long> idParMatricule = new HashMap<>();
+                for (Object[] identite : etudiantRepository.findIdentitesByMatricules(matricules)) {
+                    idParMatricule.put((String) identite[1], (Long) identite[0]);
+                }
+                Map<String, Long> idParEmail = idsParEmail(emails);
+
+                List<LigneEtudiant> nouveaux = new ArrayList<>();
+                List<Object[]> majUtilisateurs = new ArrayList<>();
+                List<Object[]> majEtudiants = new ArrayList<>();
+                List<Long> idsModifies = new ArrayList<>();
+                for (LigneEtudiant l : lot) {
+                    Long idExistant = idParMatricule.get(l.matricule);
+                    Long proprietaireEmail = idParEmail.get(l.email);
+                    if (proprietaireEmail != null && !proprietaireEmail.equals(idExistant)) {
+                        emailsPris.add(l);
+                    } else if (idExistant != null) {
+                        majUtilisateurs.add(new Object[] {l.nom, l.prenom, l.email, idExistant});
+                        majEtudiants.add(new Object[] {l.filiere, idExistant});
+                        idsModifies.add(idExistant);
+                        // Appliqué à l'index de recherche au commit du lot
+                        etudiantSearchIndex.indexer(idExistant, l.nom, l.prenom, l.matricule, l.email, l.filiere);
+                    } else {
+                        nouveaux.add(l);
+                    }
+                }
+
+                if (!majUtilisateurs.isEmpty()) {
+                    jdbcTemplate.batchUpdate(UPDATE_UTILISATEUR, majUtilisateurs);
+                    jdbcTemplate.batchUpdate(UPDATE_ETUDIANT, majEtudiants);
+                }
+                if (!nouveaux.isEmpty()) {
+                    insererNouveaux(nouveaux);
+                }
+                if (!majUtilisateurs.isEmpty() || !nouveaux.isEmpty()) {
+                    ApresTransaction.apresCommit(() -> invaliderCache(idsModifies));
+                }
+                comptes[0] = nouveaux.size();
+                comptes[1] = majUtilisateurs.size();
+            });
+        } catch (DataAccessException | IllegalStateException e) {
+            log.warn("Echec de l'import d'un lot de {} étudiants", lot.size(), e);
+            String cause = e instanceof DataAccessException dae
+                    ? dae.getMostSpecificCause().getMessage()
+                    : e.getMessage();
+            for (LigneEtudiant l : lot) {
+                resultat.rejeter(l.ligne, "Erreur d'insertion du lot: " + cause);
+            }
+            return;
+        }
+        for (LigneEtudiant l : emailsPris) {
+            resultat.rejeter(l.ligne, "Email déjà utilisé par un autre compte: " + l.email);
+        }
+        resultat.ajouterInserees(comptes[0]);
+        resultat.ajouterMisesAJour(comptes[1]);
+    }
+
+    /**
+     * Héritage JOINED : la ligne utilisateur doit exister avant la ligne etudiant qui
+     * partage son identifiant. Les identifiants générés sont relus en une requête par email.
+     */
+    private void insererNouveaux(List<LigneEtudiant> nouveaux) {
+        Timestamp maintenant = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> utilisateurs = new ArrayList<>(nouveaux.size());
+        List<String> emails = new ArrayList<>(nouveaux.size());
+        for (LigneEtudiant l : nouveaux) {
+            utilisateurs.add(new Object[] {l.nom, l.prenom, l.email, l.motDePasse, maintenant});
+            emails.add(l.email);
+        }
+        jdbcTemplate.batchUpdate(INSERT_UTILISATEUR, utilisateurs);
+
+        Map<String, Long> ids = idsParEmail(emails);
+        List<Object[]> etudiants = new ArrayList<>(nouveaux.size());
+        for (LigneEtudiant l : nouveaux) {
+            Long id = ids.get(l.email);
+            if (id == null) {
+                throw new IllegalStateException("Identifiant introuvable après insertion pour " + l.email);
+            }
+            etudiants.add(new Object[] {id, l.matricule, l.filiere});
+            etudiantSearchIndex.indexer(id, l.nom, l.prenom, l.matricule, l.email, l.filiere);
+        }
+        jdbcTemplate.batchUpdate(INSERT_ETUDIANT, etudiants);
+    }
+
+    /**
+     * Retire du cache de second niveau ce que les batchs JDBC ont rendu périmé : les
+     * utilisateurs mis à jour et les listes par rôle (les nouveaux étudiants n'y sont pas).
+     */
+    private void invaliderCache(List<Long> idsModifies) {
+        for (Long id : idsModifies) {
+            cache.evictEntityData(Utilisateur.class, id);
+        }
+        cache.evictQueryRegion(UtilisateurRepository.REGION_PAR_ROLE);
+    }
+
+    private Map<String, Long> idsParEmail(List<String> emails) {
+        Map<String, Long> ids = new HashMap<>();
+        for (Object[] ligne : utilisateurRepository.findIdsByEmails(emails)) {
+            ids.put(((String) ligne[1]).toLowerCase(), (Long) ligne[0]);
+        }
+        return ids;
+    }
+
+    private static final class LigneEtudiant {
+        private final long ligne;
+        private final String matricule;
+        private final String nom;
+        private final String prenom;
+        private final String email;
+        private final String filiere;
+        private final String motDePasse;
+
+        private LigneEtudiant(long ligne, String matricule, String nom, String prenom,
+                              String email, String filiere, String motDePasse) {
+            this.ligne = ligne;
+            this.matricule = matricule;
+            this.nom = nom;
+            this.prenom = prenom;
+            this.email = email;
+            this.filiere = filiere;
+            this.motDePasse = motDePasse;
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package com.dormmanager.services;
 
+import com.dormmanager.dto.CursorPageDto;
+import com.dormmanager.dto.ReclamationDto;
 import com.dormmanager.entity.Affectation;
 import com.dormmanager.entity.DemandeHebergement;
 import com.dormmanager.entity.Etudiant;
@@ -11,7 +13,13 @@ import com.dormmanager.repository.ChambreRepository;
 import com.dormmanager.repository.DemandeHebergementRepository;
 import com.dormmanager.repository.EtudiantRepository;
 import com.dormmanager.repository.ReclamationRepository;
+import com.dormmanager.search.ReclamationSearchIndex;
+import com.dormmanager.search.ReclamationTriageQueue;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.util.Date;
@@ -26,25 +34,36 @@ import java.util.List;
 @Service
 public class EtudiantService {
 
+    private static final Logger log = LoggerFactory.getLogger(EtudiantService.class);
+
     private final DemandeHebergementRepository demandeRepo;
     private final EtudiantRepository etudiantRepo;
     private final ReclamationRepository reclamationRepo;
     private final AffectationRepository affectationRepo;
     private final ChambreRepository chambreRepo;
     private final com.dormmanager.services.NotificationService notificationService;
+    private final ReclamationSearchIndex reclamationSearchIndex;
+    private final ReclamationTriageQueue reclamationTriageQueue;
+    private final MaintenanceService maintenanceService;
 
     public EtudiantService(DemandeHebergementRepository demandeRepo,
                            EtudiantRepository etudiantRepo,
                            ReclamationRepository reclamationRepo,
                            AffectationRepository affectationRepo,
                            ChambreRepository chambreRepo,
-                           com.dormmanager.services.NotificationService notificationService) {
+                           com.dormmanager.services.NotificationService notificationService,
+                           ReclamationSearchIndex reclamationSearchIndex,
+                           ReclamationTriageQueue reclamationTriageQueue,
+                           MaintenanceService maintenanceService) {
         this.demandeRepo = demandeRepo;
         this.etudiantRepo = etudiantRepo;
         this.reclamationRepo = reclamationRepo;
         this.affectationRepo = affectationRepo;
         this.chambreRepo = chambreRepo;
         this.notificationService = notificationService;
+        this.reclamationSearchIndex = reclamationSearchIndex;
+        this.reclamationTriageQueue = reclamationTriageQueue;
+        this.maintenanceService = maintenanceService;
     }
 
     // =========================
@@ -114,6 +133,7 @@ public class EtudiantService {
     /**
      * Liste des demandes d'un étudiant.
      */
+    @Transactional(readOnly = true)
     public List<DemandeHebergement> getDemandesByEtudiant(Long etudiantId) {
         return demandeRepo.findByEtudiantId(etudiantId);
     }
@@ -121,6 +141,7 @@ public class EtudiantService {
     /**
      * Nombre de demandes en cours (EN_ATTENTE) pour un étudiant.
      */
+    @Transactional(readOnly = true)
     public long countDemandesEnCours(Etudiant etudiant) {
         return demandeRepo.countByEtudiantAndStatut(etudiant, StatutDemande.EN_ATTENTE);
     }
@@ -132,10 +153,24 @@ public class EtudiantService {
     /**
      * Liste des réclamations d'un utilisateur (étudiant).
      */
+    @Transactional(readOnly = true)
     public List<Reclamation> getReclamations(Utilisateur utilisateur) {
         return reclamationRepo.findByUtilisateurOrderByDateEnvoiDesc(utilisateur);
     }
 
+    /**
+     * Réclamations d'un utilisateur, les plus récentes d'abord, paginées par curseur.
+     */
+    @Transactional(readOnly = true)
+    public CursorPageDto<ReclamationDto> getReclamationsPaginees(Utilisateur utilisateur, String curseur,
+                                                                 Integer taille) {
+        int limite = ReclamationPages.limite(taille);
+        ReclamationPages.Position apres = ReclamationPages.position(curseur);
+        List<Reclamation> lignes = reclamationRepo.findPageUtilisateur(utilisateur.getId(),
+                apres.date, apres.id, PageRequest.of(0, limite + 1));
+        return ReclamationPages.page(lignes, limite);
+    }
+
     /**
      * Création d'une nouvelle réclamation pour l'utilisateur connecté.
      */
@@ -145,6 +180,8 @@ public class EtudiantService {
         r.setDateEnvoi(LocalDate.now());
         r.setUtilisateur(utilisateur);
         Reclamation saved = reclamationRepo.save(r);
+        reclamationSearchIndex.indexer(saved);
+        reclamationTriageQueue.ajouter(saved);
 
         // Notify gestionnaires of a new reclamation
         notificationService.notifyAllGestionnaires(
@@ -159,6 +196,7 @@ public class EtudiantService {
     /**
      * Nombre total de réclamations d'un utilisateur.
      */
+    @Transactional(readOnly = true)
     public long countReclamations(Utilisateur utilisateur) {
         return reclamationRepo.countByUtilisateur(utilisateur);
     }
@@ -185,6 +223,7 @@ public class EtudiantService {
      * car l'étudiant peut utiliser la chambre le 12/05. 
      * On ne cache l'affectation que si dateFin est AVANT aujourd'hui (dateFin < today).
      */
+    @Transactional(readOnly = true)
     public Affectation getCurrentAffectation(Etudiant etudiant) {
         if (etudiant == null || etudiant.getId() == null) {
             return null;
@@ -194,11 +233,10 @@ public class EtudiantService {
         // Only return if affectation is still active (dateFin is null or after/equal to today)
         if (aff != null) {
             LocalDate today = LocalDate.now();
-            System.out.println("🔵 [DEBUG] Affectation dateDebut: " + aff.getDateDebut() + ", dateFin: " + aff.getDateFin() + ", today: " + today);
             // Affectation is active if: dateFin is null OR dateFin is after/equal to today
             // Only hide if dateFin is BEFORE today (strictly in the past)
             if (aff.getDateFin() != null && aff.getDateFin().isBefore(today)) {
-                System.out.println("❌ [DEBUG] Affectation expirée (dateFin strictement avant aujourd'hui)");
+                log.debug("Affectation {} expirée le {} (étudiant {})", aff.getId(), aff.getDateFin(), etudiant.getId());
                 return null; // Affectation has ended (dateFin is before today)
             }
         }
@@ -209,6 +247,7 @@ public class EtudiantService {
     /**
      * Alias de getCurrentAffectation pour compatibilité éventuelle.
      */
+    @Transactional(readOnly = true)
     public Affectation getLatestAffectation(Etudiant etudiant) {
         return getCurrentAffectation(etudiant);
     }
@@ -236,10 +275,11 @@ public class EtudiantService {
         // Save affectation update
         affectationRepo.save(aff);
 
-        // Free the room
+        // The room goes through inspection and cleaning before it can be assigned again
         if (aff.getChambre() != null) {
-            aff.getChambre().setEtat("disponible");
+            aff.getChambre().setEtat("maintenance");
             chambreRepo.save(aff.getChambre());
+            maintenanceService.ouvrirTaches(List.of(aff.getId()));
         }
 
         // Send notification to student
@@ -2,6 +2,7 @@ package com.dormmanager.services;
 
 import com.dormmanager.dto.AffectationRequestDto;
 import com.dormmanager.dto.ChambreRequestDto;
+import com.dormmanager.dto.CursorPageDto;
 import com.dormmanager.dto.DashboardStatsDto;
 import com.dormmanager.dto.DemandeHebergementDto;
 import com.dormmanager.dto.ReclamationDto;
@@ -16,37 +17,61 @@ import com.dormmanager.repository.ChambreRepository;
 import com.dormmanager.repository.DemandeHebergementRepository;
 import com.dormmanager.repository.ReclamationRepository;
 import com.dormmanager.repository.UtilisateurRepository;
+import com.dormmanager.search.ReclamationSearchIndex;
+import com.dormmanager.search.ReclamationTriageQueue;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import com.dormmanager.services.NotificationService;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
 @Transactional
 public class GestionnaireService {
 
+    /** Champs d'une chambre sélectionnables via le paramètre "champs" de la liste paginée. */
+    public static final Set<String> CHAMPS_CHAMBRE = Set.of("id", "numero", "type", "etat", "capacite");
+
+    private static final int TAILLE_PAGE_DEFAUT = 50;
+    private static final int TAILLE_PAGE_MAX = 500;
+
     private final DemandeHebergementRepository demandeHebergementRepository;
     private final ChambreRepository chambreRepository;
     private final AffectationRepository affectationRepository;
     private final ReclamationRepository reclamationRepository;
     private final NotificationService notificationService;
     private final UtilisateurRepository utilisateurRepository;
+    private final ReclamationSearchIndex reclamationSearchIndex;
+    private final ReclamationTriageQueue reclamationTriageQueue;
+    private final ChambreHealthIndex chambreHealthIndex;
 
     public GestionnaireService(DemandeHebergementRepository demandeHebergementRepository,
                                ChambreRepository chambreRepository,
                                AffectationRepository affectationRepository,
                                ReclamationRepository reclamationRepository,
                                NotificationService notificationService,
-                               UtilisateurRepository utilisateurRepository) {
+                               UtilisateurRepository utilisateurRepository,
+                               ReclamationSearchIndex reclamationSearchIndex,
+                               ReclamationTriageQueue reclamationTriageQueue,
+                               ChambreHealthIndex chambreHealthIndex) {
         this.demandeHebergementRepository = demandeHebergementRepository;
         this.chambreRepository = chambreRepository;
         this.affectationRepository = affectationRepository;
         this.reclamationRepository = reclamationRepository;
         this.notificationService = notificationService;
         this.utilisateurRepository = utilisateurRepository;
+        this.reclamationSearchIndex = reclamationSearchIndex;
+        this.reclamationTriageQueue = reclamationTriageQueue;
+        this.chambreHealthIndex = chambreHealthIndex;
     }
 
     public List<DemandeHebergementDto> getDemandesEnAttente() {
@@ -101,8 +126,85 @@ public class GestionnaireService {
         );
     }
 
+    /**
+     * Chambres disponibles proposées à l'affectation : celles qui ont un incident en cours
+     * sont écartées, les autres sont triées par santé (meilleure d'abord).
+     */
     public List<Chambre> getChambresDisponibles() {
-        return chambreRepository.findByEtatIgnoreCase("disponible");
+        return parSante(chambreRepository.findByEtatIgnoreCase("disponible"));
+    }
+
+    /**
+     * Liste paginée des chambres (keyset sur numero/id), filtrable par type, etat
+     * et capacité, avec sélection des champs renvoyés.
+     *
+     * @param curseur curseur renvoyé par la page précédente (null pour la première page)
+     * @param taille  nombre de chambres par page (borné à {@value #TAILLE_PAGE_MAX})
+     * @param champs  champs à inclure (null ou vide = tous les champs de {@link #CHAMPS_CHAMBRE})
+     */
+    @Transactional(readOnly = true)
+    public CursorPageDto<Map<String, Object>> rechercherChambres(String type, String etat, Integer capacite,
+                                                                 String curseur, Integer taille, Set<String> champs) {
+        Set<String> selection = champs == null || champs.isEmpty() ? CHAMPS_CHAMBRE : champs;
+        for (String champ : selection) {
+            if (!CHAMPS_CHAMBRE.contains(champ)) {
+                throw new IllegalArgumentException("Champ inconnu: " + champ);
+            }
+        }
+        int limite = taille == null || taille <= 0 ? TAILLE_PAGE_DEFAUT : Math.min(taille, TAILLE_PAGE_MAX);
+
+        String apresNumero = null;
+        Long apresId = null;
+        String[] position = CursorPageDto.decodeCursor(curseur, 2);
+        if (position != null) {
+            apresNumero = position[0];
+            try {
+                apresId = Long.valueOf(position[1]);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Curseur invalide");
+            }
+        }
+
+        String etatFiltre = etat == null || etat.isBlank() ? null : etat.toLowerCase();
+        String typeFiltre = type == null || type.isBlank() ? null : type;
+
+        // On lit une ligne de plus que demandé pour savoir s'il existe une page suivante
+        List<Chambre> lignes = chambreRepository.findPage(typeFiltre, etatFiltre, capacite,
+                apresNumero, apresId, PageRequest.of(0, limite + 1));
+
+        boolean suivante = lignes.size() > limite;
+        List<Chambre> page = suivante ? lignes.subList(0, limite) : lignes;
+
+        List<Map<String, Object>> contenu = page.stream()
+                .map(c -> selectionnerChamps(c, selection))
+                .collect(Collectors.toList());
+
+        String prochainCurseur = null;
+        if (suivante) {
+            Chambre derniere = page.get(page.size() - 1);
+            prochainCurseur = CursorPageDto.encodeCursor(derniere.getNumero(), derniere.getId());
+        }
+        return new CursorPageDto<>(contenu, prochainCurseur);
+    }
+
+    private Map<String, Object> selectionnerChamps(Chambre chambre, Set<String> champs) {
+        Map<String, Object> ligne = new LinkedHashMap<>();
+        if (champs.contains("id")) {
+            ligne.put("id", chambre.getId());
+        }
+        if (champs.contains("numero")) {
+            ligne.put("numero", chambre.getNumero());
+        }
+        if (champs.contains("type")) {
+            ligne.put("type", chambre.getType());
+        }
+        if (champs.contains("etat")) {
+            ligne.put("etat", chambre.getEtat());
+        }
+        if (champs.contains("capacite")) {
+            ligne.put("capacite", chambre.getCapacite());
+        }
+        return ligne;
     }
 
     public Chambre ajouterChambre(ChambreRequestDto dto) {
@@ -127,6 +229,154 @@ public class GestionnaireService {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * File des réclamations des gestionnaires, paginée par curseur.
+     *
+     * @param statut EN_ATTENTE (inclut les anciennes lignes sans statut), EN_COURS ou RESOLUE ; optionnel
+     * @param depuis date d'envoi minimale incluse (optionnelle)
+     * @param jusqua date d'envoi maximale incluse (optionnelle)
+     * @param ordre  "recentes" (par défaut) ou "anciennes" (ordre d'arrivée)
+     */
+    @Transactional(readOnly = true)
+    public CursorPageDto<ReclamationDto> fileReclamations(String statut, LocalDate depuis, LocalDate jusqua,
+                                                          String ordre, String curseur, Integer taille) {
+        Reclamation.StatutReclamation statutFiltre = statutReclamation(statut);
+        if (depuis != null && jusqua != null && jusqua.isBefore(depuis)) {
+            throw new IllegalArgumentException("Période d'envoi invalide");
+        }
+        boolean anciennes;
+        if (ordre == null || ordre.isBlank() || ordre.equalsIgnoreCase("recentes")) {
+            anciennes = false;
+        } else if (ordre.equalsIgnoreCase("anciennes")) {
+            anciennes = true;
+        } else {
+            throw new IllegalArgumentException("Ordre invalide: " + ordre);
+        }
+        int limite = ReclamationPages.limite(taille);
+        ReclamationPages.Position apres = ReclamationPages.position(curseur);
+        boolean sansStatut = statutFiltre == Reclamation.StatutReclamation.EN_ATTENTE;
+
+        // On lit une ligne de plus que demandé pour savoir s'il existe une page suivante
+        PageRequest lecture = PageRequest.of(0, limite + 1);
+        List<Reclamation> lignes = anciennes
+                ? reclamationRepository.findFileAnciennes(statutFiltre, sansStatut, depuis, jusqua,
+                        apres.date, apres.id, lecture)
+                : reclamationRepository.findFileRecentes(statutFiltre, sansStatut, depuis, jusqua,
+                        apres.date, apres.id, lecture);
+        return ReclamationPages.page(lignes, limite);
+    }
+
+    private static Reclamation.StatutReclamation statutReclamation(String statut) {
+        if (statut == null || statut.isBlank()) {
+            return null;
+        }
+        try {
+            return Reclamation.StatutReclamation.valueOf(statut.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Statut invalide: " + statut);
+        }
+    }
+
+    /**
+     * Recherche plein texte dans les messages de réclamation, par pertinence.
+     *
+     * @param statut filtre optionnel (EN_ATTENTE, EN_COURS, RESOLUE)
+     * @param depuis date d'envoi minimale incluse (optionnelle)
+     * @param jusqua date d'envoi maximale incluse (optionnelle)
+     */
+    @Transactional(readOnly = true)
+    public List<ReclamationDto> rechercherReclamations(String requete, String statut,
+                                                       LocalDate depuis, LocalDate jusqua, Integer limite) {
+        if (requete == null || requete.isBlank()) {
+            throw new IllegalArgumentException("La requête de recherche est vide");
+        }
+        Reclamation.StatutReclamation statutFiltre = statutReclamation(statut);
+        int n = limite == null || limite <= 0 ? 20 : limite;
+
+        List<ReclamationSearchIndex.Resultat> resultats =
+                reclamationSearchIndex.rechercher(requete, statutFiltre, depuis, jusqua, n);
+        if (resultats.isEmpty()) {
+            return List.of();
+        }
+
+        List<Long> ids = resultats.stream().map(ReclamationSearchIndex.Resultat::getId).toList();
+        Map<Long, Reclamation> parId = reclamationRepository.findAvecUtilisateurByIdIn(ids).stream()
+                .collect(Collectors.toMap(Reclamation::getId, Function.identity()));
+        List<ReclamationDto> page = new ArrayList<>(resultats.size());
+        for (ReclamationSearchIndex.Resultat r : resultats) {
+            Reclamation reclamation = parId.get(r.getId());
+            if (reclamation != null) { // supprimée entre-temps
+                ReclamationDto dto = new ReclamationDto(reclamation);
+                dto.setScore(r.getScore());
+                page.add(dto);
+            }
+        }
+        return page;
+    }
+
+    /**
+     * Réclamations ouvertes les plus prioritaires (échéance SLA, gravité, ancienneté),
+     * sans les prendre.
+     */
+    @Transactional(readOnly = true)
+    public List<ReclamationTriageQueue.Entree> apercuTriage(Integer limite) {
+        return reclamationTriageQueue.apercu(limite != null ? limite : 20);
+    }
+
+    /**
+     * Prend en charge la réclamation ouverte la plus prioritaire (null si aucune).
+     * La file garantit qu'un même élément n'est remis qu'à un seul appelant ; la mise à jour
+     * conditionnelle en base écarte ceux déjà pris par ailleurs (ou supprimés) entre-temps.
+     */
+    public ReclamationDto prendreReclamationSuivante() {
+        ReclamationTriageQueue.Entree entree;
+        while ((entree = reclamationTriageQueue.extraire()) != null) {
+            if (reclamationRepository.prendreEnChargeSiEnAttente(entree.getId()) == 0) {
+                continue;
+            }
+            Reclamation rec = reclamationRepository.findById(entree.getId())
+                    .orElseThrow(() -> new RuntimeException("Réclamation non trouvée"));
+            reclamationSearchIndex.changerStatut(rec.getId(), Reclamation.StatutReclamation.EN_COURS);
+            if (rec.getUtilisateur() != null) {
+                notificationService.sendNotification(rec.getUtilisateur(), "info",
+                        "Réclamation en cours", "Votre réclamation est en cours de traitement");
+            }
+            return new ReclamationDto(rec);
+        }
+        return null;
+    }
+
+    /**
+     * Passe une réclamation au statut EN_COURS et prévient son auteur.
+     */
+    public ReclamationDto prendreEnChargeReclamation(Long id) {
+        return changerStatutReclamation(id, Reclamation.StatutReclamation.EN_COURS,
+                "Réclamation en cours", "Votre réclamation est en cours de traitement");
+    }
+
+    /**
+     * Passe une réclamation au statut RESOLUE et prévient son auteur.
+     */
+    public ReclamationDto resoudreReclamation(Long id) {
+        return changerStatutReclamation(id, Reclamation.StatutReclamation.RESOLUE,
+                "Réclamation résolue", "Votre réclamation a été résolue");
+    }
+
+    private ReclamationDto changerStatutReclamation(Long id, Reclamation.StatutReclamation statut,
+                                                    String titre, String message) {
+        Reclamation rec = reclamationRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Réclamation non trouvée"));
+        rec.setStatus(statut);
+        Reclamation updated = reclamationRepository.save(rec);
+        reclamationSearchIndex.changerStatut(updated.getId(), statut);
+        reclamationTriageQueue.retirer(updated.getId());
+        // Notify the author of the reclamation
+        if (updated.getUtilisateur() != null) {
+            notificationService.sendNotification(updated.getUtilisateur(), "info", titre, message);
+        }
+        return new ReclamationDto(updated);
+    }
+
     /**
      * Affecter une chambre à la demande et valider la demande.
      * - crée une Affectation
@@ -250,11 +500,18 @@ public class GestionnaireService {
 
     public List<Chambre> getChambresDisponibles(String type) {
     if (type == null || type.isEmpty()) {
-        return chambreRepository.findByEtat("DISPONIBLE");
+        return parSante(chambreRepository.findByEtat("DISPONIBLE"));
     }
-    return chambreRepository.findByEtatAndType("DISPONIBLE", type);
+    return parSante(chambreRepository.findByEtatAndType("DISPONIBLE", type));
 }
 
+    private List<Chambre> parSante(List<Chambre> chambres) {
+        return chambres.stream()
+                .filter(c -> !chambreHealthIndex.aIncidentsOuverts(c.getId()))
+                .sorted(Comparator.comparingInt((Chambre c) -> -chambreHealthIndex.score(c.getId())))
+                .collect(Collectors.toList());
+    }
+
     /**
      * Notify all admins that a new chambre has been added by gestionnaire
      */
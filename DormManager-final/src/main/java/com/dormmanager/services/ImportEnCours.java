@@ -0,0 +1,72 @@
+package com.dormmanager.services;
+
+import com.dormmanager.dto.ImportResultDto;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Compteurs d'un import d'étudiants, alimentés par le thread qui importe et consultés
+ * pendant l'import (GET /api/etudiants/import/progression/{importId}).
+ *
+ * Le DTO n'est jamais partagé : chaque lecture reçoit un instantané construit à partir des
+ * compteurs et d'une copie des erreurs, qui ne bouge plus pendant sa sérialisation.
+ */
+final class ImportEnCours {
+
+    private final long debutNanos;
+    private final AtomicLong lignesLues = new AtomicLong();
+    private final AtomicLong inserees = new AtomicLong();
+    private final AtomicLong misesAJour = new AtomicLong();
+    private final AtomicLong rejetees = new AtomicLong();
+    private final List<ImportResultDto.Erreur> erreurs = new ArrayList<>();
+    private boolean erreursTronquees;
+
+    ImportEnCours(long debutNanos) {
+        this.debutNanos = debutNanos;
+    }
+
+    void incrementerLignesLues() {
+        lignesLues.incrementAndGet();
+    }
+
+    void ajouterInserees(long n) {
+        inserees.addAndGet(n);
+    }
+
+    void ajouterMisesAJour(long n) {
+        misesAJour.addAndGet(n);
+    }
+
+    /**
+     * Enregistre une ligne rejetée (au plus {@link ImportResultDto#MAX_ERREURS} erreurs détaillées).
+     */
+    void rejeter(long ligne, String message) {
+        rejetees.incrementAndGet();
+        synchronized (erreurs) {
+            if (erreurs.size() < ImportResultDto.MAX_ERREURS) {
+                erreurs.add(new ImportResultDto.Erreur(ligne, message));
+            } else {
+                erreursTronquees = true;
+            }
+        }
+    }
+
+    /**
+     * Bilan à cet instant, durée et débit compris.
+     */
+    ImportResultDto instantane() {
+        ImportResultDto bilan = new ImportResultDto();
+        bilan.setLignesLues(lignesLues.get());
+        bilan.setInserees(inserees.get());
+        bilan.setMisesAJour(misesAJour.get());
+        bilan.setRejetees(rejetees.get());
+        synchronized (erreurs) {
+            bilan.setErreurs(List.copyOf(erreurs));
+            bilan.setErreursTronquees(erreursTronquees);
+        }
+        bilan.terminer(debutNanos);
+        return bilan;
+    }
+}
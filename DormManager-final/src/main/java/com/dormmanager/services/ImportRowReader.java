@@ -0,0 +1,187 @@
+package com.dormmanager.services;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Lecteur incrémental des fichiers d'import (CSV avec en-tête ou JSON lines).
+ *
+ * Le flux est lu ligne par ligne : seule la ligne courante est en mémoire,
+ * quelle que soit la taille du fichier envoyé.
+ */
+public class ImportRowReader implements Closeable {
+
+    public enum Format {
+        CSV, JSONL;
+
+        /**
+         * Déduit le format à partir d'un paramètre explicite ("csv", "jsonl")
+         * ou, à défaut, du Content-Type de la requête.
+         */
+        public static Format resolve(String format, String contentType) {
+            String f = format != null && !format.isBlank() ? format : contentType;
+            if (f == null) {
+                return CSV;
+            }
+            f = f.toLowerCase();
+            if (f.contains("json")) {
+                return JSONL;
+            }
+            return CSV;
+        }
+    }
+
+    /**
+     * Ligne lue : numéro de ligne dans le fichier et valeurs par nom de colonne.
+     * Une ligne illisible porte un message d'erreur au lieu des valeurs.
+     */
+    public static class Row {
+        private final long numero;
+        private final Map<String, String> valeurs;
+        private final String erreur;
+
+        Row(long numero, Map<String, String> valeurs, String erreur) {
+            this.numero = numero;
+            this.valeurs = valeurs;
+            this.erreur = erreur;
+        }
+
+        public long getNumero() { return numero; }
+        public String getErreur() { return erreur; }
+
+        /**
+         * Valeur d'une colonne, sans espaces autour ; null si absente ou vide.
+         */
+        public String get(String colonne) {
+            String v = valeurs.get(colonne);
+            if (v == null) {
+                return null;
+            }
+            v = v.trim();
+            return v.isEmpty() ? null : v;
+        }
+    }
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final BufferedReader reader;
+    private final Format format;
+    private List<String> entete;
+    private char separateur = ',';
+    private long numeroLigne;
+
+    public ImportRowReader(InputStream in, Format format) {
+        this.reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        this.format = format;
+    }
+
+    /**
+     * Lit la prochaine ligne non vide, ou retourne null en fin de flux.
+     */
+    public Row next() throws IOException {
+        String ligne;
+        while ((ligne = reader.readLine()) != null) {
+            numeroLigne++;
+            if (numeroLigne == 1 && !ligne.isEmpty() && ligne.charAt(0) == '\uFEFF') {
+                ligne = ligne.substring(1); // BOM des exports Excel
+            }
+            if (ligne.isBlank()) {
+                continue;
+            }
+            if (format == Format.JSONL) {
+                return lireJson(ligne);
+            }
+            if (entete == null) {
+                // Les exports Excel en locale française utilisent le point-virgule
+                separateur = ligne.indexOf(';') >= 0 && ligne.indexOf(',') < 0 ? ';' : ',';
+                entete = new ArrayList<>();
+                for (String colonne : decouperCsv(ligne, separateur)) {
+                    entete.add(colonne.trim());
+                }
+                continue;
+            }
+            return lireCsv(ligne);
+        }
+        return null;
+    }
+
+    private Row lireJson(String ligne) {
+        try {
+            JsonNode node = MAPPER.readTree(ligne);
+            if (node == null || !node.isObject()) {
+                return new Row(numeroLigne, Map.of(), "Objet JSON attendu");
+            }
+            Map<String, String> valeurs = new HashMap<>();
+            Iterator<Map.Entry<String, JsonNode>> champs = node.fields();
+            while (champs.hasNext()) {
+                Map.Entry<String, JsonNode> champ = champs.next();
+                if (!champ.getValue().isNull()) {
+                    valeurs.put(champ.getKey(), champ.getValue().asText());
+                }
+            }
+            return new Row(numeroLigne, valeurs, null);
+        } catch (IOException e) {
+            return new Row(numeroLigne, Map.of(), "JSON invalide");
+        }
+    }
+
+    private Row lireCsv(String ligne) {
+        List<String> cellules = decouperCsv(ligne, separateur);
+        if (cellules.size() > entete.size()) {
+            return new Row(numeroLigne, Map.of(), "Nombre de colonnes incorrect");
+        }
+        Map<String, String> valeurs = new HashMap<>();
+        for (int i = 0; i < cellules.size(); i++) {
+            valeurs.put(entete.get(i), cellules.get(i));
+        }
+        return new Row(numeroLigne, valeurs, null);
+    }
+
+    /**
+     * Découpe une ligne CSV (guillemets doubles, "" pour un guillemet littéral).
+     */
+    static List<String> decouperCsv(String ligne, char separateur) {
+        List<String> cellules = new ArrayList<>();
+        StringBuilder courant = new StringBuilder();
+        boolean entreGuillemets = false;
+        for (int i = 0; i < ligne.length(); i++) {
+            char c = ligne.charAt(i);
+            if (entreGuillemets) {
+                if (c == '"' && i + 1 < ligne.length() && ligne.charAt(i + 1) == '"') {
+                    courant.append('"');
+                    i++;
+                } else if (c == '"') {
+                    entreGuillemets = false;
+                } else {
+                    courant.append(c);
+                }
+            } else if (c == '"') {
+                entreGuillemets = true;
+            } else if (c == separateur) {
+                cellules.add(courant.toString());
+                courant.setLength(0);
+            } else {
+                courant.append(c);
+            }
+        }
+        cellules.add(courant.toString());
+        return cellules;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
@@ -0,0 +1,339 @@
+package com.dormmanager.services;
+
+import com.dormmanager.entity.StatutIncident;
+import com.dormmanager.repository.IncidentRepository;
+import com.dormmanager.repository.UtilisateurRepository;
+import com.dormmanager.support.ApresTransaction;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Pattern;
+
+/**
+ * Répartition des incidents entre agents techniques, en mémoire.
+ *
+ * Chaque agent a une charge : son nombre d'incidents ouverts (ASSIGNE ou EN_COURS).
+ * Les agents en service sont rangés dans des seaux indexés par charge, un jeu de seaux
+ * par spécialité plus un jeu commun à tous les agents. Choisir l'agent le moins chargé,
+ * puis déplacer l'agent d'un seau au voisin quand sa charge change, se fait en temps
+ * constant, sans relire le carnet de chaque agent en base.
+ *
+ * Les charges sont calculées au démarrage (une requête groupée) ; une réservation est
+ * immédiate (deux incidents signalés en même temps ne voient pas la même charge) et
+ * annulée si la transaction échoue, une libération n'est appliquée qu'après commit.
+ * Le statut "en service" n'est tenu qu'en mémoire : tous les agents le sont au démarrage.
+ */
+@Component
+public class IncidentDispatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(IncidentDispatcher.class);
+
+    private static final Pattern DIACRITIQUES = Pattern.compile("\\p{M}+");
+
+    static final EnumSet<StatutIncident> STATUTS_OUVERTS = EnumSet.of(StatutIncident.ASSIGNE, StatutIncident.EN_COURS);
+
+    private final UtilisateurRepository utilisateurRepository;
+    private final IncidentRepository incidentRepository;
+    private final ReentrantLock verrou = new ReentrantLock();
+
+    private final Map<Long, Agent> agents = new HashMap<>();
+    private final Map<String, Seaux> parSpecialite = new HashMap<>();
+    private final Seaux tous = new Seaux();
+
+    public IncidentDispatcher(UtilisateurRepository utilisateurRepository,
+                              IncidentRepository incidentRepository) {
+        this.utilisateurRepository = utilisateurRepository;
+        this.incidentRepository = incidentRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconstruire() {
+        List<Object[]> specialites = utilisateurRepository.findSpecialitesAgents();
+        List<Object[]> charges = incidentRepository.compterParAgent(STATUTS_OUVERTS);
+        verrou.lock();
+        try {
+            agents.clear();
+            parSpecialite.clear();
+            tous.vider();
+            Map<Long, Integer> chargeParAgent = new HashMap<>();
+            for (Object[] l : charges) {
+                chargeParAgent.put((Long) l[0], ((Number) l[1]).intValue());
+            }
+            for (Object[] l : specialites) {
+                Agent agent = new Agent((Long) l[0], cle((String) l[1]));
+                agent.charge = chargeParAgent.getOrDefault(agent.id, 0);
+                agents.put(agent.id, agent);
+                placer(agent);
+            }
+        } finally {
+            verrou.unlock();
+        }
+        log.info("Répartiteur d'incidents initialisé: {} agents, {} spécialités", specialites.size(),
+                parSpecialite.size());
+    }
+
+    /**
+     * Choisit l'agent en service le moins chargé pour la spécialité (à défaut, parmi tous
+     * les agents en service) et lui réserve l'incident. Renvoie null si personne n'est en service.
+     */
+    public Long reserver(String specialite) {
+        Long choisi;
+        verrou.lock();
+        try {
+            Seaux seaux = specialite != null ? parSpecialite.get(cle(specialite)) : null;
+            choisi = (seaux != null && seaux.taille > 0 ? seaux : tous).moinsCharge();
+            if (choisi == null) {
+                return null;
+            }
+            changerCharge(agents.get(choisi), 1);
+        } finally {
+            verrou.unlock();
+        }
+        ApresTransaction.siAnnulation(() -> libererMaintenant(choisi, 1));
+        return choisi;
+    }
+
+    /**
+     * Réserve un incident pour un agent désigné (assignation manuelle).
+     */
+    public void reserverPour(Long agentId) {
+        verrou.lock();
+        try {
+            Agent agent = agents.get(agentId);
+            if (agent == null) {
+                return;
+            }
+            changerCharge(agent, 1);
+        } finally {
+            verrou.unlock();
+        }
+        ApresTransaction.siAnnulation(() -> libererMaintenant(agentId, 1));
+    }
+
+    /**
+     * Incident(s) résolu(s) ou retiré(s) à l'agent : sa charge baisse après commit.
+     */
+    public void liberer(Long agentId, int nombre) {
+        if (agentId == null || nombre <= 0) {
+            return;
+        }
+        ApresTransaction.apresCommit(() -> libererMaintenant(agentId, nombre));
+    }
+
+    /**
+     * Nouvel agent (charge nulle, en service).
+     */
+    public void ajouterAgent(Long agentId, String specialite) {
+        ApresTransaction.apresCommit(() -> {
+            verrou.lock();
+            try {
+                if (!agents.containsKey(agentId)) {
+                    Agent agent = new Agent(agentId, cle(specialite));
+                    agents.put(agentId, agent);
+                    placer(agent);
+                }
+            } finally {
+                verrou.unlock();
+            }
+        });
+    }
+
+    public void retirerAgents(Collection<Long> agentIds) {
+        List<Long> copie = new ArrayList<>(agentIds);
+        ApresTransaction.apresCommit(() -> {
+            verrou.lock();
+            try {
+                for (Long id : copie) {
+                    Agent agent = agents.remove(id);
+                    if (agent != null && agent.enService) {
+                        enlever(agent);
+                    }
+                }
+            } finally {
+                verrou.unlock();
+            }
+        });
+    }
+
+    /**
+     * Fin ou reprise de service : hors service, l'agent ne reçoit plus d'incident
+     * mais garde sa charge. Renvoie false si l'agent est inconnu.
+     */
+    public boolean changerService(Long agentId, boolean enService) {
+        verrou.lock();
+        try {
+            Agent agent = agents.get(agentId);
+            if (agent == null) {
+                return false;
+            }
+            if (agent.enService != enService) {
+                if (enService) {
+                    agent.enService = true;
+                    placer(agent);
+                } else {
+                    enlever(agent);
+                    agent.enService = false;
+                }
+            }
+            return true;
+        } finally {
+            verrou.unlock();
+        }
+    }
+
+    /**
+     * Charge actuelle de l'agent (null s'il est inconnu).
+     */
+    public Integer charge(Long agentId) {
+        verrou.lock();
+        try {
+            Agent agent = agents.get(agentId);
+            return agent != null ? agent.charge : null;
+        } finally {
+            verrou.unlock();
+        }
+    }
+
+    private void libererMaintenant(Long agentId, int nombre) {
+        verrou.lock();
+        try {
+            Agent agent = agents.get(agentId);
+            if (agent != null) {
+                changerCharge(agent, -Math.min(nombre, agent.charge));
+            }
+        } finally {
+            verrou.unlock();
+        }
+    }
+
+    static String cle(String specialite) {
+        if (specialite == null || specialite.isBlank()) {
+            return null;
+        }
+        String sansAccents = DIACRITIQUES.matcher(Normalizer.normalize(specialite.trim(), Normalizer.Form.NFD))
+                .replaceAll("");
+        return sansAccents.toLowerCase();
+    }
+
+    // --- Mises à jour (sous verrou) ---
+
+    private void placer(Agent agent) {
+        if (!agent.enService) {
+            return;
+        }
+        tous.ajouter(agent.id, agent.charge);
+        if (agent.specialite != null) {
+            parSpecialite.computeIfAbsent(agent.specialite, k -> new Seaux()).ajouter(agent.id, agent.charge);
+        }
+    }
+
+    private void enlever(Agent agent) {
+        tous.retirer(agent.id, agent.charge);
+        Seaux seaux = agent.specialite != null ? parSpecialite.get(agent.specialite) : null;
+        if (seaux != null) {
+            seaux.retirer(agent.id, agent.charge);
+        }
+    }
+
+    private void changerCharge(Agent agent, int delta) {
+        if (delta == 0) {
+            return;
+        }
+        int avant = agent.charge;
+        agent.charge += delta;
+        if (agent.enService) {
+            tous.deplacer(agent.id, avant, agent.charge);
+            Seaux seaux = agent.specialite != null ? parSpecialite.get(agent.specialite) : null;
+            if (seaux != null) {
+                seaux.deplacer(agent.id, avant, agent.charge);
+            }
+        }
+    }
+
+    private static final class Agent {
+        private final Long id;
+        private final String specialite;
+        private int charge;
+        private boolean enService = true;
+
+        private Agent(Long id, String specialite) {
+            this.id = id;
+            this.specialite = specialite;
+        }
+    }
+
+    /**
+     * Agents rangés par charge : seaux.get(c) contient les agents de charge c, dans leur
+     * ordre d'arrivée (à charge égale, le premier arrivé dans le seau est servi).
+     * min est la plus petite charge occupée ; une charge ne varie que de 1 à la fois
+     * (sauf libérations groupées), donc min se met à jour en temps constant.
+     */
+    private static final class Seaux {
+        private final List<LinkedHashSet<Long>> seaux = new ArrayList<>();
+        private int min;
+        private int taille;
+
+        private void vider() {
+            seaux.clear();
+            min = 0;
+            taille = 0;
+        }
+
+        private Long moinsCharge() {
+            return taille == 0 ? null : seaux.get(min).iterator().next();
+        }
+
+        private void ajouter(Long id, int charge) {
+            seau(charge).add(id);
+            min = taille == 0 ? charge : Math.min(min, charge);
+            taille++;
+        }
+
+        private void retirer(Long id, int charge) {
+            if (charge >= seaux.size() || !seaux.get(charge).remove(id)) {
+                return;
+            }
+            taille--;
+            if (taille > 0 && charge == min) {
+                avancerMin();
+            }
+        }
+
+        private void deplacer(Long id, int avant, int apres) {
+            if (avant >= seaux.size() || !seaux.get(avant).remove(id)) {
+                return;
+            }
+            seau(apres).add(id);
+            if (apres < min) {
+                min = apres;
+            } else if (avant == min && seaux.get(min).isEmpty()) {
+                avancerMin();
+            }
+        }
+
+        private void avancerMin() {
+            while (seaux.get(min).isEmpty()) {
+                min++;
+            }
+        }
+
+        private LinkedHashSet<Long> seau(int charge) {
+            while (seaux.size() <= charge) {
+                seaux.add(new LinkedHashSet<>());
+            }
+            return seaux.get(charge);
+        }
+    }
+}
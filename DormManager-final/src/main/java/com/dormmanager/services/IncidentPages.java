@@ -0,0 +1,65 @@
+package com.dormmanager.services;
+
+import com.dormmanager.dto.CursorPageDto;
+import com.dormmanager.dto.IncidentDto;
+import com.dormmanager.entity.Incident;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Pagination par curseur des incidents (listes de travail des agents, historique d'une
+ * chambre) : le curseur encode (dateSignalement, id) de la dernière ligne.
+ */
+final class IncidentPages {
+
+    static final int TAILLE_PAGE_DEFAUT = 20;
+    static final int TAILLE_PAGE_MAX = 200;
+
+    /** Position de reprise décodée ; date et id sont null pour la première page. */
+    static final class Position {
+        final LocalDate date;
+        final Long id;
+
+        private Position(LocalDate date, Long id) {
+            this.date = date;
+            this.id = id;
+        }
+    }
+
+    private IncidentPages() {
+    }
+
+    static int limite(Integer taille) {
+        return taille == null || taille <= 0 ? TAILLE_PAGE_DEFAUT : Math.min(taille, TAILLE_PAGE_MAX);
+    }
+
+    static Position position(String curseur) {
+        String[] parts = CursorPageDto.decodeCursor(curseur, 2);
+        if (parts == null) {
+            return new Position(null, null);
+        }
+        try {
+            return new Position(LocalDate.parse(parts[0]), Long.valueOf(parts[1]));
+        } catch (DateTimeParseException | NumberFormatException e) {
+            throw new IllegalArgumentException("Curseur invalide");
+        }
+    }
+
+    /**
+     * Construit la page à partir des limite + 1 lignes lues (la ligne en trop signale une page suivante).
+     */
+    static CursorPageDto<IncidentDto> page(List<Incident> lignes, int limite) {
+        boolean suivante = lignes.size() > limite;
+        List<Incident> page = suivante ? lignes.subList(0, limite) : lignes;
+        String prochainCurseur = null;
+        if (suivante) {
+            Incident dernier = page.get(page.size() - 1);
+            prochainCurseur = CursorPageDto.encodeCursor(dernier.getDateSignalement(), dernier.getId());
+        }
+        return new CursorPageDto<>(page.stream().map(IncidentDto::new).collect(Collectors.toList()),
+                prochainCurseur);
+    }
+}
@@ -0,0 +1,273 @@
+package com.dormmanager.services;
+
+import com.dormmanager.dto.TacheMaintenanceDto;
+import com.dormmanager.dto.TourneeDto;
+import com.dormmanager.entity.AgentTechnique;
+import com.dormmanager.entity.Chambre;
+import com.dormmanager.entity.StatutTache;
+import com.dormmanager.entity.TacheMaintenance;
+import com.dormmanager.entity.TypeTacheMaintenance;
+import com.dormmanager.entity.Utilisateur;
+import com.dormmanager.repository.ChambreRepository;
+import com.dormmanager.repository.TacheMaintenanceRepository;
+import com.dormmanager.repository.UtilisateurRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Maintenance préventive à la rotation des chambres.
+ *
+ * Quand une affectation se termine, la chambre passe en "maintenance" et reçoit une tâche
+ * d'inspection et une de nettoyage ; elle ne redevient "disponible" (donc réaffectable)
+ * qu'une fois toutes ses tâches terminées. Les tâches sont créées en masse (une requête
+ * par type, quel que soit le nombre de départs) puis regroupées chaque jour en tournées
+ * par secteur (bâtiment / étage), confiées aux agents techniques les moins chargés.
+ *
+ * La chambre n'a pas de colonne bâtiment ni étage : le secteur est tiré du numéro
+ * ("A-203" : bâtiment A, étage 2 ; "105" : étage 1).
+ */
+@Service
+@Transactional
+public class MaintenanceService {
+
+    private static final Logger log = LoggerFactory.getLogger(MaintenanceService.class);
+
+    static final String SECTEUR_AUTRES = "AUTRES";
+
+    // Lettres du bâtiment, séparateur éventuel, puis chiffres dont les deux derniers sont la porte
+    private static final Pattern NUMERO = Pattern.compile("^\\s*([A-Za-z]*)[-_ ]?(\\d+)");
+
+    private final TacheMaintenanceRepository tacheRepository;
+    private final ChambreRepository chambreRepository;
+    private final UtilisateurRepository utilisateurRepository;
+    private final NotificationService notificationService;
+    private final IncidentDispatcher incidentDispatcher;
+    private final int chambresParTournee;
+
+    public MaintenanceService(TacheMaintenanceRepository tacheRepository,
+                              ChambreRepository chambreRepository,
+                              UtilisateurRepository utilisateurRepository,
+                              NotificationService notificationService,
+                              IncidentDispatcher incidentDispatcher,
+                              @Value("${dormmanager.maintenance.chambres-par-tournee:20}") int chambresParTournee) {
+        this.tacheRepository = tacheRepository;
+        this.chambreRepository = chambreRepository;
+        this.utilisateurRepository = utilisateurRepository;
+        this.notificationService = notificationService;
+        this.incidentDispatcher = incidentDispatcher;
+        this.chambresParTournee = chambresParTournee;
+    }
+
+    /**
+     * Ouvre les tâches de rotation des affectations terminées et passe leurs chambres en
+     * maintenance. Une affectation qui a déjà ses tâches n'en reçoit pas de nouvelles.
+     * Renvoie le nombre de tâches créées.
+     */
+    public int ouvrirTaches(Collection<Long> affectationIds) {
+        if (affectationIds == null || affectationIds.isEmpty()) {
+            return 0;
+        }
+        LocalDate aujourdhui = LocalDate.now();
+        int creees = 0;
+        for (TypeTacheMaintenance type : TypeTacheMaintenance.values()) {
+            creees += tacheRepository.creerTaches(affectationIds, type.name(), aujourdhui);
+        }
+        chambreRepository.mettreEnMaintenance(affectationIds);
+        return creees;
+    }
+
+    /**
+     * Regroupe les tâches à faire en tournées du jour et les répartit entre les agents.
+     * Une tournée couvre un secteur, découpé au-delà de chambresParTournee chambres ; les
+     * plus grandes tournées sont attribuées d'abord, chacune à l'agent le moins chargé
+     * (incidents ouverts plus tâches déjà reçues). Une requête par tournée, une
+     * notification par agent. Renvoie le nombre de tâches planifiées.
+     */
+    public int planifierTournees(LocalDate jour) {
+        List<TacheMaintenance> aFaire = tacheRepository.findByStatutAvecChambre(StatutTache.A_FAIRE);
+        if (aFaire.isEmpty()) {
+            return 0;
+        }
+        List<Object[]> agents = utilisateurRepository.findSpecialitesAgents();
+        if (agents.isEmpty()) {
+            log.warn("Aucun agent technique : {} tâche(s) de maintenance restent à planifier", aFaire.size());
+            return 0;
+        }
+
+        List<Tournee> tournees = decouper(jour, aFaire);
+        tournees.sort(Comparator.comparingInt((Tournee t) -> t.tacheIds.size()).reversed());
+
+        // [agentId, charge], la plus petite charge d'abord (à charge égale, le plus petit id)
+        PriorityQueue<long[]> file = new PriorityQueue<>(
+                Comparator.comparingLong((long[] a) -> a[1]).thenComparingLong(a -> a[0]));
+        for (Object[] l : agents) {
+            Integer charge = incidentDispatcher.charge((Long) l[0]);
+            file.add(new long[] {(Long) l[0], charge != null ? charge : 0});
+        }
+
+        Map<Long, List<Tournee>> parAgent = new LinkedHashMap<>();
+        int planifiees = 0;
+        for (Tournee tournee : tournees) {
+            long[] agent = file.poll();
+            planifiees += tacheRepository.planifier(tournee.tacheIds, agent[0], jour, tournee.code);
+            parAgent.computeIfAbsent(agent[0], k -> new ArrayList<>()).add(tournee);
+            agent[1] += tournee.tacheIds.size();
+            file.add(agent);
+        }
+
+        for (Utilisateur agent : utilisateurRepository.findAllById(parAgent.keySet())) {
+            List<Tournee> siennes = parAgent.get(agent.getId());
+            int chambres = siennes.stream().mapToInt(t -> t.chambres).sum();
+            notificationService.sendNotification(agent, "info", "Tournée de maintenance",
+                    chambres + " chambre(s) à inspecter et nettoyer le " + jour + " : "
+                            + siennes.stream().map(t -> t.code).collect(Collectors.joining(", ")));
+        }
+        log.info("Maintenance du {}: {} tâche(s) en {} tournée(s) pour {} agent(s)",
+                jour, planifiees, tournees.size(), parAgent.size());
+        return planifiees;
+    }
+
+    /**
+     * Clôt une tâche ; la chambre redevient disponible quand sa dernière tâche est close.
+     */
+    public TacheMaintenanceDto terminerTache(Long tacheId, String remarques) {
+        // Chambre verrouillée avant toute modification : deux agents qui closent les dernières
+        // tâches d'une même chambre passent l'un après l'autre, et le second voit la tâche du
+        // premier close
+        Long chambreId = tacheRepository.findChambreId(tacheId)
+                .orElseThrow(() -> new RuntimeException("Tâche de maintenance non trouvée"));
+        Chambre chambre = chambreRepository.findByIdPourMiseAJour(chambreId)
+                .orElseThrow(() -> new RuntimeException("Chambre non trouvée"));
+        TacheMaintenance tache = tacheRepository.findById(tacheId)
+                .orElseThrow(() -> new RuntimeException("Tâche de maintenance non trouvée"));
+        if (tache.getStatut() == StatutTache.TERMINEE) {
+            throw new IllegalArgumentException("La tâche est déjà terminée");
+        }
+        tache.setStatut(StatutTache.TERMINEE);
+        tache.setDateCloture(LocalDate.now());
+        if (remarques != null && !remarques.trim().isEmpty()) {
+            tache.setRemarques(remarques.trim());
+        }
+        TacheMaintenance saved = tacheRepository.save(tache);
+
+        if ("maintenance".equalsIgnoreCase(chambre.getEtat())
+                && tacheRepository.findOuvertesPourMiseAJour(chambreId).isEmpty()) {
+            chambre.setEtat("disponible");
+            chambreRepository.save(chambre);
+        }
+        return new TacheMaintenanceDto(saved);
+    }
+
+    /**
+     * Tournées d'une journée, avec leurs tâches dans l'ordre de passage.
+     */
+    @Transactional(readOnly = true)
+    public List<TourneeDto> getTournees(LocalDate jour) {
+        return grouper(tacheRepository.findByDatePrevue(jour));
+    }
+
+    /**
+     * Tournées en cours d'un agent (tâches planifiées non terminées).
+     */
+    @Transactional(readOnly = true)
+    public List<TourneeDto> getTourneesAgent(Long agentId) {
+        return grouper(tacheRepository.findPlanifieesAgent(agentId));
+    }
+
+    @Transactional(readOnly = true)
+    public List<TacheMaintenanceDto> getTachesAPlanifier() {
+        return tacheRepository.findByStatutAvecChambre(StatutTache.A_FAIRE).stream()
+                .map(TacheMaintenanceDto::new)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Secteur d'une chambre d'après son numéro : "A-E2" (bâtiment A, étage 2), "E1" sans
+     * lettre de bâtiment, AUTRES si le numéro ne suit pas ce format.
+     */
+    static String secteur(String numero) {
+        Matcher m = numero != null ? NUMERO.matcher(numero) : null;
+        if (m == null || !m.find()) {
+            return SECTEUR_AUTRES;
+        }
+        String batiment = m.group(1).toUpperCase();
+        String chiffres = m.group(2);
+        String etage = chiffres.length() > 2
+                ? chiffres.substring(0, chiffres.length() - 2).replaceFirst("^0+(?=\\d)", "")
+                : "0";
+        return batiment.isEmpty() ? "E" + etage : batiment + "-E" + etage;
+    }
+
+    /**
+     * Tournées du jour : par secteur, puis par lots de chambresParTournee chambres (les
+     * tâches d'une même chambre restent dans la même tournée). Les tâches arrivent triées
+     * par numéro de chambre.
+     */
+    private List<Tournee> decouper(LocalDate jour, List<TacheMaintenance> taches) {
+        Map<String, List<TacheMaintenance>> parSecteur = new TreeMap<>();
+        for (TacheMaintenance t : taches) {
+            parSecteur.computeIfAbsent(secteur(t.getChambre().getNumero()), k -> new ArrayList<>()).add(t);
+        }
+        List<Tournee> tournees = new ArrayList<>();
+        for (Map.Entry<String, List<TacheMaintenance>> e : parSecteur.entrySet()) {
+            List<Tournee> secteur = new ArrayList<>();
+            Tournee courante = null;
+            Long chambrePrecedente = null;
+            for (TacheMaintenance t : e.getValue()) {
+                Long chambreId = t.getChambre().getId();
+                boolean nouvelleChambre = !Objects.equals(chambreId, chambrePrecedente);
+                if (courante == null || (nouvelleChambre && courante.chambres >= chambresParTournee)) {
+                    courante = new Tournee();
+                    secteur.add(courante);
+                }
+                courante.tacheIds.add(t.getId());
+                if (nouvelleChambre) {
+                    courante.chambres++;
+                }
+                chambrePrecedente = chambreId;
+            }
+            for (int i = 0; i < secteur.size(); i++) {
+                secteur.get(i).code = jour + "/" + e.getKey() + (secteur.size() > 1 ? "#" + (i + 1) : "");
+            }
+            tournees.addAll(secteur);
+        }
+        return tournees;
+    }
+
+    private static List<TourneeDto> grouper(List<TacheMaintenance> taches) {
+        Map<String, TourneeDto> tournees = new LinkedHashMap<>();
+        for (TacheMaintenance t : taches) {
+            TourneeDto tournee = tournees.computeIfAbsent(t.getTournee(), code -> {
+                AgentTechnique agent = t.getAgentAssigne();
+                return agent != null
+                        ? new TourneeDto(code, agent.getId(), agent.getPrenom() + " " + agent.getNom())
+                        : new TourneeDto(code, null, null);
+            });
+            tournee.getTaches().add(new TacheMaintenanceDto(t));
+        }
+        return new ArrayList<>(tournees.values());
+    }
+
+    private static final class Tournee {
+        private String code;
+        private final List<Long> tacheIds = new ArrayList<>();
+        private int chambres;
+    }
+}
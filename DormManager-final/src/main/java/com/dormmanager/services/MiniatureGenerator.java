@@ -0,0 +1,113 @@
+package com.dormmanager.services;
+
+import com.dormmanager.storage.BlobStore;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.imageio.ImageIO;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Miniatures des photos, calculées en arrière-plan sur un pool borné (threads et file
+ * d'attente) : un afflux d'envois ne retarde pas les requêtes. Quand la file est pleine,
+ * la demande est abandonnée et la miniature sera redemandée au prochain affichage.
+ */
+@Component
+public class MiniatureGenerator {
+
+    private static final Logger log = LoggerFactory.getLogger(MiniatureGenerator.class);
+
+    static final int COTE_MAX = 256;
+    static final String VARIANTE = "miniature.jpg";
+
+    private final BlobStore store;
+    private final ThreadPoolExecutor executor;
+    // Miniatures en file ou en cours, pour ne pas calculer deux fois la même
+    private final Set<String> enCours = ConcurrentHashMap.newKeySet();
+
+    public MiniatureGenerator(BlobStore store,
+                              @Value("${dormmanager.pieces-jointes.miniatures.threads:2}") int threads,
+                              @Value("${dormmanager.pieces-jointes.miniatures.file:200}") int file) {
+        this.store = store;
+        AtomicInteger numero = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(file), r -> {
+                    Thread t = new Thread(r, "miniature-" + numero.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                }, (r, e) -> {
+                    enCours.remove(((Tache) r).hash);
+                    log.warn("File des miniatures pleine, demande abandonnée");
+                });
+    }
+
+    /**
+     * Demande la miniature d'une image si elle n'existe pas encore.
+     */
+    public void demander(String hash) {
+        if (Files.exists(store.cheminVariante(hash, VARIANTE)) || !enCours.add(hash)) {
+            return;
+        }
+        executor.execute(new Tache(hash));
+    }
+
+    void generer(String hash) {
+        Path source = store.chemin(hash);
+        try {
+            BufferedImage image = ImageIO.read(source.toFile());
+            if (image == null) {
+                return; // format non lu par ImageIO : pas de miniature, l'original est servi
+            }
+            double echelle = Math.min(1.0, (double) COTE_MAX / Math.max(image.getWidth(), image.getHeight()));
+            int largeur = Math.max(1, (int) Math.round(image.getWidth() * echelle));
+            int hauteur = Math.max(1, (int) Math.round(image.getHeight() * echelle));
+            BufferedImage miniature = new BufferedImage(largeur, hauteur, BufferedImage.TYPE_INT_RGB);
+            Graphics2D g = miniature.createGraphics();
+            try {
+                g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                g.drawImage(image, 0, 0, largeur, hauteur, null);
+            } finally {
+                g.dispose();
+            }
+            store.ecrireVariante(hash, VARIANTE, sortie -> ImageIO.write(miniature, "jpg", sortie));
+        } catch (IOException e) {
+            log.warn("Miniature impossible pour {}: {}", hash, e.getMessage());
+        }
+    }
+
+    private final class Tache implements Runnable {
+        private final String hash;
+
+        private Tache(String hash) {
+            this.hash = hash;
+        }
+
+        @Override
+        public void run() {
+            try {
+                generer(hash);
+            } finally {
+                enCours.remove(hash);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void arreter() {
+        executor.shutdownNow();
+    }
+}
@@ -5,6 +5,7 @@ import com.dormmanager.entity.Utilisateur;
 import com.dormmanager.repository.NotificationRepository;
 import com.dormmanager.repository.UtilisateurRepository;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -45,4 +46,28 @@ public class NotificationService {
             sendNotification(admin, type, titre, message);
         }
     }
+
+    /**
+     * Notifications d'un utilisateur, les plus récentes d'abord.
+     */
+    @Transactional(readOnly = true)
+    public List<Notification> getNotifications(Utilisateur destinataire) {
+        return notificationRepository.findByDestinataireOrderByDateDesc(destinataire);
+    }
+
+    /**
+     * Nombre de notifications non lues d'un utilisateur.
+     */
+    @Transactional(readOnly = true)
+    public long countNonLues(Utilisateur destinataire) {
+        return notificationRepository.countByDestinataireAndLuFalse(destinataire);
+    }
+
+    /**
+     * Nombre total de notifications d'un utilisateur.
+     */
+    @Transactional(readOnly = true)
+    public long countNotifications(Utilisateur destinataire) {
+        return notificationRepository.countByDestinataire(destinataire);
+    }
 }
@@ -0,0 +1,128 @@
+package com.dormmanager.services;
+
+import com.dormmanager.repository.PieceJointeRepository;
+import com.dormmanager.storage.BlobStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Ramasse-miettes des pièces jointes, chaque nuit.
+ *
+ * 1. Les pièces jointes dont le nombre de références est tombé à zéro sont supprimées
+ *    (ligne puis blob), par paquets, chacun dans sa transaction.
+ * 2. Les blobs sans ligne (envoi dont la transaction a échoué) sont supprimés, en
+ *    parcourant le store répertoire par répertoire.
+ * 3. Les fichiers temporaires abandonnés sont supprimés.
+ * Rien de ce qui a été créé ou touché pendant le délai de grâce n'est supprimé : un envoi
+ * en cours du même contenu n'est pas concerné.
+ */
+@Component
+public class PieceJointeCollector {
+
+    private static final Logger log = LoggerFactory.getLogger(PieceJointeCollector.class);
+
+    static final int TAILLE_PAQUET = 500;
+
+    private final PieceJointeRepository pieceJointeRepository;
+    private final BlobStore store;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration delai;
+
+    public PieceJointeCollector(PieceJointeRepository pieceJointeRepository,
+                                BlobStore store,
+                                TransactionTemplate transactionTemplate,
+                                @Value("${dormmanager.pieces-jointes.gc.delai-minutes:60}") long delaiMinutes) {
+        this.pieceJointeRepository = pieceJointeRepository;
+        this.store = store;
+        this.transactionTemplate = transactionTemplate;
+        this.delai = Duration.ofMinutes(delaiMinutes);
+    }
+
+    @Scheduled(cron = "0 30 3 * * *")
+    public void collecter() {
+        Instant limite = Instant.now().minus(delai);
+        try {
+            int orphelines = supprimerOrphelines(limite);
+            int blobs = supprimerBlobsSansLigne(limite);
+            int temporaires = store.nettoyerTemporaires(limite);
+            log.info("Ramasse-miettes des pièces jointes: {} sans référence, {} blobs sans ligne, {} temporaires",
+                    orphelines, blobs, temporaires);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    int supprimerOrphelines(Instant limite) throws IOException {
+        LocalDateTime avant = LocalDateTime.ofInstant(limite, ZoneId.systemDefault());
+        int supprimees = 0;
+        while (true) {
+            List<String> paquet = pieceJointeRepository.findOrphelines(avant, PageRequest.of(0, TAILLE_PAQUET));
+            if (paquet.isEmpty()) {
+                return supprimees;
+            }
+            // Une référence a pu être ajoutée entre la lecture et la suppression : on ne
+            // supprime du disque que les blobs dont la ligne a effectivement disparu
+            List<String> restantes = transactionTemplate.execute(status -> {
+                pieceJointeRepository.deleteOrphelines(paquet);
+                return pieceJointeRepository.findHashesExistants(paquet);
+            });
+            Set<String> gardees = new HashSet<>(restantes != null ? restantes : List.of());
+            for (String hash : paquet) {
+                if (!gardees.contains(hash)) {
+                    store.supprimer(hash, limite);
+                    supprimees++;
+                }
+            }
+            if (gardees.size() == paquet.size()) {
+                return supprimees; // plus rien de supprimable dans ce paquet
+            }
+        }
+    }
+
+    int supprimerBlobsSansLigne(Instant limite) throws IOException {
+        List<String> paquet = new ArrayList<>(TAILLE_PAQUET);
+        int[] supprimes = {0};
+        store.parcourir(limite, hash -> {
+            paquet.add(hash);
+            if (paquet.size() == TAILLE_PAQUET) {
+                supprimes[0] += supprimerSansLigne(paquet, limite);
+                paquet.clear();
+            }
+        });
+        if (!paquet.isEmpty()) {
+            supprimes[0] += supprimerSansLigne(paquet, limite);
+        }
+        return supprimes[0];
+    }
+
+    private int supprimerSansLigne(List<String> hashes, Instant limite) {
+        Set<String> existants = new HashSet<>(pieceJointeRepository.findHashesExistants(hashes));
+        int supprimes = 0;
+        for (String hash : hashes) {
+            try {
+                if (!existants.contains(hash) && store.supprimer(hash, limite)) {
+                    supprimes++;
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return supprimes;
+    }
+}
@@ -0,0 +1,158 @@
+package com.dormmanager.services;
+
+import com.dormmanager.dto.EtatDesLieuxDto;
+import com.dormmanager.entity.EtatDesLieux;
+import com.dormmanager.entity.PieceJointe;
+import com.dormmanager.repository.EtatDesLieuxRepository;
+import com.dormmanager.repository.PieceJointeRepository;
+import com.dormmanager.storage.BlobStore;
+import com.dormmanager.support.ApresTransaction;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Photos des états des lieux : envoi en flux vers le disque, dédoublonnage par empreinte
+ * de contenu, miniatures calculées en arrière-plan.
+ */
+@Service
+@Transactional
+public class PieceJointeService {
+
+    static final Set<String> TYPES_PHOTO = Set.of("image/jpeg", "image/png", "image/webp", "image/gif");
+
+    private final PieceJointeRepository pieceJointeRepository;
+    private final EtatDesLieuxRepository etatDesLieuxRepository;
+    private final BlobStore store;
+    private final MiniatureGenerator miniatureGenerator;
+    private final TransactionTemplate transactionTemplate;
+    private final long tailleMax;
+
+    public PieceJointeService(PieceJointeRepository pieceJointeRepository,
+                              EtatDesLieuxRepository etatDesLieuxRepository,
+                              BlobStore store,
+                              MiniatureGenerator miniatureGenerator,
+                              TransactionTemplate transactionTemplate,
+                              @Value("${dormmanager.pieces-jointes.taille-max:10485760}") long tailleMax) {
+        this.pieceJointeRepository = pieceJointeRepository;
+        this.etatDesLieuxRepository = etatDesLieuxRepository;
+        this.store = store;
+        this.miniatureGenerator = miniatureGenerator;
+        this.transactionTemplate = transactionTemplate;
+        this.tailleMax = tailleMax;
+    }
+
+    /**
+     * Ajoute une photo à un état des lieux. Le contenu est lu en flux, hors transaction :
+     * aucune connexion n'est tenue pendant l'envoi, la photo n'est liée qu'ensuite, dans une
+     * transaction courte. Une photo déjà envoyée (même empreinte) n'est ni réécrite ni
+     * dupliquée en base.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public EtatDesLieuxDto ajouterPhoto(Long etatDesLieuxId, InputStream contenu, String typeMime) throws IOException {
+        String type = typePhoto(typeMime);
+        if (!etatDesLieuxRepository.existsById(etatDesLieuxId)) {
+            throw new RuntimeException("État des lieux non trouvé");
+        }
+
+        BlobStore.Blob blob = store.ecrire(contenu, tailleMax);
+        try {
+            return transactionTemplate.execute(status -> lierPhoto(etatDesLieuxId, blob, type));
+        } catch (DataIntegrityViolationException e) {
+            // Premier envoi simultané du même contenu : l'autre a créé la ligne, on la référence
+            return transactionTemplate.execute(status -> lierPhoto(etatDesLieuxId, blob, type));
+        }
+    }
+
+    private EtatDesLieuxDto lierPhoto(Long etatDesLieuxId, BlobStore.Blob blob, String type) {
+        EtatDesLieux etatDesLieux = etatDesLieuxRepository.findByIdAvecPhotos(etatDesLieuxId)
+                .orElseThrow(() -> new RuntimeException("État des lieux non trouvé"));
+        PieceJointe photo = pieceJointeRepository.findById(blob.hash()).orElse(null);
+        if (photo == null) {
+            photo = new PieceJointe();
+            photo.setHash(blob.hash());
+            photo.setTypeMime(type);
+            photo.setTaille(blob.taille());
+            photo.setNombreReferences(1);
+            etatDesLieux.getPhotos().add(pieceJointeRepository.save(photo));
+        } else if (etatDesLieux.getPhotos().add(photo)) {
+            pieceJointeRepository.ajusterReferences(photo.getHash(), 1);
+        }
+        EtatDesLieux saved = etatDesLieuxRepository.save(etatDesLieux);
+
+        String hash = photo.getHash();
+        ApresTransaction.apresCommit(() -> miniatureGenerator.demander(hash));
+        return new EtatDesLieuxDto(saved);
+    }
+
+    /**
+     * Retire une photo d'un état des lieux. Le fichier reste sur disque jusqu'au passage
+     * du ramasse-miettes, s'il n'est plus référencé nulle part.
+     */
+    public EtatDesLieuxDto retirerPhoto(Long etatDesLieuxId, String hash) {
+        EtatDesLieux etatDesLieux = etatDesLieuxRepository.findByIdAvecPhotos(etatDesLieuxId)
+                .orElseThrow(() -> new RuntimeException("État des lieux non trouvé"));
+        if (etatDesLieux.getPhotos().removeIf(p -> p.getHash().equals(hash))) {
+            pieceJointeRepository.ajusterReferences(hash, -1);
+        }
+        return new EtatDesLieuxDto(etatDesLieuxRepository.save(etatDesLieux));
+    }
+
+    @Transactional(readOnly = true)
+    public EtatDesLieuxDto getEtatDesLieux(Long id) {
+        return etatDesLieuxRepository.findByIdAvecPhotos(id)
+                .map(EtatDesLieuxDto::new)
+                .orElseThrow(() -> new RuntimeException("État des lieux non trouvé"));
+    }
+
+    /**
+     * États des lieux d'une chambre, les plus récents d'abord.
+     */
+    @Transactional(readOnly = true)
+    public List<EtatDesLieuxDto> getEtatsDesLieuxChambre(Long chambreId) {
+        return etatDesLieuxRepository.findByChambreIdAvecPhotos(chambreId).stream()
+                .map(EtatDesLieuxDto::new)
+                .collect(Collectors.toList());
+    }
+
+    @Transactional(readOnly = true)
+    public PieceJointe getPieceJointe(String hash) {
+        return pieceJointeRepository.findById(hash)
+                .orElseThrow(() -> new RuntimeException("Pièce jointe non trouvée"));
+    }
+
+    public Path fichier(PieceJointe pieceJointe) {
+        return store.chemin(pieceJointe.getHash());
+    }
+
+    /**
+     * Miniature de la photo, ou null si elle n'est pas encore prête (elle est alors redemandée).
+     */
+    public Path miniature(PieceJointe pieceJointe) {
+        Path miniature = store.cheminVariante(pieceJointe.getHash(), MiniatureGenerator.VARIANTE);
+        if (Files.exists(miniature)) {
+            return miniature;
+        }
+        miniatureGenerator.demander(pieceJointe.getHash());
+        return null;
+    }
+
+    private static String typePhoto(String typeMime) {
+        String type = typeMime != null ? typeMime.split(";", 2)[0].trim().toLowerCase() : "";
+        if (!TYPES_PHOTO.contains(type)) {
+            throw new IllegalArgumentException("Type de photo non supporté : " + (type.isEmpty() ? "inconnu" : type));
+        }
+        return type;
+    }
+}
@@ -0,0 +1,79 @@
+package com.dormmanager.services;
+
+import com.dormmanager.dto.RequeteSqlDto;
+import com.dormmanager.dto.StatistiquesSqlDto;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.EntityStatistics;
+import org.hibernate.stat.QueryStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Service;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Statistiques Hibernate (hibernate.generate_statistics) pour l'administrateur.
+ */
+@Service
+public class StatistiquesSqlService {
+
+    private static final int LIMITE_MAX = 100;
+
+    private final Statistics statistics;
+
+    public StatistiquesSqlService(EntityManagerFactory entityManagerFactory) {
+        this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    /**
+     * Compteurs depuis le démarrage (ou la dernière remise à zéro), les requêtes les plus
+     * lentes (temps maximal) et les entités les plus récupérées à la navigation.
+     */
+    public StatistiquesSqlDto getStatistiques(int limite) {
+        int n = Math.max(1, Math.min(limite, LIMITE_MAX));
+        StatistiquesSqlDto dto = new StatistiquesSqlDto();
+        dto.setDepuis(statistics.getStart());
+        dto.setInstructionsPreparees(statistics.getPrepareStatementCount());
+        dto.setRequetesExecutees(statistics.getQueryExecutionCount());
+        dto.setEntitesChargees(statistics.getEntityLoadCount());
+        dto.setEntitesRecuperees(statistics.getEntityFetchCount());
+        dto.setCollectionsChargees(statistics.getCollectionLoadCount());
+        dto.setCollectionsRecuperees(statistics.getCollectionFetchCount());
+        dto.setCacheSecondNiveauHits(statistics.getSecondLevelCacheHitCount());
+        dto.setCacheSecondNiveauMisses(statistics.getSecondLevelCacheMissCount());
+        dto.setCacheSecondNiveauPuts(statistics.getSecondLevelCachePutCount());
+        dto.setCacheRequetesHits(statistics.getQueryCacheHitCount());
+        dto.setCacheRequetesMisses(statistics.getQueryCacheMissCount());
+
+        dto.setRequetesLentes(Arrays.stream(statistics.getQueries())
+                .map(requete -> {
+                    QueryStatistics q = statistics.getQueryStatistics(requete);
+                    return new RequeteSqlDto(requete, q.getExecutionCount(), q.getExecutionRowCount(),
+                            q.getExecutionAvgTime(), q.getExecutionMaxTime(), q.getExecutionTotalTime());
+                })
+                .sorted(Comparator.comparingLong(RequeteSqlDto::getTempsMaxMs).reversed())
+                .limit(n)
+                .collect(Collectors.toList()));
+
+        dto.setRecuperationsParEntite(Arrays.stream(statistics.getEntityNames())
+                .map(nom -> Map.entry(nom.substring(nom.lastIndexOf('.') + 1), statistics.getEntityStatistics(nom)))
+                .filter(e -> e.getValue().getFetchCount() > 0)
+                .sorted(Comparator.comparingLong((Map.Entry<String, EntityStatistics> e) -> e.getValue().getFetchCount())
+                        .reversed())
+                .limit(n)
+                .collect(Collectors.toMap(Map.Entry::getKey, e -> e.getValue().getFetchCount(),
+                        (a, b) -> a + b, LinkedHashMap::new)));
+        return dto;
+    }
+
+    /**
+     * Remet les compteurs à zéro (avant une mesure ciblée).
+     */
+    public void reinitialiser() {
+        statistics.clear();
+    }
+}
@@ -1,20 +1,358 @@
 package com.dormmanager.services;
 
+import com.dormmanager.dto.CursorPageDto;
+import com.dormmanager.dto.EtatDesLieuxDto;
+import com.dormmanager.dto.IncidentDto;
+import com.dormmanager.entity.Affectation;
+import com.dormmanager.entity.AgentTechnique;
+import com.dormmanager.entity.Chambre;
+import com.dormmanager.entity.EtatDesLieux;
+import com.dormmanager.entity.Incident;
+import com.dormmanager.entity.StatutIncident;
+import com.dormmanager.entity.Utilisateur;
+import com.dormmanager.repository.AffectationRepository;
+import com.dormmanager.repository.ChambreRepository;
+import com.dormmanager.repository.EtatDesLieuxRepository;
+import com.dormmanager.repository.IncidentRepository;
+import com.dormmanager.repository.UtilisateurRepository;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Cycle de vie des incidents techniques : signalement sur une chambre, assignation
+ * à un agent technique, prise en charge puis résolution.
+ * Les nouveaux incidents sont assignés automatiquement par l'IncidentDispatcher.
+ * Incidents et états des lieux alimentent la santé des chambres (ChambreHealthIndex).
+ */
 @Service
+@Transactional
 public class TechniqueService {
 
-    // Placeholder methods to match deployment diagram.
-    // You can later connect these to Incident and EtatDesLieux entities/repositories.
+    // Taille des listes IN des transitions groupées
+    private static final int TAILLE_PAQUET_TRANSITION = 500;
+
+    private final IncidentRepository incidentRepository;
+    private final ChambreRepository chambreRepository;
+    private final UtilisateurRepository utilisateurRepository;
+    private final NotificationService notificationService;
+    private final IncidentDispatcher incidentDispatcher;
+    private final AffectationRepository affectationRepository;
+    private final EtatDesLieuxRepository etatDesLieuxRepository;
+    private final ChambreHealthIndex chambreHealthIndex;
+
+    public TechniqueService(IncidentRepository incidentRepository,
+                            ChambreRepository chambreRepository,
+                            UtilisateurRepository utilisateurRepository,
+                            NotificationService notificationService,
+                            IncidentDispatcher incidentDispatcher,
+                            AffectationRepository affectationRepository,
+                            EtatDesLieuxRepository etatDesLieuxRepository,
+                            ChambreHealthIndex chambreHealthIndex) {
+        this.incidentRepository = incidentRepository;
+        this.chambreRepository = chambreRepository;
+        this.utilisateurRepository = utilisateurRepository;
+        this.notificationService = notificationService;
+        this.incidentDispatcher = incidentDispatcher;
+        this.affectationRepository = affectationRepository;
+        this.etatDesLieuxRepository = etatDesLieuxRepository;
+        this.chambreHealthIndex = chambreHealthIndex;
+    }
+
+    /**
+     * Signale un incident sur une chambre et l'assigne à l'agent en service le moins chargé
+     * de la spécialité (à défaut, de tous les agents). Sans agent en service, l'incident reste
+     * OUVERT. Les gestionnaires sont prévenus.
+     */
+    public IncidentDto signalerIncident(Long chambreId, String description, String specialite) {
+        if (description == null || description.isBlank()) {
+            throw new IllegalArgumentException("La description de l'incident est obligatoire");
+        }
+        if (chambreId == null) {
+            throw new IllegalArgumentException("La chambre est obligatoire");
+        }
+        Chambre chambre = chambreRepository.findById(chambreId)
+                .orElseThrow(() -> new RuntimeException("Chambre non trouvée"));
+
+        Incident incident = new Incident();
+        incident.setChambre(chambre);
+        incident.setDescription(description.trim());
+        incident.setSpecialite(specialite != null && !specialite.isBlank() ? specialite.trim() : null);
+        incident.setDateSignalement(LocalDate.now());
+
+        Long agentId = incidentDispatcher.reserver(incident.getSpecialite());
+        AgentTechnique agent = agentId != null ? agentTechnique(agentId) : null;
+        if (agent != null) {
+            incident.setAgentAssigne(agent);
+            incident.setStatut(StatutIncident.ASSIGNE);
+        } else if (agentId != null) {
+            incidentDispatcher.liberer(agentId, 1); // agent supprimé entre-temps
+        }
+        Incident saved = incidentRepository.save(incident);
+        chambreHealthIndex.incidentSignale(chambre.getId(), saved.getDateSignalement());
+
+        notificationService.notifyAllGestionnaires("warning", "Nouvel incident",
+                "Un incident a été signalé dans la chambre " + chambre.getNumero());
+        if (agent != null) {
+            notifierAssignation(agent, saved);
+        }
+        return new IncidentDto(saved);
+    }
+
+    /**
+     * Assigne (ou réassigne, tant qu'il n'est pas commencé) un incident à un agent technique.
+     */
+    public IncidentDto assignerIncident(Long incidentId, Long agentId) {
+        Incident incident = getIncident(incidentId);
+        verifierTransition(incident, StatutIncident.ASSIGNE);
+        Utilisateur u = utilisateurRepository.findById(agentId)
+                .orElseThrow(() -> new RuntimeException("Agent non trouvé"));
+        if (!(u instanceof AgentTechnique agent)) {
+            throw new IllegalArgumentException("L'utilisateur n'est pas un agent technique");
+        }
+        AgentTechnique precedent = incident.getAgentAssigne();
+        if (precedent == null || !precedent.getId().equals(agent.getId())) {
+            if (precedent != null) {
+                incidentDispatcher.liberer(precedent.getId(), 1);
+            }
+            incidentDispatcher.reserverPour(agent.getId());
+        }
+        incident.setAgentAssigne(agent);
+        incident.setStatut(StatutIncident.ASSIGNE);
+        Incident saved = incidentRepository.save(incident);
+
+        notifierAssignation(agent, saved);
+        return new IncidentDto(saved);
+    }
+
+    /**
+     * L'agent assigné commence l'intervention.
+     */
+    public IncidentDto demarrerIncident(Long incidentId) {
+        Incident incident = getIncident(incidentId);
+        verifierTransition(incident, StatutIncident.EN_COURS);
+        incident.setStatut(StatutIncident.EN_COURS);
+        return new IncidentDto(incidentRepository.save(incident));
+    }
+
+    /**
+     * Clôt l'incident ; les gestionnaires sont prévenus.
+     */
+    public IncidentDto resoudreIncident(Long incidentId) {
+        Incident incident = getIncident(incidentId);
+        verifierTransition(incident, StatutIncident.RESOLU);
+        incident.setStatut(StatutIncident.RESOLU);
+        incident.setDateResolution(LocalDate.now());
+        Incident saved = incidentRepository.save(incident);
+        if (saved.getAgentAssigne() != null) {
+            incidentDispatcher.liberer(saved.getAgentAssigne().getId(), 1);
+        }
+        chambreHealthIndex.incidentsResolus(saved.getChambre().getId(), 1);
+
+        notificationService.notifyAllGestionnaires("success", "Incident résolu",
+                "L'incident de la chambre " + saved.getChambre().getNumero() + " a été résolu");
+        return new IncidentDto(saved);
+    }
+
+    /**
+     * Transition groupée vers EN_COURS ou RESOLU (l'assignation demande un agent et se fait
+     * une par une). Les incidents dont le statut n'autorise pas la transition sont ignorés ;
+     * renvoie le nombre d'incidents modifiés. Une résolution groupée prévient les gestionnaires
+     * par une seule notification.
+     */
+    public int changerStatutIncidents(List<Long> ids, String statut) {
+        StatutIncident cible = statutIncident(statut);
+        if (cible == null) {
+            throw new IllegalArgumentException("Statut obligatoire");
+        }
+        if (cible == StatutIncident.ASSIGNE || cible == StatutIncident.OUVERT) {
+            throw new IllegalArgumentException("Transition groupée impossible vers " + cible);
+        }
+        if (ids == null || ids.isEmpty()) {
+            return 0;
+        }
+        LocalDate dateResolution = cible == StatutIncident.RESOLU ? LocalDate.now() : null;
+        List<Long> distincts = new ArrayList<>(new LinkedHashSet<>(ids));
+        int modifies = 0;
+        for (int debut = 0; debut < distincts.size(); debut += TAILLE_PAQUET_TRANSITION) {
+            List<Long> paquet = distincts.subList(debut, Math.min(debut + TAILLE_PAQUET_TRANSITION, distincts.size()));
+            // Incidents verrouillés avant la mise à jour : une transition concurrente sur les
+            // mêmes incidents attend celle-ci, puis ne les trouve plus dans un statut de départ.
+            // Une résolution décharge les agents et les chambres des seuls incidents modifiés.
+            List<Object[]> aModifier = incidentRepository.findPourTransition(paquet, cible.precedents());
+            if (aModifier.isEmpty()) {
+                continue;
+            }
+            List<Long> idsModifies = new ArrayList<>(aModifier.size());
+            Map<Long, Integer> charges = new HashMap<>();
+            Map<Long, Integer> chambres = new HashMap<>();
+            for (Object[] i : aModifier) {
+                idsModifies.add((Long) i[0]);
+                if (cible == StatutIncident.RESOLU) {
+                    if (i[1] != null && IncidentDispatcher.STATUTS_OUVERTS.contains((StatutIncident) i[3])) {
+                        charges.merge((Long) i[1], 1, Integer::sum);
+                    }
+                    chambres.merge((Long) i[2], 1, Integer::sum);
+                }
+            }
+            modifies += incidentRepository.changerStatut(idsModifies, cible.precedents(), cible, dateResolution);
+            charges.forEach(incidentDispatcher::liberer);
+            chambres.forEach(chambreHealthIndex::incidentsResolus);
+        }
+        // Comme une résolution unitaire, mais une seule notification pour tout le lot
+        if (cible == StatutIncident.RESOLU && modifies > 0) {
+            notificationService.notifyAllGestionnaires("success", "Incidents résolus",
+                    modifies == 1 ? "1 incident a été résolu" : modifies + " incidents ont été résolus");
+        }
+        return modifies;
+    }
+
+    /**
+     * L'agent quitte son service : il ne reçoit plus d'incident et ceux qu'il n'a pas
+     * commencés sont réassignés aux agents en service les moins chargés (ou repassent
+     * OUVERT s'il n'y en a pas). Renvoie le nombre d'incidents réassignés.
+     */
+    public int mettreHorsService(Long agentId) {
+        if (!incidentDispatcher.changerService(agentId, false)) {
+            throw new RuntimeException("Agent non trouvé");
+        }
+        int reassignes = 0;
+        for (Incident incident : incidentRepository.findByAgentAssigneIdAndStatut(agentId, StatutIncident.ASSIGNE)) {
+            incidentDispatcher.liberer(agentId, 1);
+            Long nouvelId = incidentDispatcher.reserver(incident.getSpecialite());
+            AgentTechnique nouvel = nouvelId != null ? agentTechnique(nouvelId) : null;
+            if (nouvel != null) {
+                incident.setAgentAssigne(nouvel);
+                notifierAssignation(nouvel, incident);
+                reassignes++;
+            } else {
+                if (nouvelId != null) {
+                    incidentDispatcher.liberer(nouvelId, 1);
+                }
+                incident.setAgentAssigne(null);
+                incident.setStatut(StatutIncident.OUVERT);
+            }
+        }
+        return reassignes;
+    }
+
+    /**
+     * L'agent reprend son service et peut de nouveau recevoir des incidents.
+     */
+    public void remettreEnService(Long agentId) {
+        if (!incidentDispatcher.changerService(agentId, true)) {
+            throw new RuntimeException("Agent non trouvé");
+        }
+    }
+
+    /**
+     * Liste de travail d'un agent, des plus anciens aux plus récents, par curseur.
+     * Sans statut : les incidents à traiter (ASSIGNE et EN_COURS).
+     */
+    @Transactional(readOnly = true)
+    public CursorPageDto<IncidentDto> getIncidentsAgent(Long agentId, String statut, String curseur,
+                                                        Integer taille) {
+        StatutIncident filtre = statutIncident(statut);
+        Set<StatutIncident> statuts = filtre != null
+                ? EnumSet.of(filtre)
+                : EnumSet.of(StatutIncident.ASSIGNE, StatutIncident.EN_COURS);
+        int limite = IncidentPages.limite(taille);
+        IncidentPages.Position apres = IncidentPages.position(curseur);
+        List<Incident> lignes = incidentRepository.findPageAgent(agentId, statuts, apres.date, apres.id,
+                PageRequest.of(0, limite + 1));
+        return IncidentPages.page(lignes, limite);
+    }
+
+    /**
+     * Incidents en attente d'assignation, des plus anciens aux plus récents.
+     */
+    @Transactional(readOnly = true)
+    public CursorPageDto<IncidentDto> getIncidentsOuverts(String curseur, Integer taille) {
+        int limite = IncidentPages.limite(taille);
+        IncidentPages.Position apres = IncidentPages.position(curseur);
+        List<Incident> lignes = incidentRepository.findPageOuverts(apres.date, apres.id,
+                PageRequest.of(0, limite + 1));
+        return IncidentPages.page(lignes, limite);
+    }
+
+    /**
+     * Historique des incidents d'une chambre, les plus récents d'abord.
+     */
+    @Transactional(readOnly = true)
+    public CursorPageDto<IncidentDto> getIncidentsChambre(Long chambreId, String curseur, Integer taille) {
+        int limite = IncidentPages.limite(taille);
+        IncidentPages.Position apres = IncidentPages.position(curseur);
+        List<Incident> lignes = incidentRepository.findPageChambre(chambreId, apres.date, apres.id,
+                PageRequest.of(0, limite + 1));
+        return IncidentPages.page(lignes, limite);
+    }
+
+    /**
+     * Enregistre l'état des lieux d'une chambre, rattaché à sa dernière affectation
+     * (entrée ou sortie de l'occupant), et met à jour la santé de la chambre.
+     */
+    public EtatDesLieuxDto faireEtatDesLieux(Long chambreId, String etat, String remarques) {
+        if (etat == null || etat.isBlank()) {
+            throw new IllegalArgumentException("L'état de la chambre est obligatoire");
+        }
+        Affectation affectation = affectationRepository.findTopByChambreIdOrderByDateDebutDescIdDesc(chambreId);
+        if (affectation == null) {
+            throw new IllegalArgumentException("Aucune affectation pour cette chambre");
+        }
+        EtatDesLieux etatDesLieux = new EtatDesLieux();
+        etatDesLieux.setAffectation(affectation);
+        etatDesLieux.setEtat(etat.trim());
+        etatDesLieux.setRemarques(remarques != null && !remarques.isBlank() ? remarques.trim() : null);
+        EtatDesLieux saved = etatDesLieuxRepository.save(etatDesLieux);
+        chambreHealthIndex.etatDesLieux(chambreId, saved.getEtat(), saved.getDateEtat());
+        return new EtatDesLieuxDto(saved);
+    }
+
+    /**
+     * Incident à faire changer de statut, verrouillé : deux transitions concurrentes ne
+     * peuvent pas partir du même statut (ni décharger deux fois l'agent et la chambre).
+     */
+    private Incident getIncident(Long incidentId) {
+        return incidentRepository.findByIdPourMiseAJour(incidentId)
+                .orElseThrow(() -> new RuntimeException("Incident non trouvé"));
+    }
+
+    private AgentTechnique agentTechnique(Long agentId) {
+        return utilisateurRepository.findById(agentId)
+                .filter(AgentTechnique.class::isInstance)
+                .map(AgentTechnique.class::cast)
+                .orElse(null);
+    }
+
+    private void notifierAssignation(AgentTechnique agent, Incident incident) {
+        notificationService.sendNotification(agent, "info", "Incident assigné",
+                "Un incident vous a été assigné dans la chambre " + incident.getChambre().getNumero());
+    }
 
-    public String resoudreIncident(Long incidentId) {
-        // TODO: implement incident resolution logic
-        return "Incident " + incidentId + " résolu (simulation)";
+    private static void verifierTransition(Incident incident, StatutIncident cible) {
+        StatutIncident actuel = incident.getStatut() != null ? incident.getStatut() : StatutIncident.OUVERT;
+        if (!cible.precedents().contains(actuel)) {
+            throw new IllegalArgumentException("Transition impossible : " + actuel + " -> " + cible);
+        }
     }
 
-    public String faireEtatDesLieux(Long chambreId) {
-        // TODO: implement etat des lieux logic
-        return "Etat des lieux pour la chambre " + chambreId + " effectué (simulation)";
+    private static StatutIncident statutIncident(String statut) {
+        if (statut == null || statut.isBlank()) {
+            return null;
+        }
+        try {
+            return StatutIncident.valueOf(statut.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Statut invalide : " + statut);
+        }
     }
 }
@@ -0,0 +1,292 @@
+package com.dormmanager.storage;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+/**
+ * Stockage local de fichiers adressés par contenu (photos d'états des lieux, et plus tard
+ * pièces jointes des réclamations), sans service de stockage externe.
+ *
+ * Un blob est nommé par l'empreinte SHA-256 de son contenu et rangé sur deux niveaux de
+ * répertoires tirés de l'empreinte (ab/cd/abcd...) : 65 536 répertoires, donc quelques
+ * dizaines de fichiers par répertoire pour des millions de blobs. Une écriture passe par
+ * un fichier temporaire renommé une fois complet : un blob visible est toujours entier.
+ * Un blob peut avoir des variantes (miniature...), rangées à côté et supprimées avec lui.
+ *
+ * Le store ne sait pas qui utilise un blob : la suppression des blobs orphelins revient
+ * au propriétaire des références (PieceJointeCollector).
+ */
+@Component
+public class BlobStore {
+
+    private static final Logger log = LoggerFactory.getLogger(BlobStore.class);
+
+    private static final int TAILLE_BLOC = 64 * 1024;
+    private static final Pattern HASH = Pattern.compile("[0-9a-f]{64}");
+    private static final Pattern SHARD = Pattern.compile("[0-9a-f]{2}");
+    private static final Pattern VARIANTE = Pattern.compile("[a-z0-9]+(\\.[a-z0-9]+)?");
+
+    private final Path racine;
+    private final Path temporaires;
+
+    public BlobStore(@Value("${dormmanager.blobs.repertoire:${java.io.tmpdir}/dormmanager/blobs}") String repertoire) {
+        this.racine = Paths.get(repertoire).toAbsolutePath();
+        this.temporaires = racine.resolve("tmp");
+        try {
+            Files.createDirectories(temporaires);
+            migrerDisposition();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Répertoire des blobs inaccessible : " + racine, e);
+        }
+    }
+
+    /**
+     * Résultat d'une écriture : empreinte du contenu, taille, et si le contenu est nouveau.
+     */
+    public record Blob(String hash, long taille, boolean nouveau) {
+    }
+
+    /**
+     * Écriture d'une variante dans un flux (le store se charge du fichier temporaire et du renommage).
+     */
+    @FunctionalInterface
+    public interface Ecriture {
+        void ecrire(OutputStream sortie) throws IOException;
+    }
+
+    /**
+     * Copie le flux par blocs en calculant l'empreinte. Au-delà de tailleMax, l'écriture
+     * est abandonnée (IllegalArgumentException) sans rien laisser sur disque. Un contenu
+     * déjà présent n'est pas réécrit ; sa date est rafraîchie pour que le ramasse-miettes,
+     * qui épargne les blobs récents, ne le supprime pas pendant qu'une référence se crée.
+     */
+    public Blob ecrire(InputStream contenu, long tailleMax) throws IOException {
+        MessageDigest sha256 = sha256();
+        Path temporaire = Files.createTempFile(temporaires, "blob-", ".part");
+        try {
+            long taille = 0;
+            byte[] bloc = new byte[TAILLE_BLOC];
+            try (OutputStream sortie = Files.newOutputStream(temporaire)) {
+                int lus;
+                while ((lus = contenu.read(bloc)) != -1) {
+                    taille += lus;
+                    if (taille > tailleMax) {
+                        throw new IllegalArgumentException("Fichier trop volumineux (maximum " + tailleMax + " octets)");
+                    }
+                    sha256.update(bloc, 0, lus);
+                    sortie.write(bloc, 0, lus);
+                }
+            }
+            if (taille == 0) {
+                throw new IllegalArgumentException("Fichier vide");
+            }
+            String hash = HexFormat.of().formatHex(sha256.digest());
+            Path cible = chemin(hash);
+            if (Files.exists(cible)) {
+                Files.setLastModifiedTime(cible, FileTime.from(Instant.now()));
+                return new Blob(hash, taille, false);
+            }
+            Files.createDirectories(cible.getParent());
+            publier(temporaire, cible);
+            return new Blob(hash, taille, true);
+        } finally {
+            Files.deleteIfExists(temporaire);
+        }
+    }
+
+    /**
+     * Écrit (ou remplace) une variante du blob, par exemple "miniature.jpg".
+     */
+    public void ecrireVariante(String hash, String variante, Ecriture ecriture) throws IOException {
+        Path cible = cheminVariante(hash, variante);
+        Path temporaire = Files.createTempFile(temporaires, "variante-", ".part");
+        try {
+            try (OutputStream sortie = Files.newOutputStream(temporaire)) {
+                ecriture.ecrire(sortie);
+            }
+            Files.createDirectories(cible.getParent());
+            Files.move(temporaire, cible, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporaire);
+        }
+    }
+
+    public Path chemin(String hash) {
+        verifier(hash);
+        return racine.resolve(hash.substring(0, 2)).resolve(hash.substring(2, 4)).resolve(hash);
+    }
+
+    public Path cheminVariante(String hash, String variante) {
+        if (variante == null || !VARIANTE.matcher(variante).matches()) {
+            throw new IllegalArgumentException("Variante invalide");
+        }
+        Path blob = chemin(hash);
+        return blob.resolveSibling(hash + "." + variante);
+    }
+
+    public boolean existe(String hash) {
+        return Files.exists(chemin(hash));
+    }
+
+    /**
+     * Copie une plage d'un fichier du store (blob ou variante, voir chemin et cheminVariante)
+     * vers le canal sans passer par un tampon du tas (transferTo). Renvoie le nombre d'octets
+     * copiés, moins que longueur si le fichier est plus court.
+     */
+    public static long transferer(Path fichier, long debut, long longueur, WritableByteChannel sortie)
+            throws IOException {
+        try (FileChannel canal = FileChannel.open(fichier, StandardOpenOption.READ)) {
+            long position = debut;
+            long fin = debut + longueur;
+            while (position < fin) {
+                long copies = canal.transferTo(position, fin - position, sortie);
+                if (copies <= 0) {
+                    break;
+                }
+                position += copies;
+            }
+            return position - debut;
+        }
+    }
+
+    /**
+     * Supprime le blob et ses variantes, s'il n'a pas été modifié depuis la date donnée
+     * (un envoi du même contenu vient peut-être d'y faire référence). Renvoie true si supprimé.
+     */
+    public boolean supprimer(String hash, Instant pasModifieDepuis) throws IOException {
+        Path blob = chemin(hash);
+        if (!Files.exists(blob) || Files.getLastModifiedTime(blob).toInstant().isAfter(pasModifieDepuis)) {
+            return false;
+        }
+        try (DirectoryStream<Path> variantes = Files.newDirectoryStream(blob.getParent(), hash + ".*")) {
+            for (Path variante : variantes) {
+                Files.deleteIfExists(variante);
+            }
+        }
+        return Files.deleteIfExists(blob);
+    }
+
+    /**
+     * Parcourt les empreintes des blobs non modifiés depuis la date donnée, répertoire
+     * par répertoire (sans charger la liste complète en mémoire).
+     */
+    public void parcourir(Instant pasModifieDepuis, Consumer<String> action) throws IOException {
+        try (DirectoryStream<Path> niveau1 = Files.newDirectoryStream(racine, BlobStore::estShard)) {
+            for (Path d1 : niveau1) {
+                try (DirectoryStream<Path> niveau2 = Files.newDirectoryStream(d1, BlobStore::estShard)) {
+                    for (Path d2 : niveau2) {
+                        try (DirectoryStream<Path> blobs = Files.newDirectoryStream(d2)) {
+                            for (Path blob : blobs) {
+                                String nom = blob.getFileName().toString();
+                                if (HASH.matcher(nom).matches()
+                                        && !Files.getLastModifiedTime(blob).toInstant().isAfter(pasModifieDepuis)) {
+                                    action.accept(nom);
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Supprime les fichiers temporaires abandonnés (envoi interrompu, arrêt brutal).
+     */
+    public int nettoyerTemporaires(Instant avant) throws IOException {
+        int supprimes = 0;
+        try (DirectoryStream<Path> fichiers = Files.newDirectoryStream(temporaires)) {
+            for (Path f : fichiers) {
+                if (Files.getLastModifiedTime(f).toInstant().isBefore(avant) && Files.deleteIfExists(f)) {
+                    supprimes++;
+                }
+            }
+        }
+        return supprimes;
+    }
+
+    Path temporaires() {
+        return temporaires;
+    }
+
+    private static boolean estShard(Path p) {
+        return SHARD.matcher(p.getFileName().toString()).matches() && Files.isDirectory(p);
+    }
+
+    private static void publier(Path temporaire, Path cible) throws IOException {
+        try {
+            Files.move(temporaire, cible, StandardCopyOption.ATOMIC_MOVE);
+        } catch (FileAlreadyExistsException e) {
+            // Envoi concurrent du même contenu : le blob est déjà complet
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temporaire, cible, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Range dans les répertoires de partition les blobs d'une disposition à plat
+     * (racine/hash) et abandonne l'ancien répertoire des miniatures, régénérées à la demande.
+     */
+    private void migrerDisposition() throws IOException {
+        int deplaces = 0;
+        try (DirectoryStream<Path> fichiers = Files.newDirectoryStream(racine,
+                p -> Files.isRegularFile(p) && HASH.matcher(p.getFileName().toString()).matches())) {
+            for (Path f : fichiers) {
+                Path cible = chemin(f.getFileName().toString());
+                Files.createDirectories(cible.getParent());
+                Files.move(f, cible, StandardCopyOption.REPLACE_EXISTING);
+                deplaces++;
+            }
+        }
+        Path anciennesMiniatures = racine.resolve("miniatures");
+        if (Files.isDirectory(anciennesMiniatures)) {
+            try (DirectoryStream<Path> fichiers = Files.newDirectoryStream(anciennesMiniatures)) {
+                for (Path f : fichiers) {
+                    Files.deleteIfExists(f);
+                }
+            }
+            Files.deleteIfExists(anciennesMiniatures);
+        }
+        if (deplaces > 0) {
+            log.info("Blobs rangés par répertoire de partition: {}", deplaces);
+        }
+    }
+
+    private static void verifier(String hash) {
+        if (hash == null || !HASH.matcher(hash).matches()) {
+            throw new IllegalArgumentException("Empreinte invalide");
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
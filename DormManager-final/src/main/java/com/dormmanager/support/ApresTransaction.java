@@ -0,0 +1,42 @@
+package com.dormmanager.support;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Synchronisation des structures en mémoire (index de recherche, file de triage, compteurs
+ * des services) avec la transaction en cours : une mise à jour n'est appliquée qu'après
+ * commit, pour qu'un rollback ne laisse pas de données fantômes, et une réservation est
+ * annulée au rollback. Hors transaction, apresCommit exécute l'action immédiatement.
+ */
+public final class ApresTransaction {
+
+    private ApresTransaction() {
+    }
+
+    public static void apresCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    public static void siAnnulation(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_ROLLED_BACK) {
+                        action.run();
+                    }
+                }
+            });
+        }
+    }
+}
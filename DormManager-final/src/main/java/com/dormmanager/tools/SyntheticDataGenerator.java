@@ -0,0 +1,461 @@
+package com.dormmanager.tools;
+
+import com.dormmanager.entity.StatutTache;
+import com.dormmanager.entity.TypeTacheMaintenance;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.Month;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Générateur de données synthétiques pour les mesures de performance : peuple le schéma
+ * (créé au préalable par Hibernate) avec des volumes paramétrés, par requêtes INSERT
+ * multi-lignes de {@value #LIGNES_PAR_REQUETE} lignes, sur MySQL ou H2.
+ *
+ * Les distributions suivent l'activité d'un foyer :
+ *  - inscriptions et demandes concentrées sur l'été, avant la rentrée de septembre ;
+ *  - séjours enchaînés chambre par chambre, sans chevauchement : année universitaire
+ *    (60 %), semestre (25 %) ou court séjour ; 85 % des chambres occupées aujourd'hui,
+ *    dont une partie par un séjour tout juste expiré que le scheduler de minuit n'a pas
+ *    encore traité ;
+ *  - 3 % des chambres en maintenance, avec leurs tâches d'inspection et de nettoyage à
+ *    faire, comme MaintenanceService les ouvre au départ du dernier occupant ;
+ *  - notifications et réclamations d'autant plus nombreuses qu'elles sont récentes,
+ *    les anciennes lues ou résolues.
+ *
+ * Les lignes existantes sont conservées : les identifiants générés suivent le plus grand
+ * identifiant de chaque table. Même graine et mêmes volumes donnent les mêmes données.
+ */
+public class SyntheticDataGenerator {
+
+    private static final Logger log = LoggerFactory.getLogger(SyntheticDataGenerator.class);
+
+    static final int LIGNES_PAR_REQUETE = 1000;
+
+    // Historique couvert par les inscriptions, demandes et notifications
+    private static final int ANNEES_HISTORIQUE = 5;
+
+    private static final String[] FILIERES = {"Informatique", "Mathématiques", "Physique", "Chimie",
+            "Biologie", "Économie", "Droit", "Lettres", "Médecine", "Génie civil"};
+    private static final String[] SPECIALITES = {"Plomberie", "Électricité", "Serrurerie", "Menuiserie", "Chauffage"};
+    private static final String[] NOMS = {"Martin", "Bernard", "Dubois", "Thomas", "Robert", "Richard", "Petit",
+            "Durand", "Leroy", "Moreau", "Benali", "Haddad", "Nguyen", "Diallo", "Garcia", "Rossi"};
+    private static final String[] PRENOMS = {"Lina", "Adam", "Sara", "Yanis", "Emma", "Noah", "Ines", "Rayan",
+            "Chloe", "Hugo", "Amira", "Lucas", "Lea", "Mehdi", "Jade", "Karim"};
+
+    /**
+     * Volumes à générer.
+     */
+    public record Volumes(int etudiants, int gestionnaires, int agents, int chambres, int affectations,
+                          int demandes, int notifications, int reclamations) {
+
+        /**
+         * Volumes proportionnels au nombre d'étudiants, dans les rapports d'un grand foyer
+         * (100 000 étudiants : 500 000 affectations, 5 000 000 de notifications, 200 000 réclamations).
+         */
+        public static Volumes pour(int etudiants, int chambres) {
+            return new Volumes(etudiants, Math.max(5, etudiants / 2000), Math.max(5, chambres / 100), chambres,
+                    etudiants * 5, etudiants + etudiants / 5, etudiants * 50, etudiants * 2);
+        }
+    }
+
+    /**
+     * Lignes insérées par table et durée de la génération.
+     */
+    public record Resume(long utilisateurs, long chambres, long affectations, long tachesMaintenance,
+                         long demandes, long notifications, long reclamations, Duration duree) {
+    }
+
+    private final JdbcTemplate jdbc;
+    private final Volumes volumes;
+    private final Random aleatoire;
+    private final LocalDate aujourdhui = LocalDate.now();
+
+    // Identifiants des utilisateurs générés, par rôle (plages contiguës)
+    private long premierAdmin;
+    private long premierGestionnaire;
+    private long premierAgent;
+    private long premierEtudiant;
+
+    public SyntheticDataGenerator(JdbcTemplate jdbc, Volumes volumes, long graine) {
+        this.jdbc = jdbc;
+        this.volumes = volumes;
+        this.aleatoire = new Random(graine);
+    }
+
+    public Resume generer() {
+        long debut = System.nanoTime();
+        long utilisateurs = genererUtilisateurs();
+        boolean[] loge = new boolean[volumes.etudiants()];
+        List<long[]> enMaintenance = new ArrayList<>();
+        long affectations = genererChambresEtAffectations(prochainId("chambre"), loge, enMaintenance);
+        long taches = genererTachesMaintenance(enMaintenance);
+        long chambres = volumes.chambres();
+        long demandes = genererDemandes(loge);
+        long notifications = genererNotifications();
+        long reclamations = genererReclamations();
+        resynchroniserIdentites();
+        Resume resume = new Resume(utilisateurs, chambres, affectations, taches, demandes, notifications,
+                reclamations, Duration.ofNanos(System.nanoTime() - debut));
+        log.info("Données synthétiques: {} utilisateurs, {} chambres, {} affectations, {} tâches de maintenance, "
+                        + "{} demandes, {} notifications, {} réclamations en {} s", utilisateurs, chambres, affectations,
+                taches, demandes, notifications, reclamations, resume.duree().toSeconds());
+        return resume;
+    }
+
+    private long genererUtilisateurs() {
+        long id = prochainId("utilisateur");
+        premierAdmin = id;
+        premierGestionnaire = premierAdmin + 1;
+        premierAgent = premierGestionnaire + volumes.gestionnaires();
+        premierEtudiant = premierAgent + volumes.agents();
+        long total = 1 + volumes.gestionnaires() + volumes.agents() + volumes.etudiants();
+
+        // Table mère d'abord (héritage JOINED : les tables filles la référencent)
+        try (Insertion utilisateurs = new Insertion("utilisateur",
+                "id", "nom", "prenom", "email", "mot_de_passe", "role", "date_creation")) {
+            for (long u = premierAdmin; u < premierAdmin + total; u++) {
+                String role = u == premierAdmin ? "ADMIN"
+                        : u < premierAgent ? "GESTIONNAIRE"
+                        : u < premierEtudiant ? "AGENT_TECHNIQUE"
+                        : "ETUDIANT";
+                utilisateurs.ajouter(u, NOMS[aleatoire.nextInt(NOMS.length)], PRENOMS[aleatoire.nextInt(PRENOMS.length)],
+                        role.toLowerCase() + u + "@synthetic.dormmanager", "password", role,
+                        Timestamp.valueOf(dateSaisonniere().atTime(8 + aleatoire.nextInt(12), aleatoire.nextInt(60))));
+                if ((u - premierAdmin + 1) % 100_000 == 0) {
+                    log.info("Utilisateurs: {} / {}", u - premierAdmin + 1, total);
+                }
+            }
+        }
+        try (Insertion admins = new Insertion("administrateur", "id", "niveau")) {
+            admins.ajouter(premierAdmin, "principal");
+        }
+        try (Insertion gestionnaires = new Insertion("gestionnaire_foyer", "id", "service", "bureau")) {
+            for (long u = premierGestionnaire; u < premierAgent; u++) {
+                gestionnaires.ajouter(u, "Hébergement", "B" + (u % 20));
+            }
+        }
+        try (Insertion agents = new Insertion("agent_technique", "id", "specialite")) {
+            for (long u = premierAgent; u < premierEtudiant; u++) {
+                agents.ajouter(u, SPECIALITES[aleatoire.nextInt(SPECIALITES.length)]);
+            }
+        }
+        try (Insertion etudiants = new Insertion("etudiant", "id", "matricule", "filiere")) {
+            for (long u = premierEtudiant; u < premierAdmin + total; u++) {
+                etudiants.ajouter(u, "SYN" + u, FILIERES[aleatoire.nextInt(FILIERES.length)]);
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Séjours enchaînés chambre par chambre en remontant le temps depuis aujourd'hui. Le
+     * séjour le plus récent d'une chambre occupée revient à un étudiant différent pour
+     * chaque chambre ; les séjours passés sont tirés au hasard parmi tous les étudiants.
+     * L'historique remonte aussi loin que le volume d'affectations par chambre l'exige.
+     * Chaque chambre en maintenance est ajoutée à enMaintenance avec son dernier séjour
+     * (chambre, affectation ou 0, fin du séjour en jour epoch). Renvoie le nombre
+     * d'affectations insérées.
+     */
+    private long genererChambresEtAffectations(long premiereChambre, boolean[] loge, List<long[]> enMaintenance) {
+        List<Integer> etudiantsDisponibles = new ArrayList<>(volumes.etudiants());
+        for (int i = 0; i < volumes.etudiants(); i++) {
+            etudiantsDisponibles.add(i);
+        }
+        Collections.shuffle(etudiantsDisponibles, aleatoire);
+        int prochainLoge = 0;
+
+        // Chambres d'abord (les affectations les référencent), en retenant leur tirage
+        int[] sejoursParChambre = new int[volumes.chambres()];
+        int[] tirages = new int[volumes.chambres()];
+        int restantes = volumes.affectations();
+        int occupees = 0;
+        try (Insertion chambres = new Insertion("chambre", "id", "numero", "type", "etat", "capacite")) {
+            for (int c = 0; c < volumes.chambres(); c++) {
+                sejoursParChambre[c] = restantes / (volumes.chambres() - c);
+                restantes -= sejoursParChambre[c];
+                tirages[c] = aleatoire.nextInt(100);
+                boolean occupee = tirages[c] < 85 && sejoursParChambre[c] > 0 && occupees < volumes.etudiants();
+                if (occupee) {
+                    occupees++;
+                } else if (tirages[c] < 85) {
+                    tirages[c] = 100; // ni étudiant ni séjour pour l'occuper : disponible
+                }
+                String etat = occupee ? "occupee" : tirages[c] < 88 ? "maintenance" : "disponible";
+                boolean doubleChambre = aleatoire.nextInt(4) == 0;
+                chambres.ajouter(premiereChambre + c, numero(c), doubleChambre ? "double" : "simple", etat,
+                        doubleChambre ? 2 : 1);
+            }
+        }
+
+        // Identifiants fournis : les tâches de maintenance référencent le dernier séjour de leur chambre
+        long affectationId = prochainId("affectation");
+        try (Insertion affectations = new Insertion("affectation",
+                "id", "etudiant_id", "chambre_id", "date_debut", "date_fin", "remarque", "notification_envoye")) {
+            for (int c = 0; c < volumes.chambres(); c++) {
+                long chambreId = premiereChambre + c;
+                int sejours = sejoursParChambre[c];
+                int tirage = tirages[c];
+                boolean occupee = tirage < 85;
+
+                // Fin du séjour suivant (dans le temps) : on remonte séjour par séjour
+                LocalDate suivant = aujourdhui.minusDays(5 + aleatoire.nextInt(90));
+                if (tirage >= 85 && tirage < 88) {
+                    enMaintenance.add(new long[] {chambreId, sejours > 0 ? affectationId : 0,
+                            (sejours > 0 ? suivant : aujourdhui).toEpochDay()});
+                }
+                for (int s = 0; s < sejours; s++) {
+                    int duree = dureeSejour();
+                    LocalDate debut;
+                    Object fin;
+                    boolean notifie = true;
+                    int etudiant;
+                    if (occupee && s == 0) {
+                        etudiant = etudiantsDisponibles.get(prochainLoge++);
+                        loge[etudiant] = true;
+                        notifie = false;
+                        if (tirage < 3) {
+                            // Séjour tout juste expiré, pas encore traité par le scheduler
+                            LocalDate expire = aujourdhui.minusDays(1 + aleatoire.nextInt(3));
+                            debut = expire.minusDays(duree);
+                            fin = expire;
+                        } else {
+                            debut = aujourdhui.minusDays(aleatoire.nextInt(duree));
+                            // Un séjour en cours sur dix n'a pas de date de fin
+                            fin = aleatoire.nextInt(10) == 0 ? null : debut.plusDays(duree);
+                        }
+                    } else {
+                        etudiant = aleatoire.nextInt(volumes.etudiants());
+                        debut = suivant.minusDays(duree);
+                        fin = suivant;
+                    }
+                    affectations.ajouter(affectationId++, premierEtudiant + etudiant, chambreId, debut, fin,
+                            aleatoire.nextInt(20) == 0 ? "Changement de chambre" : null, notifie);
+                    suivant = debut.minusDays(aleatoire.nextInt(30));
+                }
+            }
+            return affectations.terminer();
+        }
+    }
+
+    /**
+     * Tâches d'inspection et de nettoyage à faire des chambres en maintenance, ouvertes le
+     * jour du départ : sans elles, la chambre ne redeviendrait jamais disponible.
+     */
+    private long genererTachesMaintenance(List<long[]> enMaintenance) {
+        try (Insertion taches = new Insertion("tache_maintenance",
+                "chambre_id", "affectation_id", "type", "statut", "date_creation")) {
+            for (long[] chambre : enMaintenance) {
+                LocalDate depart = LocalDate.ofEpochDay(chambre[2]);
+                for (TypeTacheMaintenance type : TypeTacheMaintenance.values()) {
+                    taches.ajouter(chambre[0], chambre[1] != 0 ? chambre[1] : null, type.name(),
+                            StatutTache.A_FAIRE.name(), depart);
+                }
+            }
+            return taches.terminer();
+        }
+    }
+
+    private long genererDemandes(boolean[] loge) {
+        try (Insertion demandes = new Insertion("demande_hebergement",
+                "date_soumission", "motif", "statut", "etudiant_id")) {
+            for (int d = 0; d < volumes.demandes(); d++) {
+                // Une demande par étudiant, puis des redemandes
+                int etudiant = d < volumes.etudiants() ? d : aleatoire.nextInt(volumes.etudiants());
+                String statut;
+                LocalDate soumission;
+                if (d < volumes.etudiants() && loge[etudiant]) {
+                    statut = "VALIDEE";
+                    soumission = dateSaisonniere();
+                } else if (aleatoire.nextInt(100) < 40) {
+                    statut = "EN_ATTENTE";
+                    soumission = aujourdhui.minusDays(aleatoire.nextInt(60));
+                } else {
+                    statut = aleatoire.nextInt(100) < 75 ? "VALIDEE" : "REJETEE";
+                    soumission = dateSaisonniere();
+                }
+                demandes.ajouter(java.sql.Date.valueOf(soumission),
+                        aleatoire.nextBoolean() ? "Première demande de logement" : "Rapprochement du campus",
+                        statut, premierEtudiant + etudiant);
+            }
+            return demandes.terminer();
+        }
+    }
+
+    /**
+     * Neuf notifications sur dix vont aux étudiants ; l'âge suit une loi exponentielle
+     * (moyenne 60 jours) et une notification est d'autant plus souvent lue qu'elle est ancienne.
+     */
+    private long genererNotifications() {
+        String[][] modeles = {
+                {"info", "Information", "Coupure d'eau prévue au bâtiment"},
+                {"success", "Demande acceptée", "Votre demande d'hébergement a été acceptée"},
+                {"warning", "Rappel", "Votre séjour se termine bientôt"},
+                {"message", "Nouvelle réclamation", "Une réclamation a été déposée"}};
+        LocalDateTime maintenant = LocalDateTime.now();
+        long maxMinutes = Duration.ofDays(365L * ANNEES_HISTORIQUE).toMinutes();
+        try (Insertion notifications = new Insertion("notification",
+                "type", "titre", "message", "lu", "date", "destinataire_id")) {
+            for (int n = 0; n < volumes.notifications(); n++) {
+                long destinataire = aleatoire.nextInt(10) < 9
+                        ? premierEtudiant + aleatoire.nextInt(volumes.etudiants())
+                        : premierAdmin + aleatoire.nextInt(1 + volumes.gestionnaires());
+                long ageMinutes = Math.min(maxMinutes, exponentielle(60 * 24 * 60));
+                boolean lu = aleatoire.nextDouble() < 1 - Math.exp(-ageMinutes / (7.0 * 24 * 60));
+                String[] modele = modeles[aleatoire.nextInt(modeles.length)];
+                notifications.ajouter(modele[0], modele[1], modele[2], lu,
+                        Timestamp.valueOf(maintenant.minusMinutes(ageMinutes)), destinataire);
+                if ((n + 1) % 1_000_000 == 0) {
+                    log.info("Notifications: {} / {}", n + 1, volumes.notifications());
+                }
+            }
+            return notifications.terminer();
+        }
+    }
+
+    /**
+     * Réclamations récentes en attente ou en cours, anciennes presque toutes résolues.
+     */
+    private long genererReclamations() {
+        String[] messages = {"Le chauffage ne fonctionne pas", "Fuite d'eau dans la salle de bain",
+                "Connexion internet très lente", "Bruit la nuit dans le couloir", "Serrure de la porte bloquée"};
+        try (Insertion reclamations = new Insertion("reclamation", "message", "date_envoi", "utilisateur_id", "status")) {
+            for (int r = 0; r < volumes.reclamations(); r++) {
+                long age = Math.min(365L * ANNEES_HISTORIQUE, exponentielle(90));
+                String statut = age < 7 ? (aleatoire.nextInt(3) == 0 ? "EN_COURS" : "EN_ATTENTE")
+                        : age < 30 ? (aleatoire.nextInt(2) == 0 ? "EN_COURS" : "RESOLUE")
+                        : aleatoire.nextInt(50) == 0 ? "EN_ATTENTE" : "RESOLUE";
+                reclamations.ajouter(messages[aleatoire.nextInt(messages.length)], aujourdhui.minusDays(age),
+                        premierEtudiant + aleatoire.nextInt(volumes.etudiants()), statut);
+            }
+            return reclamations.terminer();
+        }
+    }
+
+    // Durée d'un séjour : année universitaire, semestre ou court séjour
+    private int dureeSejour() {
+        int tirage = aleatoire.nextInt(100);
+        if (tirage < 60) {
+            return 270 + aleatoire.nextInt(30);
+        }
+        if (tirage < 85) {
+            return 120 + aleatoire.nextInt(30);
+        }
+        return 14 + aleatoire.nextInt(46);
+    }
+
+    /**
+     * Date des cinq dernières années, une sur deux entre juin et septembre.
+     */
+    private LocalDate dateSaisonniere() {
+        int annee = aujourdhui.getYear() - aleatoire.nextInt(ANNEES_HISTORIQUE);
+        Month mois = aleatoire.nextBoolean()
+                ? Month.of(6 + aleatoire.nextInt(4))
+                : Month.of(1 + aleatoire.nextInt(12));
+        LocalDate date = LocalDate.of(annee, mois, 1 + aleatoire.nextInt(28));
+        return date.isAfter(aujourdhui) ? date.minusYears(1) : date;
+    }
+
+    private long exponentielle(double moyenne) {
+        return (long) (-moyenne * Math.log(1 - aleatoire.nextDouble()));
+    }
+
+    // "A-101" : bâtiment de 200 chambres, 10 étages de 20 chambres
+    private static String numero(int c) {
+        int batiment = c / 200;
+        String lettres = String.valueOf((char) ('A' + batiment % 26)) + (batiment >= 26 ? batiment / 26 : "");
+        return String.format("%s-%d%02d", lettres, (c % 200) / 20 + 1, c % 20 + 1);
+    }
+
+    private long prochainId(String table) {
+        Long max = jdbc.queryForObject("SELECT MAX(id) FROM " + table, Long.class);
+        return (max != null ? max : 0) + 1;
+    }
+
+    /**
+     * MySQL avance son compteur AUTO_INCREMENT sur les identifiants fournis, H2 non : on le
+     * replace après le plus grand identifiant pour les insertions suivantes de l'application.
+     */
+    private void resynchroniserIdentites() {
+        String produit = jdbc.execute((java.sql.Connection c) -> c.getMetaData().getDatabaseProductName());
+        if (!"H2".equalsIgnoreCase(produit)) {
+            return;
+        }
+        for (String table : List.of("utilisateur", "chambre", "affectation", "demande_hebergement",
+                "notification", "reclamation")) {
+            jdbc.execute("ALTER TABLE " + table + " ALTER COLUMN id RESTART WITH " + prochainId(table));
+        }
+    }
+
+    /**
+     * INSERT multi-lignes : les lignes sont accumulées et envoyées par requêtes de
+     * LIGNES_PAR_REQUETE lignes ; terminer() (ou close()) envoie le reste.
+     */
+    private final class Insertion implements AutoCloseable {
+        private final String entete;
+        private final String ligne;
+        private final int colonnes;
+        private final Object[] valeurs;
+        private String requetePleine;
+        private int enAttente;
+        private long lignes;
+
+        private Insertion(String table, String... colonnes) {
+            this.colonnes = colonnes.length;
+            this.entete = "INSERT INTO " + table + " (" + String.join(", ", colonnes) + ") VALUES ";
+            String[] marques = new String[colonnes.length];
+            Arrays.fill(marques, "?");
+            this.ligne = "(" + String.join(", ", marques) + ")";
+            this.valeurs = new Object[LIGNES_PAR_REQUETE * colonnes.length];
+        }
+
+        private void ajouter(Object... ligneValeurs) {
+            System.arraycopy(ligneValeurs, 0, valeurs, enAttente * colonnes, colonnes);
+            if (++enAttente == LIGNES_PAR_REQUETE) {
+                if (requetePleine == null) {
+                    requetePleine = requete(LIGNES_PAR_REQUETE);
+                }
+                envoyer(requetePleine);
+            }
+        }
+
+        private String requete(int nombre) {
+            StringBuilder sql = new StringBuilder(entete.length() + nombre * (ligne.length() + 2)).append(entete);
+            for (int i = 0; i < nombre; i++) {
+                sql.append(i == 0 ? "" : ", ").append(ligne);
+            }
+            return sql.toString();
+        }
+
+        private void envoyer(String sql) {
+            jdbc.update(sql, enAttente == LIGNES_PAR_REQUETE ? valeurs : Arrays.copyOf(valeurs, enAttente * colonnes));
+            lignes += enAttente;
+            enAttente = 0;
+        }
+
+        /**
+         * Envoie les lignes en attente et renvoie le nombre total de lignes insérées.
+         */
+        private long terminer() {
+            if (enAttente > 0) {
+                envoyer(requete(enAttente));
+            }
+            return lignes;
+        }
+
+        @Override
+        public void close() {
+            terminer();
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.dormmanager.tools;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Lance le générateur de données synthétiques au démarrage puis arrête l'application
+ * (profil "generateur", sans serveur web) :
+ *
+ * mvn spring-boot:run -Dspring-boot.run.profiles=generateur \
+ *     -Dspring-boot.run.arguments="--dormmanager.generateur.etudiants=100000 --dormmanager.generateur.chambres=10000"
+ *
+ * Les volumes non précisés suivent les proportions de Volumes.pour(etudiants, chambres).
+ */
+@Component
+@Profile("generateur")
+public class SyntheticDataRunner implements ApplicationRunner {
+
+    private final JdbcTemplate jdbc;
+    private final ConfigurableApplicationContext contexte;
+    private final SyntheticDataGenerator.Volumes volumes;
+    private final long graine;
+
+    public SyntheticDataRunner(JdbcTemplate jdbc,
+                               ConfigurableApplicationContext contexte,
+                               @Value("${dormmanager.generateur.etudiants:100000}") int etudiants,
+                               @Value("${dormmanager.generateur.chambres:10000}") int chambres,
+                               @Value("${dormmanager.generateur.affectations:-1}") int affectations,
+                               @Value("${dormmanager.generateur.demandes:-1}") int demandes,
+                               @Value("${dormmanager.generateur.notifications:-1}") int notifications,
+                               @Value("${dormmanager.generateur.reclamations:-1}") int reclamations,
+                               @Value("${dormmanager.generateur.graine:42}") long graine) {
+        this.jdbc = jdbc;
+        this.contexte = contexte;
+        SyntheticDataGenerator.Volumes proportionnels = SyntheticDataGenerator.Volumes.pour(etudiants, chambres);
+        this.volumes = new SyntheticDataGenerator.Volumes(etudiants,
+                proportionnels.gestionnaires(),
+                proportionnels.agents(),
+                chambres,
+                affectations >= 0 ? affectations : proportionnels.affectations(),
+                demandes >= 0 ? demandes : proportionnels.demandes(),
+                notifications >= 0 ? notifications : proportionnels.notifications(),
+                reclamations >= 0 ? reclamations : proportionnels.reclamations());
+        this.graine = graine;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        new SyntheticDataGenerator(jdbc, volumes, graine).generer();
+        System.exit(SpringApplication.exit(contexte, () -> 0));
+    }
+}
@@ -0,0 +1,135 @@
+-- Schema d'origine, tel que genere par Hibernate (ddl-auto=update) avant le passage aux
+-- migrations, sans utilisateur.date_creation (ajoutee par V003, remplie par V004). Une base
+-- existante creee ainsi correspond a la version 4 (spring.flyway.baseline-version) : seules
+-- les migrations suivantes y sont appliquees. Les noms des contraintes sont ceux d'Hibernate.
+
+-- ========== UTILISATEURS ==========
+CREATE TABLE utilisateur (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    email VARCHAR(255) NOT NULL,
+    mot_de_passe VARCHAR(255) NOT NULL,
+    nom VARCHAR(255) NOT NULL,
+    prenom VARCHAR(255) NOT NULL,
+    role ENUM ('ADMIN','AGENT_TECHNIQUE','ETUDIANT','GESTIONNAIRE') NOT NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE administrateur (
+    id BIGINT NOT NULL,
+    niveau VARCHAR(255),
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE agent_technique (
+    id BIGINT NOT NULL,
+    specialite VARCHAR(255),
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE etudiant (
+    id BIGINT NOT NULL,
+    filiere VARCHAR(255),
+    matricule VARCHAR(255) NOT NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE gestionnaire_foyer (
+    id BIGINT NOT NULL,
+    bureau VARCHAR(255),
+    service VARCHAR(255),
+    PRIMARY KEY (id)
+);
+
+-- ========== CHAMBRES ET AFFECTATIONS ==========
+CREATE TABLE chambre (
+    capacite INTEGER NOT NULL,
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    etat VARCHAR(255),
+    numero VARCHAR(255) NOT NULL,
+    type VARCHAR(255),
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE affectation (
+    date_debut DATE,
+    date_fin DATE,
+    notification_envoye BIT NOT NULL,
+    chambre_id BIGINT NOT NULL,
+    etudiant_id BIGINT NOT NULL,
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    remarque VARCHAR(255),
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE demande_hebergement (
+    date_soumission DATE,
+    etudiant_id BIGINT NOT NULL,
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    motif VARCHAR(255),
+    statut ENUM ('EN_ATTENTE','REJETEE','VALIDEE'),
+    PRIMARY KEY (id)
+);
+
+-- ========== ETATS DES LIEUX ==========
+CREATE TABLE etat_des_lieux (
+    date_etat DATE,
+    affectation_id BIGINT NOT NULL,
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    etat VARCHAR(255),
+    remarques VARCHAR(255),
+    PRIMARY KEY (id)
+);
+
+-- ========== INCIDENTS ==========
+CREATE TABLE incident (
+    date_signalement DATE,
+    agent_assigne_id BIGINT,
+    chambre_id BIGINT NOT NULL,
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    description VARCHAR(255),
+    statut VARCHAR(255),
+    PRIMARY KEY (id)
+);
+
+-- ========== NOTIFICATIONS ET RECLAMATIONS ==========
+CREATE TABLE notification (
+    lu BIT NOT NULL,
+    date DATETIME(6),
+    destinataire_id BIGINT NOT NULL,
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    message VARCHAR(255),
+    titre VARCHAR(255),
+    type VARCHAR(255),
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE reclamation (
+    date_envoi DATE,
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    utilisateur_id BIGINT NOT NULL,
+    message VARCHAR(255),
+    status ENUM ('EN_ATTENTE','EN_COURS','RESOLUE'),
+    PRIMARY KEY (id)
+);
+
+-- ========== CONTRAINTES D'UNICITE ==========
+ALTER TABLE utilisateur ADD CONSTRAINT UKrma38wvnqfaf66vvmi57c71lo UNIQUE (email);
+ALTER TABLE etudiant ADD CONSTRAINT UKtn2q9dbx4m888c3xgvxt7bt58 UNIQUE (matricule);
+
+-- ========== CLES ETRANGERES ==========
+ALTER TABLE administrateur ADD CONSTRAINT FKawt6kv01mreprfwbksw65mm8y FOREIGN KEY (id) REFERENCES utilisateur (id);
+ALTER TABLE agent_technique ADD CONSTRAINT FKlwpv4m3wbubr15pt1v34v3cah FOREIGN KEY (id) REFERENCES utilisateur (id);
+ALTER TABLE etudiant ADD CONSTRAINT FK8r3ygi23xihnm6jbtxoyrmlrj FOREIGN KEY (id) REFERENCES utilisateur (id);
+ALTER TABLE gestionnaire_foyer ADD CONSTRAINT FKmfqpkg6ntydqhrqy0y4j1ued6 FOREIGN KEY (id) REFERENCES utilisateur (id);
+
+ALTER TABLE affectation ADD CONSTRAINT FKro7lybkkwu0yrlwf43albnvyj FOREIGN KEY (chambre_id) REFERENCES chambre (id);
+ALTER TABLE affectation ADD CONSTRAINT FKotevfwup8c2g6s9hb240vst9h FOREIGN KEY (etudiant_id) REFERENCES etudiant (id);
+ALTER TABLE demande_hebergement ADD CONSTRAINT FK6dukkvustivto0fvkhs3t338j FOREIGN KEY (etudiant_id) REFERENCES etudiant (id);
+
+ALTER TABLE etat_des_lieux ADD CONSTRAINT FKfwrsmdrj3x490i9q529m3p6v1 FOREIGN KEY (affectation_id) REFERENCES affectation (id);
+
+ALTER TABLE incident ADD CONSTRAINT FK7cynh6jui6f8f27ky88hwj11b FOREIGN KEY (agent_assigne_id) REFERENCES agent_technique (id);
+ALTER TABLE incident ADD CONSTRAINT FK74drbhi2egmq9x2kl7j94spea FOREIGN KEY (chambre_id) REFERENCES chambre (id);
+
+ALTER TABLE notification ADD CONSTRAINT FK1ua2te3nlhroafvkruaq490hr FOREIGN KEY (destinataire_id) REFERENCES utilisateur (id);
+ALTER TABLE reclamation ADD CONSTRAINT FKbi2r9okaalw97vrtnqjjg387r FOREIGN KEY (utilisateur_id) REFERENCES utilisateur (id);
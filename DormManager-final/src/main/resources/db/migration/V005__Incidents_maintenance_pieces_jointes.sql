@@ -0,0 +1,76 @@
+-- Evolutions du schema d'origine (V001) : cycle de vie des incidents, photos des etats des
+-- lieux dans le stockage adresse par contenu, taches de maintenance, et index des listes
+-- paginees. Premiere migration appliquee a une base existante (baseline a la version 4).
+
+-- ========== INCIDENTS ==========
+ALTER TABLE incident ADD COLUMN date_resolution DATE;
+ALTER TABLE incident ADD COLUMN specialite VARCHAR(255);
+-- Le statut devient une enumeration : seuls OUVERT (valeur par defaut d'origine) et les
+-- nouveaux statuts sont valides, une valeur inconnue repart de OUVERT. Nouvelle colonne
+-- recopiee puis renommee plutot que MODIFY, propre a MySQL.
+ALTER TABLE incident ADD COLUMN statut_enum ENUM ('ASSIGNE','EN_COURS','OUVERT','RESOLU');
+UPDATE incident SET statut_enum = CASE
+    WHEN statut IN ('ASSIGNE', 'EN_COURS', 'OUVERT', 'RESOLU') THEN statut
+    WHEN statut IS NOT NULL THEN 'OUVERT'
+END;
+ALTER TABLE incident DROP COLUMN statut;
+ALTER TABLE incident RENAME COLUMN statut_enum TO statut;
+
+-- ========== PIECES JOINTES ==========
+CREATE TABLE piece_jointe (
+    nombre_references INTEGER NOT NULL,
+    date_creation DATETIME(6),
+    taille BIGINT NOT NULL,
+    hash VARCHAR(64) NOT NULL,
+    type_mime VARCHAR(255),
+    PRIMARY KEY (hash)
+);
+
+CREATE TABLE etat_des_lieux_photo (
+    etat_des_lieux_id BIGINT NOT NULL,
+    photo_hash VARCHAR(64) NOT NULL,
+    PRIMARY KEY (etat_des_lieux_id, photo_hash)
+);
+
+-- ========== MAINTENANCE ==========
+CREATE TABLE tache_maintenance (
+    date_cloture DATE,
+    date_creation DATE,
+    date_prevue DATE,
+    affectation_id BIGINT,
+    agent_assigne_id BIGINT,
+    chambre_id BIGINT NOT NULL,
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    remarques VARCHAR(255),
+    tournee VARCHAR(255),
+    statut ENUM ('A_FAIRE','PLANIFIEE','TERMINEE'),
+    type ENUM ('INSPECTION','NETTOYAGE'),
+    PRIMARY KEY (id)
+);
+
+-- ========== INDEX ET CONTRAINTES D'UNICITE ==========
+CREATE INDEX idx_utilisateur_nom_id ON utilisateur (nom, id);
+CREATE INDEX idx_utilisateur_role_nom_id ON utilisateur (role, nom, id);
+
+CREATE INDEX idx_chambre_numero_id ON chambre (numero, id);
+CREATE INDEX idx_chambre_etat_type_capacite ON chambre (etat, type, capacite);
+
+CREATE INDEX idx_piece_jointe_references_date ON piece_jointe (nombre_references, date_creation);
+
+CREATE INDEX idx_incident_statut_agent_date_id ON incident (statut, agent_assigne_id, date_signalement, id);
+CREATE INDEX idx_incident_chambre_date_id ON incident (chambre_id, date_signalement, id);
+
+CREATE INDEX idx_tache_statut_agent_tournee ON tache_maintenance (statut, agent_assigne_id, tournee);
+CREATE INDEX idx_tache_chambre_statut ON tache_maintenance (chambre_id, statut);
+ALTER TABLE tache_maintenance ADD CONSTRAINT uk_tache_affectation_type UNIQUE (affectation_id, type);
+
+CREATE INDEX idx_reclamation_status_date_id ON reclamation (status, date_envoi, id);
+CREATE INDEX idx_reclamation_utilisateur_date_id ON reclamation (utilisateur_id, date_envoi, id);
+
+-- ========== CLES ETRANGERES ==========
+ALTER TABLE etat_des_lieux_photo ADD CONSTRAINT FKlr09somn6wi4cjt8mxfw19qma FOREIGN KEY (photo_hash) REFERENCES piece_jointe (hash);
+ALTER TABLE etat_des_lieux_photo ADD CONSTRAINT FKptyvhmv0btvv4xcng5n6cqg4y FOREIGN KEY (etat_des_lieux_id) REFERENCES etat_des_lieux (id);
+
+ALTER TABLE tache_maintenance ADD CONSTRAINT FKi6wsruekfosr0d4oloc5tf4sf FOREIGN KEY (affectation_id) REFERENCES affectation (id);
+ALTER TABLE tache_maintenance ADD CONSTRAINT FKthqhqbfv1x5rfa3uji97dbroc FOREIGN KEY (agent_assigne_id) REFERENCES agent_technique (id);
+ALTER TABLE tache_maintenance ADD CONSTRAINT FK9o9faivb6y4mavt5yunsyy8vj FOREIGN KEY (chambre_id) REFERENCES chambre (id);
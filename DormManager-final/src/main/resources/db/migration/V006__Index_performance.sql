@@ -0,0 +1,19 @@
+-- Index composites des predicats les plus frequents (verifies par PlansExecutionTest).
+-- reclamation (status, date_envoi) est deja couvert par idx_reclamation_status_date_id.
+
+-- Derniere affectation d'un etudiant (findTopByEtudiantIdOrderByDateDebutDesc)
+CREATE INDEX idx_affectation_etudiant_debut ON affectation (etudiant_id, date_debut);
+
+-- Affectations actives ou plus recentes d'une chambre (existsActiveAffectationForChambre,
+-- sous-requetes NOT EXISTS des fins de sejour)
+CREATE INDEX idx_affectation_chambre_fin ON affectation (chambre_id, date_fin);
+
+-- Notifications non lues et liste d'un utilisateur
+CREATE INDEX idx_notification_destinataire_lu_date ON notification (destinataire_id, lu, date);
+
+-- File des demandes par statut, les plus recentes d'abord
+CREATE INDEX idx_demande_statut_date ON demande_hebergement (statut, date_soumission);
+
+-- Inscriptions par periode (croissance du tableau de bord, countByDateCreationBetween) : la date
+-- d'abord car le comptage ne filtre pas le role ; les comptages par role ont deja idx_utilisateur_role_nom_id
+CREATE INDEX idx_utilisateur_date_creation_role ON utilisateur (date_creation, role);
@@ -0,0 +1,10 @@
+-- Battement de replication : instant (ms) ecrit periodiquement sur la base principale et relu
+-- sur la replique par SurveillanceReplique. L'instant visible sur la replique est sa position :
+-- toute ecriture validee avant cet instant y est deja appliquee.
+CREATE TABLE battement_replique (
+    id INTEGER NOT NULL,
+    instant BIGINT NOT NULL,
+    PRIMARY KEY (id)
+);
+
+INSERT INTO battement_replique (id, instant) VALUES (1, 0);
@@ -0,0 +1,78 @@
+package com.dormmanager.controller;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("EnvoiFichier Tests")
+class EnvoiFichierTest {
+
+    @TempDir
+    Path repertoire;
+
+    private MockHttpServletResponse envoyer(Path fichier, MockHttpServletRequest req) throws Exception {
+        MockHttpServletResponse resp = new MockHttpServletResponse();
+        EnvoiFichier.envoyer(fichier, "image/png", "abc", true, req, resp);
+        return resp;
+    }
+
+    @Test
+    @DisplayName("Should serve whole files, single byte ranges and unsatisfiable ranges")
+    void testPlages() throws Exception {
+        // Arrange
+        Path fichier = Files.writeString(repertoire.resolve("f"), "0123456789");
+        MockHttpServletRequest req = new MockHttpServletRequest("GET", "/");
+
+        // Act & Assert
+        MockHttpServletResponse entier = envoyer(fichier, req);
+        assertEquals(200, entier.getStatus());
+        assertEquals("0123456789", entier.getContentAsString());
+
+        req.addHeader("Range", "bytes=2-4");
+        MockHttpServletResponse partiel = envoyer(fichier, req);
+        assertEquals(206, partiel.getStatus());
+        assertEquals("bytes 2-4/10", partiel.getHeader("Content-Range"));
+        assertEquals("234", partiel.getContentAsString());
+
+        req = new MockHttpServletRequest("GET", "/");
+        req.addHeader("Range", "bytes=-3");
+        assertEquals("789", envoyer(fichier, req).getContentAsString());
+
+        req = new MockHttpServletRequest("GET", "/");
+        req.addHeader("Range", "bytes=20-");
+        MockHttpServletResponse horsPlage = envoyer(fichier, req);
+        assertEquals(416, horsPlage.getStatus());
+        assertEquals("bytes */10", horsPlage.getHeader("Content-Range"));
+    }
+
+    @Test
+    @DisplayName("Should hand the copy over to Tomcat sendfile when supported, and honour If-None-Match")
+    void testSendfileEtCache() throws Exception {
+        // Arrange
+        Path fichier = Files.writeString(repertoire.resolve("f"), "0123456789");
+        MockHttpServletRequest req = new MockHttpServletRequest("GET", "/");
+        req.setAttribute("org.apache.tomcat.sendfile.support", Boolean.TRUE);
+        req.addHeader("Range", "bytes=5-");
+
+        // Act
+        MockHttpServletResponse resp = envoyer(fichier, req);
+
+        // Assert
+        assertEquals(206, resp.getStatus());
+        assertEquals("", resp.getContentAsString());
+        assertEquals(5L, req.getAttribute("org.apache.tomcat.sendfile.start"));
+        assertEquals(10L, req.getAttribute("org.apache.tomcat.sendfile.end"));
+        assertEquals(fichier.toAbsolutePath().toString(), req.getAttribute("org.apache.tomcat.sendfile.filename"));
+
+        MockHttpServletRequest conditionnelle = new MockHttpServletRequest("GET", "/");
+        conditionnelle.addHeader("If-None-Match", "\"abc\"");
+        assertEquals(304, envoyer(fichier, conditionnelle).getStatus());
+    }
+}
@@ -0,0 +1,251 @@
+package com.dormmanager.datasource;
+
+import com.dormmanager.dto.EtatRepliqueDto;
+import org.flywaydb.core.Flyway;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import javax.sql.DataSource;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Routage lecture/écriture entre deux bases H2 en mémoire qui tiennent lieu de base
+ * principale et de réplique. La réplication est simulée : repliquer() recopie le battement
+ * de la principale sur la réplique.
+ */
+@DisplayName("RoutageDataSource Tests")
+class RoutageDataSourceTest {
+
+    private static final long RETARD_MAX_MS = 5000;
+
+    private static DataSource principale;
+    private static DataSource replique;
+
+    private final Clock[] horloge = {Clock.fixed(Instant.parse("2025-01-15T10:00:00Z"), ZoneOffset.UTC)};
+
+    private SurveillanceReplique surveillance;
+    private JdbcTemplate jdbc;
+    private TransactionTemplate ecriture;
+    private TransactionTemplate lecture;
+
+    @BeforeAll
+    static void creerBases() {
+        principale = base("routage-principale");
+        replique = base("routage-replique");
+    }
+
+    private static DataSource base(String nom) {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:" + nom + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1");
+        dataSource.setUser("sa");
+        Flyway.configure().dataSource(dataSource).load().migrate();
+        return dataSource;
+    }
+
+    @BeforeEach
+    void setUp() {
+        Clock horlogeTest = new Clock() {
+            @Override
+            public ZoneId getZone() {
+                return horloge[0].getZone();
+            }
+
+            @Override
+            public Clock withZone(ZoneId zone) {
+                return horloge[0].withZone(zone);
+            }
+
+            @Override
+            public Instant instant() {
+                return horloge[0].instant();
+            }
+        };
+        new JdbcTemplate(principale).update(SurveillanceReplique.ECRIRE_BATTEMENT, 0);
+        new JdbcTemplate(replique).update(SurveillanceReplique.ECRIRE_BATTEMENT, 0);
+
+        LectureApresEcriture lectureApresEcriture = new LectureApresEcriture(horlogeTest);
+        surveillance = new SurveillanceReplique(new JdbcTemplate(principale), new JdbcTemplate(replique),
+                lectureApresEcriture, RETARD_MAX_MS, horlogeTest);
+        DataSource routage = new LazyConnectionDataSourceProxy(
+                new RoutageDataSource(principale, replique, surveillance, lectureApresEcriture));
+        jdbc = new JdbcTemplate(routage);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(routage);
+        ecriture = new TransactionTemplate(transactionManager);
+        lecture = new TransactionTemplate(transactionManager);
+        lecture.setReadOnly(true);
+
+        // Réplique à jour : battement écrit, recopié, relu
+        surveillance.verifier();
+        repliquer();
+        surveillance.verifier();
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    private void repliquer() {
+        Long instant = new JdbcTemplate(principale).queryForObject(SurveillanceReplique.LIRE_BATTEMENT, Long.class);
+        new JdbcTemplate(replique).update(SurveillanceReplique.ECRIRE_BATTEMENT, instant);
+    }
+
+    private void avancer(long millis) {
+        horloge[0] = Clock.offset(horloge[0], Duration.ofMillis(millis));
+    }
+
+    private String baseLue() {
+        return lecture.execute(status -> jdbc.queryForObject("SELECT DATABASE()", String.class));
+    }
+
+    private String baseEcrite() {
+        return ecriture.execute(status -> {
+            jdbc.update("UPDATE chambre SET etat = 'disponible' WHERE etat = 'disponible'");
+            return jdbc.queryForObject("SELECT DATABASE()", String.class);
+        });
+    }
+
+    // Transaction ni readOnly ni écrivante : ce que fait un service sans @Transactional(readOnly = true)
+    private String baseConsultee() {
+        return ecriture.execute(status -> jdbc.queryForObject("SELECT DATABASE()", String.class));
+    }
+
+    private static void client(String autorisation) {
+        MockHttpServletRequest requete = new MockHttpServletRequest();
+        requete.addHeader("Authorization", autorisation);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(requete));
+    }
+
+    @Test
+    @DisplayName("Should route read-only transactions to the replica and the others to the primary")
+    void testRoutage() {
+        // Act & Assert
+        assertEquals("routage-replique", baseLue());
+        assertEquals("routage-principale", baseEcrite());
+        assertEquals("routage-principale", jdbc.queryForObject("SELECT DATABASE()", String.class)); // hors transaction
+        assertEquals(1, surveillance.getEtat().getLecturesReplique());
+    }
+
+    @Test
+    @DisplayName("Should read from the primary after a write until the replica has caught up")
+    void testLectureApresEcriture() {
+        // Arrange
+        avancer(10);
+        baseEcrite();
+
+        // Act & Assert : battement suivant pas encore répliqué
+        assertEquals("routage-principale", baseLue());
+        avancer(10);
+        surveillance.verifier();
+        assertEquals("routage-principale", baseLue());
+
+        repliquer();
+        surveillance.verifier();
+        assertEquals("routage-replique", baseLue());
+        assertEquals(2, surveillance.getEtat().getLecturesPrincipaleApresEcriture());
+    }
+
+    @Test
+    @DisplayName("Should not pin the client to the primary after a transaction that only read")
+    void testTransactionSansEcriture() {
+        // Arrange
+        avancer(10);
+
+        // Act
+        String base = baseConsultee();
+
+        // Assert : la transaction lit sur la principale, les lectures suivantes restent sur la réplique
+        assertEquals("routage-principale", base);
+        assertEquals("routage-replique", baseLue());
+        assertEquals(0, surveillance.getEtat().getLecturesPrincipaleApresEcriture());
+    }
+
+    @Test
+    @DisplayName("Should read from the primary after a write made outside a transaction")
+    void testEcritureHorsTransaction() {
+        // Arrange : auto-commit, l'écriture est validée aussitôt
+        avancer(10);
+        jdbc.update("UPDATE chambre SET etat = 'disponible' WHERE etat = 'disponible'");
+
+        // Act & Assert
+        assertEquals("routage-principale", baseLue());
+    }
+
+    @Test
+    @DisplayName("Should keep other clients on the replica after a client wrote")
+    void testLectureApresEcritureParClient() throws Exception {
+        // Arrange : écriture du client A sur un autre thread (une autre requête HTTP)
+        avancer(10);
+        Thread requete = new Thread(() -> {
+            client("Bearer a");
+            baseEcrite();
+        });
+        requete.start();
+        requete.join();
+
+        // Act & Assert
+        client("Bearer b");
+        assertEquals("routage-replique", baseLue());
+        client("Bearer a");
+        assertEquals("routage-principale", baseLue());
+        assertEquals(1, surveillance.getEtat().getClientsSuivis());
+    }
+
+    @Test
+    @DisplayName("Should fall back to the primary when the replica lags behind")
+    void testRetard() {
+        // Arrange : battements non répliqués
+        avancer(RETARD_MAX_MS + 1);
+        surveillance.verifier();
+
+        // Act
+        String base = baseLue();
+
+        // Assert
+        assertEquals("routage-principale", base);
+        EtatRepliqueDto etat = surveillance.getEtat();
+        assertFalse(etat.isDisponible());
+        assertEquals(RETARD_MAX_MS + 1, etat.getRetardMs());
+        assertEquals(1, etat.getLecturesPrincipaleRetard());
+
+        repliquer();
+        surveillance.verifier();
+        assertEquals("routage-replique", baseLue());
+    }
+
+    @Test
+    @DisplayName("Should fall back to the primary when the replica is unreachable")
+    void testRepliqueInjoignable() {
+        // Arrange : base absente (IFEXISTS), toute connexion échoue
+        JdbcDataSource absente = new JdbcDataSource();
+        absente.setURL("jdbc:h2:mem:routage-absente;IFEXISTS=TRUE");
+        LectureApresEcriture lectureApresEcriture = new LectureApresEcriture(Clock.systemUTC());
+        SurveillanceReplique injoignable = new SurveillanceReplique(new JdbcTemplate(principale),
+                new JdbcTemplate(absente), lectureApresEcriture, RETARD_MAX_MS, Clock.systemUTC());
+
+        // Act
+        injoignable.verifier();
+
+        // Assert
+        assertFalse(injoignable.lireSurReplique(Long.MIN_VALUE));
+        assertNull(injoignable.getEtat().getRetardMs());
+        assertNotNull(injoignable.getEtat().getDerniereVerification());
+    }
+}
@@ -0,0 +1,41 @@
+package com.dormmanager.metrics;
+
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Assertion de test : un appel (de service, de repository) exécute au plus N instructions
+ * SQL. En cas de dépassement, le message donne l'instruction la plus répétée, ce qui
+ * suffit en général à reconnaître un N+1.
+ *
+ *   List<DemandeHebergementDto> demandes = BudgetSql.auPlus(1, service::getDemandesEnAttente);
+ */
+public final class BudgetSql {
+
+    private BudgetSql() {
+    }
+
+    public static <T> T auPlus(int maximum, Supplier<T> appel) {
+        CompteurRequetes.demarrer();
+        T resultat;
+        CompteurRequetes.Bilan bilan;
+        try {
+            resultat = appel.get();
+        } finally {
+            bilan = CompteurRequetes.arreter();
+        }
+        if (bilan.instructions() > maximum) {
+            fail(bilan.instructions() + " instructions SQL au lieu de " + maximum + " au plus ; la plus répétée ("
+                    + bilan.repetitions() + " fois) : " + bilan.plusRepetee());
+        }
+        return resultat;
+    }
+
+    public static void auPlus(int maximum, Runnable appel) {
+        auPlus(maximum, () -> {
+            appel.run();
+            return null;
+        });
+    }
+}
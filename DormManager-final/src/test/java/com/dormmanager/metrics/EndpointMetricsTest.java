@@ -0,0 +1,161 @@
+package com.dormmanager.metrics;
+
+import com.dormmanager.controller.AuthController;
+import com.dormmanager.entity.Utilisateur;
+import com.sun.management.ThreadMXBean;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("EndpointMetrics Tests")
+class EndpointMetricsTest {
+
+    private EndpointMetrics metrics;
+
+    @BeforeEach
+    void setUp() {
+        metrics = new EndpointMetrics();
+    }
+
+    @Test
+    @DisplayName("Should expose latency buckets, quantiles and errors per route, method and role")
+    void testPrometheus() {
+        // Arrange
+        long ms = TimeUnit.MILLISECONDS.toNanos(1);
+        metrics.enregistrer("GET", "/api/admin/stats", Utilisateur.Role.ADMIN, 200, 3 * ms);
+        metrics.enregistrer("GET", "/api/admin/stats", Utilisateur.Role.ADMIN, 200, 40 * ms);
+        metrics.enregistrer("GET", "/api/admin/stats", Utilisateur.Role.ADMIN, 500, 2000 * ms);
+        metrics.enregistrer("POST", "/api/demandes", null, 400, 8 * ms);
+
+        // Act
+        String texte = metrics.prometheus();
+
+        // Assert
+        String admin = "{method=\"GET\",uri=\"/api/admin/stats\",role=\"ADMIN\"";
+        assertTrue(texte.contains("# TYPE dormmanager_http_requests_seconds histogram\n"));
+        assertTrue(texte.contains("dormmanager_http_requests_seconds_bucket" + admin + ",le=\"0.005\"} 1\n"));
+        assertTrue(texte.contains("dormmanager_http_requests_seconds_bucket" + admin + ",le=\"0.05\"} 2\n"));
+        assertTrue(texte.contains("dormmanager_http_requests_seconds_bucket" + admin + ",le=\"+Inf\"} 3\n"));
+        assertTrue(texte.contains("dormmanager_http_requests_seconds_count" + admin + "} 3\n"));
+        assertTrue(texte.contains("dormmanager_http_requests_seconds_sum" + admin + "} 2.043\n"));
+        assertTrue(texte.contains("dormmanager_http_errors_total" + admin + ",status=\"5xx\"} 1\n"));
+        assertTrue(texte.contains("dormmanager_http_errors_total{method=\"POST\",uri=\"/api/demandes\",role=\"ANONYME\",status=\"4xx\"} 1\n"));
+        assertTrue(texte.contains("dormmanager_http_requests_latency_seconds" + admin + ",quantile=\"0.5\"} 0.04"));
+
+        // Les lectures suivantes cumulent depuis le démarrage
+        metrics.enregistrer("GET", "/api/admin/stats", Utilisateur.Role.ADMIN, 200, ms);
+        assertTrue(metrics.prometheus().contains("dormmanager_http_requests_seconds_count" + admin + "} 4\n"));
+    }
+
+    @Test
+    @DisplayName("Should not allocate when recording into an existing series")
+    void testSansAllocation() {
+        // Arrange
+        ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        String route = "/api/notifications/me";
+        for (int i = 0; i < 20_000; i++) {
+            metrics.enregistrer("GET", route, Utilisateur.Role.ETUDIANT, 200, i * 1000L);
+        }
+
+        // Act
+        long avant = threads.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < 100_000; i++) {
+            metrics.enregistrer("GET", route, Utilisateur.Role.ETUDIANT, i % 50 == 0 ? 500 : 200, i * 1000L);
+        }
+        long alloue = threads.getCurrentThreadAllocatedBytes() - avant;
+
+        // Assert : quelques octets tolérés (mesure elle-même), rien par requête
+        assertTrue(alloue < 10_000, "octets alloués : " + alloue);
+    }
+
+    @Test
+    @DisplayName("Should not allocate when the filter resolves the session role and records the request")
+    void testFilterSansAllocation() throws Exception {
+        // Arrange : requête et réponse qui répondent sans allouer, pour ne mesurer que le filtre
+        ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        EndpointMetricsFilter filter = new EndpointMetricsFilter(metrics);
+        AuthController.ouvrirSession("jeton-allocation", new AuthController.Session(42L, Utilisateur.Role.ETUDIANT));
+        String autorisation = "Bearer jeton-allocation";
+        HttpServletRequest request = new HttpServletRequestWrapper(new MockHttpServletRequest()) {
+            @Override
+            public String getHeader(String name) {
+                return "Authorization".equals(name) ? autorisation : null;
+            }
+
+            @Override
+            public Object getAttribute(String name) {
+                return HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE.equals(name) ? "/api/etudiants/{id}" : null;
+            }
+
+            @Override
+            public String getMethod() {
+                return "GET";
+            }
+        };
+        HttpServletResponse response = new HttpServletResponseWrapper(new MockHttpServletResponse()) {
+            @Override
+            public int getStatus() {
+                return 200;
+            }
+        };
+        FilterChain chain = (req, res) -> { };
+        for (int i = 0; i < 20_000; i++) {
+            filter.doFilterInternal(request, response, chain);
+        }
+
+        // Act
+        long avant = threads.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < 100_000; i++) {
+            filter.doFilterInternal(request, response, chain);
+        }
+        long alloue = threads.getCurrentThreadAllocatedBytes() - avant;
+        AuthController.fermerSession("jeton-allocation");
+
+        // Assert
+        assertTrue(alloue < 10_000, "octets alloués : " + alloue);
+        assertTrue(metrics.prometheus().contains(
+                "dormmanager_http_requests_seconds_count{method=\"GET\",uri=\"/api/etudiants/{id}\",role=\"ETUDIANT\"} 120000\n"));
+    }
+
+    @Test
+    @DisplayName("Should record the controller route and the role of the request's session")
+    void testFilter() throws Exception {
+        // Arrange
+        EndpointMetricsFilter filter = new EndpointMetricsFilter(metrics);
+        AuthController.ouvrirSession("jeton-metrics", new AuthController.Session(42L, Utilisateur.Role.ETUDIANT));
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/etudiants/42");
+        request.addHeader("Authorization", "Bearer jeton-metrics");
+        MockFilterChain chain = new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest req, HttpServletResponse res) {
+                req.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/etudiants/{id}");
+                res.setStatus(404);
+            }
+        });
+
+        // Act
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+        filter.doFilter(new MockHttpServletRequest("GET", "/inconnu"), new MockHttpServletResponse(), new MockFilterChain());
+        AuthController.fermerSession("jeton-metrics");
+
+        // Assert
+        String texte = metrics.prometheus();
+        assertTrue(texte.contains("dormmanager_http_errors_total{method=\"GET\",uri=\"/api/etudiants/{id}\",role=\"ETUDIANT\",status=\"4xx\"} 1\n"));
+        assertTrue(texte.contains("dormmanager_http_requests_seconds_count{method=\"GET\",uri=\"AUTRE\",role=\"ANONYME\"} 1\n"));
+    }
+}
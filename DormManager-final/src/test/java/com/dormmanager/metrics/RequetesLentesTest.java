@@ -0,0 +1,152 @@
+package com.dormmanager.metrics;
+
+import com.dormmanager.dto.RequeteLenteDto;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("RequetesLentes Tests")
+class RequetesLentesTest {
+
+    private static final long MS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    @Test
+    @DisplayName("Should time statements through the proxy and capture bound parameters and the calling method")
+    void testCaptureJdbc() throws Exception {
+        // Arrange : seuil à zéro, toute exécution est lente
+        RequetesLentes requetesLentes = new RequetesLentes(0, 10, Duration.ofHours(1), Clock.systemDefaultZone());
+        JdbcDataSource h2 = new JdbcDataSource();
+        h2.setURL("jdbc:h2:mem:requetes-lentes;DB_CLOSE_DELAY=-1");
+        RequetesLentesDataSource dataSource = new RequetesLentesDataSource(h2, requetesLentes);
+
+        // Act
+        try (Connection connexion = dataSource.getConnection()) {
+            try (Statement statement = connexion.createStatement()) {
+                statement.execute("CREATE TABLE chambre (id INT PRIMARY KEY, etat VARCHAR(20))");
+            }
+            try (PreparedStatement insertion = connexion.prepareStatement("INSERT INTO chambre VALUES (?, ?)")) {
+                insertion.setInt(1, 1);
+                insertion.setString(2, "Disponible");
+                insertion.executeUpdate();
+                insertion.clearParameters();
+                insertion.setInt(1, 2);
+                insertion.setNull(2, java.sql.Types.VARCHAR);
+                insertion.executeUpdate();
+            }
+            try (PreparedStatement requete = connexion.prepareStatement("SELECT id FROM chambre WHERE LOWER(etat) = ?")) {
+                requete.setString(1, "x".repeat(500));
+                try (ResultSet resultat = requete.executeQuery()) {
+                    assertFalse(resultat.next());
+                }
+                assertSame(connexion, requete.getConnection());
+            }
+        }
+
+        // Assert
+        List<RequeteLenteDto> lentes = requetesLentes.getRequetesLentes();
+        assertEquals(3, lentes.size());
+        RequeteLenteDto insertion = trouver(lentes, "INSERT INTO chambre VALUES (?, ?)");
+        assertEquals(2, insertion.getExecutionsLentes());
+        assertTrue(List.of(List.of("1", "Disponible"), List.of("2", "NULL")).contains(insertion.getParametres()));
+        assertTrue(insertion.getOrigine().startsWith("RequetesLentesTest.testCaptureJdbc:"), insertion.getOrigine());
+        assertTrue(trouver(lentes, "CREATE TABLE chambre (id INT PRIMARY KEY, etat VARCHAR(20))").getParametres().isEmpty());
+        String parametre = trouver(lentes, "SELECT id FROM chambre WHERE LOWER(etat) = ?").getParametres().get(0);
+        assertEquals(RequetesLentes.LONGUEUR_MAX_PARAMETRE + 1, parametre.length());
+    }
+
+    @Test
+    @DisplayName("Should keep the N slowest statements of the window, slowest first")
+    void testTopNGlissant() {
+        // Arrange
+        Instant debut = Instant.parse("2025-01-15T10:00:00Z");
+        Clock[] horloge = {Clock.fixed(debut, ZoneId.of("UTC"))};
+        RequetesLentes requetesLentes = new RequetesLentes(100, 2, Duration.ofMinutes(60), new Clock() {
+            @Override
+            public ZoneId getZone() {
+                return horloge[0].getZone();
+            }
+
+            @Override
+            public Clock withZone(ZoneId zone) {
+                return horloge[0].withZone(zone);
+            }
+
+            @Override
+            public Instant instant() {
+                return horloge[0].instant();
+            }
+        });
+
+        // Act
+        requetesLentes.enregistrer("rapide", null, 0, 50 * MS); // sous le seuil
+        requetesLentes.enregistrer("a", null, 0, 300 * MS);
+        requetesLentes.enregistrer("b", null, 0, 200 * MS);
+        requetesLentes.enregistrer("c", null, 0, 150 * MS); // moins lente que a et b : ignorée
+        requetesLentes.enregistrer("d", null, 0, 400 * MS); // remplace b
+        requetesLentes.enregistrer("a", null, 0, 250 * MS); // plus rapide que la capture de a : comptée seulement
+
+        // Assert
+        List<RequeteLenteDto> lentes = requetesLentes.getRequetesLentes();
+        assertEquals(List.of("d", "a"), lentes.stream().map(RequeteLenteDto::getSql).toList());
+        assertEquals(300, lentes.get(1).getDureeMs());
+        assertEquals(2, lentes.get(1).getExecutionsLentes());
+
+        horloge[0] = Clock.fixed(debut.plus(Duration.ofMinutes(61)), ZoneId.of("UTC"));
+        assertTrue(requetesLentes.getRequetesLentes().isEmpty());
+        requetesLentes.enregistrer("c", null, 0, 150 * MS);
+        assertEquals(List.of("c"), requetesLentes.getRequetesLentes().stream().map(RequeteLenteDto::getSql).toList());
+        requetesLentes.reinitialiser();
+        assertTrue(requetesLentes.getRequetesLentes().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should mask parameters bound to the password and email columns")
+    void testMasquage() {
+        // Arrange
+        RequetesLentes requetesLentes = new RequetesLentes(0, 10, Duration.ofHours(1), Clock.systemDefaultZone());
+        String insertHibernate = "insert into utilisateur (date_creation,email,mot_de_passe,nom,prenom,role,id) "
+                + "values (?,?,?,?,?,?,default)";
+        String insertImport = "INSERT INTO utilisateur (nom, prenom, email, mot_de_passe, role, date_creation) "
+                + "VALUES (?, ?, ?, ?, ?, ?)";
+        String update = "update utilisateur set email=?,mot_de_passe=?,nom=? where id=?";
+        String connexion = "select u1_0.id from utilisateur u1_0 where lower(u1_0.email)=? and u1_0.\"MOT_DE_PASSE\"=?";
+        String recherche = "select u1_0.id from utilisateur u1_0 where u1_0.email in (?,?) and u1_0.nom like ?";
+
+        // Act
+        requetesLentes.enregistrer(insertHibernate,
+                new Object[] {"2025-01-15", "sara@dorm.ma", "secret", "Benani", "Sara", "ETUDIANT"}, 6, MS);
+        requetesLentes.enregistrer(insertImport,
+                new Object[] {"Benani", "Sara", "sara@dorm.ma", "secret", "ETUDIANT", "2025-01-15"}, 6, MS);
+        requetesLentes.enregistrer(update, new Object[] {"sara@dorm.ma", "secret", "Benani", 7}, 4, MS);
+        requetesLentes.enregistrer(connexion, new Object[] {"sara@dorm.ma", "secret"}, 2, MS);
+        requetesLentes.enregistrer(recherche, new Object[] {"sara@dorm.ma", "ali@dorm.ma", "Ben%"}, 3, MS);
+
+        // Assert
+        List<RequeteLenteDto> lentes = requetesLentes.getRequetesLentes();
+        String m = RequetesLentes.MASQUE;
+        assertEquals(List.of("2025-01-15", m, m, "Benani", "Sara", "ETUDIANT"),
+                trouver(lentes, insertHibernate).getParametres());
+        assertEquals(List.of("Benani", "Sara", m, m, "ETUDIANT", "2025-01-15"),
+                trouver(lentes, insertImport).getParametres());
+        assertEquals(List.of(m, m, "Benani", "7"), trouver(lentes, update).getParametres());
+        assertEquals(List.of(m, m), trouver(lentes, connexion).getParametres());
+        assertEquals(List.of(m, m, "Ben%"), trouver(lentes, recherche).getParametres());
+    }
+
+    private static RequeteLenteDto trouver(List<RequeteLenteDto> lentes, String sql) {
+        return lentes.stream().filter(r -> r.getSql().equals(sql)).findFirst().orElseThrow();
+    }
+}
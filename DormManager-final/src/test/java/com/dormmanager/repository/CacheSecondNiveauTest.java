@@ -0,0 +1,122 @@
+package com.dormmanager.repository;
+
+import com.dormmanager.entity.Chambre;
+import com.dormmanager.entity.GestionnaireFoyer;
+import com.dormmanager.entity.Utilisateur;
+import com.dormmanager.metrics.BudgetSql;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Cache de second niveau (Chambre, Utilisateur) et cache de la requête findByRole, sur une
+ * base H2. Hors transaction de test : le cache n'est alimenté qu'au commit.
+ */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@DisplayName("CacheSecondNiveau Tests")
+class CacheSecondNiveauTest {
+
+    @Autowired
+    private ChambreRepository chambreRepository;
+
+    @Autowired
+    private UtilisateurRepository utilisateurRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private Long chambreId;
+
+    @BeforeEach
+    void setUp() {
+        Chambre chambre = new Chambre();
+        chambre.setNumero("A101");
+        chambre.setType("simple");
+        chambre.setEtat("disponible");
+        chambreId = chambreRepository.save(chambre).getId();
+        utilisateurRepository.save(gestionnaire("g1@test.ma"));
+        utilisateurRepository.save(gestionnaire("g2@test.ma"));
+
+        entityManagerFactory.getCache().evictAll();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        utilisateurRepository.deleteAll();
+        chambreRepository.deleteAll();
+    }
+
+    private static GestionnaireFoyer gestionnaire(String email) {
+        GestionnaireFoyer gestionnaire = new GestionnaireFoyer();
+        gestionnaire.setNom("Nom");
+        gestionnaire.setPrenom("Prenom");
+        gestionnaire.setEmail(email);
+        gestionnaire.setMotDePasse("secret");
+        gestionnaire.setRole(Utilisateur.Role.GESTIONNAIRE);
+        return gestionnaire;
+    }
+
+    @Test
+    @DisplayName("Should serve a room from the second-level cache after the first load")
+    void testChambreEnCache() {
+        // Arrange : premier chargement, mis en cache
+        chambreRepository.findById(chambreId).orElseThrow();
+
+        // Act
+        Chambre chambre = BudgetSql.auPlus(0, () -> chambreRepository.findById(chambreId).orElseThrow());
+
+        // Assert
+        assertEquals("A101", chambre.getNumero());
+        assertEquals(1, statistics.getSecondLevelCacheHitCount());
+    }
+
+    @Test
+    @DisplayName("Should see a room update made through JPA instead of the cached state")
+    void testChambreModifiee() {
+        // Arrange
+        Chambre chambre = chambreRepository.findById(chambreId).orElseThrow();
+        chambre.setEtat("maintenance");
+        chambreRepository.save(chambre);
+
+        // Act
+        Chambre relue = BudgetSql.auPlus(0, () -> chambreRepository.findById(chambreId).orElseThrow());
+
+        // Assert
+        assertEquals("maintenance", relue.getEtat());
+    }
+
+    @Test
+    @DisplayName("Should answer findByRole from the query cache until a user is written")
+    void testUtilisateursParRole() {
+        // Arrange : premier appel, identifiants et entités mis en cache
+        assertEquals(2, utilisateurRepository.findByRole(Utilisateur.Role.GESTIONNAIRE).size());
+
+        // Act
+        List<Utilisateur> gestionnaires = BudgetSql.auPlus(0,
+                () -> utilisateurRepository.findByRole(Utilisateur.Role.GESTIONNAIRE));
+
+        // Assert
+        assertEquals(2, gestionnaires.size());
+        assertEquals(1, statistics.getQueryCacheHitCount());
+
+        // Un nouvel utilisateur invalide les résultats en cache (table utilisateur modifiée)
+        utilisateurRepository.save(gestionnaire("g3@test.ma"));
+        assertEquals(3, utilisateurRepository.findByRole(Utilisateur.Role.GESTIONNAIRE).size());
+    }
+}
@@ -0,0 +1,57 @@
+package com.dormmanager.repository;
+
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.output.MigrateResult;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Reprise d'une base créée par Hibernate (ddl-auto=update) avant le passage aux migrations :
+ * schéma de V001 plus utilisateur.date_creation, sans historique Flyway. Elle est marquée à
+ * la version 4 comme en production (spring.flyway.baseline-version) puis migrée.
+ */
+@DisplayName("Migrations Tests")
+class MigrationsTest {
+
+    @Test
+    @DisplayName("Should migrate a database created before Flyway from the baseline version")
+    void testRepriseBaseExistante() {
+        // Arrange : base d'origine avec des données
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:migrations-reprise;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1");
+        dataSource.setUser("sa");
+        new ResourceDatabasePopulator(new ClassPathResource("db/migration/V001__Schema_initial.sql")).execute(dataSource);
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("ALTER TABLE utilisateur ADD COLUMN date_creation DATETIME(6)");
+        jdbc.update("INSERT INTO chambre (id, capacite, etat, numero, type) VALUES (1, 2, 'DISPONIBLE', 'A101', 'DOUBLE')");
+        jdbc.update("INSERT INTO incident (id, date_signalement, chambre_id, description, statut) VALUES "
+                + "(1, CURRENT_DATE, 1, 'fuite', 'OUVERT'), (2, CURRENT_DATE, 1, 'porte', 'FERME'), "
+                + "(3, CURRENT_DATE, 1, 'vitre', 'EN_COURS')");
+
+        // Act
+        Flyway flyway = Flyway.configure().dataSource(dataSource)
+                .baselineOnMigrate(true).baselineVersion("4").load();
+        MigrateResult resultat = flyway.migrate();
+
+        // Assert
+        assertEquals("4", resultat.initialSchemaVersion);
+        assertEquals("007", resultat.targetSchemaVersion);
+        assertDoesNotThrow(() -> flyway.validate());
+        List<String> tables = jdbc.queryForList("SELECT table_name FROM information_schema.tables "
+                + "WHERE table_schema = 'public'", String.class);
+        assertTrue(tables.containsAll(List.of("piece_jointe", "etat_des_lieux_photo", "tache_maintenance",
+                "battement_replique")));
+        assertEquals(List.of("OUVERT", "OUVERT", "EN_COURS"),
+                jdbc.queryForList("SELECT statut FROM incident ORDER BY id", String.class));
+        assertEquals(0, jdbc.queryForObject("SELECT COUNT(*) FROM incident WHERE specialite IS NOT NULL "
+                + "OR date_resolution IS NOT NULL", Integer.class));
+    }
+}
@@ -0,0 +1,125 @@
+package com.dormmanager.repository;
+
+import com.dormmanager.tools.SyntheticDataGenerator;
+import org.flywaydb.core.Flyway;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Plans d'exécution des requêtes les plus fréquentes sur le schéma des migrations Flyway
+ * (H2 en mode MySQL, jeu de données synthétique) : chaque requête doit passer par son
+ * index, jamais par un parcours complet de la table. Le SQL reprend celui qu'Hibernate
+ * génère pour la méthode de repository citée.
+ */
+@DisplayName("PlansExecution Tests")
+class PlansExecutionTest {
+
+    private static JdbcTemplate jdbc;
+
+    @BeforeAll
+    static void setUp() {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:plans-execution;MODE=MySQL;DATABASE_TO_LOWER=TRUE;"
+                + "DEFAULT_NULL_ORDERING=HIGH;DB_CLOSE_DELAY=-1");
+        dataSource.setUser("sa");
+        Flyway.configure().dataSource(dataSource).load().migrate();
+        jdbc = new JdbcTemplate(dataSource);
+        new SyntheticDataGenerator(jdbc, SyntheticDataGenerator.Volumes.pour(1000, 300), 42).generer();
+        jdbc.execute("ANALYZE");
+    }
+
+    @Test
+    @DisplayName("Should find the latest affectation of a student through (etudiant_id, date_debut)")
+    void testDerniereAffectationEtudiant() {
+        // AffectationRepository.findTopByEtudiantIdOrderByDateDebutDesc
+        assertIndex("idx_affectation_etudiant_debut", "a",
+                "SELECT a.id FROM affectation a WHERE a.etudiant_id = 10 ORDER BY a.date_debut DESC LIMIT 1");
+    }
+
+    @Test
+    @DisplayName("Should check the active affectations of a room through (chambre_id, date_fin)")
+    void testAffectationsActivesChambre() {
+        // AffectationRepository.existsActiveAffectationForChambre
+        assertIndex("idx_affectation_chambre_fin", "a",
+                "SELECT COUNT(a.id) FROM affectation a "
+                        + "WHERE a.chambre_id = 10 AND (a.date_fin IS NULL OR a.date_fin >= DATE '2025-01-15')");
+    }
+
+    @Test
+    @DisplayName("Should join expired stays to occupied rooms and resolve NOT EXISTS without a full scan")
+    void testFinsDeSejour() {
+        // AffectationRepository.findExpiredIdsWithoutNewerOnes : chambres occupées puis leurs
+        // affectations terminées par (chambre_id, date_fin) ; la sous-requête ne filtre que
+        // chambre_id par égalité, n'importe quel index qui commence par chambre_id convient
+        String plan = plan("SELECT a.id FROM affectation a JOIN chambre c ON c.id = a.chambre_id "
+                + "WHERE a.date_fin IS NOT NULL AND a.date_fin < DATE '2025-01-15' AND c.etat = 'occupee' "
+                + "AND NOT EXISTS (SELECT 1 FROM affectation a2 WHERE a2.chambre_id = a.chambre_id "
+                + "AND a2.id <> a.id AND (a2.date_fin IS NULL OR a2.date_fin >= DATE '2025-01-15' "
+                + "OR a2.date_debut > a.date_debut OR (a2.date_debut = a.date_debut AND a2.id > a.id)))");
+        assertEquals("idx_affectation_chambre_fin", acces(plan, "a"), plan);
+        assertEquals("idx_chambre_etat_type_capacite", acces(plan, "c"), plan);
+        assertNotNull(acces(plan, "a2"), plan);
+    }
+
+    @Test
+    @DisplayName("Should count unread notifications through (destinataire_id, lu, date)")
+    void testNotificationsNonLues() {
+        // NotificationRepository.countByDestinataireAndLuFalse
+        assertIndex("idx_notification_destinataire_lu_date", "n",
+                "SELECT COUNT(n.id) FROM notification n WHERE n.destinataire_id = 10 AND n.lu = FALSE");
+    }
+
+    @Test
+    @DisplayName("Should list pending requests by status and date through (statut, date_soumission)")
+    void testDemandesParStatut() {
+        // DemandeHebergementRepository.findByStatutOrderByDateSoumissionDesc
+        assertIndex("idx_demande_statut_date", "d",
+                "SELECT d.id FROM demande_hebergement d WHERE d.statut = 'EN_ATTENTE' ORDER BY d.date_soumission DESC");
+    }
+
+    @Test
+    @DisplayName("Should page complaints by status through (status, date_envoi, id)")
+    void testReclamationsParStatut() {
+        // ReclamationRepository.findFileRecentes
+        assertIndex("idx_reclamation_status_date_id", "r",
+                "SELECT r.id FROM reclamation r WHERE r.status = 'EN_ATTENTE' "
+                        + "ORDER BY r.date_envoi DESC, r.id DESC LIMIT 20");
+    }
+
+    @Test
+    @DisplayName("Should count sign-ups of a month through (date_creation, role)")
+    void testInscriptionsDuMois() {
+        // UtilisateurRepository.countByDateCreationBetween
+        assertIndex("idx_utilisateur_date_creation_role", "u",
+                "SELECT COUNT(u.id) FROM utilisateur u WHERE u.date_creation >= TIMESTAMP '2025-01-01 00:00:00' "
+                        + "AND u.date_creation < TIMESTAMP '2025-02-01 00:00:00'");
+    }
+
+    private static void assertIndex(String index, String alias, String sql) {
+        String plan = plan(sql);
+        assertEquals(index, acces(plan, alias), plan);
+    }
+
+    private static String plan(String sql) {
+        return jdbc.queryForObject("EXPLAIN " + sql, String.class);
+    }
+
+    /**
+     * Index par lequel la table d'alias donné est lue (EXPLAIN de H2 : "alias" suivi de
+     * public.index en commentaire). Un parcours complet (public.table.tableScan) fait échouer.
+     */
+    private static String acces(String plan, String alias) {
+        Matcher acces = Pattern.compile("\"" + alias + "\"\\s*/\\*\\s*public\\.([\\w.]+)").matcher(plan);
+        assertTrue(acces.find(), plan);
+        assertFalse(acces.group(1).endsWith("tableScan"), "Parcours complet de " + alias + " :\n" + plan);
+        return acces.group(1);
+    }
+}
@@ -0,0 +1,145 @@
+package com.dormmanager.search;
+
+import com.dormmanager.dto.EtudiantSuggestionDto;
+import com.dormmanager.repository.EtudiantRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("EtudiantSearchIndex Tests")
+class EtudiantSearchIndexTest {
+
+    private static final int CHAUFFE = 2000;
+    private static final int LATENCES = 200;
+
+    @Mock
+    private EtudiantRepository etudiantRepository;
+
+    private EtudiantSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new EtudiantSearchIndex(etudiantRepository);
+        when(etudiantRepository.findFichesRecherche()).thenReturn(List.of(
+                new Object[] {1L, "Alaoui", "Sara", "2023-INF-001", "sara.alaoui@uiz.ac.ma", "Informatique"},
+                new Object[] {2L, "Bennani", "Omar", "2023-GC-014", "omar.b@uiz.ac.ma", "Génie civil"},
+                new Object[] {3L, "El Amrani", "Salma", "2022-INF-107", "s.amrani@uiz.ac.ma", "Informatique"}));
+        index.reconstruire();
+    }
+
+    private static List<Long> ids(List<EtudiantSuggestionDto> resultats) {
+        return resultats.stream().map(EtudiantSuggestionDto::getId).toList();
+    }
+
+    @Test
+    @DisplayName("Should find students by prefix of nom, prenom, matricule or filiere, ignoring case and accents")
+    void testRechercherParPrefixe() {
+        assertEquals(List.of(1L), ids(index.rechercher("ala", 10)));
+        assertEquals(List.of(1L, 3L), ids(index.rechercher("sa", 10)));
+        assertEquals(List.of(2L), ids(index.rechercher("GENIE", 10)));
+        // "2023inf001" est à une faute près : il vient après la correspondance exacte
+        assertEquals(3L, index.rechercher("2022inf", 10).get(0).getId());
+    }
+
+    @Test
+    @DisplayName("Should require every word of the query and rank exact words first")
+    void testRechercherPlusieursMots() {
+        assertEquals(List.of(3L), ids(index.rechercher("info salma", 10)));
+        List<EtudiantSuggestionDto> resultats = index.rechercher("informatique a", 10);
+        assertEquals(2, resultats.size());
+        assertTrue(resultats.get(0).getScore() >= resultats.get(1).getScore());
+    }
+
+    @Test
+    @DisplayName("Should tolerate small typos")
+    void testRechercherAvecFaute() {
+        assertEquals(List.of(1L), ids(index.rechercher("alauoi", 10)));
+        assertEquals(List.of(2L), ids(index.rechercher("benanni", 10)));
+        assertTrue(index.rechercher("xyzxyz", 10).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should apply updates and removals incrementally")
+    void testMiseAJourIncrementale() {
+        index.indexer(4L, "Zahiri", "Yassine", "2024-INF-009", "y.zahiri@uiz.ac.ma", "Informatique");
+        index.indexer(1L, "Alaoui-Idrissi", "Sara", "2023-INF-001", "sara.alaoui@uiz.ac.ma", "Physique");
+        index.retirer(2L);
+
+        assertEquals(List.of(4L), ids(index.rechercher("zah", 10)));
+        assertEquals(List.of(1L), ids(index.rechercher("idrissi", 10)));
+        assertEquals(List.of(3L, 4L), ids(index.rechercher("informatique", 10)));
+        assertTrue(index.rechercher("bennani", 10).isEmpty());
+        assertEquals(3, index.taille());
+    }
+
+    @Test
+    @DisplayName("Should defer updates made inside a transaction until commit")
+    void testMiseAJourApresCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            index.indexer(5L, "Tazi", "Karim", "2024-GC-001", "k.tazi@uiz.ac.ma", "Génie civil");
+            assertTrue(index.rechercher("tazi", 10).isEmpty());
+
+            TransactionSynchronizationUtils.triggerAfterCommit();
+            assertEquals(List.of(5L), ids(index.rechercher("tazi", 10)));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @DisplayName("Should find typos on 100k students within the typeahead latency budget")
+    void testVolume() {
+        String[] noms = {"Alaoui", "Bennani", "Chraibi", "Daoudi", "El Fassi", "Filali", "Ghazi", "Haddad",
+                "Idrissi", "Jabri", "Kettani", "Lahlou", "Mansouri", "Naciri", "Ouazzani", "Qadiri"};
+        String[] prenoms = {"Sara", "Omar", "Nadia", "Youssef", "Salma", "Karim", "Imane", "Mehdi"};
+        List<Object[]> lignes = new ArrayList<>();
+        for (long i = 0; i < 100_000; i++) {
+            String nom = noms[(int) (i % noms.length)] + (i % 997);
+            lignes.add(new Object[] {i, nom, prenoms[(int) (i % prenoms.length)], "M" + i,
+                    "e" + i + "@uiz.ac.ma", "Filiere" + (i % 40)});
+        }
+        when(etudiantRepository.findFichesRecherche()).thenReturn(lignes);
+        index.reconstruire();
+
+        // Act : faute de frappe (n manquant, lettres inversées), aucun préfixe ne correspond
+        List<EtudiantSuggestionDto> fautes = index.rechercher("benani12", 10);
+        List<EtudiantSuggestionDto> inversions = index.rechercher("kettnai5", 10);
+        List<EtudiantSuggestionDto> matricules = index.rechercher("m4242", 10);
+        String[] saisies = {"benani12", "e4242x", "kettnai5", "e42x2x"};
+        for (int i = 0; i < CHAUFFE; i++) {
+            index.rechercher(saisies[i % saisies.length], 10); // compilation JIT
+        }
+        long[] latences = new long[LATENCES];
+        for (int i = 0; i < LATENCES; i++) {
+            long debut = System.nanoTime();
+            index.rechercher(saisies[i % saisies.length], 10);
+            latences[i] = System.nanoTime() - debut;
+        }
+
+        // Assert : objectif du typeahead, 5 ms à 100 000 étudiants (médiane, une pause GC
+        // isolée ne fait pas échouer le test ; le détail est dans RechercheEtudiantBenchmark)
+        assertEquals(10, fautes.size());
+        assertTrue(fautes.stream().allMatch(s -> s.getNom().startsWith("Bennani")));
+        assertEquals(10, inversions.size());
+        assertTrue(inversions.stream().allMatch(s -> s.getNom().startsWith("Kettani")));
+        assertEquals(1, matricules.stream().filter(s -> s.getId() == 4242L).count());
+        Arrays.sort(latences);
+        long mediane = latences[LATENCES / 2];
+        assertTrue(mediane < TimeUnit.MILLISECONDS.toNanos(5), "médiane : " + mediane / 1000 + " µs");
+    }
+}
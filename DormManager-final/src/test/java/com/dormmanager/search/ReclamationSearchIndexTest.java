@@ -0,0 +1,89 @@
+package com.dormmanager.search;
+
+import com.dormmanager.entity.Etudiant;
+import com.dormmanager.entity.Reclamation;
+import com.dormmanager.entity.Reclamation.StatutReclamation;
+import com.dormmanager.repository.ReclamationRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ReclamationSearchIndex Tests")
+class ReclamationSearchIndexTest {
+
+    @Mock
+    private ReclamationRepository reclamationRepository;
+
+    private ReclamationSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new ReclamationSearchIndex(reclamationRepository);
+        when(reclamationRepository.findDocumentsRecherche()).thenReturn(List.of(
+                new Object[] {1L, "Fuite d'eau sous le lavabo, l'eau coule partout", StatutReclamation.EN_ATTENTE,
+                        LocalDate.of(2024, 3, 1), 10L},
+                new Object[] {2L, "Les fuites du plafond ne sont toujours pas réparées", StatutReclamation.EN_COURS,
+                        LocalDate.of(2024, 3, 5), 11L},
+                new Object[] {3L, "Le chauffage ne marche pas et la fenêtre ferme mal", null,
+                        LocalDate.of(2024, 2, 10), 10L},
+                new Object[] {4L, "Bruit la nuit dans le couloir", StatutReclamation.RESOLUE,
+                        LocalDate.of(2024, 1, 20), 12L}));
+        index.reconstruire();
+    }
+
+    private static List<Long> ids(List<ReclamationSearchIndex.Resultat> resultats) {
+        return resultats.stream().map(ReclamationSearchIndex.Resultat::getId).toList();
+    }
+
+    @Test
+    @DisplayName("Should rank messages by BM25, matching plurals and ignoring stop words")
+    void testRechercherClassement() {
+        // "eau" apparaît deux fois dans la réclamation 1
+        assertEquals(List.of(1L, 2L), ids(index.rechercher("fuite eau", null, null, null, 10)));
+        assertEquals(List.of(2L, 1L), ids(index.rechercher("fuites plafond", null, null, null, 10)));
+        assertTrue(index.rechercher("le la les", null, null, null, 10).isEmpty());
+        assertEquals(List.of(3L), ids(index.rechercher("FENETRE", null, null, null, 10)));
+    }
+
+    @Test
+    @DisplayName("Should combine the ranking with statut and date filters")
+    void testRechercherAvecFiltres() {
+        assertEquals(List.of(2L), ids(index.rechercher("fuite", StatutReclamation.EN_COURS, null, null, 10)));
+        assertEquals(List.of(3L), ids(index.rechercher("chauffage", StatutReclamation.EN_ATTENTE, null, null, 10)));
+        assertEquals(List.of(1L), ids(index.rechercher("fuite", null, null, LocalDate.of(2024, 3, 1), 10)));
+        assertEquals(List.of(2L), ids(index.rechercher("fuite", null, LocalDate.of(2024, 3, 2), null, 10)));
+        // Le tas borné garde le meilleur résultat (message le plus court à fréquence égale)
+        assertEquals(List.of(2L, 1L), ids(index.rechercher("fuite", null, null, null, 10)));
+        assertEquals(List.of(2L), ids(index.rechercher("fuite", null, null, null, 1)));
+    }
+
+    @Test
+    @DisplayName("Should follow creations, status changes and author deletions")
+    void testMisesAJour() {
+        Etudiant auteur = new Etudiant();
+        auteur.setId(13L);
+        Reclamation nouvelle = new Reclamation();
+        nouvelle.setId(5L);
+        nouvelle.setMessage("Prise électrique cassée");
+        nouvelle.setDateEnvoi(LocalDate.of(2024, 3, 8));
+        nouvelle.setUtilisateur(auteur);
+        index.indexer(nouvelle);
+        index.changerStatut(1L, StatutReclamation.RESOLUE);
+        index.retirerUtilisateurs(List.of(11L));
+
+        assertEquals(List.of(5L), ids(index.rechercher("prises", StatutReclamation.EN_ATTENTE, null, null, 10)));
+        assertEquals(List.of(1L), ids(index.rechercher("fuite", StatutReclamation.RESOLUE, null, null, 10)));
+        assertEquals(List.of(1L), ids(index.rechercher("fuite", null, null, null, 10)));
+        assertEquals(4, index.taille());
+    }
+}
@@ -0,0 +1,183 @@
+package com.dormmanager.search;
+
+import com.dormmanager.entity.Reclamation;
+import com.dormmanager.entity.Reclamation.StatutReclamation;
+import com.dormmanager.repository.ReclamationRepository;
+import com.dormmanager.search.ReclamationTriageQueue.Gravite;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ReclamationTriageQueue Tests")
+class ReclamationTriageQueueTest {
+
+    @Mock
+    private ReclamationRepository reclamationRepository;
+
+    private ReclamationTriageQueue file;
+
+    @BeforeEach
+    void setUp() {
+        file = new ReclamationTriageQueue(reclamationRepository, 4, 24, 72);
+    }
+
+    private static List<Long> ids(List<ReclamationTriageQueue.Entree> entrees) {
+        return entrees.stream().map(ReclamationTriageQueue.Entree::getId).toList();
+    }
+
+    @Test
+    @DisplayName("Should derive severity from keywords, ignoring accents and plurals")
+    void testGravite() {
+        assertEquals(Gravite.CRITIQUE, ReclamationTriageQueue.gravite("Odeur de GAZ et fumée dans la cuisine"));
+        assertEquals(Gravite.HAUTE, ReclamationTriageQueue.gravite("Fuites d'eau sous le lavabo"));
+        assertEquals(Gravite.HAUTE, ReclamationTriageQueue.gravite("Plus d'électricité depuis hier"));
+        assertEquals(Gravite.NORMALE, ReclamationTriageQueue.gravite("Bruit la nuit dans le couloir"));
+        assertEquals(Gravite.NORMALE, ReclamationTriageQueue.gravite(null));
+    }
+
+    @Test
+    @DisplayName("Should order by SLA deadline so that an old minor issue overtakes a fresh urgent one")
+    void testOrdrePriorite() {
+        // Arrange
+        when(reclamationRepository.findOuvertesTriage()).thenReturn(List.of(
+                new Object[] {1L, "Bruit dans le couloir", LocalDate.of(2024, 3, 10), 10L},   // 13/03 00h
+                new Object[] {2L, "Fuite d'eau", LocalDate.of(2024, 3, 10), 11L},             // 11/03 00h
+                new Object[] {3L, "Incendie dans la cuisine", LocalDate.of(2024, 3, 10), 12L}, // 10/03 04h
+                new Object[] {4L, "Ampoule grillée", LocalDate.of(2024, 3, 6), 10L},           // 09/03 00h
+                new Object[] {5L, "Porte qui grince", LocalDate.of(2024, 3, 11), 13L}));       // 12/03 00h
+
+        // Act
+        file.reconstruire();
+
+        // Assert
+        assertEquals(5, file.taille());
+        assertEquals(List.of(4L, 3L, 2L, 5L, 1L), ids(file.apercu(10)));
+        assertEquals(List.of(4L, 3L), ids(file.apercu(2)));
+        assertEquals(Gravite.CRITIQUE, file.apercu(2).get(1).getGravite());
+    }
+
+    @Test
+    @DisplayName("Should add only open reclamations and keep the queue in sync with status changes")
+    void testAjouterRetirer() {
+        // Arrange
+        Reclamation ouverte = new Reclamation();
+        ouverte.setId(1L);
+        ouverte.setMessage("Serrure cassée");
+        Reclamation enCours = new Reclamation();
+        enCours.setId(2L);
+        enCours.setStatus(StatutReclamation.EN_COURS);
+        Reclamation sansStatut = new Reclamation();
+        sansStatut.setId(3L);
+        sansStatut.setStatus(null);
+
+        // Act
+        file.ajouter(ouverte);
+        file.ajouter(enCours);
+        file.ajouter(sansStatut);
+        file.ajouter(ouverte); // doublon : remplace l'entrée existante
+
+        // Assert
+        assertEquals(List.of(1L, 3L), ids(file.apercu(10)));
+        file.retirer(1L);
+        assertEquals(List.of(3L), ids(file.apercu(10)));
+    }
+
+    @Test
+    @DisplayName("Should never hand the same reclamation to two concurrent callers")
+    void testExtractionConcurrente() throws Exception {
+        // Arrange
+        List<Object[]> lignes = new ArrayList<>();
+        for (long id = 1; id <= 10_000; id++) {
+            lignes.add(new Object[] {id, id % 7 == 0 ? "fuite" : "bruit", LocalDate.of(2024, 1, 1).plusDays(id % 90),
+                    id % 100});
+        }
+        when(reclamationRepository.findOuvertesTriage()).thenReturn(lignes);
+        file.reconstruire();
+
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        ConcurrentLinkedQueue<Long> pris = new ConcurrentLinkedQueue<>();
+        CountDownLatch depart = new CountDownLatch(1);
+
+        // Act
+        for (int t = 0; t < 8; t++) {
+            pool.submit(() -> {
+                depart.await();
+                ReclamationTriageQueue.Entree e;
+                while ((e = file.extraire()) != null) {
+                    pris.add(e.getId());
+                }
+                return null;
+            });
+        }
+        depart.countDown();
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(30, TimeUnit.SECONDS));
+
+        // Assert
+        Set<Long> uniques = new HashSet<>(pris);
+        assertEquals(10_000, pris.size());
+        assertEquals(10_000, uniques.size());
+        assertEquals(0, file.taille());
+    }
+
+    @Test
+    @DisplayName("Should put an extracted reclamation back when the transaction rolls back")
+    void testExtractionAnnulee() {
+        // Arrange
+        when(reclamationRepository.findOuvertesTriage()).thenReturn(List.<Object[]>of(
+                new Object[] {1L, "fuite", LocalDate.of(2024, 3, 1), 10L}));
+        file.reconstruire();
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            // Act
+            assertEquals(1L, file.extraire().getId());
+            assertEquals(0, file.taille());
+            for (TransactionSynchronization s : TransactionSynchronizationManager.getSynchronizations()) {
+                s.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+            }
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        // Assert
+        assertEquals(List.of(1L), ids(file.apercu(10)));
+    }
+
+    @Test
+    @DisplayName("Should drop the reclamations of deleted users")
+    void testRetirerUtilisateurs() {
+        // Arrange
+        when(reclamationRepository.findOuvertesTriage()).thenReturn(List.of(
+                new Object[] {1L, "fuite", LocalDate.of(2024, 3, 1), 10L},
+                new Object[] {2L, "bruit", LocalDate.of(2024, 3, 1), 11L},
+                new Object[] {3L, "gaz", LocalDate.of(2024, 3, 1), 10L}));
+        file.reconstruire();
+
+        // Act
+        file.retirerUtilisateurs(List.of(10L));
+
+        // Assert
+        assertEquals(List.of(2L), ids(file.apercu(10)));
+    }
+}
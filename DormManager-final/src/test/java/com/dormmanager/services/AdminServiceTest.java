@@ -1,30 +1,47 @@
 package com.dormmanager.services;
 
+import com.dormmanager.dto.CursorPageDto;
 import com.dormmanager.dto.DashboardStatsDto;
 import com.dormmanager.dto.UpdateUtilisateurDto;
+import com.dormmanager.dto.UtilisateurResumeDto;
 import com.dormmanager.entity.Administrateur;
 import com.dormmanager.entity.Etudiant;
 import com.dormmanager.entity.Utilisateur;
 import com.dormmanager.repository.AffectationRepository;
 import com.dormmanager.repository.ChambreRepository;
 import com.dormmanager.repository.DemandeHebergementRepository;
+import com.dormmanager.repository.EtatDesLieuxRepository;
+import com.dormmanager.repository.IncidentRepository;
 import com.dormmanager.repository.NotificationRepository;
 import com.dormmanager.repository.ReclamationRepository;
+import com.dormmanager.repository.TacheMaintenanceRepository;
 import com.dormmanager.repository.UtilisateurRepository;
+import com.dormmanager.search.EtudiantSearchIndex;
+import com.dormmanager.search.ReclamationSearchIndex;
+import com.dormmanager.search.ReclamationTriageQueue;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -49,9 +66,33 @@ class AdminServiceTest {
     @Mock
     private NotificationRepository notificationRepository;
 
+    @Mock
+    private EtatDesLieuxRepository etatDesLieuxRepository;
+
+    @Mock
+    private IncidentRepository incidentRepository;
+
     @Mock
     private NotificationService notificationService;
 
+    @Mock
+    private EtudiantSearchIndex etudiantSearchIndex;
+
+    @Mock
+    private ReclamationSearchIndex reclamationSearchIndex;
+
+    @Mock
+    private ReclamationTriageQueue reclamationTriageQueue;
+
+    @Mock
+    private IncidentDispatcher incidentDispatcher;
+
+    @Spy
+    private TransactionTemplate transactionTemplate = new TransactionTemplate(mock(PlatformTransactionManager.class));
+
+    @Mock
+    private TacheMaintenanceRepository tacheMaintenanceRepository;
+
     @InjectMocks
     private AdminService adminService;
 
@@ -149,8 +190,10 @@ class AdminServiceTest {
         // Assert
         verify(notificationRepository, times(1)).deleteByDestinataireId(2L);
         verify(reclamationRepository, times(1)).deleteByUtilisateurId(2L);
+        verify(etatDesLieuxRepository, times(1)).deleteByEtudiantIdIn(List.of(2L));
         verify(affectationRepository, times(1)).deleteByEtudiantId(2L);
         verify(demandeHebergementRepository, times(1)).deleteByEtudiantId(2L);
+        verify(etudiantSearchIndex, times(1)).retirer(2L);
         verify(utilisateurRepository, times(1)).deleteById(2L);
     }
 
@@ -171,6 +214,97 @@ class AdminServiceTest {
         verify(utilisateurRepository, times(1)).deleteById(1L);
     }
 
+    @Test
+    @DisplayName("Should bulk delete utilisateurs in chunks without loading entities")
+    void testSupprimerUtilisateurs() {
+        // Arrange
+        List<Long> ids = new ArrayList<>();
+        for (long i = 1; i <= AdminService.TAILLE_PAQUET_SUPPRESSION + 20; i++) {
+            ids.add(i);
+        }
+        ids.add(1L); // doublon ignoré
+        when(utilisateurRepository.deleteByIdIn(anyList()))
+                .thenReturn(AdminService.TAILLE_PAQUET_SUPPRESSION)
+                .thenReturn(19);
+
+        // Act
+        int supprimes = adminService.supprimerUtilisateurs(ids);
+
+        // Assert
+        assertEquals(AdminService.TAILLE_PAQUET_SUPPRESSION + 19, supprimes);
+        verify(etatDesLieuxRepository, times(2)).deleteByEtudiantIdIn(anyList());
+        verify(affectationRepository, times(2)).deleteByEtudiantIdIn(anyList());
+        verify(notificationRepository, times(2)).deleteByDestinataireIdIn(anyList());
+        verify(incidentRepository, times(2)).desassignerAgents(anyList());
+        verify(utilisateurRepository, never()).findById(anyLong());
+        verify(utilisateurRepository, never()).deleteById(anyLong());
+    }
+
+    @Test
+    @DisplayName("Should page the user directory by nom without loading role details")
+    void testAnnuaire() {
+        // Arrange
+        LocalDateTime cree = LocalDateTime.of(2024, 9, 1, 10, 0);
+        when(utilisateurRepository.findAnnuaire(eq(Utilisateur.Role.ETUDIANT),
+                eq(LocalDate.of(2024, 9, 1).atStartOfDay()), isNull(), isNull(), isNull(), any()))
+                .thenReturn(new ArrayList<>(List.of(
+                        new UtilisateurResumeDto(5L, "Alaoui", "Sara", "s@x.ma", Utilisateur.Role.ETUDIANT, cree),
+                        new UtilisateurResumeDto(3L, "Bennani", "Omar", "o@x.ma", Utilisateur.Role.ETUDIANT, cree),
+                        new UtilisateurResumeDto(9L, "Chraibi", "Nadia", "n@x.ma", Utilisateur.Role.ETUDIANT, cree))));
+
+        // Act
+        CursorPageDto<UtilisateurResumeDto> page = adminService.annuaire("etudiant",
+                LocalDate.of(2024, 9, 1), null, null, 2, false);
+
+        // Assert
+        assertEquals(2, page.getSize());
+        assertTrue(page.isHasNext());
+        assertArrayEquals(new String[] {"Bennani", "3"}, CursorPageDto.decodeCursor(page.getNextCursor(), 2));
+        assertNull(page.getContent().get(0).getDetails());
+        verify(utilisateurRepository, never()).findDetailsEtudiants(anyList());
+        verify(utilisateurRepository, never()).findAll();
+    }
+
+    @Test
+    @DisplayName("Should load role details once per role for the current page")
+    void testAnnuaireAvecDetails() {
+        // Arrange
+        String curseur = CursorPageDto.encodeCursor("Alaoui", 5L);
+        when(utilisateurRepository.findAnnuaire(isNull(), isNull(), isNull(), eq("Alaoui"), eq(5L), any()))
+                .thenReturn(new ArrayList<>(List.of(
+                        new UtilisateurResumeDto(3L, "Bennani", "Omar", "o@x.ma", Utilisateur.Role.ETUDIANT, null),
+                        new UtilisateurResumeDto(7L, "Berrada", "Ali", "a@x.ma", Utilisateur.Role.AGENT_TECHNIQUE, null),
+                        new UtilisateurResumeDto(1L, "Chami", "Rim", "r@x.ma", Utilisateur.Role.ADMIN, null))));
+        when(utilisateurRepository.findDetailsEtudiants(List.of(3L)))
+                .thenReturn(List.<Object[]>of(new Object[] {3L, "M42", "Informatique"}));
+        when(utilisateurRepository.findDetailsAgents(List.of(7L)))
+                .thenReturn(List.<Object[]>of(new Object[] {7L, "Plomberie"}));
+
+        // Act
+        CursorPageDto<UtilisateurResumeDto> page = adminService.annuaire(null, null, null, curseur, null, true);
+
+        // Assert
+        assertFalse(page.isHasNext());
+        assertEquals("M42", page.getContent().get(0).getDetails().get("matricule"));
+        assertEquals("Plomberie", page.getContent().get(1).getDetails().get("specialite"));
+        assertNull(page.getContent().get(2).getDetails());
+        verify(utilisateurRepository, never()).findDetailsGestionnaires(anyList());
+    }
+
+    @Test
+    @DisplayName("Should reject an unknown role in the directory filter")
+    void testAnnuaireRoleInvalide() {
+        assertThrows(IllegalArgumentException.class,
+                () -> adminService.annuaire("SUPERVISEUR", null, null, null, null, false));
+    }
+
+    @Test
+    @DisplayName("Should reject an empty bulk deletion")
+    void testSupprimerUtilisateursVide() {
+        assertThrows(IllegalArgumentException.class, () -> adminService.supprimerUtilisateurs(List.of()));
+        verifyNoInteractions(utilisateurRepository);
+    }
+
     @Test
     @DisplayName("Should create utilisateur successfully")
     void testCreateUtilisateur() {
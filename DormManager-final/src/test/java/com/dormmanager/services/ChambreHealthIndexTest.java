@@ -0,0 +1,115 @@
+package com.dormmanager.services;
+
+import com.dormmanager.dto.ChambreSanteDto;
+import com.dormmanager.repository.EtatDesLieuxRepository;
+import com.dormmanager.repository.IncidentRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ChambreHealthIndex Tests")
+class ChambreHealthIndexTest {
+
+    @Mock
+    private IncidentRepository incidentRepository;
+
+    @Mock
+    private EtatDesLieuxRepository etatDesLieuxRepository;
+
+    private ChambreHealthIndex index;
+
+    private final LocalDate aujourdhui = LocalDate.now();
+
+    @BeforeEach
+    void setUp() {
+        index = new ChambreHealthIndex(incidentRepository, etatDesLieuxRepository);
+        when(incidentRepository.compterParChambre(ChambreHealthIndex.STATUTS_NON_RESOLUS))
+                .thenReturn(List.<Object[]>of(new Object[] {1L, 2L}));
+        when(incidentRepository.findSignalementsDepuis(any())).thenReturn(List.of(
+                new Object[] {1L, aujourdhui.minusDays(80)},
+                new Object[] {1L, aujourdhui.minusDays(3)},
+                new Object[] {2L, aujourdhui.minusDays(10)}));
+        when(etatDesLieuxRepository.findDerniersEtatsParChambre()).thenReturn(List.of(
+                new Object[] {2L, "Moyen", aujourdhui.minusDays(20)},
+                new Object[] {3L, "Très dégradé", aujourdhui.minusDays(5)},
+                new Object[] {4L, "Bon", aujourdhui.minusDays(5)}));
+        index.reconstruire();
+    }
+
+    @Test
+    @DisplayName("Should combine open incidents, recent incidents and the latest état des lieux")
+    void testScores() {
+        // Assert
+        ChambreSanteDto sante = index.sante(1L);
+        assertEquals(100 - 2 * 15 - 2 * 5, sante.getScore());
+        assertEquals(2, sante.getIncidentsOuverts());
+        assertEquals(2, sante.getIncidentsRecents());
+        assertEquals(85, index.score(2L));
+        assertEquals(70, index.score(3L));
+        assertEquals(100, index.score(4L));
+        assertEquals(100, index.score(99L)); // chambre sans historique
+        assertTrue(index.aIncidentsOuverts(1L));
+        assertFalse(index.aIncidentsOuverts(2L));
+        assertEquals(30, ChambreHealthIndex.penaliteEtat("MAUVAIS état"));
+        assertEquals(0, ChambreHealthIndex.penaliteEtat("neuf"));
+    }
+
+    @Test
+    @DisplayName("Should list the most fragile rooms first, without rooms at full score")
+    void testPlusFragiles() {
+        // Act
+        List<ChambreSanteDto> fragiles = index.plusFragiles(10);
+
+        // Assert
+        assertEquals(List.of(1L, 3L, 2L), fragiles.stream().map(ChambreSanteDto::getChambreId).toList());
+        assertEquals(List.of(1L), index.plusFragiles(1).stream().map(ChambreSanteDto::getChambreId).toList());
+    }
+
+    @Test
+    @DisplayName("Should update incrementally after commit only, and slide the recent window")
+    void testMisesAJour() {
+        // Act : signalement sur une chambre saine, annulé puis commité
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            index.incidentSignale(4L, aujourdhui);
+            assertEquals(100, index.score(4L)); // pas encore commité
+            for (TransactionSynchronization s : TransactionSynchronizationManager.getSynchronizations()) {
+                s.afterCommit();
+            }
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        // Assert
+        assertEquals(80, index.score(4L));
+        assertTrue(index.aIncidentsOuverts(4L));
+
+        index.incidentsResolus(4L, 1);
+        index.incidentsResolus(1L, 5);
+        index.etatDesLieux(2L, "Bon", aujourdhui);
+        assertEquals(95, index.score(4L));
+        assertEquals(90, index.score(1L)); // plus d'incident ouvert, deux récents
+        assertEquals(95, index.score(2L));
+
+        index.rafraichir(aujourdhui.plusDays(20)); // l'incident d'il y a 80 jours sort de la fenêtre
+        assertEquals(95, index.score(1L));
+        assertEquals(1, index.sante(1L).getIncidentsRecents());
+
+        index.retirerChambre(3L);
+        assertEquals(100, index.score(3L));
+        assertEquals(List.of(1L, 2L, 4L), index.plusFragiles(10).stream().map(ChambreSanteDto::getChambreId).toList());
+    }
+}
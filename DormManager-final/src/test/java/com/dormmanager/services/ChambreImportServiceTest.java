@@ -0,0 +1,127 @@
+package com.dormmanager.services;
+
+import com.dormmanager.dto.ImportResultDto;
+import com.dormmanager.entity.Administrateur;
+import com.dormmanager.entity.Utilisateur;
+import com.dormmanager.repository.ChambreRepository;
+import com.dormmanager.repository.UtilisateurRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ChambreImportService Tests")
+class ChambreImportServiceTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private ChambreRepository chambreRepository;
+
+    @Mock
+    private UtilisateurRepository utilisateurRepository;
+
+    @Mock
+    private NotificationService notificationService;
+
+    private ChambreImportService chambreImportService;
+
+    @BeforeEach
+    void setUp() {
+        chambreImportService = new ChambreImportService(jdbcTemplate, new TransactionTemplate(transactionManager),
+                chambreRepository, utilisateurRepository, notificationService);
+    }
+
+    private static ByteArrayInputStream flux(String contenu) {
+        return new ByteArrayInputStream(contenu.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    @DisplayName("Should insert valid CSV rows in one batch and report invalid ones")
+    @SuppressWarnings("unchecked")
+    void testImporterCsv() throws Exception {
+        // Arrange
+        String csv = "numero,type,capacite,etat\n"
+                + "B101,SIMPLE,1,\n"
+                + "B102,DOUBLE,deux,disponible\n"
+                + "B101,SIMPLE,1,disponible\n"
+                + "B103,DOUBLE,2,MAINTENANCE\n"
+                + "A101,SIMPLE,1,disponible\n";
+        when(chambreRepository.findNumerosExistants(anyList())).thenReturn(List.of("A101"));
+
+        // Act
+        ImportResultDto result = chambreImportService.importer(flux(csv), ImportRowReader.Format.CSV, null);
+
+        // Assert
+        assertEquals(5, result.getLignesLues());
+        assertEquals(2, result.getInserees());
+        assertEquals(3, result.getRejetees());
+        assertEquals(List.of(3L, 4L, 6L), result.getErreurs().stream().map(ImportResultDto.Erreur::getLigne).toList());
+
+        ArgumentCaptor<List<Object[]>> lignes = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate, times(1)).batchUpdate(anyString(), lignes.capture());
+        assertArrayEquals(new Object[] {"B101", "SIMPLE", 1, "disponible"}, lignes.getValue().get(0));
+        assertArrayEquals(new Object[] {"B103", "DOUBLE", 2, "maintenance"}, lignes.getValue().get(1));
+        verify(notificationService, times(1)).notifyAllAdmins(eq("info"), any(), any());
+        verify(notificationService, never()).sendNotification(any(), any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Should import JSON lines and notify gestionnaires once when admin imports")
+    void testImporterJsonLinesParAdmin() throws Exception {
+        // Arrange
+        StringBuilder jsonl = new StringBuilder();
+        for (int i = 0; i < ChambreImportService.TAILLE_LOT + 10; i++) {
+            jsonl.append("{\"numero\":\"C").append(i).append("\",\"capacite\":2}\n");
+        }
+        Administrateur admin = new Administrateur();
+        admin.setRole(Utilisateur.Role.ADMIN);
+        when(utilisateurRepository.findById(1L)).thenReturn(Optional.of(admin));
+        when(chambreRepository.findNumerosExistants(anyList())).thenReturn(List.of());
+
+        // Act
+        ImportResultDto result = chambreImportService.importer(flux(jsonl.toString()),
+                ImportRowReader.Format.JSONL, 1L);
+
+        // Assert
+        assertEquals(ChambreImportService.TAILLE_LOT + 10, result.getInserees());
+        assertEquals(0, result.getRejetees());
+        verify(jdbcTemplate, times(2)).batchUpdate(anyString(), anyList());
+        verify(notificationService, times(1)).notifyAllGestionnaires(eq("info"), any(), any());
+    }
+
+    @Test
+    @DisplayName("Should not notify when nothing was imported")
+    void testImporterRienAImporter() throws Exception {
+        // Act
+        ImportResultDto result = chambreImportService.importer(flux("numero,type\n,SIMPLE\n"),
+                ImportRowReader.Format.CSV, null);
+
+        // Assert
+        assertEquals(1, result.getRejetees());
+        verifyNoInteractions(jdbcTemplate, notificationService);
+    }
+}
@@ -0,0 +1,177 @@
+package com.dormmanager.services;
+
+import com.dormmanager.dto.ImportResultDto;
+import com.dormmanager.entity.Utilisateur;
+import com.dormmanager.repository.EtudiantRepository;
+import com.dormmanager.repository.UtilisateurRepository;
+import com.dormmanager.search.EtudiantSearchIndex;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("EtudiantImportService Tests")
+class EtudiantImportServiceTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private EtudiantRepository etudiantRepository;
+
+    @Mock
+    private UtilisateurRepository utilisateurRepository;
+
+    @Mock
+    private EtudiantSearchIndex etudiantSearchIndex;
+
+    @Mock
+    private EntityManagerFactory entityManagerFactory;
+
+    @Mock
+    private SessionFactory sessionFactory;
+
+    @Mock
+    private Cache cache;
+
+    private EtudiantImportService etudiantImportService;
+
+    @BeforeEach
+    void setUp() {
+        when(entityManagerFactory.unwrap(SessionFactory.class)).thenReturn(sessionFactory);
+        when(sessionFactory.getCache()).thenReturn(cache);
+        etudiantImportService = new EtudiantImportService(jdbcTemplate, new TransactionTemplate(transactionManager),
+                etudiantRepository, utilisateurRepository, etudiantSearchIndex, entityManagerFactory);
+    }
+
+    private static ByteArrayInputStream flux(String contenu) {
+        return new ByteArrayInputStream(contenu.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    @DisplayName("Should update existing matricules, insert new students and reject taken emails")
+    @SuppressWarnings("unchecked")
+    void testImporterUpsert() throws Exception {
+        // Arrange
+        String csv = "matricule;nom;prenom;email;filiere\n"
+                + "M1;Alaoui;Sara;sara@uiz.ac.ma;Informatique\n"
+                + "M2;Bennani;Omar;NOUVEAU@uiz.ac.ma;Génie civil\n"
+                + "M3;Chraibi;Nadia;pris@uiz.ac.ma;Physique\n";
+        when(etudiantRepository.findIdentitesByMatricules(anyList()))
+                .thenReturn(List.<Object[]>of(new Object[] {10L, "M1", "ancien@uiz.ac.ma"}));
+        when(utilisateurRepository.findIdsByEmails(anyList()))
+                .thenReturn(List.<Object[]>of(new Object[] {20L, "pris@uiz.ac.ma"}))
+                .thenReturn(List.<Object[]>of(new Object[] {30L, "nouveau@uiz.ac.ma"}));
+
+        // Act
+        ImportResultDto result = etudiantImportService.importer(flux(csv), ImportRowReader.Format.CSV, "rentree");
+
+        // Assert
+        assertEquals(3, result.getLignesLues());
+        assertEquals(1, result.getInserees());
+        assertEquals(1, result.getMisesAJour());
+        assertEquals(1, result.getRejetees());
+        assertEquals(4L, result.getErreurs().get(0).getLigne());
+        assertNull(etudiantImportService.getProgression("rentree"));
+
+        verify(jdbcTemplate).batchUpdate(startsWith("UPDATE utilisateur"), anyList());
+        verify(jdbcTemplate).batchUpdate(startsWith("UPDATE etudiant"), anyList());
+        verify(jdbcTemplate).batchUpdate(startsWith("INSERT INTO utilisateur"), anyList());
+
+        ArgumentCaptor<List<Object[]>> etudiants = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(startsWith("INSERT INTO etudiant"), etudiants.capture());
+        assertArrayEquals(new Object[] {30L, "M2", "Génie civil"}, etudiants.getValue().get(0));
+        verify(etudiantSearchIndex).indexer(10L, "Alaoui", "Sara", "M1", "sara@uiz.ac.ma", "Informatique");
+        verify(etudiantSearchIndex).indexer(30L, "Bennani", "Omar", "M2", "nouveau@uiz.ac.ma", "Génie civil");
+        // Une requête de pré-chargement des emails par lot, plus la relecture des identifiants générés
+        verify(utilisateurRepository, times(2)).findIdsByEmails(anyList());
+        // Ecritures JDBC : l'utilisateur mis à jour et les listes par rôle quittent le cache
+        verify(cache).evictEntityData(Utilisateur.class, 10L);
+        verify(cache, never()).evictEntityData(Utilisateur.class, 30L);
+        verify(cache).evictQueryRegion(UtilisateurRepository.REGION_PAR_ROLE);
+    }
+
+    @Test
+    @DisplayName("Should reject rows with missing columns or duplicated matricule in the file")
+    void testImporterLignesInvalides() throws Exception {
+        // Arrange
+        String jsonl = "{\"matricule\":\"M1\",\"nom\":\"A\",\"prenom\":\"B\",\"email\":\"a@uiz.ac.ma\"}\n"
+                + "{\"matricule\":\"M1\",\"nom\":\"C\",\"prenom\":\"D\",\"email\":\"c@uiz.ac.ma\"}\n"
+                + "{\"matricule\":\"M2\",\"nom\":\"E\"}\n"
+                + "pas du json\n";
+        when(etudiantRepository.findIdentitesByMatricules(anyList())).thenReturn(List.of());
+        when(utilisateurRepository.findIdsByEmails(anyList()))
+                .thenReturn(List.of())
+                .thenReturn(List.<Object[]>of(new Object[] {1L, "a@uiz.ac.ma"}));
+
+        // Act
+        ImportResultDto result = etudiantImportService.importer(flux(jsonl), ImportRowReader.Format.JSONL);
+
+        // Assert
+        assertEquals(4, result.getLignesLues());
+        assertEquals(1, result.getInserees());
+        assertEquals(3, result.getRejetees());
+        verify(jdbcTemplate, never()).batchUpdate(startsWith("UPDATE"), anyList());
+        verify(jdbcTemplate, times(1)).batchUpdate(eq("INSERT INTO etudiant (id, matricule, filiere) VALUES (?, ?, ?)"),
+                anyList());
+    }
+
+    @Test
+    @DisplayName("Should expose a frozen snapshot of the progress of each running import")
+    void testProgression() throws Exception {
+        // Arrange : progression relevée pendant le traitement du lot de l'import "A"
+        String csv = "matricule,nom,prenom,email\n"
+                + "M1,Alaoui,Sara,sara@uiz.ac.ma\n"
+                + "M1,Bennani,Omar,omar@uiz.ac.ma\n";
+        ImportResultDto[] pendant = new ImportResultDto[2];
+        IllegalStateException[] doublon = new IllegalStateException[1];
+        when(etudiantRepository.findIdentitesByMatricules(anyList())).thenAnswer(invocation -> {
+            pendant[0] = etudiantImportService.getProgression("A");
+            pendant[1] = etudiantImportService.getProgression("B");
+            doublon[0] = assertThrows(IllegalStateException.class,
+                    () -> etudiantImportService.importer(flux(csv), ImportRowReader.Format.CSV, "A"));
+            return List.<Object[]>of(new Object[] {10L, "M1", "sara@uiz.ac.ma"});
+        });
+        when(utilisateurRepository.findIdsByEmails(anyList()))
+                .thenReturn(List.<Object[]>of(new Object[] {10L, "sara@uiz.ac.ma"}));
+
+        // Act
+        ImportResultDto result = etudiantImportService.importer(flux(csv), ImportRowReader.Format.CSV, "A");
+
+        // Assert : l'instantané ne suit pas la fin de l'import
+        ImportResultDto progression = pendant[0];
+        assertNotNull(progression);
+        assertEquals(2, progression.getLignesLues());
+        assertEquals(1, progression.getRejetees());
+        assertEquals(0, progression.getMisesAJour());
+        assertThrows(UnsupportedOperationException.class,
+                () -> progression.getErreurs().add(new ImportResultDto.Erreur(9, "x")));
+        assertNull(pendant[1]);
+        assertNotNull(doublon[0]);
+        assertEquals(1, result.getMisesAJour());
+        assertNull(etudiantImportService.getProgression("A"));
+    }
+}
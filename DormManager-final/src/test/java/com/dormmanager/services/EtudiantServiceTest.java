@@ -1,5 +1,7 @@
 package com.dormmanager.services;
 
+import com.dormmanager.dto.CursorPageDto;
+import com.dormmanager.dto.ReclamationDto;
 import com.dormmanager.entity.Affectation;
 import com.dormmanager.entity.Chambre;
 import com.dormmanager.entity.DemandeHebergement;
@@ -12,6 +14,8 @@ import com.dormmanager.repository.ChambreRepository;
 import com.dormmanager.repository.DemandeHebergementRepository;
 import com.dormmanager.repository.EtudiantRepository;
 import com.dormmanager.repository.ReclamationRepository;
+import com.dormmanager.search.ReclamationSearchIndex;
+import com.dormmanager.search.ReclamationTriageQueue;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -22,11 +26,14 @@ import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.time.LocalDate;
 import java.util.Date;
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -51,6 +58,15 @@ class EtudiantServiceTest {
     @Mock
     private NotificationService notificationService;
 
+    @Mock
+    private ReclamationSearchIndex reclamationSearchIndex;
+
+    @Mock
+    private ReclamationTriageQueue reclamationTriageQueue;
+
+    @Mock
+    private MaintenanceService maintenanceService;
+
     @InjectMocks
     private EtudiantService etudiantService;
 
@@ -180,6 +196,26 @@ class EtudiantServiceTest {
         verify(reclamationRepo, times(1)).findByUtilisateurOrderByDateEnvoiDesc(testStudent);
     }
 
+    @Test
+    @DisplayName("Should page the student's reclamations without a next cursor on the last page")
+    void testGetReclamationsPaginees() {
+        // Arrange
+        Reclamation reclamation = new Reclamation();
+        reclamation.setId(4L);
+        reclamation.setUtilisateur(testStudent);
+        when(reclamationRepo.findPageUtilisateur(eq(testStudent.getId()), isNull(), isNull(), any()))
+                .thenReturn(List.of(reclamation));
+
+        // Act
+        CursorPageDto<ReclamationDto> page = etudiantService.getReclamationsPaginees(testStudent, null, 10);
+
+        // Assert
+        assertEquals(1, page.getSize());
+        assertFalse(page.isHasNext());
+        assertNull(page.getNextCursor());
+        verify(reclamationRepo, never()).findByUtilisateurOrderByDateEnvoiDesc(any());
+    }
+
     @Test
     @DisplayName("Should create reclamation successfully")
     void testCreateReclamation() {
@@ -198,6 +234,8 @@ class EtudiantServiceTest {
         assertNotNull(result);
         assertEquals("Problème avec la chambre", result.getMessage());
         verify(reclamationRepo, times(1)).save(any(Reclamation.class));
+        verify(reclamationSearchIndex, times(1)).indexer(reclamation);
+        verify(reclamationTriageQueue, times(1)).ajouter(reclamation);
         verify(notificationService, times(1)).notifyAllGestionnaires(any(), any(), any());
     }
 
@@ -269,9 +307,10 @@ class EtudiantServiceTest {
 
         // Assert
         assertEquals(LocalDate.now(), testAffectation.getDateFin());
-        assertEquals("disponible", testChambre.getEtat());
+        assertEquals("maintenance", testChambre.getEtat());
         verify(affectationRepo, times(1)).save(any(Affectation.class));
         verify(chambreRepo, times(1)).save(any(Chambre.class));
+        verify(maintenanceService).ouvrirTaches(List.of(1L));
         verify(notificationService, times(1)).sendNotification(any(), any(), any(), any());
     }
 
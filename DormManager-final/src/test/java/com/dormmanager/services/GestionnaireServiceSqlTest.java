@@ -0,0 +1,130 @@
+package com.dormmanager.services;
+
+import com.dormmanager.dto.DemandeHebergementDto;
+import com.dormmanager.dto.StatistiquesSqlDto;
+import com.dormmanager.entity.DemandeHebergement;
+import com.dormmanager.entity.Etudiant;
+import com.dormmanager.entity.StatutDemande;
+import com.dormmanager.entity.Utilisateur;
+import com.dormmanager.metrics.BudgetSql;
+import com.dormmanager.repository.AffectationRepository;
+import com.dormmanager.repository.ChambreRepository;
+import com.dormmanager.repository.DemandeHebergementRepository;
+import com.dormmanager.repository.ReclamationRepository;
+import com.dormmanager.repository.UtilisateurRepository;
+import com.dormmanager.search.ReclamationSearchIndex;
+import com.dormmanager.search.ReclamationTriageQueue;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.opentest4j.AssertionFailedError;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Budgets d'instructions SQL des lectures de GestionnaireService, sur une base H2.
+ */
+@DataJpaTest
+@DisplayName("GestionnaireService SQL budget Tests")
+class GestionnaireServiceSqlTest {
+
+    private static final int ETUDIANTS = 25;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private DemandeHebergementRepository demandeHebergementRepository;
+
+    @Autowired
+    private ReclamationRepository reclamationRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private GestionnaireService gestionnaireService;
+
+    @BeforeEach
+    void setUp() {
+        gestionnaireService = new GestionnaireService(demandeHebergementRepository,
+                mock(ChambreRepository.class), mock(AffectationRepository.class), reclamationRepository,
+                mock(NotificationService.class), mock(UtilisateurRepository.class),
+                mock(ReclamationSearchIndex.class), mock(ReclamationTriageQueue.class),
+                mock(ChambreHealthIndex.class));
+        for (int i = 0; i < ETUDIANTS; i++) {
+            Etudiant etudiant = new Etudiant();
+            etudiant.setNom("Nom" + i);
+            etudiant.setPrenom("Prenom" + i);
+            etudiant.setEmail("etudiant" + i + "@test.ma");
+            etudiant.setMotDePasse("secret");
+            etudiant.setRole(Utilisateur.Role.ETUDIANT);
+            etudiant.setMatricule("M" + i);
+            entityManager.persist(etudiant);
+            entityManager.persist(new DemandeHebergement(new Date(), "Motif " + i, StatutDemande.EN_ATTENTE, etudiant));
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    @DisplayName("Should load pending demandes with their students in a single statement")
+    void testDemandesEnAttente() {
+        // Act
+        List<DemandeHebergementDto> demandes = BudgetSql.auPlus(1, gestionnaireService::getDemandesEnAttente);
+
+        // Assert
+        assertEquals(ETUDIANTS, demandes.size());
+        assertTrue(demandes.stream().allMatch(d -> d.getMatricule() != null));
+    }
+
+    @Test
+    @DisplayName("Should load all demandes in a single statement")
+    void testToutesLesDemandes() {
+        // Act
+        List<DemandeHebergement> demandes = BudgetSql.auPlus(1, gestionnaireService::getAllDemandes);
+
+        // Assert
+        assertEquals(ETUDIANTS, demandes.size());
+    }
+
+    @Test
+    @DisplayName("Should aggregate Hibernate statistics with the slowest queries")
+    void testStatistiques() {
+        // Arrange
+        StatistiquesSqlService statistiquesSqlService = new StatistiquesSqlService(entityManagerFactory);
+        statistiquesSqlService.reinitialiser();
+
+        // Act
+        gestionnaireService.getDemandesEnAttente();
+        StatistiquesSqlDto statistiques = statistiquesSqlService.getStatistiques(5);
+
+        // Assert
+        assertEquals(1, statistiques.getRequetesExecutees());
+        assertEquals(ETUDIANTS * 2, statistiques.getEntitesChargees()); // demande + étudiant
+        assertEquals(0, statistiques.getEntitesRecuperees());
+        assertEquals(1, statistiques.getRequetesLentes().size());
+        assertEquals(ETUDIANTS, statistiques.getRequetesLentes().get(0).getLignes());
+    }
+
+    @Test
+    @DisplayName("Should report an N+1 when the student association is not fetched")
+    void testDetectionNPlusUn() {
+        // Act : sans graphe d'entités, chaque étudiant (association EAGER) est lu à part
+        AssertionFailedError erreur = assertThrows(AssertionFailedError.class, () -> BudgetSql.auPlus(1,
+                () -> entityManager.getEntityManager()
+                        .createQuery("SELECT d FROM DemandeHebergement d", DemandeHebergement.class)
+                        .getResultList()));
+
+        // Assert
+        assertTrue(erreur.getMessage().startsWith((ETUDIANTS + 1) + " instructions SQL"), erreur.getMessage());
+        assertTrue(erreur.getMessage().contains(ETUDIANTS + " fois"), erreur.getMessage());
+    }
+}
@@ -2,17 +2,22 @@ package com.dormmanager.services;
 
 import com.dormmanager.dto.AffectationRequestDto;
 import com.dormmanager.dto.ChambreRequestDto;
+import com.dormmanager.dto.CursorPageDto;
 import com.dormmanager.dto.DashboardStatsDto;
+import com.dormmanager.dto.ReclamationDto;
 import com.dormmanager.entity.Affectation;
 import com.dormmanager.entity.Chambre;
 import com.dormmanager.entity.DemandeHebergement;
 import com.dormmanager.entity.Etudiant;
+import com.dormmanager.entity.Reclamation;
 import com.dormmanager.entity.StatutDemande;
 import com.dormmanager.repository.AffectationRepository;
 import com.dormmanager.repository.ChambreRepository;
 import com.dormmanager.repository.DemandeHebergementRepository;
 import com.dormmanager.repository.ReclamationRepository;
 import com.dormmanager.repository.UtilisateurRepository;
+import com.dormmanager.search.ReclamationSearchIndex;
+import com.dormmanager.search.ReclamationTriageQueue;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -22,10 +27,17 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -50,6 +62,15 @@ class GestionnaireServiceTest {
     @Mock
     private NotificationService notificationService;
 
+    @Mock
+    private ReclamationSearchIndex reclamationSearchIndex;
+
+    @Mock
+    private ReclamationTriageQueue reclamationTriageQueue;
+
+    @Mock
+    private ChambreHealthIndex chambreHealthIndex;
+
     @InjectMocks
     private GestionnaireService gestionnaireService;
 
@@ -112,6 +133,25 @@ class GestionnaireServiceTest {
         verify(chambreRepository, times(1)).findByEtatIgnoreCase("disponible");
     }
 
+    @Test
+    @DisplayName("Should skip rooms with open incidents and offer the healthiest rooms first")
+    void testGetChambresDisponiblesParSante() {
+        // Arrange
+        Chambre fragile = new Chambre();
+        fragile.setId(2L);
+        Chambre enPanne = new Chambre();
+        enPanne.setId(3L);
+        when(chambreRepository.findByEtatIgnoreCase("disponible")).thenReturn(List.of(fragile, enPanne, testChambre));
+        when(chambreHealthIndex.aIncidentsOuverts(anyLong())).thenAnswer(inv -> inv.getArgument(0).equals(3L));
+        when(chambreHealthIndex.score(anyLong())).thenAnswer(inv -> inv.getArgument(0).equals(2L) ? 60 : 100);
+
+        // Act
+        List<Chambre> result = gestionnaireService.getChambresDisponibles();
+
+        // Assert
+        assertEquals(List.of(testChambre, fragile), result);
+    }
+
     @Test
     @DisplayName("Should affecter et valider demande successfully")
     void testAffecterEtValiderDemande() {
@@ -245,4 +285,199 @@ class GestionnaireServiceTest {
         verify(notificationService, times(1)).notifyAllAdmins("info", "Nouvelle affectation enregistrée",
             String.format("Le gestionnaire a attribué la chambre %s à %s.", "101", "John Doe"));
     }
+
+    @Test
+    @DisplayName("Should return first chambres page with next cursor and selected fields only")
+    void testRechercherChambresFirstPage() {
+        // Arrange
+        Chambre second = new Chambre();
+        second.setId(2L);
+        second.setNumero("102");
+        second.setEtat("disponible");
+        when(chambreRepository.findPage(isNull(), eq("disponible"), isNull(), isNull(), isNull(), any()))
+                .thenReturn(List.of(testChambre, second));
+
+        // Act
+        CursorPageDto<Map<String, Object>> page = gestionnaireService.rechercherChambres(
+                null, "DISPONIBLE", null, null, 1, Set.of("id", "numero"));
+
+        // Assert
+        assertEquals(1, page.getSize());
+        assertTrue(page.isHasNext());
+        assertEquals(Set.of("id", "numero"), page.getContent().get(0).keySet());
+        assertArrayEquals(new String[] {"101", "1"}, CursorPageDto.decodeCursor(page.getNextCursor(), 2));
+    }
+
+    @Test
+    @DisplayName("Should resume chambres listing after the cursor position")
+    void testRechercherChambresFromCursor() {
+        // Arrange
+        String curseur = CursorPageDto.encodeCursor("101", 1L);
+        when(chambreRepository.findPage(isNull(), isNull(), eq(2), eq("101"), eq(1L), any()))
+                .thenReturn(List.of());
+
+        // Act
+        CursorPageDto<Map<String, Object>> page = gestionnaireService.rechercherChambres(
+                null, null, 2, curseur, null, null);
+
+        // Assert
+        assertFalse(page.isHasNext());
+        assertNull(page.getNextCursor());
+        assertTrue(page.getContent().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should reject unknown chambre fields")
+    void testRechercherChambresUnknownField() {
+        assertThrows(IllegalArgumentException.class, () -> gestionnaireService.rechercherChambres(
+                null, null, null, null, null, Set.of("motDePasse")));
+    }
+
+    @Test
+    @DisplayName("Should return full-text search results in relevance order with their author")
+    void testRechercherReclamations() {
+        // Arrange
+        Reclamation fuite = new Reclamation();
+        fuite.setId(7L);
+        fuite.setMessage("Fuite d'eau dans la salle de bain");
+        fuite.setUtilisateur(testStudent);
+        Reclamation robinet = new Reclamation();
+        robinet.setId(3L);
+        robinet.setMessage("Le robinet fuit");
+        robinet.setUtilisateur(testStudent);
+        when(reclamationSearchIndex.rechercher("fuite", Reclamation.StatutReclamation.EN_ATTENTE,
+                LocalDate.of(2024, 1, 1), null, 20))
+                .thenReturn(List.of(resultat(7L, 2.5), resultat(3L, 1.1), resultat(99L, 0.4)));
+        when(reclamationRepository.findAvecUtilisateurByIdIn(List.of(7L, 3L, 99L)))
+                .thenReturn(List.of(robinet, fuite));
+
+        // Act
+        List<ReclamationDto> result = gestionnaireService.rechercherReclamations("fuite", "en_attente",
+                LocalDate.of(2024, 1, 1), null, null);
+
+        // Assert
+        assertEquals(List.of(7L, 3L), result.stream().map(ReclamationDto::getId).toList());
+        assertEquals(2.5, result.get(0).getScore());
+        assertEquals(testStudent.getNom(), result.get(0).getNom());
+    }
+
+    @Test
+    @DisplayName("Should reject an empty search or an unknown statut")
+    void testRechercherReclamationsInvalide() {
+        assertThrows(IllegalArgumentException.class,
+                () -> gestionnaireService.rechercherReclamations(" ", null, null, null, null));
+        assertThrows(IllegalArgumentException.class,
+                () -> gestionnaireService.rechercherReclamations("fuite", "FERMEE", null, null, null));
+        verifyNoInteractions(reclamationSearchIndex);
+    }
+
+    @Test
+    @DisplayName("Should take charge of a reclamation, update the index and notify its author")
+    void testPrendreEnChargeReclamation() {
+        // Arrange
+        Reclamation rec = new Reclamation();
+        rec.setId(5L);
+        rec.setUtilisateur(testStudent);
+        when(reclamationRepository.findById(5L)).thenReturn(Optional.of(rec));
+        when(reclamationRepository.save(rec)).thenReturn(rec);
+
+        // Act
+        ReclamationDto result = gestionnaireService.prendreEnChargeReclamation(5L);
+
+        // Assert
+        assertEquals("EN_COURS", result.getStatus());
+        verify(reclamationSearchIndex).changerStatut(5L, Reclamation.StatutReclamation.EN_COURS);
+        verify(reclamationTriageQueue).retirer(5L);
+        verify(notificationService).sendNotification(eq(testStudent), eq("info"), eq("Réclamation en cours"), any());
+    }
+
+    @Test
+    @DisplayName("Should pull the next open reclamation, skipping those already taken elsewhere")
+    void testPrendreReclamationSuivante() {
+        // Arrange
+        LocalDate envoi = LocalDate.of(2024, 3, 1);
+        ReclamationTriageQueue.Entree dejaPrise = new ReclamationTriageQueue.Entree(7L, 1L, envoi,
+                ReclamationTriageQueue.Gravite.CRITIQUE, envoi.atStartOfDay().plusHours(4));
+        ReclamationTriageQueue.Entree suivante = new ReclamationTriageQueue.Entree(8L, 1L, envoi,
+                ReclamationTriageQueue.Gravite.HAUTE, envoi.atStartOfDay().plusHours(24));
+        when(reclamationTriageQueue.extraire()).thenReturn(dejaPrise, suivante);
+        when(reclamationRepository.prendreEnChargeSiEnAttente(7L)).thenReturn(0);
+        when(reclamationRepository.prendreEnChargeSiEnAttente(8L)).thenReturn(1);
+        Reclamation rec = new Reclamation();
+        rec.setId(8L);
+        rec.setStatus(Reclamation.StatutReclamation.EN_COURS);
+        rec.setUtilisateur(testStudent);
+        when(reclamationRepository.findById(8L)).thenReturn(Optional.of(rec));
+
+        // Act
+        ReclamationDto result = gestionnaireService.prendreReclamationSuivante();
+
+        // Assert
+        assertEquals(8L, result.getId());
+        assertEquals("EN_COURS", result.getStatus());
+        verify(reclamationRepository, never()).findById(7L);
+        verify(reclamationSearchIndex).changerStatut(8L, Reclamation.StatutReclamation.EN_COURS);
+        verify(notificationService).sendNotification(eq(testStudent), eq("info"), eq("Réclamation en cours"), any());
+    }
+
+    @Test
+    @DisplayName("Should return null when the triage queue is empty")
+    void testPrendreReclamationSuivanteFileVide() {
+        when(reclamationTriageQueue.extraire()).thenReturn(null);
+
+        assertNull(gestionnaireService.prendreReclamationSuivante());
+        verifyNoInteractions(reclamationRepository, notificationService);
+    }
+
+    @Test
+    @DisplayName("Should page the reclamation queue by (dateEnvoi, id) and count legacy rows as EN_ATTENTE")
+    void testFileReclamations() {
+        // Arrange
+        List<Reclamation> lignes = new java.util.ArrayList<>();
+        for (long id = 30; id > 27; id--) {
+            Reclamation r = new Reclamation();
+            r.setId(id);
+            r.setDateEnvoi(LocalDate.of(2024, 3, 1));
+            r.setUtilisateur(testStudent);
+            lignes.add(r);
+        }
+        when(reclamationRepository.findFileRecentes(eq(Reclamation.StatutReclamation.EN_ATTENTE), eq(true),
+                eq(LocalDate.of(2024, 1, 1)), isNull(), eq(LocalDate.of(2024, 3, 2)), eq(40L), any()))
+                .thenReturn(lignes);
+
+        // Act
+        CursorPageDto<ReclamationDto> page = gestionnaireService.fileReclamations("EN_ATTENTE",
+                LocalDate.of(2024, 1, 1), null, null, CursorPageDto.encodeCursor("2024-03-02", 40L), 2);
+
+        // Assert
+        assertEquals(List.of(30L, 29L), page.getContent().stream().map(ReclamationDto::getId).toList());
+        assertArrayEquals(new String[] {"2024-03-01", "29"}, CursorPageDto.decodeCursor(page.getNextCursor(), 2));
+        verify(reclamationRepository, never()).findFileAnciennes(any(), anyBoolean(), any(), any(), any(), any(),
+                any());
+    }
+
+    @Test
+    @DisplayName("Should read the queue in arrival order and reject invalid parameters")
+    void testFileReclamationsAnciennes() {
+        // Arrange
+        when(reclamationRepository.findFileAnciennes(isNull(), eq(false), isNull(), isNull(), isNull(), isNull(),
+                any())).thenReturn(List.of());
+
+        // Act
+        CursorPageDto<ReclamationDto> page = gestionnaireService.fileReclamations(null, null, null, "anciennes",
+                null, null);
+
+        // Assert
+        assertFalse(page.isHasNext());
+        assertThrows(IllegalArgumentException.class,
+                () -> gestionnaireService.fileReclamations(null, null, null, "hasard", null, null));
+        assertThrows(IllegalArgumentException.class,
+                () -> gestionnaireService.fileReclamations(null, null, null, null, "pas-un-curseur", null));
+        assertThrows(IllegalArgumentException.class, () -> gestionnaireService.fileReclamations(null,
+                LocalDate.of(2024, 3, 1), LocalDate.of(2024, 2, 1), null, null, null));
+    }
+
+    private static ReclamationSearchIndex.Resultat resultat(Long id, double score) {
+        return new ReclamationSearchIndex.Resultat(id, score);
+    }
 }
@@ -0,0 +1,159 @@
+package com.dormmanager.services;
+
+import com.dormmanager.repository.IncidentRepository;
+import com.dormmanager.repository.UtilisateurRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("IncidentDispatcher Tests")
+class IncidentDispatcherTest {
+
+    @Mock
+    private UtilisateurRepository utilisateurRepository;
+
+    @Mock
+    private IncidentRepository incidentRepository;
+
+    private IncidentDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() {
+        dispatcher = new IncidentDispatcher(utilisateurRepository, incidentRepository);
+    }
+
+    private void initialiser(List<Object[]> agents, List<Object[]> charges) {
+        when(utilisateurRepository.findSpecialitesAgents()).thenReturn(agents);
+        when(incidentRepository.compterParAgent(any())).thenReturn(charges);
+        dispatcher.reconstruire();
+    }
+
+    @Test
+    @DisplayName("Should pick the least loaded agent of the speciality, falling back to everyone")
+    void testReserverParSpecialite() {
+        // Arrange
+        initialiser(List.of(
+                        new Object[] {1L, "Plomberie"},
+                        new Object[] {2L, "plomberie"},
+                        new Object[] {3L, "Électricité"},
+                        new Object[] {4L, null}),
+                List.<Object[]>of(new Object[] {1L, 3L}, new Object[] {2L, 1L}, new Object[] {3L, 5L}));
+
+        // Act & Assert
+        assertEquals(2L, dispatcher.reserver("PLOMBERIE"));   // charge 1 contre 3
+        assertEquals(2L, dispatcher.reserver("plomberie"));   // 2 contre 3
+        assertEquals(1L, dispatcher.reserver("plomberie"));   // 3 contre 3 : le premier arrivé à cette charge
+        assertEquals(3L, dispatcher.reserver("electricite")); // seul électricien, malgré sa charge
+        assertEquals(4L, dispatcher.reserver("menuiserie"));  // aucune : tous les agents
+        assertEquals(4L, dispatcher.reserver(null));
+        assertEquals(4, dispatcher.charge(1L));
+        assertEquals(3, dispatcher.charge(2L));
+        assertEquals(2, dispatcher.charge(4L));
+    }
+
+    @Test
+    @DisplayName("Should release load on resolution and skip agents off shift")
+    void testLibererEtService() {
+        // Arrange
+        initialiser(List.of(new Object[] {1L, "plomberie"}, new Object[] {2L, "plomberie"}),
+                List.<Object[]>of(new Object[] {1L, 2L}, new Object[] {2L, 2L}));
+
+        // Act & Assert
+        dispatcher.liberer(2L, 2);
+        assertEquals(0, dispatcher.charge(2L));
+        assertTrue(dispatcher.changerService(2L, false));
+        assertEquals(1L, dispatcher.reserver("plomberie"));
+        assertEquals(1L, dispatcher.reserver("plomberie"));
+
+        assertTrue(dispatcher.changerService(1L, false));
+        assertNull(dispatcher.reserver("plomberie"));
+        assertNull(dispatcher.reserver(null));
+
+        assertTrue(dispatcher.changerService(2L, true));
+        assertEquals(2L, dispatcher.reserver(null));
+        assertFalse(dispatcher.changerService(99L, false));
+    }
+
+    @Test
+    @DisplayName("Should undo a reservation when the transaction rolls back, and release only after commit")
+    void testTransactions() {
+        // Arrange
+        initialiser(List.<Object[]>of(new Object[] {1L, null}), List.of());
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            // Act
+            assertEquals(1L, dispatcher.reserver(null));
+            assertEquals(1, dispatcher.charge(1L));
+            for (TransactionSynchronization s : TransactionSynchronizationManager.getSynchronizations()) {
+                s.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+            }
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        // Assert
+        assertEquals(0, dispatcher.charge(1L));
+
+        dispatcher.reserver(null);
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            dispatcher.liberer(1L, 1);
+            assertEquals(1, dispatcher.charge(1L)); // pas encore commité
+            for (TransactionSynchronization s : TransactionSynchronizationManager.getSynchronizations()) {
+                s.afterCommit();
+            }
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        assertEquals(0, dispatcher.charge(1L));
+    }
+
+    @Test
+    @DisplayName("Should keep loads balanced over many assignments without rescanning agents")
+    void testEquilibrage() {
+        // Arrange
+        List<Object[]> agents = new ArrayList<>();
+        for (long id = 1; id <= 2_000; id++) {
+            agents.add(new Object[] {id, "spec" + (id % 10)});
+        }
+        initialiser(agents, List.of());
+        dispatcher.ajouterAgent(5_000L, "spec3");
+
+        // Act
+        Map<Long, Integer> compte = new HashMap<>();
+        for (int i = 0; i < 200_000; i++) {
+            Long agent = dispatcher.reserver("spec" + (i % 10));
+            compte.merge(agent, 1, Integer::sum);
+            if (i % 3 == 0) {
+                dispatcher.liberer(agent, 1);
+            }
+        }
+
+        // Assert
+        for (long id = 1; id <= 2_000; id++) {
+            int charge = dispatcher.charge(id);
+            assertTrue(charge >= 60 && charge <= 75, "charge " + charge + " pour l'agent " + id);
+        }
+        assertTrue(compte.containsKey(5_000L));
+        // Les charges viennent d'une seule requête groupée, au démarrage
+        verify(incidentRepository, times(1)).compterParAgent(any());
+        verify(utilisateurRepository, times(1)).findSpecialitesAgents();
+        verifyNoMoreInteractions(incidentRepository, utilisateurRepository);
+    }
+}
@@ -0,0 +1,107 @@
+package com.dormmanager.services;
+
+import com.dormmanager.entity.Chambre;
+import com.dormmanager.entity.StatutTache;
+import com.dormmanager.entity.TacheMaintenance;
+import com.dormmanager.entity.TypeTacheMaintenance;
+import com.dormmanager.repository.ChambreRepository;
+import com.dormmanager.repository.TacheMaintenanceRepository;
+import com.dormmanager.repository.UtilisateurRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Clôture concurrente des tâches d'une chambre, sur une base H2. Hors transaction de test :
+ * chaque clôture passe dans sa propre transaction, comme deux requêtes d'agents.
+ */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@DisplayName("MaintenanceService SQL Tests")
+class MaintenanceServiceSqlTest {
+
+    private static final int ESSAIS = 10;
+
+    @Autowired
+    private TacheMaintenanceRepository tacheRepository;
+
+    @Autowired
+    private ChambreRepository chambreRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private MaintenanceService maintenanceService;
+    private TransactionTemplate transaction;
+
+    @BeforeEach
+    void setUp() {
+        maintenanceService = new MaintenanceService(tacheRepository, chambreRepository,
+                mock(UtilisateurRepository.class), mock(NotificationService.class),
+                mock(IncidentDispatcher.class), 20);
+        transaction = new TransactionTemplate(transactionManager);
+    }
+
+    @AfterEach
+    void tearDown() {
+        tacheRepository.deleteAll();
+        chambreRepository.deleteAll();
+    }
+
+    private TacheMaintenance tache(Chambre chambre, TypeTacheMaintenance type) {
+        TacheMaintenance tache = new TacheMaintenance();
+        tache.setChambre(chambre);
+        tache.setType(type);
+        tache.setStatut(StatutTache.PLANIFIEE);
+        return tacheRepository.save(tache);
+    }
+
+    @Test
+    @DisplayName("Should make the room available when its two last tasks are closed concurrently")
+    void testTerminerTachesConcurrentes() throws Exception {
+        for (int essai = 0; essai < ESSAIS; essai++) {
+            // Arrange
+            Chambre chambre = new Chambre();
+            chambre.setNumero("A-10" + essai);
+            chambre.setType("simple");
+            chambre.setEtat("maintenance");
+            chambre = chambreRepository.save(chambre);
+            List<Long> taches = List.of(tache(chambre, TypeTacheMaintenance.INSPECTION).getId(),
+                    tache(chambre, TypeTacheMaintenance.NETTOYAGE).getId());
+
+            // Act : les deux agents closent en même temps
+            CountDownLatch depart = new CountDownLatch(1);
+            List<CompletableFuture<Void>> agents = taches.stream()
+                    .map(id -> CompletableFuture.runAsync(() -> {
+                        try {
+                            depart.await();
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                        transaction.executeWithoutResult(status -> maintenanceService.terminerTache(id, null));
+                    }))
+                    .toList();
+            depart.countDown();
+            CompletableFuture.allOf(agents.toArray(new CompletableFuture[0])).get(30, TimeUnit.SECONDS);
+
+            // Assert
+            assertEquals("disponible", chambreRepository.findById(chambre.getId()).orElseThrow().getEtat(),
+                    "essai " + essai);
+        }
+    }
+}
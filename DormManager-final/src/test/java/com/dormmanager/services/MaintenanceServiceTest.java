@@ -0,0 +1,203 @@
+package com.dormmanager.services;
+
+import com.dormmanager.dto.TacheMaintenanceDto;
+import com.dormmanager.entity.AgentTechnique;
+import com.dormmanager.entity.Chambre;
+import com.dormmanager.entity.StatutTache;
+import com.dormmanager.entity.TacheMaintenance;
+import com.dormmanager.entity.TypeTacheMaintenance;
+import com.dormmanager.entity.Utilisateur;
+import com.dormmanager.repository.ChambreRepository;
+import com.dormmanager.repository.TacheMaintenanceRepository;
+import com.dormmanager.repository.UtilisateurRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("MaintenanceService Tests")
+class MaintenanceServiceTest {
+
+    @Mock
+    private TacheMaintenanceRepository tacheRepository;
+
+    @Mock
+    private ChambreRepository chambreRepository;
+
+    @Mock
+    private UtilisateurRepository utilisateurRepository;
+
+    @Mock
+    private NotificationService notificationService;
+
+    @Mock
+    private IncidentDispatcher incidentDispatcher;
+
+    private MaintenanceService maintenanceService;
+
+    private final LocalDate jour = LocalDate.of(2024, 6, 1);
+
+    @BeforeEach
+    void setUp() {
+        maintenanceService = new MaintenanceService(tacheRepository, chambreRepository, utilisateurRepository,
+                notificationService, incidentDispatcher, 2);
+    }
+
+    private static Chambre chambre(Long id, String numero, String etat) {
+        Chambre c = new Chambre();
+        c.setId(id);
+        c.setNumero(numero);
+        c.setEtat(etat);
+        return c;
+    }
+
+    private static TacheMaintenance tache(Long id, Chambre chambre, TypeTacheMaintenance type) {
+        TacheMaintenance t = new TacheMaintenance();
+        t.setId(id);
+        t.setChambre(chambre);
+        t.setType(type);
+        return t;
+    }
+
+    private static AgentTechnique agent(Long id) {
+        AgentTechnique a = new AgentTechnique();
+        a.setId(id);
+        a.setNom("Agent");
+        a.setPrenom("N" + id);
+        return a;
+    }
+
+    @Test
+    @DisplayName("Should derive the building and floor from the room number")
+    void testSecteur() {
+        assertEquals("A-E2", MaintenanceService.secteur("A-203"));
+        assertEquals("B-E12", MaintenanceService.secteur("b1204"));
+        assertEquals("E1", MaintenanceService.secteur("105"));
+        assertEquals("E0", MaintenanceService.secteur("12"));
+        assertEquals("C-E1", MaintenanceService.secteur("C_0101"));
+        assertEquals(MaintenanceService.SECTEUR_AUTRES, MaintenanceService.secteur("Suite royale"));
+        assertEquals(MaintenanceService.SECTEUR_AUTRES, MaintenanceService.secteur(null));
+    }
+
+    @Test
+    @DisplayName("Should open one task per type in bulk and put the rooms in maintenance")
+    void testOuvrirTaches() {
+        // Arrange
+        List<Long> affectations = List.of(1L, 2L, 3L);
+        when(tacheRepository.creerTaches(eq(affectations), anyString(), any())).thenReturn(3);
+
+        // Act
+        int creees = maintenanceService.ouvrirTaches(affectations);
+
+        // Assert
+        assertEquals(6, creees);
+        verify(tacheRepository).creerTaches(affectations, "INSPECTION", LocalDate.now());
+        verify(tacheRepository).creerTaches(affectations, "NETTOYAGE", LocalDate.now());
+        verify(chambreRepository).mettreEnMaintenance(affectations);
+
+        assertEquals(0, maintenanceService.ouvrirTaches(List.of()));
+        verifyNoMoreInteractions(tacheRepository, chambreRepository);
+    }
+
+    @Test
+    @DisplayName("Should group tasks into routes per sector and give them to the least loaded agents")
+    void testPlanifierTournees() {
+        // Arrange : secteur A-E1 sur trois chambres (deux tournées de deux chambres au plus), B-E2 sur une
+        Chambre a101 = chambre(1L, "A-101", "maintenance");
+        Chambre a102 = chambre(2L, "A-102", "maintenance");
+        Chambre a105 = chambre(3L, "A-105", "maintenance");
+        Chambre b201 = chambre(4L, "B-201", "maintenance");
+        when(tacheRepository.findByStatutAvecChambre(StatutTache.A_FAIRE)).thenReturn(List.of(
+                tache(1L, a101, TypeTacheMaintenance.INSPECTION),
+                tache(2L, a101, TypeTacheMaintenance.NETTOYAGE),
+                tache(3L, a102, TypeTacheMaintenance.INSPECTION),
+                tache(4L, a102, TypeTacheMaintenance.NETTOYAGE),
+                tache(5L, a105, TypeTacheMaintenance.INSPECTION),
+                tache(6L, b201, TypeTacheMaintenance.INSPECTION)));
+        when(utilisateurRepository.findSpecialitesAgents())
+                .thenReturn(List.of(new Object[] {10L, "Plomberie"}, new Object[] {11L, null}));
+        when(incidentDispatcher.charge(anyLong())).thenAnswer(inv -> inv.getArgument(0).equals(10L) ? 0 : 3);
+        when(tacheRepository.planifier(anyCollection(), anyLong(), any(), anyString()))
+                .thenAnswer(inv -> ((Collection<?>) inv.getArgument(0)).size());
+        AgentTechnique agent10 = agent(10L);
+        AgentTechnique agent11 = agent(11L);
+        when(utilisateurRepository.findAllById(any())).thenReturn(List.<Utilisateur>of(agent10, agent11));
+
+        // Act
+        int planifiees = maintenanceService.planifierTournees(jour);
+
+        // Assert : la plus grande tournée au moins chargé, puis 4 contre 3 + 1, puis égalité (plus petit id)
+        assertEquals(6, planifiees);
+        verify(tacheRepository).planifier(List.of(1L, 2L, 3L, 4L), 10L, jour, "2024-06-01/A-E1#1");
+        verify(tacheRepository).planifier(List.of(5L), 11L, jour, "2024-06-01/A-E1#2");
+        verify(tacheRepository).planifier(List.of(6L), 10L, jour, "2024-06-01/B-E2");
+        verify(notificationService).sendNotification(agent10, "info", "Tournée de maintenance",
+                "3 chambre(s) à inspecter et nettoyer le 2024-06-01 : 2024-06-01/A-E1#1, 2024-06-01/B-E2");
+        verify(notificationService).sendNotification(agent11, "info", "Tournée de maintenance",
+                "1 chambre(s) à inspecter et nettoyer le 2024-06-01 : 2024-06-01/A-E1#2");
+    }
+
+    @Test
+    @DisplayName("Should leave tasks to plan when there is no technical agent")
+    void testPlanifierSansAgent() {
+        // Arrange
+        when(tacheRepository.findByStatutAvecChambre(StatutTache.A_FAIRE))
+                .thenReturn(List.of(tache(1L, chambre(1L, "101", "maintenance"), TypeTacheMaintenance.INSPECTION)));
+        when(utilisateurRepository.findSpecialitesAgents()).thenReturn(List.of());
+
+        // Act & Assert
+        assertEquals(0, maintenanceService.planifierTournees(jour));
+        verify(tacheRepository, never()).planifier(any(), any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Should make the room available again when its last task is done")
+    void testTerminerTache() {
+        // Arrange
+        Chambre c = chambre(1L, "A-101", "maintenance");
+        TacheMaintenance inspection = tache(1L, c, TypeTacheMaintenance.INSPECTION);
+        TacheMaintenance nettoyage = tache(2L, c, TypeTacheMaintenance.NETTOYAGE);
+        when(tacheRepository.findById(1L)).thenReturn(Optional.of(inspection));
+        when(tacheRepository.findById(2L)).thenReturn(Optional.of(nettoyage));
+        when(tacheRepository.save(any(TacheMaintenance.class))).thenAnswer(inv -> inv.getArgument(0));
+        when(tacheRepository.findChambreId(anyLong())).thenReturn(Optional.of(1L));
+        when(chambreRepository.findByIdPourMiseAJour(1L)).thenReturn(Optional.of(c));
+        when(tacheRepository.findOuvertesPourMiseAJour(1L)).thenReturn(List.of(nettoyage), List.of());
+
+        // Act
+        TacheMaintenanceDto dto = maintenanceService.terminerTache(1L, " Prise cassée ");
+
+        // Assert : une tâche reste ouverte
+        assertEquals("TERMINEE", dto.getStatut());
+        assertEquals("Prise cassée", dto.getRemarques());
+        assertEquals(LocalDate.now(), dto.getDateCloture());
+        assertEquals("maintenance", c.getEtat());
+        verify(chambreRepository, never()).save(any());
+
+        // Act : dernière tâche
+        maintenanceService.terminerTache(2L, null);
+
+        // Assert
+        assertEquals("disponible", c.getEtat());
+        verify(chambreRepository).save(c);
+        // Chambre verrouillée avant la clôture de la tâche
+        InOrder ordre = inOrder(chambreRepository, tacheRepository);
+        ordre.verify(chambreRepository).findByIdPourMiseAJour(1L);
+        ordre.verify(tacheRepository).save(nettoyage);
+        ordre.verify(tacheRepository).findOuvertesPourMiseAJour(1L);
+        assertThrows(IllegalArgumentException.class, () -> maintenanceService.terminerTache(2L, null));
+    }
+}
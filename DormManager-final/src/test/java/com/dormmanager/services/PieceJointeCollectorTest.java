@@ -0,0 +1,119 @@
+package com.dormmanager.services;
+
+import com.dormmanager.repository.PieceJointeRepository;
+import com.dormmanager.storage.BlobStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("PieceJointeCollector Tests")
+class PieceJointeCollectorTest {
+
+    @TempDir
+    Path repertoire;
+
+    @Mock
+    private PieceJointeRepository pieceJointeRepository;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private BlobStore store;
+    private PieceJointeCollector collector;
+
+    @BeforeEach
+    void setUp() {
+        store = new BlobStore(repertoire.toString());
+        collector = new PieceJointeCollector(pieceJointeRepository, store, transactionTemplate, 60);
+    }
+
+    private String ancien(String contenu) throws Exception {
+        String hash = store.ecrire(new ByteArrayInputStream(contenu.getBytes(StandardCharsets.UTF_8)), 1024).hash();
+        Files.setLastModifiedTime(store.chemin(hash), FileTime.from(Instant.now().minus(Duration.ofDays(1))));
+        return hash;
+    }
+
+    @Test
+    @DisplayName("Should delete unreferenced attachments, but keep those referenced again meanwhile")
+    void testSupprimerOrphelines() throws Exception {
+        // Arrange
+        String orpheline = ancien("a");
+        String reprise = ancien("b");
+        when(transactionTemplate.execute(any())).thenAnswer(inv -> ((TransactionCallback<?>) inv.getArgument(0))
+                .doInTransaction(null));
+        when(pieceJointeRepository.findOrphelines(any(), any())).thenReturn(List.of(orpheline, reprise), List.of());
+        when(pieceJointeRepository.findHashesExistants(List.of(orpheline, reprise))).thenReturn(List.of(reprise));
+
+        // Act
+        int supprimees = collector.supprimerOrphelines(Instant.now().minus(Duration.ofHours(1)));
+
+        // Assert
+        assertEquals(1, supprimees);
+        assertFalse(store.existe(orpheline));
+        assertTrue(store.existe(reprise));
+        verify(pieceJointeRepository).deleteOrphelines(List.of(orpheline, reprise));
+    }
+
+    @Test
+    @DisplayName("Should delete old blobs that have no row, and spare recent uploads")
+    void testSupprimerBlobsSansLigne() throws Exception {
+        // Arrange
+        String avecLigne = ancien("a");
+        String sansLigne = ancien("b");
+        String recent = store.ecrire(new ByteArrayInputStream("c".getBytes(StandardCharsets.UTF_8)), 1024).hash();
+        when(pieceJointeRepository.findHashesExistants(anyList())).thenReturn(List.of(avecLigne));
+
+        // Act
+        int supprimes = collector.supprimerBlobsSansLigne(Instant.now().minus(Duration.ofHours(1)));
+
+        // Assert
+        assertEquals(1, supprimes);
+        assertTrue(store.existe(avecLigne));
+        assertFalse(store.existe(sansLigne));
+        assertTrue(store.existe(recent));
+    }
+
+    @Test
+    @DisplayName("Should generate a bounded-size JPEG thumbnail as a blob variant")
+    void testMiniature() throws Exception {
+        // Arrange
+        BufferedImage image = new BufferedImage(1024, 512, BufferedImage.TYPE_INT_RGB);
+        ByteArrayOutputStream png = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", png);
+        String hash = store.ecrire(new ByteArrayInputStream(png.toByteArray()), 1024 * 1024).hash();
+        MiniatureGenerator generator = new MiniatureGenerator(store, 1, 4);
+
+        // Act
+        generator.generer(hash);
+
+        // Assert
+        BufferedImage miniature = ImageIO.read(store.cheminVariante(hash, MiniatureGenerator.VARIANTE).toFile());
+        assertEquals(MiniatureGenerator.COTE_MAX, miniature.getWidth());
+        assertEquals(MiniatureGenerator.COTE_MAX / 2, miniature.getHeight());
+        generator.arreter();
+    }
+}
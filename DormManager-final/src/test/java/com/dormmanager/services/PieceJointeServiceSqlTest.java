@@ -0,0 +1,165 @@
+package com.dormmanager.services;
+
+import com.dormmanager.entity.Affectation;
+import com.dormmanager.entity.Chambre;
+import com.dormmanager.entity.EtatDesLieux;
+import com.dormmanager.entity.Etudiant;
+import com.dormmanager.entity.Utilisateur;
+import com.dormmanager.repository.AffectationRepository;
+import com.dormmanager.repository.ChambreRepository;
+import com.dormmanager.repository.EtatDesLieuxRepository;
+import com.dormmanager.repository.PieceJointeRepository;
+import com.dormmanager.repository.UtilisateurRepository;
+import com.dormmanager.storage.BlobStore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Envois simultanés d'une même photo, sur une base H2. Hors transaction de test : chaque
+ * envoi lie sa photo dans sa propre transaction, comme deux requêtes HTTP.
+ */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@DisplayName("PieceJointeService SQL Tests")
+class PieceJointeServiceSqlTest {
+
+    private static final int ESSAIS = 10;
+
+    @TempDir
+    Path repertoire;
+
+    @Autowired
+    private PieceJointeRepository pieceJointeRepository;
+
+    @Autowired
+    private EtatDesLieuxRepository etatDesLieuxRepository;
+
+    @Autowired
+    private AffectationRepository affectationRepository;
+
+    @Autowired
+    private ChambreRepository chambreRepository;
+
+    @Autowired
+    private UtilisateurRepository utilisateurRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private PieceJointeService pieceJointeService;
+    private CyclicBarrier ensemble;
+    private final AtomicInteger liaisons = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        // Les deux premières liaisons d'un essai démarrent ensemble : aucune ne voit la ligne de l'autre
+        ensemble = new CyclicBarrier(2);
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager) {
+            @Override
+            public <T> T execute(TransactionCallback<T> action) {
+                return super.execute(status -> {
+                    if (liaisons.incrementAndGet() <= 2) {
+                        try {
+                            ensemble.await(10, TimeUnit.SECONDS);
+                        } catch (Exception e) {
+                            throw new IllegalStateException(e);
+                        }
+                    }
+                    return action.doInTransaction(status);
+                });
+            }
+        };
+        pieceJointeService = new PieceJointeService(pieceJointeRepository, etatDesLieuxRepository,
+                new BlobStore(repertoire.toString()), mock(MiniatureGenerator.class), transaction, 1024);
+    }
+
+    @AfterEach
+    void tearDown() {
+        etatDesLieuxRepository.deleteAll();
+        pieceJointeRepository.deleteAll();
+        affectationRepository.deleteAll();
+        chambreRepository.deleteAll();
+        utilisateurRepository.deleteAll();
+    }
+
+    private EtatDesLieux etatDesLieux(Affectation affectation) {
+        EtatDesLieux etatDesLieux = new EtatDesLieux();
+        etatDesLieux.setEtat("entree");
+        etatDesLieux.setAffectation(affectation);
+        return etatDesLieuxRepository.save(etatDesLieux);
+    }
+
+    private Affectation affectation() {
+        Etudiant etudiant = new Etudiant();
+        etudiant.setNom("Benani");
+        etudiant.setPrenom("Sara");
+        etudiant.setEmail("benani@dorm.ma");
+        etudiant.setMotDePasse("secret");
+        etudiant.setRole(Utilisateur.Role.ETUDIANT);
+        etudiant.setMatricule("M1");
+        Chambre chambre = new Chambre();
+        chambre.setNumero("B-201");
+        chambre.setType("double");
+        chambre.setEtat("occupee");
+        Affectation affectation = new Affectation();
+        affectation.setEtudiant(utilisateurRepository.save(etudiant));
+        affectation.setChambre(chambreRepository.save(chambre));
+        affectation.setDateDebut(LocalDate.now());
+        return affectationRepository.save(affectation);
+    }
+
+    @Test
+    @DisplayName("Should reference the photo twice when the same content is uploaded concurrently for the first time")
+    void testPremiersEnvoisConcurrents() throws Exception {
+        // Arrange
+        Affectation affectation = affectation();
+        Long entree = etatDesLieux(affectation).getId();
+        Long sortie = etatDesLieux(affectation).getId();
+
+        for (int essai = 0; essai < ESSAIS; essai++) {
+            liaisons.set(0);
+            byte[] contenu = ("photo " + essai).getBytes(StandardCharsets.UTF_8);
+
+            // Act : la même photo jointe aux deux états des lieux en même temps
+            List<CompletableFuture<Void>> envois = List.of(entree, sortie).stream()
+                    .map(id -> CompletableFuture.runAsync(() -> {
+                        try {
+                            pieceJointeService.ajouterPhoto(id, new ByteArrayInputStream(contenu), "image/png");
+                        } catch (Exception e) {
+                            throw new IllegalStateException(e);
+                        }
+                    }))
+                    .toList();
+            CompletableFuture.allOf(envois.toArray(new CompletableFuture[0])).get(30, TimeUnit.SECONDS);
+
+            // Assert : une seule ligne, référencée par les deux états des lieux
+            assertEquals(essai + 1, pieceJointeRepository.count(), "essai " + essai);
+            assertTrue(pieceJointeRepository.findAll().stream().allMatch(p -> p.getNombreReferences() == 2),
+                    "essai " + essai);
+            assertEquals(essai + 1, pieceJointeService.getEtatDesLieux(sortie).getPhotos().size(), "essai " + essai);
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package com.dormmanager.services;
+
+import com.dormmanager.entity.AgentTechnique;
+import com.dormmanager.entity.Chambre;
+import com.dormmanager.entity.Incident;
+import com.dormmanager.entity.StatutIncident;
+import com.dormmanager.entity.Utilisateur;
+import com.dormmanager.repository.AffectationRepository;
+import com.dormmanager.repository.ChambreRepository;
+import com.dormmanager.repository.EtatDesLieuxRepository;
+import com.dormmanager.repository.IncidentRepository;
+import com.dormmanager.repository.UtilisateurRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Résolutions concurrentes des mêmes incidents, sur une base H2. Hors transaction de test :
+ * chaque résolution passe dans sa propre transaction, comme deux requêtes de gestionnaires.
+ */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@DisplayName("TechniqueService SQL Tests")
+class TechniqueServiceSqlTest {
+
+    private static final int ESSAIS = 10;
+
+    @Autowired
+    private IncidentRepository incidentRepository;
+
+    @Autowired
+    private ChambreRepository chambreRepository;
+
+    @Autowired
+    private UtilisateurRepository utilisateurRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TechniqueService techniqueService;
+    private TransactionTemplate transaction;
+    private final AtomicInteger liberes = new AtomicInteger();
+    private final AtomicInteger resolus = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        IncidentDispatcher incidentDispatcher = mock(IncidentDispatcher.class);
+        doAnswer(invocation -> liberes.addAndGet(invocation.getArgument(1)))
+                .when(incidentDispatcher).liberer(any(), anyInt());
+        ChambreHealthIndex chambreHealthIndex = mock(ChambreHealthIndex.class);
+        doAnswer(invocation -> resolus.addAndGet(invocation.getArgument(1)))
+                .when(chambreHealthIndex).incidentsResolus(any(), anyInt());
+        techniqueService = new TechniqueService(incidentRepository, chambreRepository, utilisateurRepository,
+                mock(NotificationService.class), incidentDispatcher, mock(AffectationRepository.class),
+                mock(EtatDesLieuxRepository.class), chambreHealthIndex);
+        transaction = new TransactionTemplate(transactionManager);
+    }
+
+    @AfterEach
+    void tearDown() {
+        incidentRepository.deleteAll();
+        chambreRepository.deleteAll();
+        utilisateurRepository.deleteAll();
+    }
+
+    /**
+     * Lance les deux résolutions en même temps, chacune dans sa transaction ; renvoie le
+     * nombre total d'incidents modifiés.
+     */
+    private int enParallele(Supplier<Integer> premiere, Supplier<Integer> seconde) throws Exception {
+        CountDownLatch depart = new CountDownLatch(1);
+        AtomicInteger modifies = new AtomicInteger();
+        List<CompletableFuture<Void>> gestionnaires = List.of(premiere, seconde).stream()
+                .map(resolution -> CompletableFuture.runAsync(() -> {
+                    try {
+                        depart.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    try {
+                        modifies.addAndGet(transaction.execute(status -> resolution.get()));
+                    } catch (IllegalArgumentException e) {
+                        // Transition refusée : l'autre résolution est passée avant
+                    }
+                }))
+                .toList();
+        depart.countDown();
+        CompletableFuture.allOf(gestionnaires.toArray(new CompletableFuture[0])).get(30, TimeUnit.SECONDS);
+        return modifies.get();
+    }
+
+    private Incident incident(Chambre chambre, AgentTechnique agent, StatutIncident statut) {
+        Incident incident = new Incident();
+        incident.setDescription("Fuite");
+        incident.setChambre(chambre);
+        incident.setAgentAssigne(agent);
+        incident.setStatut(statut);
+        return incidentRepository.save(incident);
+    }
+
+    private Chambre chambre() {
+        Chambre chambre = new Chambre();
+        chambre.setNumero("B-201");
+        chambre.setType("double");
+        chambre.setEtat("occupee");
+        return chambreRepository.save(chambre);
+    }
+
+    private AgentTechnique agent() {
+        AgentTechnique agent = new AgentTechnique();
+        agent.setNom("Idrissi");
+        agent.setPrenom("Karim");
+        agent.setMotDePasse("secret");
+        agent.setEmail("idrissi@dorm.ma");
+        agent.setRole(Utilisateur.Role.AGENT_TECHNIQUE);
+        return utilisateurRepository.save(agent);
+    }
+
+    @Test
+    @DisplayName("Should release agents and rooms once when the same incidents are resolved concurrently")
+    void testChangerStatutIncidentsConcurrents() throws Exception {
+        // Arrange
+        Chambre chambre = chambre();
+        AgentTechnique agent = agent();
+
+        for (int essai = 0; essai < ESSAIS; essai++) {
+            liberes.set(0);
+            resolus.set(0);
+            List<Long> ids = new ArrayList<>();
+            ids.add(incident(chambre, null, StatutIncident.OUVERT).getId());
+            ids.add(incident(chambre, agent, StatutIncident.ASSIGNE).getId());
+            ids.add(incident(chambre, agent, StatutIncident.EN_COURS).getId());
+            ids.add(incident(chambre, agent, StatutIncident.RESOLU).getId());
+
+            // Act : deux gestionnaires résolvent la même sélection en même temps
+            int modifies = enParallele(() -> techniqueService.changerStatutIncidents(ids, "RESOLU"),
+                    () -> techniqueService.changerStatutIncidents(ids, "RESOLU"));
+
+            // Assert : chaque incident n'est résolu, et décompté, qu'une fois
+            assertEquals(3, modifies, "essai " + essai);
+            assertEquals(2, liberes.get(), "essai " + essai);
+            assertEquals(3, resolus.get(), "essai " + essai);
+            assertTrue(incidentRepository.findAllById(ids).stream()
+                    .allMatch(i -> i.getStatut() == StatutIncident.RESOLU), "essai " + essai);
+        }
+    }
+
+    @Test
+    @DisplayName("Should release the agent and room once when a single resolve races a bulk resolve")
+    void testResoudreIncidentConcurrent() throws Exception {
+        // Arrange
+        Chambre chambre = chambre();
+        AgentTechnique agent = agent();
+
+        for (int essai = 0; essai < ESSAIS; essai++) {
+            liberes.set(0);
+            resolus.set(0);
+            Long id = incident(chambre, agent, StatutIncident.EN_COURS).getId();
+
+            // Act : l'agent clôt son incident pendant une résolution groupée qui le contient
+            int modifies = enParallele(() -> {
+                techniqueService.resoudreIncident(id);
+                return 1;
+            }, () -> techniqueService.changerStatutIncidents(List.of(id), "RESOLU"));
+
+            // Assert
+            assertEquals(1, modifies, "essai " + essai);
+            assertEquals(1, liberes.get(), "essai " + essai);
+            assertEquals(1, resolus.get(), "essai " + essai);
+        }
+    }
+}
@@ -0,0 +1,309 @@
+package com.dormmanager.services;
+
+import com.dormmanager.dto.CursorPageDto;
+import com.dormmanager.dto.EtatDesLieuxDto;
+import com.dormmanager.dto.IncidentDto;
+import com.dormmanager.entity.Affectation;
+import com.dormmanager.entity.AgentTechnique;
+import com.dormmanager.entity.Chambre;
+import com.dormmanager.entity.EtatDesLieux;
+import com.dormmanager.entity.Etudiant;
+import com.dormmanager.entity.Incident;
+import com.dormmanager.entity.StatutIncident;
+import com.dormmanager.repository.AffectationRepository;
+import com.dormmanager.repository.ChambreRepository;
+import com.dormmanager.repository.EtatDesLieuxRepository;
+import com.dormmanager.repository.IncidentRepository;
+import com.dormmanager.repository.UtilisateurRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("TechniqueService Tests")
+class TechniqueServiceTest {
+
+    @Mock
+    private IncidentRepository incidentRepository;
+
+    @Mock
+    private ChambreRepository chambreRepository;
+
+    @Mock
+    private UtilisateurRepository utilisateurRepository;
+
+    @Mock
+    private NotificationService notificationService;
+
+    @Mock
+    private IncidentDispatcher incidentDispatcher;
+
+    @Mock
+    private AffectationRepository affectationRepository;
+
+    @Mock
+    private EtatDesLieuxRepository etatDesLieuxRepository;
+
+    @Mock
+    private ChambreHealthIndex chambreHealthIndex;
+
+    @InjectMocks
+    private TechniqueService techniqueService;
+
+    private Chambre testChambre;
+    private AgentTechnique testAgent;
+    private Incident testIncident;
+
+    @BeforeEach
+    void setUp() {
+        testChambre = new Chambre();
+        testChambre.setId(1L);
+        testChambre.setNumero("101");
+
+        testAgent = new AgentTechnique();
+        testAgent.setId(7L);
+        testAgent.setNom("Agent");
+        testAgent.setPrenom("Test");
+
+        testIncident = new Incident();
+        testIncident.setId(3L);
+        testIncident.setChambre(testChambre);
+        testIncident.setDescription("Fuite sous le lavabo");
+    }
+
+    @Test
+    @DisplayName("Should report an incident and dispatch it to the least loaded agent")
+    void testSignalerIncident() {
+        // Arrange
+        when(chambreRepository.findById(1L)).thenReturn(Optional.of(testChambre));
+        when(incidentRepository.save(any(Incident.class))).thenAnswer(inv -> inv.getArgument(0));
+        when(incidentDispatcher.reserver("Electricité")).thenReturn(7L);
+        when(utilisateurRepository.findById(7L)).thenReturn(Optional.of(testAgent));
+
+        // Act
+        IncidentDto result = techniqueService.signalerIncident(1L, "  Prise arrachée ", " Electricité");
+
+        // Assert
+        assertEquals("ASSIGNE", result.getStatut());
+        assertEquals("Prise arrachée", result.getDescription());
+        assertEquals("101", result.getChambreNumero());
+        assertEquals(7L, result.getAgentId());
+        verify(notificationService).notifyAllGestionnaires(eq("warning"), eq("Nouvel incident"), any());
+        verify(notificationService).sendNotification(eq(testAgent), eq("info"), eq("Incident assigné"), any());
+        verify(chambreHealthIndex).incidentSignale(1L, LocalDate.now());
+        assertThrows(IllegalArgumentException.class, () -> techniqueService.signalerIncident(1L, " ", null));
+    }
+
+    @Test
+    @DisplayName("Should leave the incident open when no agent is on shift")
+    void testSignalerIncidentSansAgent() {
+        // Arrange
+        when(chambreRepository.findById(1L)).thenReturn(Optional.of(testChambre));
+        when(incidentRepository.save(any(Incident.class))).thenAnswer(inv -> inv.getArgument(0));
+        when(incidentDispatcher.reserver(null)).thenReturn(null);
+
+        // Act
+        IncidentDto result = techniqueService.signalerIncident(1L, "Fuite", "");
+
+        // Assert
+        assertEquals("OUVERT", result.getStatut());
+        assertNull(result.getAgentId());
+        verify(notificationService, never()).sendNotification(any(), any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Should assign an incident to a technical agent only")
+    void testAssignerIncident() {
+        // Arrange
+        when(incidentRepository.findByIdPourMiseAJour(3L)).thenReturn(Optional.of(testIncident));
+        when(utilisateurRepository.findById(7L)).thenReturn(Optional.of(testAgent));
+        Etudiant etudiant = new Etudiant();
+        etudiant.setId(8L);
+        when(utilisateurRepository.findById(8L)).thenReturn(Optional.of(etudiant));
+        when(incidentRepository.save(testIncident)).thenReturn(testIncident);
+
+        // Act
+        IncidentDto result = techniqueService.assignerIncident(3L, 7L);
+
+        // Assert
+        assertEquals("ASSIGNE", result.getStatut());
+        assertEquals(7L, result.getAgentId());
+        verify(incidentDispatcher).reserverPour(7L);
+        verify(notificationService).sendNotification(eq(testAgent), eq("info"), eq("Incident assigné"), any());
+        assertThrows(IllegalArgumentException.class, () -> techniqueService.assignerIncident(3L, 8L));
+    }
+
+    @Test
+    @DisplayName("Should follow the lifecycle and reject invalid transitions")
+    void testCycleDeVie() {
+        // Arrange
+        testIncident.setAgentAssigne(testAgent);
+        when(incidentRepository.findByIdPourMiseAJour(3L)).thenReturn(Optional.of(testIncident));
+        when(incidentRepository.save(testIncident)).thenReturn(testIncident);
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> techniqueService.demarrerIncident(3L));
+
+        testIncident.setStatut(StatutIncident.ASSIGNE);
+        assertEquals("EN_COURS", techniqueService.demarrerIncident(3L).getStatut());
+
+        IncidentDto resolu = techniqueService.resoudreIncident(3L);
+        assertEquals("RESOLU", resolu.getStatut());
+        assertEquals(LocalDate.now(), resolu.getDateResolution());
+        verify(incidentDispatcher).liberer(7L, 1);
+        verify(chambreHealthIndex).incidentsResolus(1L, 1);
+        verify(notificationService).notifyAllGestionnaires(eq("success"), eq("Incident résolu"), any());
+
+        assertThrows(IllegalArgumentException.class, () -> techniqueService.resoudreIncident(3L));
+        assertThrows(IllegalArgumentException.class, () -> techniqueService.assignerIncident(3L, 7L));
+    }
+
+    @Test
+    @DisplayName("Should apply bulk transitions in bounded chunks with a single UPDATE each")
+    void testChangerStatutIncidents() {
+        // Arrange
+        List<Long> ids = new ArrayList<>();
+        for (long id = 1; id <= 1200; id++) {
+            ids.add(id);
+        }
+        ids.add(5L); // doublon ignoré
+        // Paquet 1 : 40 incidents de l'agent 7 en cours et 12 incidents ouverts non assignés
+        // (chambre 1) ; paquet 2 : 3 incidents ASSIGNE de l'agent 8 (chambre 2) ; paquet 3 : aucun
+        List<Object[]> paquet1 = new ArrayList<>();
+        for (long id = 1; id <= 40; id++) {
+            paquet1.add(new Object[] {id, 7L, 1L, StatutIncident.EN_COURS});
+        }
+        for (long id = 41; id <= 52; id++) {
+            paquet1.add(new Object[] {id, null, 1L, StatutIncident.OUVERT});
+        }
+        List<Object[]> paquet2 = new ArrayList<>();
+        for (long id = 501; id <= 503; id++) {
+            paquet2.add(new Object[] {id, 8L, 2L, StatutIncident.ASSIGNE});
+        }
+        when(incidentRepository.findPourTransition(anyList(), eq(StatutIncident.RESOLU.precedents())))
+                .thenReturn(paquet1, paquet2, List.of());
+        when(incidentRepository.changerStatut(anyList(), eq(StatutIncident.RESOLU.precedents()),
+                eq(StatutIncident.RESOLU), eq(LocalDate.now()))).thenReturn(52, 3);
+
+        // Act
+        int modifies = techniqueService.changerStatutIncidents(ids, "resolu");
+
+        // Assert : seuls les incidents verrouillés sont mis à jour et décomptés
+        assertEquals(55, modifies);
+        verify(incidentRepository, times(3)).findPourTransition(anyList(), any());
+        verify(incidentRepository, times(2)).changerStatut(anyList(), any(), any(), any());
+        verify(incidentRepository).changerStatut(eq(List.of(501L, 502L, 503L)), any(), any(), any());
+        verify(incidentDispatcher).liberer(7L, 40);
+        verify(incidentDispatcher).liberer(8L, 3);
+        verify(chambreHealthIndex).incidentsResolus(1L, 52);
+        verify(chambreHealthIndex).incidentsResolus(2L, 3);
+        verify(notificationService).notifyAllGestionnaires("success", "Incidents résolus",
+                "55 incidents ont été résolus");
+        assertThrows(IllegalArgumentException.class, () -> techniqueService.changerStatutIncidents(ids, "ASSIGNE"));
+        assertThrows(IllegalArgumentException.class, () -> techniqueService.changerStatutIncidents(ids, "FERME"));
+        assertEquals(0, techniqueService.changerStatutIncidents(List.of(), "EN_COURS"));
+        assertEquals(0, techniqueService.changerStatutIncidents(List.of(2000L), "RESOLU"));
+        verify(notificationService, times(1)).notifyAllGestionnaires(eq("success"), eq("Incidents résolus"), any());
+    }
+
+    @Test
+    @DisplayName("Should page an agent's work list by (dateSignalement, id)")
+    void testGetIncidentsAgent() {
+        // Arrange
+        List<Incident> lignes = new ArrayList<>();
+        for (long id = 10; id < 13; id++) {
+            Incident i = new Incident();
+            i.setId(id);
+            i.setChambre(testChambre);
+            i.setStatut(StatutIncident.ASSIGNE);
+            i.setDateSignalement(LocalDate.of(2024, 3, 1));
+            lignes.add(i);
+        }
+        when(incidentRepository.findPageAgent(eq(7L), eq(EnumSet.of(StatutIncident.ASSIGNE, StatutIncident.EN_COURS)),
+                isNull(), isNull(), any())).thenReturn(lignes);
+
+        // Act
+        CursorPageDto<IncidentDto> page = techniqueService.getIncidentsAgent(7L, null, null, 2);
+
+        // Assert
+        assertEquals(List.of(10L, 11L), page.getContent().stream().map(IncidentDto::getId).toList());
+        assertArrayEquals(new String[] {"2024-03-01", "11"}, CursorPageDto.decodeCursor(page.getNextCursor(), 2));
+        assertThrows(IllegalArgumentException.class,
+                () -> techniqueService.getIncidentsAgent(7L, null, "pas-un-curseur", 2));
+    }
+
+    @Test
+    @DisplayName("Should redistribute unstarted incidents when an agent goes off shift")
+    void testMettreHorsService() {
+        // Arrange
+        AgentTechnique autre = new AgentTechnique();
+        autre.setId(9L);
+        Incident second = new Incident();
+        second.setId(4L);
+        second.setChambre(testChambre);
+        second.setSpecialite("plomberie");
+        testIncident.setStatut(StatutIncident.ASSIGNE);
+        testIncident.setAgentAssigne(testAgent);
+        second.setStatut(StatutIncident.ASSIGNE);
+        second.setAgentAssigne(testAgent);
+        when(incidentDispatcher.changerService(7L, false)).thenReturn(true);
+        when(incidentRepository.findByAgentAssigneIdAndStatut(7L, StatutIncident.ASSIGNE))
+                .thenReturn(List.of(testIncident, second));
+        when(incidentDispatcher.reserver(null)).thenReturn(9L);
+        when(incidentDispatcher.reserver("plomberie")).thenReturn(null);
+        when(utilisateurRepository.findById(9L)).thenReturn(Optional.of(autre));
+
+        // Act
+        int reassignes = techniqueService.mettreHorsService(7L);
+
+        // Assert
+        assertEquals(1, reassignes);
+        assertEquals(autre, testIncident.getAgentAssigne());
+        assertEquals(StatutIncident.OUVERT, second.getStatut());
+        assertNull(second.getAgentAssigne());
+        verify(incidentDispatcher, times(2)).liberer(7L, 1);
+        verify(notificationService).sendNotification(eq(autre), eq("info"), eq("Incident assigné"), any());
+        when(incidentDispatcher.changerService(99L, false)).thenReturn(false);
+        assertThrows(RuntimeException.class, () -> techniqueService.mettreHorsService(99L));
+    }
+
+    @Test
+    @DisplayName("Should record an état des lieux on the room's latest affectation and update its health")
+    void testFaireEtatDesLieux() {
+        // Arrange
+        Affectation affectation = new Affectation();
+        affectation.setId(5L);
+        affectation.setChambre(testChambre);
+        when(affectationRepository.findTopByChambreIdOrderByDateDebutDescIdDesc(1L)).thenReturn(affectation);
+        when(etatDesLieuxRepository.save(any(EtatDesLieux.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        // Act
+        EtatDesLieuxDto result = techniqueService.faireEtatDesLieux(1L, " Dégradé ", "  ");
+
+        // Assert
+        assertEquals("Dégradé", result.getEtat());
+        assertNull(result.getRemarques());
+        assertEquals(1L, result.getChambreId());
+        assertEquals(5L, result.getAffectationId());
+        verify(chambreHealthIndex).etatDesLieux(1L, "Dégradé", LocalDate.now());
+        assertThrows(IllegalArgumentException.class, () -> techniqueService.faireEtatDesLieux(2L, "bon", null));
+        assertThrows(IllegalArgumentException.class, () -> techniqueService.faireEtatDesLieux(1L, "", null));
+    }
+}
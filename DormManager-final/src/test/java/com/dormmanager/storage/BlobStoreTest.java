@@ -0,0 +1,118 @@
+package com.dormmanager.storage;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("BlobStore Tests")
+class BlobStoreTest {
+
+    private static final String HASH_ABC = "ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad";
+
+    @TempDir
+    Path repertoire;
+
+    private BlobStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = new BlobStore(repertoire.toString());
+    }
+
+    @Test
+    @DisplayName("Should name content by SHA-256, shard it by directory and store identical content once")
+    void testEcrire() throws Exception {
+        // Act
+        BlobStore.Blob premier = store.ecrire(flux("abc"), 1024);
+        BlobStore.Blob second = store.ecrire(flux("abc"), 1024);
+
+        // Assert
+        assertEquals(HASH_ABC, premier.hash());
+        assertEquals(3, premier.taille());
+        assertTrue(premier.nouveau());
+        assertFalse(second.nouveau());
+        assertEquals(repertoire.resolve("ba").resolve("78").resolve(HASH_ABC), store.chemin(HASH_ABC));
+        assertEquals("abc", Files.readString(store.chemin(HASH_ABC)));
+        assertEquals(0, Files.list(store.temporaires()).count());
+        assertThrows(IllegalArgumentException.class, () -> store.chemin("../etc/passwd"));
+        assertThrows(IllegalArgumentException.class, () -> store.cheminVariante(HASH_ABC, "../x"));
+    }
+
+    @Test
+    @DisplayName("Should stream large content and abort above the size limit without leftovers")
+    void testTailleMax() throws Exception {
+        // Arrange : 3 Mo générés à la volée, jamais présents entiers en mémoire
+        InputStream gros = new InputStream() {
+            private long restant = 3L * 1024 * 1024;
+
+            @Override
+            public int read() {
+                return restant-- > 0 ? 'x' : -1;
+            }
+        };
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> store.ecrire(gros, 1024 * 1024));
+        assertThrows(IllegalArgumentException.class, () -> store.ecrire(flux(""), 1024));
+        assertEquals(0, Files.list(store.temporaires()).count());
+    }
+
+    @Test
+    @DisplayName("Should transfer byte ranges and delete a blob with its variants unless recently touched")
+    void testTransfererEtSupprimer() throws Exception {
+        // Arrange
+        String hash = store.ecrire(flux("0123456789"), 1024).hash();
+        store.ecrireVariante(hash, "miniature.jpg", sortie -> sortie.write(1));
+        ByteArrayOutputStream sortie = new ByteArrayOutputStream();
+
+        // Act & Assert
+        assertEquals(4, BlobStore.transferer(store.chemin(hash), 3, 4, Channels.newChannel(sortie)));
+        assertEquals("3456", sortie.toString(StandardCharsets.UTF_8));
+
+        assertFalse(store.supprimer(hash, Instant.now().minus(Duration.ofHours(1)))); // trop récent
+        Files.setLastModifiedTime(store.chemin(hash), FileTime.from(Instant.now().minus(Duration.ofDays(1))));
+        assertTrue(store.supprimer(hash, Instant.now().minus(Duration.ofHours(1))));
+        assertFalse(store.existe(hash));
+        assertFalse(Files.exists(store.cheminVariante(hash, "miniature.jpg")));
+    }
+
+    @Test
+    @DisplayName("Should walk old blobs only and migrate a flat layout into shards")
+    void testParcourirEtMigrer() throws Exception {
+        // Arrange : un blob rangé à plat par une version précédente
+        Files.writeString(repertoire.resolve(HASH_ABC), "abc");
+        Files.setLastModifiedTime(repertoire.resolve(HASH_ABC), FileTime.from(Instant.now().minus(Duration.ofDays(2))));
+        store = new BlobStore(repertoire.toString());
+        String recent = store.ecrire(flux("recent"), 1024).hash();
+
+        // Act
+        List<String> vus = new ArrayList<>();
+        store.parcourir(Instant.now().minus(Duration.ofDays(1)), vus::add);
+
+        // Assert
+        assertEquals(List.of(HASH_ABC), vus);
+        assertTrue(store.existe(HASH_ABC));
+        assertTrue(store.existe(recent));
+        assertFalse(Files.exists(repertoire.resolve(HASH_ABC)));
+    }
+
+    private static InputStream flux(String contenu) {
+        return new ByteArrayInputStream(contenu.getBytes(StandardCharsets.UTF_8));
+    }
+}